@@ -10,6 +10,7 @@ val api = sourceSets.create("api")
 val lib = sourceSets.create("lib")
 val backend = sourceSets.create("backend")
 val main = sourceSets.getByName("main")
+val jmh = sourceSets.create("jmh")
 
 transitiveSourceSets {
     compileClasspath = main.compileClasspath
@@ -31,6 +32,9 @@ transitiveSourceSets {
     sourceSet(sourceSets.getByName("test")) {
         implementation(api, lib, backend)
     }
+    sourceSet(jmh) {
+        implementation(api, lib, backend, main)
+    }
 }
 
 defaultPackageInfos {
@@ -73,8 +77,38 @@ dependencies {
     modCompileOnly("net.fabricmc:fabric-loader:${property("fabric_loader_version")}")
 
     testImplementation("org.junit.jupiter:junit-jupiter:5.8.1")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Benchmarks see the same classpath as the main source set, minus a GL context.
+configurations.named(jmh.compileClasspathConfigurationName) {
+    extendsFrom(configurations.getByName(main.compileClasspathConfigurationName))
+}
+configurations.named(jmh.runtimeClasspathConfigurationName) {
+    extendsFrom(configurations.getByName(main.runtimeClasspathConfigurationName))
 }
 
 tasks.test {
     useJUnitPlatform()
 }
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks. Pass -Pjmh.includes=<regex> to filter."
+
+    classpath = jmh.runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+    args("-rf", "json", "-rff", results.get().asFile.absolutePath)
+
+    if (project.hasProperty("jmh.includes")) {
+        args(project.property("jmh.includes") as String)
+    }
+}
@@ -61,6 +61,36 @@ public interface Engine {
 	 */
 	Vec3i renderOrigin();
 
+	/**
+	 * Check whether a visual created against an older render origin can be kept after
+	 * {@link #updateRenderOrigin} moved it, rather than being recreated.
+	 * <br>
+	 * Visuals only ever see the origin of the {@link VisualizationContext} they were created with,
+	 * so engines that can't draw instances relative to more than one origin return {@code false}
+	 * for everything but the current one.
+	 *
+	 * @param origin The render origin the visual was created against.
+	 * @param x      The x coordinate of the visualized object in the level.
+	 * @param y      The y coordinate of the visualized object in the level.
+	 * @param z      The z coordinate of the visualized object in the level.
+	 * @return {@code true} if the visual can keep rendering relative to {@code origin}.
+	 */
+	default boolean canKeepVisual(Vec3i origin, double x, double y, double z) {
+		return origin.equals(renderOrigin());
+	}
+
+	/**
+	 * Pick up resources that were just reloaded, such as shader programs, without dropping any instancers.
+	 * <br>
+	 * Called on the render thread after a resource reload that didn't change the backend.
+	 *
+	 * @return {@code true} if this engine can keep being used, {@code false} if it must be
+	 * deleted and recreated along with every visual.
+	 */
+	default boolean reloadResources() {
+		return false;
+	}
+
 	/**
 	 * Free all resources associated with this engine.
 	 * <br>
@@ -7,4 +7,18 @@ public interface InstanceHandle {
 	void setChanged();
 
 	void setDeleted();
+
+	/**
+	 * Get the address of the instance's data, for instances of types that {@link InstanceType#offHeap() store it off heap}.
+	 * <br>
+	 * The data is laid out as described by the instance type's {@link InstanceType#layout() layout}.
+	 * The address may change between frames, so it must be fetched again for every access rather than cached.
+	 * Writing through it doesn't mark the instance as changed.
+	 *
+	 * @return The address of the instance's data. Deleted instances point at scratch memory that is never read.
+	 * @throws UnsupportedOperationException If the instance's data isn't stored off heap.
+	 */
+	default long ptr() {
+		throw new UnsupportedOperationException();
+	}
 }
@@ -23,6 +23,19 @@ public interface InstanceType<I extends Instance> {
 
 	InstanceWriter<I> writer();
 
+	/**
+	 * Check whether instances of this type keep their data in memory owned by their instancer.
+	 * <br>
+	 * Such instances are lightweight views that read and write their fields through {@link InstanceHandle#ptr()},
+	 * and the backend can upload them by copying memory instead of calling the {@link #writer() writer}.
+	 * The instancer allocates memory for an instance before calling {@link #create}, which must initialize it.
+	 *
+	 * @return {@code true} if instances of this type are stored off heap.
+	 */
+	default boolean offHeap() {
+		return false;
+	}
+
 	ResourceLocation vertexShader();
 
 	ResourceLocation cullShader();
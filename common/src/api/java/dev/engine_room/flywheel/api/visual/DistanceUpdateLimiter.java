@@ -14,4 +14,18 @@ public interface DistanceUpdateLimiter {
 	 * @return {@code true} if the object should be updated, {@code false} otherwise.
 	 */
 	boolean shouldUpdate(double distanceSquared);
+
+	/**
+	 * Check to see if an object at the given position relative to the camera should be updated.
+	 * <br>
+	 * The phase lets the limiter spread objects at similar distances over different frames
+	 * instead of updating all of them on the same frame. Objects with the same phase are updated together.
+	 *
+	 * @param distanceSquared The distance squared from the camera to the object.
+	 * @param phase           Any value that stays the same for the object across frames.
+	 * @return {@code true} if the object should be updated, {@code false} otherwise.
+	 */
+	default boolean shouldUpdate(double distanceSquared, int phase) {
+		return shouldUpdate(distanceSquared);
+	}
 }
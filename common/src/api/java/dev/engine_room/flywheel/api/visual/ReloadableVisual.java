@@ -0,0 +1,20 @@
+package dev.engine_room.flywheel.api.visual;
+
+/**
+ * A visual that can swap its models in place after a resource reload.
+ *
+ * <p>When a resource reload changes models that visuals may be using, visuals that don't implement this
+ * interface are deleted and created again. Visuals that do are kept along with their instances and only
+ * asked to fetch their models again.</p>
+ */
+public interface ReloadableVisual extends Visual {
+	/**
+	 * Fetch models again and move instances onto instancers for the new ones,
+	 * for example with {@link dev.engine_room.flywheel.api.instance.Instancer#stealInstance}.
+	 *
+	 * <p>This method is called on the render thread, before the first frame after the reload.</p>
+	 *
+	 * @param partialTick The current partial tick.
+	 */
+	void reloadModels(float partialTick);
+}
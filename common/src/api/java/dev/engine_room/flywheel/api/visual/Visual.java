@@ -6,6 +6,7 @@ package dev.engine_room.flywheel.api.visual;
  * @see DynamicVisual
  * @see TickableVisual
  * @see LitVisual
+ * @see ReloadableVisual
  */
 public interface Visual {
 	/**
@@ -16,6 +16,9 @@ public interface VisualizationContext {
 
 	/**
 	 * All models render as if this position is (0, 0, 0).
+	 * <br>
+	 * This never changes for a given context. Visuals may outlive a move of the render origin,
+	 * in which case they keep rendering relative to the origin of the context they were created with.
 	 *
 	 * @return The origin of the renderer as a level position.
 	 */
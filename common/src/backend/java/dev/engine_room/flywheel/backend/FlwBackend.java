@@ -1,18 +1,32 @@
 package dev.engine_room.flywheel.backend;
 
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.engine_room.flywheel.api.Flywheel;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
 
 public final class FlwBackend {
 	public static final Logger LOGGER = LoggerFactory.getLogger(Flywheel.ID + "/backend");
 
+	private static Supplier<TaskExecutor> taskExecutor;
+
 	private FlwBackend() {
 	}
 
-	public static void init() {
+	public static void init(Supplier<TaskExecutor> taskExecutor) {
+		FlwBackend.taskExecutor = taskExecutor;
+
 		ShaderIndices.init();
 		Backends.init();
 	}
+
+	/**
+	 * @return The task executor to use for backend work that isn't tied to a frame, like compiling shaders.
+	 */
+	public static TaskExecutor taskExecutor() {
+		return taskExecutor.get();
+	}
 }
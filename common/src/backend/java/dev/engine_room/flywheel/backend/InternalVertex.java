@@ -9,9 +9,17 @@ import dev.engine_room.flywheel.api.layout.LayoutBuilder;
 import dev.engine_room.flywheel.api.vertex.VertexView;
 import dev.engine_room.flywheel.backend.gl.array.VertexAttribute;
 import dev.engine_room.flywheel.lib.vertex.FullVertexView;
+import dev.engine_room.flywheel.lib.vertex.QuantizedVertexView;
 import net.minecraft.resources.ResourceLocation;
 
 public final class InternalVertex {
+	/**
+	 * Store pooled meshes in the 16 byte {@link #QUANTIZED_LAYOUT} instead of the 36 byte {@link #LAYOUT}.
+	 * <br>
+	 * Quantized meshes have no overlay or light of their own, so those come from the instance alone.
+	 */
+	public static final boolean QUANTIZED = System.getProperty("flw.quantizeVertices") != null;
+
 	public static final Layout LAYOUT = LayoutBuilder.create()
 			.vector("position", FloatRepr.FLOAT, 3)
 			.vector("color", FloatRepr.NORMALIZED_UNSIGNED_BYTE, 4)
@@ -26,10 +34,33 @@ public final class InternalVertex {
 
 	public static final ResourceLocation LAYOUT_SHADER = Flywheel.rl("internal/vertex_input.vert");
 
+	/**
+	 * The layout written by {@link QuantizedVertexView}.
+	 */
+	public static final Layout QUANTIZED_LAYOUT = LayoutBuilder.create()
+			.vector("position", FloatRepr.NORMALIZED_UNSIGNED_SHORT, 3)
+			.vector("normal", FloatRepr.NORMALIZED_BYTE, 2)
+			.vector("color", FloatRepr.NORMALIZED_UNSIGNED_BYTE, 4)
+			.vector("tex", FloatRepr.NORMALIZED_UNSIGNED_SHORT, 2)
+			.build();
+
+	public static final List<VertexAttribute> QUANTIZED_ATTRIBUTES = LayoutAttributes.attributes(QUANTIZED_LAYOUT);
+	public static final int QUANTIZED_STRIDE = QUANTIZED_LAYOUT.byteSize();
+
+	public static final ResourceLocation QUANTIZED_LAYOUT_SHADER = Flywheel.rl("internal/vertex_input_quantized.vert");
+
 	private InternalVertex() {
 	}
 
 	public static VertexView createVertexView() {
 		return new FullVertexView();
 	}
+
+	public static QuantizedVertexView createQuantizedVertexView() {
+		return new QuantizedVertexView();
+	}
+
+	public static ResourceLocation layoutShader() {
+		return QUANTIZED ? QUANTIZED_LAYOUT_SHADER : LAYOUT_SHADER;
+	}
 }
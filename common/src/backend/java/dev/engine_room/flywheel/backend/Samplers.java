@@ -9,4 +9,5 @@ public class Samplers {
 	public static final GlTextureUnit CRUMBLING = GlTextureUnit.T3;
 	public static final GlTextureUnit INSTANCE_BUFFER = GlTextureUnit.T4;
 	public static final GlTextureUnit EMBEDDED_LIGHT = GlTextureUnit.T5;
+	public static final GlTextureUnit EMBEDDED_LIGHT_PAGE_TABLE = GlTextureUnit.T6;
 }
@@ -7,13 +7,26 @@ import org.jetbrains.annotations.Nullable;
 
 import dev.engine_room.flywheel.backend.Samplers;
 import dev.engine_room.flywheel.backend.compile.core.Compilation;
+import dev.engine_room.flywheel.backend.engine.embed.TopLevelEmbeddedEnvironment;
+import dev.engine_room.flywheel.backend.engine.indirect.IndirectDrawManager;
 import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
 
 public enum ContextShader {
 	DEFAULT(null, $ -> {
 	}),
 	CRUMBLING("_FLW_CRUMBLING", program -> program.setSamplerBinding("_flw_crumblingTex", Samplers.CRUMBLING)),
-	EMBEDDED("_FLW_EMBEDDED", program -> program.setSamplerBinding("_flw_lightVolume", Samplers.EMBEDDED_LIGHT));
+	EMBEDDED("_FLW_EMBEDDED", program -> {
+		program.setSamplerBinding("_flw_lightVolume", Samplers.EMBEDDED_LIGHT);
+
+		if (TopLevelEmbeddedEnvironment.SPARSE_LIGHT_VOLUMES) {
+			program.setSamplerBinding("_flw_lightPageTable", Samplers.EMBEDDED_LIGHT_PAGE_TABLE);
+		}
+	}),
+	/**
+	 * Embedded environments batched by the indirect backend, which reads transforms and light from storage buffers.
+	 */
+	EMBEDDED_BATCHED("_FLW_EMBEDDED_BATCHED", $ -> {
+	});
 
 	@Nullable
 	private final String define;
@@ -32,6 +45,22 @@ public enum ContextShader {
 		if (define != null) {
 			comp.define(define);
 		}
+
+		if (this == EMBEDDED && TopLevelEmbeddedEnvironment.SPARSE_LIGHT_VOLUMES) {
+			comp.define("_FLW_SPARSE_LIGHT_VOLUME");
+		}
+	}
+
+	/**
+	 * @param indirect Whether the programs are compiled for the indirect backend.
+	 * @return {@code true} if pipeline programs should be compiled with this context shader.
+	 */
+	public boolean isEnabled(boolean indirect) {
+		if (this == EMBEDDED_BATCHED) {
+			return indirect && IndirectDrawManager.BATCH_EMBEDDINGS;
+		}
+
+		return true;
 	}
 
 	public String nameLowerCase() {
@@ -1,6 +1,7 @@
 package dev.engine_room.flywheel.backend.compile;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -10,14 +11,18 @@ import com.google.common.collect.ImmutableList;
 
 import dev.engine_room.flywheel.api.Flywheel;
 import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.backend.FlwBackend;
 import dev.engine_room.flywheel.backend.ShaderIndices;
 import dev.engine_room.flywheel.backend.compile.component.UberShaderComponent;
 import dev.engine_room.flywheel.backend.compile.core.CompilerStats;
+import dev.engine_room.flywheel.backend.compile.core.ProgramBinaryCache;
 import dev.engine_room.flywheel.backend.compile.core.SourceLoader;
+import dev.engine_room.flywheel.backend.gl.GlCompat;
 import dev.engine_room.flywheel.backend.glsl.ShaderSources;
 import dev.engine_room.flywheel.backend.glsl.SourceComponent;
 import dev.engine_room.flywheel.backend.glsl.generate.FnSignature;
 import dev.engine_room.flywheel.backend.glsl.generate.GlslExpr;
+import net.minecraft.client.Minecraft;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
 
@@ -27,9 +32,31 @@ public final class FlwPrograms {
 	private static final ResourceLocation COMPONENTS_HEADER_VERT = Flywheel.rl("internal/components_header.vert");
 	private static final ResourceLocation COMPONENTS_HEADER_FRAG = Flywheel.rl("internal/components_header.frag");
 
+	@Nullable
+	private static ProgramBinaryCache programBinaryCache;
+	private static boolean programBinaryCacheInitialized;
+
 	private FlwPrograms() {
 	}
 
+	/**
+	 * @return The cache for linked programs, or {@code null} if it is disabled or the driver can't save programs.
+	 */
+	@Nullable
+	public static ProgramBinaryCache programBinaryCache() {
+		if (!programBinaryCacheInitialized) {
+			programBinaryCacheInitialized = true;
+
+			if (GlCompat.SUPPORTS_PROGRAM_BINARY && !ProgramBinaryCache.DISABLED) {
+				programBinaryCache = new ProgramBinaryCache(Minecraft.getInstance().gameDirectory.toPath()
+						.resolve("flywheel_cache")
+						.resolve("programs"));
+			}
+		}
+
+		return programBinaryCache;
+	}
+
 	static void reload(ResourceManager resourceManager) {
 		// Reset the programs in case the ubershader load fails.
 		InstancingPrograms.setInstance(null);
@@ -42,10 +69,19 @@ public final class FlwPrograms {
 		var vertexComponentsHeader = loader.find(COMPONENTS_HEADER_VERT);
 		var fragmentComponentsHeader = loader.find(COMPONENTS_HEADER_FRAG);
 
-		var vertexMaterialComponent = createVertexMaterialComponent(loader);
-		var fragmentMaterialComponent = createFragmentMaterialComponent(loader);
-		var fogComponent = createFogComponent(loader);
-		var cutoutComponent = createCutoutComponent(loader);
+		// Each of these loads and parses every registered material shader, so build them in parallel.
+		var executor = FlwBackend.taskExecutor();
+		var vertexMaterialFuture = CompletableFuture.supplyAsync(() -> createVertexMaterialComponent(loader), executor);
+		var fragmentMaterialFuture = CompletableFuture.supplyAsync(() -> createFragmentMaterialComponent(loader), executor);
+		var fogFuture = CompletableFuture.supplyAsync(() -> createFogComponent(loader), executor);
+		var cutoutFuture = CompletableFuture.supplyAsync(() -> createCutoutComponent(loader), executor);
+		var allComponents = CompletableFuture.allOf(vertexMaterialFuture, fragmentMaterialFuture, fogFuture, cutoutFuture);
+		executor.syncUntil(allComponents::isDone);
+
+		var vertexMaterialComponent = vertexMaterialFuture.join();
+		var fragmentMaterialComponent = fragmentMaterialFuture.join();
+		var fogComponent = fogFuture.join();
+		var cutoutComponent = cutoutFuture.join();
 
 		if (stats.errored() || vertexComponentsHeader == null || fragmentComponentsHeader == null || vertexMaterialComponent == null || fragmentMaterialComponent == null || fogComponent == null || cutoutComponent == null) {
 			// Probably means the shader sources are missing.
@@ -56,14 +92,17 @@ public final class FlwPrograms {
 		List<SourceComponent> vertexComponents = List.of(vertexComponentsHeader, vertexMaterialComponent);
 		List<SourceComponent> fragmentComponents = List.of(fragmentComponentsHeader, fragmentMaterialComponent, fogComponent, cutoutComponent);
 
-		var pipelineKeys = createPipelineKeys();
-		InstancingPrograms.reload(sources, pipelineKeys, vertexComponents, fragmentComponents);
-		IndirectPrograms.reload(sources, pipelineKeys, vertexComponents, fragmentComponents);
+		InstancingPrograms.reload(sources, createPipelineKeys(false), vertexComponents, fragmentComponents);
+		IndirectPrograms.reload(sources, createPipelineKeys(true), vertexComponents, fragmentComponents);
 	}
 
-	private static ImmutableList<PipelineProgramKey> createPipelineKeys() {
+	private static ImmutableList<PipelineProgramKey> createPipelineKeys(boolean indirect) {
 		ImmutableList.Builder<PipelineProgramKey> builder = ImmutableList.builder();
 		for (ContextShader contextShader : ContextShader.values()) {
+			if (!contextShader.isEnabled(indirect)) {
+				continue;
+			}
+
 			for (InstanceType<?> instanceType : InstanceType.REGISTRY) {
 				builder.add(new PipelineProgramKey(instanceType, contextShader));
 			}
@@ -9,10 +9,12 @@ import com.google.common.collect.ImmutableList;
 
 import dev.engine_room.flywheel.api.Flywheel;
 import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.backend.InternalVertex;
 import dev.engine_room.flywheel.backend.compile.component.InstanceStructComponent;
 import dev.engine_room.flywheel.backend.compile.component.SsboInstanceComponent;
 import dev.engine_room.flywheel.backend.compile.core.CompilationHarness;
 import dev.engine_room.flywheel.backend.compile.core.Compile;
+import dev.engine_room.flywheel.backend.engine.indirect.IndirectDrawManager;
 import dev.engine_room.flywheel.backend.engine.uniform.Uniforms;
 import dev.engine_room.flywheel.backend.gl.GlCompat;
 import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
@@ -118,6 +120,11 @@ public class IndirectPrograms extends AtomicReferenceCounted {
 						.nameMapper(instanceType -> "culling/" + ResourceUtil.toDebugFileNameNoExtension(instanceType.cullShader()))
 						.requireExtensions(COMPUTE_EXTENSIONS)
 						.define("_FLW_SUBGROUP_SIZE", GlCompat.SUBGROUP_SIZE)
+						.onCompile(($, ctx) -> {
+							if (IndirectDrawManager.BATCH_EMBEDDINGS) {
+								ctx.define("_FLW_EMBEDDED_BATCHED");
+							}
+						})
 						.withResource(CULL_SHADER_API_IMPL)
 						.withComponent(InstanceStructComponent::new)
 						.withResource(InstanceType::cullShader)
@@ -136,6 +143,12 @@ public class IndirectPrograms extends AtomicReferenceCounted {
 						.nameMapper(resourceLocation -> "utilities/" + ResourceUtil.toDebugFileNameNoExtension(resourceLocation))
 						.requireExtensions(COMPUTE_EXTENSIONS)
 						.define("_FLW_SUBGROUP_SIZE", GlCompat.SUBGROUP_SIZE)
+						.onCompile(($, ctx) -> {
+							// The apply shader reads draw commands, whose size depends on the vertex format.
+							if (InternalVertex.QUANTIZED) {
+								ctx.define("_FLW_QUANTIZED_VERTICES");
+							}
+						})
 						.withResource(s -> s))
 				.harness("utilities", sources);
 	}
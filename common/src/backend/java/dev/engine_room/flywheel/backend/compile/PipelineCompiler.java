@@ -38,12 +38,17 @@ public final class PipelineCompiler {
 						.requireExtensions(extensions)
 						.onCompile((key, comp) -> key.contextShader()
 								.onCompile(comp))
+						.onCompile((key, comp) -> {
+							if (InternalVertex.QUANTIZED) {
+								comp.define("_FLW_QUANTIZED_VERTICES");
+							}
+						})
 						.withResource(API_IMPL_VERT)
 						.withComponent(key -> new InstanceStructComponent(key.instanceType()))
 						.withResource(key -> key.instanceType()
 								.vertexShader())
 						.withComponents(vertexComponents)
-						.withResource(InternalVertex.LAYOUT_SHADER)
+						.withResource(InternalVertex.layoutShader())
 						.withComponent(key -> pipeline.assembler()
 								.assemble(key.instanceType()))
 						.withResource(pipeline.vertexMain()))
@@ -61,12 +66,20 @@ public final class PipelineCompiler {
 						.withComponents(fragmentComponents)
 						.withResource(pipeline.fragmentMain()))
 				.preLink((key, program) -> {
-					program.bindAttribLocation("_flw_aPos", 0);
-					program.bindAttribLocation("_flw_aColor", 1);
-					program.bindAttribLocation("_flw_aTexCoord", 2);
-					program.bindAttribLocation("_flw_aOverlay", 3);
-					program.bindAttribLocation("_flw_aLight", 4);
-					program.bindAttribLocation("_flw_aNormal", 5);
+					// Locations follow the order of elements in the vertex layout.
+					if (InternalVertex.QUANTIZED) {
+						program.bindAttribLocation("_flw_aPos", 0);
+						program.bindAttribLocation("_flw_aNormal", 1);
+						program.bindAttribLocation("_flw_aColor", 2);
+						program.bindAttribLocation("_flw_aTexCoord", 3);
+					} else {
+						program.bindAttribLocation("_flw_aPos", 0);
+						program.bindAttribLocation("_flw_aColor", 1);
+						program.bindAttribLocation("_flw_aTexCoord", 2);
+						program.bindAttribLocation("_flw_aOverlay", 3);
+						program.bindAttribLocation("_flw_aLight", 4);
+						program.bindAttribLocation("_flw_aNormal", 5);
+					}
 				})
 				.postLink((key, program) -> {
 					Uniforms.setUniformBlockBindings(program);
@@ -51,6 +51,10 @@ public class Compilation {
 		return ShaderResult.failure(new FailedCompilation(shaderName, files, generatedSource.toString(), source, infoLog));
 	}
 
+	public String source() {
+		return fullSource.toString();
+	}
+
 	public void version(GlslVersion version) {
 		fullSource.append("#version ")
 				.append(version.version)
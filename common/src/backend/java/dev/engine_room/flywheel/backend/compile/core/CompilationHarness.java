@@ -1,11 +1,16 @@
 package dev.engine_room.flywheel.backend.compile.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.jetbrains.annotations.Nullable;
 
+import dev.engine_room.flywheel.backend.FlwBackend;
+import dev.engine_room.flywheel.backend.compile.FlwPrograms;
 import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
 import dev.engine_room.flywheel.backend.glsl.ShaderSources;
 
@@ -21,15 +26,29 @@ public class CompilationHarness<K> {
 		stats = new CompilerStats(marker);
 		sourceLoader = new SourceLoader(sources, stats);
 		shaderCache = new ShaderCache(stats);
-		programLinker = new ProgramLinker(stats);
+		programLinker = new ProgramLinker(stats, FlwPrograms.programBinaryCache());
 	}
 
 	@Nullable
 	public Map<K, GlProgram> compileAndReportErrors(Collection<K> keys) {
 		stats.start();
+
+		// Generating sources doesn't touch GL, so do it for every key in parallel.
+		var executor = FlwBackend.taskExecutor();
+		List<CompletableFuture<@Nullable List<ShaderCache.Prepared>>> prepared = new ArrayList<>(keys.size());
+		for (var key : keys) {
+			prepared.add(CompletableFuture.supplyAsync(() -> compiler.prepare(key, sourceLoader), executor));
+		}
+		var allPrepared = CompletableFuture.allOf(prepared.toArray(CompletableFuture[]::new));
+		executor.syncUntil(allPrepared::isDone);
+
+		// Compiling and linking has to happen on this thread.
 		Map<K, GlProgram> out = new HashMap<>();
+		int i = 0;
 		for (var key : keys) {
-			GlProgram glProgram = compiler.compile(key, sourceLoader, shaderCache, programLinker);
+			var stages = prepared.get(i++)
+					.join();
+			GlProgram glProgram = stages == null ? null : compiler.link(key, stages, shaderCache, programLinker);
 			if (out != null && glProgram != null) {
 				out.put(key, glProgram);
 			} else {
@@ -51,6 +70,13 @@ public class CompilationHarness<K> {
 	}
 
 	public interface KeyCompiler<K> {
-		@Nullable GlProgram compile(K key, SourceLoader loader, ShaderCache shaderCache, ProgramLinker programLinker);
+		/**
+		 * Called from worker threads, must not touch GL.
+		 *
+		 * @return The stages of the program for the given key, or {@code null} if any of them failed to load.
+		 */
+		@Nullable List<ShaderCache.Prepared> prepare(K key, SourceLoader loader);
+
+		@Nullable GlProgram link(K key, List<ShaderCache.Prepared> stages, ShaderCache shaderCache, ProgramLinker programLinker);
 	}
 }
@@ -13,7 +13,6 @@ import java.util.function.Function;
 import org.jetbrains.annotations.Nullable;
 
 import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
-import dev.engine_room.flywheel.backend.gl.shader.GlShader;
 import dev.engine_room.flywheel.backend.gl.shader.ShaderType;
 import dev.engine_room.flywheel.backend.glsl.GlslVersion;
 import dev.engine_room.flywheel.backend.glsl.ShaderSources;
@@ -121,7 +120,7 @@ public class Compile<K> {
 		}
 
 		@Nullable
-		private GlShader compile(K key, ShaderCache compiler, SourceLoader loader) {
+		private ShaderCache.Prepared prepare(K key, SourceLoader loader) {
 			var components = new ArrayList<SourceComponent>();
 			boolean ok = true;
 			for (var fetcher : fetchers) {
@@ -137,7 +136,7 @@ public class Compile<K> {
 			}
 
 			Consumer<Compilation> cb = ctx -> compilationCallbacks.accept(key, ctx);
-			return compiler.compile(glslVersion, shaderType, nameMapper.apply(key), cb, components);
+			return ShaderCache.prepare(glslVersion, shaderType, nameMapper.apply(key), cb, components);
 		}
 	}
 
@@ -172,27 +171,33 @@ public class Compile<K> {
 
 		@Override
 		@Nullable
-		public GlProgram compile(K key, SourceLoader loader, ShaderCache shaderCache, ProgramLinker programLinker) {
+		public List<ShaderCache.Prepared> prepare(K key, SourceLoader loader) {
 			if (compilers.isEmpty()) {
 				throw new IllegalStateException("No shader compilers were added!");
 			}
 
-			List<GlShader> shaders = new ArrayList<>();
+			List<ShaderCache.Prepared> stages = new ArrayList<>();
 
 			boolean ok = true;
 			for (ShaderCompiler<K> compiler : compilers.values()) {
-				var shader = compiler.compile(key, shaderCache, loader);
-				if (shader == null) {
+				var stage = compiler.prepare(key, loader);
+				if (stage == null) {
 					ok = false;
 				}
-				shaders.add(shader);
+				stages.add(stage);
 			}
 
 			if (!ok) {
 				return null;
 			}
 
-			var out = programLinker.link(shaders, p -> preLink.accept(key, p));
+			return stages;
+		}
+
+		@Override
+		@Nullable
+		public GlProgram link(K key, List<ShaderCache.Prepared> stages, ShaderCache shaderCache, ProgramLinker programLinker) {
+			var out = programLinker.link(stages, shaderCache, p -> preLink.accept(key, p));
 
 			if (out != null) {
 				postLink.accept(key, out);
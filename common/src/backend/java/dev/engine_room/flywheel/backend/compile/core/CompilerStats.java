@@ -26,6 +26,7 @@ public class CompilerStats {
 	private boolean errored = false;
 	private int shaderCount = 0;
 	private int programCount = 0;
+	private int cachedProgramCount = 0;
 
 	public CompilerStats(String marker) {
 		this.marker = MarkerFactory.getMarker(marker);
@@ -39,14 +40,14 @@ public class CompilerStats {
 		long compileEnd = System.nanoTime();
 		var elapsed = StringUtil.formatTime(compileEnd - compileStart);
 
-		FlwPrograms.LOGGER.info(marker, "Compiled %d programs (with %d link errors) and %d shaders (with %d compile errors) in %s".formatted(programCount, programErrors.size(), shaderCount, shaderErrors.size(), elapsed));
+		FlwPrograms.LOGGER.info(marker, "Compiled %d programs (with %d link errors) and %d shaders (with %d compile errors), and loaded %d cached programs in %s".formatted(programCount, programErrors.size(), shaderCount, shaderErrors.size(), cachedProgramCount, elapsed));
 	}
 
-	public boolean errored() {
+	public synchronized boolean errored() {
 		return errored;
 	}
 
-	public void emitErrorLog() {
+	public synchronized void emitErrorLog() {
 		String out = "";
 
 		if (!loadErrors.isEmpty()) {
@@ -97,7 +98,12 @@ public class CompilerStats {
 		programCount++;
 	}
 
-	public void loadResult(LoadResult loadResult) {
+	public void cachedProgram() {
+		cachedProgramCount++;
+	}
+
+	// Sources are loaded from worker threads while preparing shaders.
+	public synchronized void loadResult(LoadResult loadResult) {
 		if (loadResult instanceof LoadResult.Failure f) {
 			loadErrors.add(f.error());
 			errored = true;
@@ -0,0 +1,161 @@
+package dev.engine_room.flywheel.backend.compile.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import dev.engine_room.flywheel.backend.compile.FlwPrograms;
+
+/**
+ * Stores linked program binaries on disk so later launches can skip compiling and linking shaders.
+ * <br>
+ * Entries are keyed by a hash of the driver string and the fully expanded source of every stage,
+ * so changing either simply misses the cache. Old entries are never cleaned up.
+ */
+public class ProgramBinaryCache {
+	public static final boolean DISABLED = System.getProperty("flw.disableProgramBinaryCache") != null;
+
+	/**
+	 * Bump this when anything that ends up in a binary but not in the source changes, e.g. attribute bindings.
+	 */
+	private static final int VERSION = 1;
+	private static final int MAGIC = 0x464C5742;
+	private static final int HEADER_BYTES = 4 * Integer.BYTES;
+	private static final String EXTENSION = ".bin";
+
+	private final Path directory;
+
+	public ProgramBinaryCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param driver  Identifies the driver the binaries were produced by.
+	 * @param sources The full source of every stage in the program, in link order.
+	 * @return A file name safe key for the program.
+	 */
+	public static String key(String driver, List<String> sources) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+
+		update(digest, Integer.toString(VERSION));
+		update(digest, driver);
+
+		for (String source : sources) {
+			update(digest, source);
+		}
+
+		return HexFormat.of()
+				.formatHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		// Length prefix each part so moving text from one part to the next changes the hash.
+		digest.update(ByteBuffer.allocate(Integer.BYTES)
+				.putInt(bytes.length)
+				.flip());
+		digest.update(bytes);
+	}
+
+	/**
+	 * @return The cached binary for the given key, or {@code null} if there is none or it can't be read.
+	 */
+	@Nullable
+	public Entry read(String key) {
+		Path file = file(key);
+
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file);
+		} catch (IOException e) {
+			FlwPrograms.LOGGER.warn("Failed to read cached program binary {}", file, e);
+			return null;
+		}
+
+		var buffer = ByteBuffer.wrap(bytes);
+
+		if (bytes.length < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			remove(key);
+			return null;
+		}
+
+		int format = buffer.getInt();
+		int length = buffer.getInt();
+
+		if (length <= 0 || length != buffer.remaining()) {
+			// Probably a partial write from a crash, don't hand it to the driver.
+			remove(key);
+			return null;
+		}
+
+		// glProgramBinary needs a direct buffer.
+		var binary = ByteBuffer.allocateDirect(length)
+				.put(buffer)
+				.flip();
+
+		return new Entry(format, binary);
+	}
+
+	/**
+	 * Save a binary, replacing any existing one for the key. Failures are logged and otherwise ignored.
+	 *
+	 * @param binary The bytes between the buffer's position and limit are written. The position is left unchanged.
+	 */
+	public void write(String key, int format, ByteBuffer binary) {
+		var bytes = ByteBuffer.allocate(HEADER_BYTES + binary.remaining())
+				.putInt(MAGIC)
+				.putInt(VERSION)
+				.putInt(format)
+				.putInt(binary.remaining())
+				.put(binary.duplicate());
+
+		try {
+			Files.createDirectories(directory);
+
+			// Write to a temporary file first so nobody ever sees a partial binary.
+			Path temp = Files.createTempFile(directory, key, ".tmp");
+			try {
+				Files.write(temp, bytes.array());
+				Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			FlwPrograms.LOGGER.warn("Failed to write cached program binary {}", file(key), e);
+		}
+	}
+
+	public void remove(String key) {
+		try {
+			Files.deleteIfExists(file(key));
+		} catch (IOException e) {
+			FlwPrograms.LOGGER.warn("Failed to delete cached program binary {}", file(key), e);
+		}
+	}
+
+	private Path file(String key) {
+		return directory.resolve(key + EXTENSION);
+	}
+
+	public record Entry(int format, ByteBuffer binary) {
+	}
+}
@@ -4,34 +4,85 @@ import static org.lwjgl.opengl.GL11.GL_TRUE;
 import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
 import static org.lwjgl.opengl.GL20.glAttachShader;
 import static org.lwjgl.opengl.GL20.glCreateProgram;
+import static org.lwjgl.opengl.GL20.glDeleteProgram;
 import static org.lwjgl.opengl.GL20.glGetProgramInfoLog;
 import static org.lwjgl.opengl.GL20.glGetProgrami;
 import static org.lwjgl.opengl.GL20.glLinkProgram;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
 import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL41C;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
+import dev.engine_room.flywheel.backend.gl.GlCompat;
 import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
 import dev.engine_room.flywheel.backend.gl.shader.GlShader;
 
 public class ProgramLinker {
 	private final CompilerStats stats;
+	@Nullable
+	private final ProgramBinaryCache binaryCache;
 
-	public ProgramLinker(CompilerStats stats) {
+	public ProgramLinker(CompilerStats stats, @Nullable ProgramBinaryCache binaryCache) {
 		this.stats = stats;
+		this.binaryCache = binaryCache;
 	}
 
+	/**
+	 * Load the program from the binary cache if possible, otherwise compile the stages and link them.
+	 * <br>
+	 * {@code preLink} is not called for cached programs since everything it can set is part of the binary.
+	 */
 	@Nullable
-	public GlProgram link(List<GlShader> shaders, Consumer<GlProgram> preLink) {
-		// this probably doesn't need caching
-		var linkResult = linkInternal(shaders, preLink);
+	public GlProgram link(List<ShaderCache.Prepared> stages, ShaderCache shaderCache, Consumer<GlProgram> preLink) {
+		String binaryKey = null;
+
+		if (binaryCache != null) {
+			var sources = new ArrayList<String>(stages.size());
+			for (var stage : stages) {
+				sources.add(stage.compilation()
+						.source());
+			}
+			binaryKey = ProgramBinaryCache.key(GlCompat.DRIVER_STRING, sources);
+
+			var cached = loadBinary(binaryCache, binaryKey);
+			if (cached != null) {
+				stats.cachedProgram();
+				return cached;
+			}
+		}
+
+		List<GlShader> shaders = new ArrayList<>();
+
+		boolean ok = true;
+		for (var stage : stages) {
+			var shader = shaderCache.compile(stage);
+			if (shader == null) {
+				ok = false;
+			}
+			shaders.add(shader);
+		}
+
+		if (!ok) {
+			return null;
+		}
+
+		var linkResult = linkInternal(shaders, preLink, binaryKey != null);
 		stats.linkResult(linkResult);
-		return linkResult.unwrap();
+		var out = linkResult.unwrap();
+
+		if (out != null && binaryCache != null) {
+			saveBinary(binaryCache, binaryKey, out);
+		}
+
+		return out;
 	}
 
-	private LinkResult linkInternal(List<GlShader> shaders, Consumer<GlProgram> preLink) {
+	private LinkResult linkInternal(List<GlShader> shaders, Consumer<GlProgram> preLink, boolean retrievable) {
 		int handle = glCreateProgram();
 		var out = new GlProgram(handle);
 
@@ -39,6 +90,10 @@ public class ProgramLinker {
 			glAttachShader(handle, shader.handle());
 		}
 
+		if (retrievable) {
+			GL41C.glProgramParameteri(handle, GL41C.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+		}
+
 		preLink.accept(out);
 
 		glLinkProgram(handle);
@@ -52,6 +107,44 @@ public class ProgramLinker {
 		}
 	}
 
+	@Nullable
+	private static GlProgram loadBinary(ProgramBinaryCache binaryCache, String key) {
+		var entry = binaryCache.read(key);
+
+		if (entry == null) {
+			return null;
+		}
+
+		int handle = glCreateProgram();
+		GL41C.glProgramBinary(handle, entry.format(), entry.binary());
+
+		if (linkSuccessful(handle)) {
+			return new GlProgram(handle);
+		}
+
+		// Drivers may reject old binaries even if their version string didn't change.
+		glDeleteProgram(handle);
+		binaryCache.remove(key);
+		return null;
+	}
+
+	private static void saveBinary(ProgramBinaryCache binaryCache, String key, GlProgram program) {
+		int length = glGetProgrami(program.handle(), GL41C.GL_PROGRAM_BINARY_LENGTH);
+
+		if (length <= 0) {
+			return;
+		}
+
+		var binary = MemoryUtil.memAlloc(length);
+		try (var stack = MemoryStack.stackPush()) {
+			var format = stack.mallocInt(1);
+			GL41C.glGetProgramBinary(program.handle(), null, format, binary);
+			binaryCache.write(key, format.get(0), binary);
+		} finally {
+			MemoryUtil.memFree(binary);
+		}
+	}
+
 	private static boolean linkSuccessful(int handle) {
 		return glGetProgrami(handle, GL_LINK_STATUS) == GL_TRUE;
 	}
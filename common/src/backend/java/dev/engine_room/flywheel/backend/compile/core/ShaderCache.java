@@ -25,12 +25,33 @@ public class ShaderCache {
 
 	@Nullable
 	public GlShader compile(GlslVersion glslVersion, ShaderType shaderType, String name, Consumer<Compilation> callback, List<SourceComponent> sourceComponents) {
-		var key = new ShaderKey(glslVersion, shaderType, name);
+		var cached = inner.get(new ShaderKey(glslVersion, shaderType, name));
+		if (cached != null) {
+			return cached.unwrap();
+		}
+
+		return compile(prepare(glslVersion, shaderType, name, callback, sourceComponents));
+	}
+
+	@Nullable
+	public GlShader compile(Prepared prepared) {
+		var key = new ShaderKey(prepared.glslVersion(), prepared.shaderType(), prepared.name());
 		var cached = inner.get(key);
 		if (cached != null) {
 			return cached.unwrap();
 		}
 
+		ShaderResult out = prepared.compilation()
+				.compile(prepared.shaderType(), prepared.name());
+		inner.put(key, out);
+		stats.shaderResult(out);
+		return out.unwrap();
+	}
+
+	/**
+	 * Generate the full source of a shader without touching GL, so this can be called from any thread.
+	 */
+	public static Prepared prepare(GlslVersion glslVersion, ShaderType shaderType, String name, Consumer<Compilation> callback, List<SourceComponent> sourceComponents) {
 		Compilation ctx = new Compilation();
 		ctx.version(glslVersion);
 		ctx.define(shaderType.define);
@@ -39,10 +60,7 @@ public class ShaderCache {
 
 		expand(sourceComponents, ctx::appendComponent);
 
-		ShaderResult out = ctx.compile(shaderType, name);
-		inner.put(key, out);
-		stats.shaderResult(out);
-		return out.unwrap();
+		return new Prepared(glslVersion, shaderType, name, ctx);
 	}
 
 	public void delete() {
@@ -69,6 +87,9 @@ public class ShaderCache {
 		included.addAll(component.included());
 	}
 
+	public record Prepared(GlslVersion glslVersion, ShaderType shaderType, String name, Compilation compilation) {
+	}
+
 	private record ShaderKey(GlslVersion glslVersion, ShaderType shaderType, String name) {
 	}
 }
@@ -1,16 +1,32 @@
 package dev.engine_room.flywheel.backend.engine;
 
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
 
 import dev.engine_room.flywheel.api.instance.Instance;
 import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.api.instance.InstanceWriter;
 import dev.engine_room.flywheel.api.instance.Instancer;
 import dev.engine_room.flywheel.backend.engine.embed.Environment;
+import dev.engine_room.flywheel.lib.math.MoreMath;
 import dev.engine_room.flywheel.lib.util.AtomicBitset;
 
 public abstract class AbstractInstancer<I extends Instance> implements Instancer<I> {
+	/**
+	 * Fill holes left by deleted instances with instances from the tail instead of shifting everything down.
+	 * Instance order isn't preserved, but only the filled holes need to be re-uploaded.
+	 */
+	public static final boolean SWAP_REMOVE_INSTANCES = System.getProperty("flw.swapRemoveInstances") != null;
+	/**
+	 * Create instances into per-thread staging lists instead of locking the instancer.
+	 * Staged instances are given their index when they're merged in {@link DrawManager#flush}.
+	 */
+	public static final boolean SHARDED_INSTANCE_CREATION = System.getProperty("flw.shardedInstanceCreation") != null;
+
 	public final InstanceType<I> type;
 	public final Environment environment;
 
@@ -22,18 +38,46 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 	protected final AtomicBitset changed = new AtomicBitset();
 	protected final AtomicBitset deleted = new AtomicBitset();
 
+	/**
+	 * The data of every instance if our type stores it off heap, in which case {@link #instances} only holds views.
+	 */
+	@Nullable
+	protected final OffHeapInstances offHeap;
+
+	/**
+	 * Instances created or stolen on each thread since the last {@link #mergeStagedInstances}.
+	 */
+	private final Map<Thread, StagedInstances<I>> staged = new ConcurrentHashMap<>();
+
 	protected AbstractInstancer(InstanceType<I> type, Environment environment) {
 		this.type = type;
 		this.environment = environment;
 
+		offHeap = type.offHeap() ? new OffHeapInstances(MoreMath.align4(type.layout()
+				.byteSize())) : null;
+
 		environment.acquire();
 	}
 
 	@Override
 	public I createInstance() {
+		// Staged instances have no index yet, so there's nowhere to put off heap data.
+		if (SHARDED_INSTANCE_CREATION && offHeap == null) {
+			return createStagedInstance();
+		} else {
+			return createLockedInstance();
+		}
+	}
+
+	protected I createLockedInstance() {
 		synchronized (lock) {
 			var i = instances.size();
 			var handle = new InstanceHandleImpl(this, i);
+
+			if (offHeap != null) {
+				offHeap.ensureCapacity(i + 1);
+			}
+
 			I instance = type.create(handle);
 
 			addLocked(instance, handle);
@@ -41,6 +85,19 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 		}
 	}
 
+	/**
+	 * Create an instance without touching any state shared with other threads.
+	 * <br>
+	 * The instance will not be drawn, and changes to it are not tracked, until it is merged.
+	 */
+	protected I createStagedInstance() {
+		var handle = new InstanceHandleImpl(this, InstanceHandleImpl.PENDING_INDEX);
+		I instance = type.create(handle);
+
+		stagedForCurrentThread().add(instance, handle);
+		return instance;
+	}
+
 	@Override
 	public void stealInstance(@Nullable I instance) {
 		if (instance == null) {
@@ -62,16 +119,37 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 		//  is somehow being stolen by 2 different instancers between threads.
 		//  That seems kinda impossible so I'm fine leaving it as is for now.
 
+		// Grab the data before the handle forgets where it lives.
+		// The old slot stays valid until the old instancer next removes deleted instances.
+		var oldOffHeap = handle.instancer.offHeap;
+		long oldPtr = oldOffHeap != null ? oldOffHeap.ptr(handle.index) : MemoryUtil.NULL;
+
 		// Remove the instance from its old instancer.
 		// This won't have any unwanted effect when the old instancer
 		// is filtering deleted instances later, so is safe.
 		handle.setDeleted();
 
+		if (SHARDED_INSTANCE_CREATION && offHeap == null) {
+			handle.instancer = this;
+			handle.index = InstanceHandleImpl.PENDING_INDEX;
+			stagedForCurrentThread().add(instance, handle);
+			return;
+		}
+
 		// Only lock now that we'll be mutating our state.
 		synchronized (lock) {
 			// Add the instance to this instancer.
 			handle.instancer = this;
 			handle.index = instances.size();
+
+			if (offHeap != null) {
+				offHeap.ensureCapacity(handle.index + 1);
+
+				if (oldPtr != MemoryUtil.NULL && oldOffHeap.stride() == offHeap.stride()) {
+					MemoryUtil.memCopy(oldPtr, offHeap.ptr(handle.index), offHeap.stride());
+				}
+			}
+
 			addLocked(instance, handle);
 		}
 	}
@@ -85,10 +163,84 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 		changed.set(handle.index);
 	}
 
+	private StagedInstances<I> stagedForCurrentThread() {
+		var thread = Thread.currentThread();
+		var out = staged.get(thread);
+
+		if (out == null) {
+			out = staged.computeIfAbsent(thread, $ -> new StagedInstances<>());
+		}
+
+		return out;
+	}
+
+	/**
+	 * Move all staged instances into this instancer, assigning their final indices.
+	 * <br>
+	 * Must not be called while other threads may be creating instances.
+	 */
+	public void mergeStagedInstances() {
+		if (staged.isEmpty()) {
+			return;
+		}
+
+		synchronized (lock) {
+			for (var shard : staged.values()) {
+				for (int i = 0; i < shard.instances.size(); i++) {
+					var handle = shard.handles.get(i);
+
+					// Skip instances that were deleted or stolen by another instancer before they were merged.
+					if (handle.instancer != this || handle.index != InstanceHandleImpl.PENDING_INDEX) {
+						continue;
+					}
+
+					handle.index = instances.size();
+					addLocked(shard.instances.get(i), handle);
+				}
+
+				shard.clear();
+			}
+		}
+
+		// Don't hang on to executor threads that have since been shut down.
+		staged.keySet()
+				.removeIf(thread -> !thread.isAlive());
+	}
+
 	public int instanceCount() {
 		return instances.size();
 	}
 
+	/**
+	 * @param index The index of an instance in this instancer.
+	 * @return The address of the instance's data.
+	 * @throws UnsupportedOperationException If our type doesn't store instances off heap.
+	 */
+	public long instancePtr(int index) {
+		if (offHeap == null) {
+			throw new UnsupportedOperationException("Instances of " + type + " are not stored off heap");
+		}
+
+		return offHeap.ptr(index);
+	}
+
+	/**
+	 * Write instances {@code [startInclusive, endInclusive]} {@code stride} bytes apart starting at the given pointer.
+	 * <br>
+	 * Instances stored off heap are already laid out that way and are copied instead of written one by one.
+	 */
+	protected void writeInstanceRange(InstanceWriter<I> writer, long ptr, long stride, int startInclusive, int endInclusive) {
+		if (offHeap != null && offHeap.stride() == stride) {
+			offHeap.copyTo(ptr, startInclusive, endInclusive);
+			return;
+		}
+
+		for (int i = startInclusive; i <= endInclusive; i++) {
+			writer.write(ptr, instances.get(i));
+			ptr += stride;
+		}
+	}
+
 	public void notifyDirty(int index) {
 		if (index < 0 || index >= instanceCount()) {
 			return;
@@ -104,6 +256,19 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 	}
 
 	protected void removeDeletedInstances() {
+		if (SWAP_REMOVE_INSTANCES) {
+			swapRemoveDeletedInstances();
+		} else {
+			shiftRemoveDeletedInstances();
+		}
+	}
+
+	/**
+	 * Remove deleted instances while preserving the order of the remaining instances.
+	 * <br>
+	 * Everything after the first deleted instance is marked changed.
+	 */
+	protected void shiftRemoveDeletedInstances() {
 		if (deleted.isEmpty()) {
 			return;
 		}
@@ -145,6 +310,10 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 				handles.set(writePos, handle);
 				instances.set(writePos, instance);
 
+				if (offHeap != null) {
+					offHeap.move(scanPos, writePos);
+				}
+
 				// Make sure the handle knows it's been moved
 				handle.index = writePos;
 			}
@@ -157,6 +326,59 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 				.clear();
 	}
 
+	/**
+	 * Remove deleted instances by moving surviving instances from the tail into the holes.
+	 * <br>
+	 * Only the filled holes are marked changed, so the upload cost scales with the number of deletions
+	 * rather than with their position.
+	 */
+	protected void swapRemoveDeletedInstances() {
+		if (deleted.isEmpty()) {
+			return;
+		}
+
+		final int oldSize = this.instances.size();
+		int removeCount = deleted.cardinality();
+
+		if (oldSize == removeCount) {
+			clear();
+			return;
+		}
+
+		final int newSize = oldSize - removeCount;
+
+		// Every deleted index below newSize is a hole, and there are exactly as many
+		// surviving instances at or above newSize to fill them with.
+		int hole = deleted.nextSetBit(0);
+		int filler = deleted.nextClearBit(newSize);
+
+		while (hole != -1 && hole < newSize) {
+			var handle = handles.get(filler);
+			I instance = instances.get(filler);
+
+			handles.set(hole, handle);
+			instances.set(hole, instance);
+
+			if (offHeap != null) {
+				offHeap.move(filler, hole);
+			}
+
+			handle.index = hole;
+			changed.set(hole);
+
+			hole = deleted.nextSetBit(hole + 1);
+			filler = deleted.nextClearBit(filler + 1);
+		}
+
+		changed.clear(newSize, oldSize);
+
+		deleted.clear();
+		instances.subList(newSize, oldSize)
+				.clear();
+		handles.subList(newSize, oldSize)
+				.clear();
+	}
+
 	/**
 	 * Clear all instances without freeing resources.
 	 */
@@ -175,14 +397,47 @@ public abstract class AbstractInstancer<I extends Instance> implements Instancer
 		handles.clear();
 		changed.clear();
 		deleted.clear();
+
+		for (var shard : staged.values()) {
+			for (InstanceHandleImpl handle : shard.handles) {
+				if (handle.instancer == this) {
+					handle.clear();
+				}
+			}
+			shard.clear();
+		}
 	}
 
 	public void delete() {
 		environment.release();
+
+		if (offHeap != null) {
+			// Point any views still around at the sink before their memory goes away.
+			clear();
+			offHeap.delete();
+		}
 	}
 
 	@Override
 	public String toString() {
 		return "AbstractInstancer[" + instanceCount() + ']';
 	}
+
+	/**
+	 * Instances created by a single thread. Only ever touched by that thread until they're merged.
+	 */
+	private static final class StagedInstances<I extends Instance> {
+		private final ArrayList<I> instances = new ArrayList<>();
+		private final ArrayList<InstanceHandleImpl> handles = new ArrayList<>();
+
+		private void add(I instance, InstanceHandleImpl handle) {
+			instances.add(instance);
+			handles.add(handle);
+		}
+
+		private void clear() {
+			instances.clear();
+			handles.clear();
+		}
+	}
 }
@@ -1,13 +1,21 @@
 package dev.engine_room.flywheel.backend.engine;
 
+import org.joml.Matrix4f;
+
 import dev.engine_room.flywheel.api.material.Material;
 import dev.engine_room.flywheel.api.material.Transparency;
 import dev.engine_room.flywheel.api.material.WriteMask;
+import dev.engine_room.flywheel.backend.engine.embed.EmbeddingUniforms;
+import dev.engine_room.flywheel.backend.engine.embed.Environment;
+import dev.engine_room.flywheel.backend.engine.embed.OriginEnvironment;
+import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
 import dev.engine_room.flywheel.lib.material.CutoutShaders;
 import dev.engine_room.flywheel.lib.material.FogShaders;
 import dev.engine_room.flywheel.lib.material.SimpleMaterial;
 
 public class CommonCrumbling {
+	private static final Matrix4f IDENTITY = new Matrix4f();
+
 	public static void applyCrumblingProperties(SimpleMaterial.Builder crumblingMaterial, Material baseMaterial) {
 		crumblingMaterial.copyFrom(baseMaterial)
 				.fog(FogShaders.NONE)
@@ -19,4 +27,15 @@ public class CommonCrumbling {
 				.useLight(false)
 				.diffuse(false);
 	}
+
+	/**
+	 * Set the model matrix of a bound crumbling program for instances in the given environment.
+	 */
+	public static void setupEnvironment(GlProgram crumblingProgram, Environment environment) {
+		if (environment instanceof OriginEnvironment originEnvironment) {
+			originEnvironment.setupCrumbling(crumblingProgram);
+		} else {
+			crumblingProgram.setMat4(EmbeddingUniforms.MODEL_MATRIX, IDENTITY);
+		}
+	}
 }
@@ -14,8 +14,10 @@ import dev.engine_room.flywheel.api.instance.Instance;
 import dev.engine_room.flywheel.api.instance.InstanceType;
 import dev.engine_room.flywheel.api.instance.Instancer;
 import dev.engine_room.flywheel.api.model.Model;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.backend.FlwBackend;
 import dev.engine_room.flywheel.backend.engine.embed.Environment;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import dev.engine_room.flywheel.lib.util.Pair;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
@@ -45,13 +47,55 @@ public abstract class DrawManager<N extends AbstractInstancer<?>> {
 		initializationQueue.clear();
 	}
 
-	public void flush() {
+	public void flush(TaskExecutor executor) {
 		// Thread safety: flush is called from the render thread after all visual updates have been made,
 		// so there are no:tm: threads we could be racing with.
+		if (AbstractInstancer.SHARDED_INSTANCE_CREATION) {
+			for (var instancer : instancers.values()) {
+				instancer.mergeStagedInstances();
+			}
+		}
+
 		for (var instancer : initializationQueue) {
 			initialize(instancer.key(), instancer.instancer());
 		}
 		initializationQueue.clear();
+
+		recordDirtyInstances();
+	}
+
+	/**
+	 * Count the instances visuals changed this frame, before backends compact or upload anything.
+	 */
+	private void recordDirtyInstances() {
+		long total = 0;
+
+		for (var instancer : instancers.values()) {
+			int dirty = instancer.changed.cardinality();
+
+			if (dirty > 0) {
+				FlwMetrics.dirtyInstances(instancer.type)
+						.add(dirty);
+				total += dirty;
+			}
+		}
+
+		FlwMetrics.DIRTY_INSTANCES_TOTAL.add(total);
+	}
+
+	/**
+	 * Switch to the programs compiled by the last resource reload, keeping every instancer.
+	 *
+	 * @return {@code false} if the programs are unavailable and this draw manager can't be used anymore.
+	 */
+	public abstract boolean reloadPrograms();
+
+	/**
+	 * @return {@code true} if embedded environments are drawn through a shared batch that reads
+	 * their light volumes directly, so they don't need to keep their own light textures up to date.
+	 */
+	public boolean batchesEmbeddings() {
+		return false;
 	}
 
 	public void onRenderOriginChanged() {
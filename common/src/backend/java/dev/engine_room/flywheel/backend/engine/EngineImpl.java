@@ -1,7 +1,10 @@
 package dev.engine_room.flywheel.backend.engine;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
+
 import dev.engine_room.flywheel.api.backend.Engine;
 import dev.engine_room.flywheel.api.event.RenderContext;
 import dev.engine_room.flywheel.api.event.RenderStage;
@@ -15,33 +18,65 @@ import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.api.visualization.VisualEmbedding;
 import dev.engine_room.flywheel.api.visualization.VisualizationContext;
 import dev.engine_room.flywheel.backend.engine.embed.Environment;
+import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.backend.engine.embed.OriginEnvironment;
 import dev.engine_room.flywheel.backend.engine.embed.TopLevelEmbeddedEnvironment;
 import dev.engine_room.flywheel.backend.engine.uniform.Uniforms;
 import dev.engine_room.flywheel.backend.gl.GlStateTracker;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import dev.engine_room.flywheel.lib.task.Flag;
 import dev.engine_room.flywheel.lib.task.NamedFlag;
-import dev.engine_room.flywheel.lib.task.SyncedPlan;
+import dev.engine_room.flywheel.lib.task.SimplyComposedPlan;
 import net.minecraft.client.Camera;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Vec3i;
 import net.minecraft.world.phys.Vec3;
 
 public class EngineImpl implements Engine {
+	/**
+	 * Keep visuals alive when the render origin moves instead of recreating all of them.
+	 * <br>
+	 * Instances written relative to an older origin are drawn through an {@link OriginEnvironment}
+	 * that offsets them to the current one.
+	 */
+	public static final boolean REBASE_ORIGIN = System.getProperty("flw.rebaseOrigin") != null;
+
+	/**
+	 * How many render origins may have live visuals at once. Moving the origin again recreates
+	 * the visuals still on the oldest one, and reuses its environment and instancers.
+	 */
+	private static final int MAX_ORIGINS = 4;
+
+	/**
+	 * How much farther than the max origin distance an object may be from the origin its visual was created
+	 * against before the visual is recreated. Floats still have sub-millimeter precision at this range.
+	 */
+	private static final int KEPT_DISTANCE_FACTOR = 16;
+
 	private final int sqrMaxOriginDistance;
+	private final double sqrMaxKeptDistance;
 	private final DrawManager<? extends AbstractInstancer<?>> drawManager;
 	private final EnvironmentStorage environmentStorage = new EnvironmentStorage();
 	private final Flag flushFlag = new NamedFlag("flushed");
+	// Oldest first, the last one is for the current origin. Empty unless rebasing.
+	private final List<OriginEnvironment> origins = new ArrayList<>();
 
 	private BlockPos renderOrigin = BlockPos.ZERO;
 
 	public EngineImpl(DrawManager<? extends AbstractInstancer<?>> drawManager, int maxOriginDistance) {
 		this.drawManager = drawManager;
 		sqrMaxOriginDistance = maxOriginDistance * maxOriginDistance;
+		double maxKeptDistance = (double) maxOriginDistance * KEPT_DISTANCE_FACTOR;
+		sqrMaxKeptDistance = maxKeptDistance * maxKeptDistance;
+
+		if (REBASE_ORIGIN) {
+			origins.add(new OriginEnvironment(this, renderOrigin));
+		}
 	}
 
 	@Override
 	public Plan<RenderContext> createFramePlan() {
-		return SyncedPlan.of(this::flush);
+		return new FlushPlan();
 	}
 
 	@Override
@@ -64,7 +99,11 @@ public class EngineImpl implements Engine {
 
 	@Override
 	public VisualizationContext createVisualizationContext(RenderStage stage) {
-		return new VisualizationContextImpl(stage);
+		if (REBASE_ORIGIN) {
+			return new VisualizationContextImpl(stage, renderOrigin, currentOrigin());
+		}
+
+		return new VisualizationContextImpl(stage, renderOrigin, null);
 	}
 
 	@Override
@@ -80,15 +119,86 @@ public class EngineImpl implements Engine {
 		}
 
 		renderOrigin = BlockPos.containing(cameraPos);
-		drawManager.onRenderOriginChanged();
+
+		if (REBASE_ORIGIN) {
+			rebaseOrigins();
+		} else {
+			drawManager.onRenderOriginChanged();
+		}
+
 		return true;
 	}
 
+	private void rebaseOrigins() {
+		OriginEnvironment current = null;
+
+		for (int i = 0; i < origins.size(); i++) {
+			if (origins.get(i)
+					.origin()
+					.equals(renderOrigin)) {
+				// Back where we've been before, the visuals created there can go on as they were.
+				current = origins.remove(i);
+				break;
+			}
+		}
+
+		if (current == null) {
+			if (origins.size() < MAX_ORIGINS) {
+				current = new OriginEnvironment(this, renderOrigin);
+			} else {
+				// Visuals on the oldest origin fail canKeepVisual and are recreated on this one.
+				current = origins.remove(0);
+				current.origin(renderOrigin);
+			}
+		}
+
+		origins.add(current);
+	}
+
+	private OriginEnvironment currentOrigin() {
+		return origins.get(origins.size() - 1);
+	}
+
+	@Override
+	public boolean canKeepVisual(Vec3i origin, double x, double y, double z) {
+		if (!REBASE_ORIGIN) {
+			return origin.equals(renderOrigin);
+		}
+
+		boolean live = false;
+		for (int i = 0; i < origins.size(); i++) {
+			if (origins.get(i)
+					.origin()
+					.equals(origin)) {
+				live = true;
+				break;
+			}
+		}
+
+		if (!live) {
+			return false;
+		}
+
+		// Objects that moved far from their origin, such as the minecart the player is riding,
+		// are recreated against the current origin so their coordinates stay small.
+		double dx = x - origin.getX();
+		double dy = y - origin.getY();
+		double dz = z - origin.getZ();
+		return dx * dx + dy * dy + dz * dz <= sqrMaxKeptDistance;
+	}
+
 	@Override
 	public Vec3i renderOrigin() {
 		return renderOrigin;
 	}
 
+	@Override
+	public boolean reloadResources() {
+		// Materials look up their textures every draw and visuals swap their own models,
+		// so the programs are all that needs replacing here.
+		return drawManager.reloadPrograms();
+	}
+
 	@Override
 	public void delete() {
 		drawManager.delete();
@@ -99,13 +209,16 @@ public class EngineImpl implements Engine {
 		return drawManager.getInstancer(environment, type, model, stage);
 	}
 
-	private void flush(RenderContext ctx) {
+	private void flush(TaskExecutor executor, RenderContext ctx) {
+		long start = System.nanoTime();
+
 		try (var state = GlStateTracker.getRestoreState()) {
 			Uniforms.update(ctx);
-			drawManager.flush();
+			drawManager.flush(executor);
 			environmentStorage.flush();
 		}
 
+		FlwMetrics.FRAME_ENGINE_FLUSH.add(System.nanoTime() - start);
 		flushFlag.raise();
 	}
 
@@ -113,13 +226,37 @@ public class EngineImpl implements Engine {
 		return environmentStorage;
 	}
 
+	public boolean batchesEmbeddings() {
+		return drawManager.batchesEmbeddings();
+	}
+
+	/**
+	 * Like a {@link dev.engine_room.flywheel.lib.task.SyncedPlan}, but hands the executor to {@link #flush}
+	 * so the draw manager can fan work out while the render thread waits.
+	 */
+	private class FlushPlan implements SimplyComposedPlan<RenderContext> {
+		@Override
+		public void execute(TaskExecutor taskExecutor, RenderContext context, Runnable onCompletion) {
+			taskExecutor.scheduleForMainThread(() -> {
+				flush(taskExecutor, context);
+				onCompletion.run();
+			});
+		}
+	}
+
 	private class VisualizationContextImpl implements VisualizationContext {
 		private final InstancerProviderImpl instancerProvider;
 		private final RenderStage stage;
+		private final Vec3i renderOrigin;
+		@Nullable
+		private final OriginEnvironment origin;
 
-		public VisualizationContextImpl(RenderStage stage) {
-			instancerProvider = new InstancerProviderImpl(EngineImpl.this, stage);
+		public VisualizationContextImpl(RenderStage stage, Vec3i renderOrigin, @Nullable OriginEnvironment origin) {
+			Environment environment = origin != null ? origin : GlobalEnvironment.INSTANCE;
+			instancerProvider = new InstancerProviderImpl(EngineImpl.this, environment, stage);
 			this.stage = stage;
+			this.renderOrigin = renderOrigin;
+			this.origin = origin;
 		}
 
 		@Override
@@ -129,12 +266,12 @@ public class EngineImpl implements Engine {
 
 		@Override
 		public Vec3i renderOrigin() {
-			return EngineImpl.this.renderOrigin();
+			return renderOrigin;
 		}
 
 		@Override
 		public VisualEmbedding createEmbedding() {
-			var out = new TopLevelEmbeddedEnvironment(EngineImpl.this, stage);
+			var out = new TopLevelEmbeddedEnvironment(EngineImpl.this, stage, origin);
 			environmentStorage.track(out);
 			return out;
 		}
@@ -1,80 +1,200 @@
 package dev.engine_room.flywheel.backend.engine;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
 import dev.engine_room.flywheel.api.model.IndexSequence;
 import dev.engine_room.flywheel.backend.gl.array.GlVertexArray;
 import dev.engine_room.flywheel.backend.gl.buffer.GlBuffer;
 import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import it.unimi.dsi.fastutil.ints.Int2IntRBTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2IntSortedMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
-
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+/**
+ * Index data for every {@link IndexSequence} in a {@link MeshPool}.
+ * <br>
+ * Sequences are appended as they're first seen. When a sequence needs more indices it is refilled at the end,
+ * and the space it used to occupy is only reclaimed once more than half of the buffer is wasted.
+ * Sequences are dropped once no live mesh uses them, and their space is wasted the same way.
+ */
 public class IndexPool {
 	private final GlBuffer ebo;
 
+	/**
+	 * The number of indices each sequence needs: the most any live mesh using it draws.
+	 */
 	private final Reference2IntMap<IndexSequence> indexCounts;
+	/**
+	 * For each sequence, the index counts of the live meshes using it and how many meshes use each count.
+	 */
+	private final Reference2ObjectMap<IndexSequence, Int2IntSortedMap> liveMeshes = new Reference2ObjectOpenHashMap<>();
 	private final Reference2IntMap<IndexSequence> firstIndices;
-
-	private boolean dirty;
-
-    public IndexPool() {
-        ebo = new GlBuffer();
+	/**
+	 * The number of indices written for each sequence, which may lag behind {@link #indexCounts} until flushed.
+	 */
+	private final Reference2IntMap<IndexSequence> placedCounts;
+	/**
+	 * Sequences that are new or grew since the last flush.
+	 */
+	private final List<IndexSequence> pending = new ArrayList<>();
+
+	/**
+	 * A CPU copy of the index buffer.
+	 */
+	@Nullable
+	private MemoryBlock indexMirror;
+	/**
+	 * One past the last used index.
+	 */
+	private int end;
+	/**
+	 * The number of indices at or before {@link #end} that no sequence uses anymore.
+	 */
+	private int wasted;
+	private int firstDirtyIndex = Integer.MAX_VALUE;
+
+	public IndexPool() {
+		ebo = new GlBuffer();
 
 		indexCounts = new Reference2IntOpenHashMap<>();
 		firstIndices = new Reference2IntOpenHashMap<>();
+		placedCounts = new Reference2IntOpenHashMap<>();
 
 		indexCounts.defaultReturnValue(0);
+		placedCounts.defaultReturnValue(0);
 	}
 
 	public int firstIndex(IndexSequence sequence) {
 		return firstIndices.getInt(sequence);
 	}
 
-	public void reset() {
-		indexCounts.clear();
-		firstIndices.clear();
-		dirty = true;
-	}
+	/**
+	 * Start drawing a mesh with the given sequence, growing the sequence if it's too short.
+	 */
+	public void addMesh(IndexSequence sequence, int indexCount) {
+		var counts = liveMeshes.computeIfAbsent(sequence, $ -> new Int2IntRBTreeMap());
+		counts.mergeInt(indexCount, 1, Integer::sum);
 
-	public void updateCount(IndexSequence sequence, int indexCount) {
-		int oldCount = indexCounts.getInt(sequence);
-		int newCount = Math.max(oldCount, indexCount);
+		int newCount = counts.lastIntKey();
 
-		if (newCount > oldCount) {
+		if (newCount > indexCounts.getInt(sequence)) {
 			indexCounts.put(sequence, newCount);
-			dirty = true;
+
+			if (newCount > placedCounts.getInt(sequence) && !pending.contains(sequence)) {
+				pending.add(sequence);
+			}
+		}
+	}
+
+	/**
+	 * Stop drawing a mesh added with {@link #addMesh}, dropping the sequence once no mesh uses it.
+	 */
+	public void removeMesh(IndexSequence sequence, int indexCount) {
+		var counts = liveMeshes.get(sequence);
+
+		if (counts == null) {
+			return;
+		}
+
+		int remaining = counts.get(indexCount) - 1;
+
+		if (remaining > 0) {
+			counts.put(indexCount, remaining);
+		} else {
+			counts.remove(indexCount);
+		}
+
+		if (!counts.isEmpty()) {
+			// Already placed indices stay valid, but a repack only keeps as many as live meshes need.
+			indexCounts.put(sequence, counts.lastIntKey());
+			return;
 		}
+
+		liveMeshes.remove(sequence);
+		indexCounts.removeInt(sequence);
+		firstIndices.removeInt(sequence);
+		wasted += placedCounts.removeInt(sequence);
+		pending.remove(sequence);
 	}
 
 	public void flush() {
-		if (!dirty) {
+		if (pending.isEmpty() && !needsRepack()) {
 			return;
 		}
 
-		firstIndices.clear();
-		dirty = false;
+		for (IndexSequence sequence : pending) {
+			// Whatever the sequence used before is abandoned.
+			wasted += placedCounts.getInt(sequence);
 
-		long totalIndexCount = 0;
+			place(sequence);
+		}
+		pending.clear();
 
-		for (int count : indexCounts.values()) {
-			totalIndexCount += count;
+		if (needsRepack()) {
+			repack();
 		}
 
-		final var indexBlock = MemoryBlock.malloc(totalIndexCount * Integer.BYTES);
-		final long indexPtr = indexBlock.ptr();
+		upload();
+	}
+
+	private boolean needsRepack() {
+		return wasted > end / 2;
+	}
 
-		int firstIndex = 0;
-		for (Reference2IntMap.Entry<IndexSequence> entries : indexCounts.reference2IntEntrySet()) {
-			var indexSequence = entries.getKey();
-			var indexCount = entries.getIntValue();
+	private void place(IndexSequence sequence) {
+		int count = indexCounts.getInt(sequence);
+		int firstIndex = end;
+		end += count;
 
-			firstIndices.put(indexSequence, firstIndex);
+		ensureMirrorCapacity();
+		sequence.fill(indexMirror.ptr() + (long) firstIndex * Integer.BYTES, count);
 
-			indexSequence.fill(indexPtr + (long) firstIndex * Integer.BYTES, indexCount);
+		firstIndices.put(sequence, firstIndex);
+		placedCounts.put(sequence, count);
+		firstDirtyIndex = Math.min(firstDirtyIndex, firstIndex);
+	}
 
-			firstIndex += indexCount;
+	/**
+	 * Lay every sequence out back to back again, dropping all wasted space.
+	 */
+	private void repack() {
+		firstIndices.clear();
+		placedCounts.clear();
+		end = 0;
+		wasted = 0;
+
+		for (IndexSequence sequence : indexCounts.keySet()) {
+			place(sequence);
 		}
+	}
 
-		ebo.upload(indexBlock);
-		indexBlock.free();
+	private void ensureMirrorCapacity() {
+		long neededSize = (long) end * Integer.BYTES;
+
+		if (indexMirror == null) {
+			indexMirror = MemoryBlock.malloc(neededSize);
+		} else if (indexMirror.size() < neededSize) {
+			indexMirror = indexMirror.realloc(Math.max(neededSize, indexMirror.size() * 3 / 2));
+		}
+	}
+
+	private void upload() {
+		long usedBytes = (long) end * Integer.BYTES;
+
+		if (ebo.size() < usedBytes) {
+			ebo.upload(indexMirror);
+		} else if (firstDirtyIndex < end) {
+			long start = (long) firstDirtyIndex * Integer.BYTES;
+			ebo.uploadSpan(start, indexMirror.ptr() + start, usedBytes - start);
+		}
+
+		firstDirtyIndex = Integer.MAX_VALUE;
 	}
 
 	public void bind(GlVertexArray vertexArray) {
@@ -83,5 +203,10 @@ public class IndexPool {
 
 	public void delete() {
 		ebo.delete();
+
+		if (indexMirror != null) {
+			indexMirror.free();
+			indexMirror = null;
+		}
 	}
 }
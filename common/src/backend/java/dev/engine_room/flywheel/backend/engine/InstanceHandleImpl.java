@@ -3,6 +3,11 @@ package dev.engine_room.flywheel.backend.engine;
 import dev.engine_room.flywheel.api.instance.InstanceHandle;
 
 public class InstanceHandleImpl implements InstanceHandle {
+	/**
+	 * The index of a handle whose instance is still staged and hasn't been merged into its instancer yet.
+	 */
+	public static final int PENDING_INDEX = -2;
+
 	public AbstractInstancer<?> instancer;
 	public int index;
 
@@ -23,6 +28,11 @@ public class InstanceHandleImpl implements InstanceHandle {
 		clear();
 	}
 
+	@Override
+	public long ptr() {
+		return instancer.instancePtr(index);
+	}
+
 	public void clear() {
 		index = -1;
 	}
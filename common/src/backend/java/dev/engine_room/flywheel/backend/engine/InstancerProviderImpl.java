@@ -6,11 +6,11 @@ import dev.engine_room.flywheel.api.instance.InstanceType;
 import dev.engine_room.flywheel.api.instance.Instancer;
 import dev.engine_room.flywheel.api.instance.InstancerProvider;
 import dev.engine_room.flywheel.api.model.Model;
-import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.backend.engine.embed.Environment;
 
-public record InstancerProviderImpl(EngineImpl engine, RenderStage renderStage) implements InstancerProvider {
+public record InstancerProviderImpl(EngineImpl engine, Environment environment, RenderStage renderStage) implements InstancerProvider {
 	@Override
 	public <I extends Instance> Instancer<I> instancer(InstanceType<I> type, Model model) {
-		return engine.instancer(GlobalEnvironment.INSTANCE, type, model, renderStage);
+		return engine.instancer(environment, type, model, renderStage);
 	}
 }
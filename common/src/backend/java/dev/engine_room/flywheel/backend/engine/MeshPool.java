@@ -1,6 +1,7 @@
 package dev.engine_room.flywheel.backend.engine;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,26 +15,102 @@ import dev.engine_room.flywheel.backend.InternalVertex;
 import dev.engine_room.flywheel.backend.gl.GlPrimitive;
 import dev.engine_room.flywheel.backend.gl.array.GlVertexArray;
 import dev.engine_room.flywheel.backend.gl.buffer.GlBuffer;
+import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
+import dev.engine_room.flywheel.backend.util.ContentHash;
+import dev.engine_room.flywheel.backend.util.RangeAllocator;
 import dev.engine_room.flywheel.backend.util.ReferenceCounted;
+import dev.engine_room.flywheel.lib.memory.FlwMemoryTracker;
 import dev.engine_room.flywheel.lib.memory.MemoryBlock;
-
+import dev.engine_room.flywheel.lib.vertex.QuantizedVertexView;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * An arena of mesh vertices.
+ * <br>
+ * New meshes are written into holes left by deleted meshes when they fit, otherwise appended.
+ * Only the bytes of newly written meshes are uploaded, so adding a mesh never moves any other mesh.
+ * The arena only lives on the GPU: growing it and compacting it are GPU copies, and the CPU only holds scratch
+ * memory for the meshes being written.
+ * <br>
+ * With {@link InternalVertex#QUANTIZED} meshes are stored in the quantized layout, and each mesh carries the
+ * bounds needed to dequantize it.
+ * <br>
+ * With {@link #DEDUPLICATE_MESHES} a mesh whose vertices are byte for byte identical to a mesh already in the arena
+ * draws from that mesh's region instead of getting its own, and holds a reference to it until deleted.
+ * Matching hashes are confirmed by writing the existing mesh again and comparing bytes.
+ */
 public class MeshPool {
+	/**
+	 * Slowly move meshes into holes closer to the start of the arena so it doesn't stay fragmented forever.
+	 */
+	public static final boolean COMPACT_MESH_POOL = System.getProperty("flw.compactMeshPool") != null;
+	/**
+	 * Share regions of the arena between distinct meshes with identical vertex data.
+	 */
+	public static final boolean DEDUPLICATE_MESHES = System.getProperty("flw.deduplicateMeshes") != null;
+
+	/**
+	 * Start compacting once this fraction of the arena is unused.
+	 */
+	private static final float COMPACTION_THRESHOLD = 0.25f;
+	/**
+	 * The maximum number of vertex bytes to move per flush while compacting.
+	 */
+	private static final long COMPACTION_BUDGET_BYTES = 1024 * 1024;
+
+	private final boolean quantized = InternalVertex.QUANTIZED;
+	private final int stride = quantized ? InternalVertex.QUANTIZED_STRIDE : InternalVertex.STRIDE;
 	private final VertexView vertexView;
+	private final QuantizedVertexView quantizedView;
 	private final Map<Mesh, PooledMesh> meshes = new HashMap<>();
 	private final List<PooledMesh> meshList = new ArrayList<>();
 	private final List<PooledMesh> recentlyAllocated = new ArrayList<>();
+	/**
+	 * Meshes that own a region of the arena, by the hash of their vertex data. Only used when deduplicating.
+	 */
+	private final Long2ObjectMap<PooledMesh> byContent = new Long2ObjectOpenHashMap<>();
 
 	private final GlBuffer vbo;
 	private final IndexPool indexPool;
 
+	/**
+	 * Allocates vertex ranges in the arena.
+	 */
+	private final RangeAllocator allocator = new RangeAllocator();
+	/**
+	 * Where new meshes are written before being uploaded into their region.
+	 */
+	@Nullable
+	private MemoryBlock uploadScratch;
+	/**
+	 * Where meshes are written in the full layout before being quantized, since their bounds aren't known up front.
+	 */
+	@Nullable
+	private MemoryBlock quantizeScratch;
+	/**
+	 * Where a mesh already in the arena is written again to confirm a matching hash, when deduplicating.
+	 */
+	@Nullable
+	private MemoryBlock compareScratch;
+	/**
+	 * The number of vertex bytes that didn't need their own region, as reported to {@link FlwMemoryTracker}.
+	 */
+	private long deduplicatedBytes;
+
 	private boolean dirty;
 	private boolean anyToRemove;
+	/**
+	 * Whether the free list changed since the last compaction pass that couldn't move anything more.
+	 */
+	private boolean compactionPending;
 
 	/**
 	 * Create a new mesh pool.
 	 */
 	public MeshPool() {
 		vertexView = InternalVertex.createVertexView();
+		quantizedView = InternalVertex.createQuantizedVertexView();
 		vbo = new GlBuffer();
 		indexPool = new IndexPool();
 	}
@@ -63,33 +140,36 @@ public class MeshPool {
 	}
 
 	public void flush() {
-        if (!dirty) {
-            return;
-        }
+		if (!dirty && !needsCompaction()) {
+			return;
+		}
 
 		if (anyToRemove) {
 			anyToRemove = false;
 			processDeletions();
+		}
 
-			// Might want to shrink the index pool if something was removed.
-			indexPool.reset();
-			for (PooledMesh mesh : meshList) {
-				indexPool.updateCount(mesh.mesh.indexSequence(), mesh.indexCount());
+		for (PooledMesh mesh : recentlyAllocated) {
+			// Deleted before it was ever flushed.
+			if (mesh.isDeleted()) {
+				continue;
 			}
-		} else {
-			// Otherwise, just update the index with the new counts.
-			for (PooledMesh mesh : recentlyAllocated) {
-				indexPool.updateCount(mesh.mesh.indexSequence(), mesh.indexCount());
-			}
-			recentlyAllocated.clear();
+
+			indexPool.addMesh(mesh.mesh.indexSequence(), mesh.indexCount());
+			mesh.usesIndexPool = true;
+			writeNewMesh(mesh);
 		}
+		recentlyAllocated.clear();
 
 		// Always need to flush the index pool.
 		indexPool.flush();
 
-		uploadAll();
-        dirty = false;
-    }
+		if (needsCompaction()) {
+			compactionPending = compactStep();
+		}
+
+		dirty = false;
+	}
 
 	private void processDeletions() {
 		// remove deleted meshes
@@ -97,42 +177,177 @@ public class MeshPool {
 			boolean deleted = pooledMesh.isDeleted();
 			if (deleted) {
 				meshes.remove(pooledMesh.mesh);
+
+				if (pooledMesh.usesIndexPool) {
+					indexPool.removeMesh(pooledMesh.mesh.indexSequence(), pooledMesh.indexCount());
+					pooledMesh.usesIndexPool = false;
+				}
+
+				if (pooledMesh.hasContentHash && byContent.get(pooledMesh.contentHash) == pooledMesh) {
+					byContent.remove(pooledMesh.contentHash);
+				}
+
+				// Meshes that draw from another mesh's region never set their own base vertex.
+				if (pooledMesh.baseVertex != PooledMesh.INVALID_BASE_VERTEX) {
+					allocator.free(pooledMesh.baseVertex, pooledMesh.vertexCount());
+					pooledMesh.baseVertex = PooledMesh.INVALID_BASE_VERTEX;
+					compactionPending = true;
+				}
 			}
 			return deleted;
 		});
 	}
 
-	private void uploadAll() {
-		long neededSize = 0;
-		for (PooledMesh mesh : meshList) {
-			neededSize += mesh.byteSize();
+	/**
+	 * Write the mesh to scratch memory, then either point it at an identical region or upload it into a new one.
+	 */
+	private void writeNewMesh(PooledMesh mesh) {
+		int vertexCount = mesh.vertexCount();
+
+		if (vertexCount == 0) {
+			// Never drawn, so it doesn't need a region.
+			return;
 		}
 
-		final var vertexBlock = MemoryBlock.malloc(neededSize);
-		final long vertexPtr = vertexBlock.ptr();
+		long byteSize = (long) vertexCount * stride;
 
-		int byteIndex = 0;
-		int baseVertex = 0;
-		for (PooledMesh mesh : meshList) {
-			mesh.baseVertex = baseVertex;
+		uploadScratch = ensureScratchCapacity(uploadScratch, byteSize);
+		long scratchPtr = uploadScratch.ptr();
+		mesh.bounds = writeVertices(mesh.mesh, scratchPtr);
 
-			vertexView.ptr(vertexPtr + byteIndex);
-			vertexView.vertexCount(mesh.vertexCount());
-			mesh.mesh.write(vertexView);
+		long hash = 0;
+		PooledMesh existing = null;
 
-			byteIndex += mesh.byteSize();
-			baseVertex += mesh.vertexCount();
+		if (DEDUPLICATE_MESHES) {
+			hash = ContentHash.hash(scratchPtr, byteSize);
+			existing = byContent.get(hash);
+
+			if (existing != null && existing.holds(scratchPtr, vertexCount, mesh.bounds)) {
+				existing.acquire();
+				mesh.source = existing;
+
+				deduplicatedBytes += byteSize;
+				FlwMemoryTracker._addDeduplicatedGPUMemory(byteSize);
+				return;
+			}
 		}
 
-		vbo.upload(vertexBlock);
+		int baseVertex = allocator.alloc(vertexCount);
+		ensureVboCapacity();
+		vbo.uploadSpan((long) baseVertex * stride, scratchPtr, byteSize);
+
+		mesh.baseVertex = baseVertex;
+		compactionPending = true;
 
-		vertexBlock.free();
+		if (DEDUPLICATE_MESHES && existing == null) {
+			mesh.contentHash = hash;
+			mesh.hasContentHash = true;
+			byContent.put(hash, mesh);
+		}
+	}
+
+	/**
+	 * @return The bounds to dequantize the written vertices, or {@link QuantizedVertexView.Bounds#EMPTY} if the pool
+	 * isn't quantized.
+	 */
+	private QuantizedVertexView.Bounds writeVertices(Mesh mesh, long ptr) {
+		if (quantized) {
+			return writeQuantized(mesh, ptr);
+		}
+
+		vertexView.ptr(ptr);
+		vertexView.vertexCount(mesh.vertexCount());
+		mesh.write(vertexView);
+		return QuantizedVertexView.Bounds.EMPTY;
+	}
+
+	private QuantizedVertexView.Bounds writeQuantized(Mesh mesh, long ptr) {
+		int vertexCount = mesh.vertexCount();
+		quantizeScratch = ensureScratchCapacity(quantizeScratch, (long) vertexCount * InternalVertex.STRIDE);
+
+		vertexView.ptr(quantizeScratch.ptr());
+		vertexView.vertexCount(vertexCount);
+		mesh.write(vertexView);
+
+		var bounds = QuantizedVertexView.Bounds.of(vertexView);
+
+		quantizedView.ptr(ptr);
+		quantizedView.vertexCount(vertexCount);
+		quantizedView.bounds(bounds);
+		quantizedView.quantize(vertexView);
+		return bounds;
+	}
+
+	private static MemoryBlock ensureScratchCapacity(@Nullable MemoryBlock scratch, long size) {
+		if (scratch == null) {
+			return MemoryBlock.malloc(size);
+		} else if (scratch.size() < size) {
+			return scratch.realloc(size);
+		}
+
+		return scratch;
+	}
+
+	private boolean needsCompaction() {
+		return COMPACT_MESH_POOL && compactionPending && allocator.fragmentation() > COMPACTION_THRESHOLD;
+	}
+
+	/**
+	 * Move meshes from the end of the arena into holes closer to the start, up to a fixed budget.
+	 * <br>
+	 * Only moved meshes get a new base vertex.
+	 *
+	 * @return {@code true} if the budget ran out, so another pass may still move something.
+	 */
+	private boolean compactStep() {
+		var candidates = new ArrayList<>(meshList);
+		candidates.removeIf(mesh -> mesh.baseVertex == PooledMesh.INVALID_BASE_VERTEX || mesh.vertexCount() == 0);
+		candidates.sort(Comparator.comparingInt(PooledMesh::baseVertex)
+				.reversed());
+
+		long budget = COMPACTION_BUDGET_BYTES;
+
+		for (PooledMesh mesh : candidates) {
+			if (budget <= 0) {
+				return true;
+			}
+
+			if (allocator.fragmentation() <= COMPACTION_THRESHOLD / 2) {
+				return false;
+			}
+
+			int vertexCount = mesh.vertexCount();
+			int newBaseVertex = allocator.allocBelow(vertexCount, mesh.baseVertex);
+
+			if (newBaseVertex == -1) {
+				continue;
+			}
+
+			// The new range ends at or before the old one starts, so they never overlap.
+			vbo.copySpan((long) mesh.baseVertex * stride, (long) newBaseVertex * stride, mesh.byteSize());
+
+			allocator.free(mesh.baseVertex, vertexCount);
+			mesh.baseVertex = newBaseVertex;
+
+			budget -= mesh.byteSize();
+		}
+
+		return false;
+	}
+
+	private void ensureVboCapacity() {
+		long neededSize = (long) allocator.end() * stride;
+
+		if (vbo.size() < neededSize) {
+			// Leave room to append before the next reallocation.
+			vbo.ensureCapacity(Math.max(neededSize, Math.max(vbo.size() * 3 / 2, stride * 1024L)));
+		}
 	}
 
 	public void bind(GlVertexArray vertexArray) {
 		indexPool.bind(vertexArray);
-		vertexArray.bindVertexBuffer(0, vbo.handle(), 0, InternalVertex.STRIDE);
-		vertexArray.bindAttributes(0, 0, InternalVertex.ATTRIBUTES);
+		vertexArray.bindVertexBuffer(0, vbo.handle(), 0, stride);
+		vertexArray.bindAttributes(0, 0, quantized ? InternalVertex.QUANTIZED_ATTRIBUTES : InternalVertex.ATTRIBUTES);
 	}
 
 	public void delete() {
@@ -140,6 +355,27 @@ public class MeshPool {
 		indexPool.delete();
 		meshes.clear();
 		meshList.clear();
+		recentlyAllocated.clear();
+		allocator.clear();
+
+		if (uploadScratch != null) {
+			uploadScratch.free();
+			uploadScratch = null;
+		}
+
+		if (quantizeScratch != null) {
+			quantizeScratch.free();
+			quantizeScratch = null;
+		}
+
+		if (compareScratch != null) {
+			compareScratch.free();
+			compareScratch = null;
+		}
+
+		byContent.clear();
+		FlwMemoryTracker._removeDeduplicatedGPUMemory(deduplicatedBytes);
+		deduplicatedBytes = 0;
 	}
 
 	public class PooledMesh extends ReferenceCounted {
@@ -147,6 +383,18 @@ public class MeshPool {
 
 		private final Mesh mesh;
 		private int baseVertex = INVALID_BASE_VERTEX;
+		private QuantizedVertexView.Bounds bounds = QuantizedVertexView.Bounds.EMPTY;
+		/**
+		 * The mesh whose region of the arena this mesh draws from, if its vertices were deduplicated.
+		 */
+		@Nullable
+		private PooledMesh source;
+		private long contentHash;
+		private boolean hasContentHash;
+		/**
+		 * Whether this mesh was added to the index pool, so it has to be removed again when deleted.
+		 */
+		private boolean usesIndexPool;
 
 		private PooledMesh(Mesh mesh) {
 			this.mesh = mesh;
@@ -157,7 +405,7 @@ public class MeshPool {
 		}
 
 		public int byteSize() {
-			return mesh.vertexCount() * InternalVertex.STRIDE;
+			return mesh.vertexCount() * stride;
 		}
 
 		public int indexCount() {
@@ -165,7 +413,7 @@ public class MeshPool {
 		}
 
 		public int baseVertex() {
-			return baseVertex;
+			return source != null ? source.baseVertex : baseVertex;
 		}
 
 		public int firstIndex() {
@@ -177,19 +425,66 @@ public class MeshPool {
 		}
 
 		public boolean isInvalid() {
-			return mesh.vertexCount() == 0 || baseVertex == INVALID_BASE_VERTEX || isDeleted();
+			return mesh.vertexCount() == 0 || baseVertex() == INVALID_BASE_VERTEX || isDeleted();
+		}
+
+		/**
+		 * The arena isn't readable from the CPU, so this writes the mesh again and compares against that.
+		 *
+		 * @return {@code true} if this mesh's region holds exactly the given vertices.
+		 */
+		private boolean holds(long ptr, int vertexCount, QuantizedVertexView.Bounds bounds) {
+			if (isDeleted() || baseVertex == INVALID_BASE_VERTEX || vertexCount() != vertexCount || !this.bounds.equals(bounds)) {
+				return false;
+			}
+
+			long byteSize = (long) vertexCount * stride;
+			compareScratch = ensureScratchCapacity(compareScratch, byteSize);
+			writeVertices(mesh, compareScratch.ptr());
+
+			return ContentHash.contentEquals(compareScratch.ptr(), ptr, byteSize);
+		}
+
+		/**
+		 * Write the 10 floats needed to dequantize this mesh, zeros if the pool isn't quantized.
+		 */
+		public void writeDequantization(long ptr) {
+			bounds.write(ptr);
+		}
+
+		/**
+		 * Set the uniforms needed to dequantize this mesh on the currently bound program.
+		 */
+		public void setupDraw(GlProgram program) {
+			if (!quantized) {
+				return;
+			}
+
+			program.setVec3("_flw_meshPositionMin", bounds.minX(), bounds.minY(), bounds.minZ());
+			program.setVec3("_flw_meshPositionExtent", bounds.extentX(), bounds.extentY(), bounds.extentZ());
+			program.setVec2("_flw_meshTexCoordMin", bounds.minU(), bounds.minV());
+			program.setVec2("_flw_meshTexCoordExtent", bounds.extentU(), bounds.extentV());
 		}
 
 		public void draw(int instanceCount) {
 			if (instanceCount > 1) {
-				GL32.glDrawElementsInstancedBaseVertex(GlPrimitive.TRIANGLES.glEnum, mesh.indexCount(), GL32.GL_UNSIGNED_INT, firstIndexByteOffset(), instanceCount, baseVertex);
+				GL32.glDrawElementsInstancedBaseVertex(GlPrimitive.TRIANGLES.glEnum, mesh.indexCount(), GL32.GL_UNSIGNED_INT, firstIndexByteOffset(), instanceCount, baseVertex());
 			} else {
-				GL32.glDrawElementsBaseVertex(GlPrimitive.TRIANGLES.glEnum, mesh.indexCount(), GL32.GL_UNSIGNED_INT, firstIndexByteOffset(), baseVertex);
+				GL32.glDrawElementsBaseVertex(GlPrimitive.TRIANGLES.glEnum, mesh.indexCount(), GL32.GL_UNSIGNED_INT, firstIndexByteOffset(), baseVertex());
 			}
 		}
 
 		@Override
 		protected void _delete() {
+			if (source != null) {
+				long byteSize = byteSize();
+				deduplicatedBytes -= byteSize;
+				FlwMemoryTracker._removeDeduplicatedGPUMemory(byteSize);
+
+				source.release();
+				source = null;
+			}
+
 			MeshPool.this.dirty = true;
 			MeshPool.this.anyToRemove = true;
 		}
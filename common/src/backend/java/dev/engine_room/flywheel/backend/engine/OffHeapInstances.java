@@ -0,0 +1,125 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.Arrays;
+
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+
+/**
+ * Instance data for an instancer whose type {@link dev.engine_room.flywheel.api.instance.InstanceType#offHeap() stores it off heap}.
+ * <br>
+ * Instances are laid out back to back in fixed size pages that never move, so instances can write through their
+ * handles from any thread while the instancer allocates more of them. Instances only change address when the
+ * instancer compacts itself in {@link AbstractInstancer#removeDeletedInstances}.
+ */
+public class OffHeapInstances {
+	public static final int PAGE_SHIFT = 10;
+	public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * The largest stride that fits in {@link #SINK}.
+	 */
+	public static final long MAX_STRIDE = 4096;
+	/**
+	 * Where deleted instances write to. Shared and never freed since views of deleted instances can outlive their instancer.
+	 */
+	private static final MemoryBlock SINK = MemoryBlock.malloc(MAX_STRIDE);
+
+	private final long stride;
+	private volatile MemoryBlock[] pages = new MemoryBlock[0];
+
+	public OffHeapInstances(long stride) {
+		if (stride > MAX_STRIDE) {
+			throw new IllegalArgumentException("Instances of " + stride + " bytes are too large to store off heap");
+		}
+
+		this.stride = stride;
+	}
+
+	public long stride() {
+		return stride;
+	}
+
+	/**
+	 * @return The number of instances that fit without allocating another page.
+	 */
+	public int capacity() {
+		return pages.length << PAGE_SHIFT;
+	}
+
+	/**
+	 * @return The number of bytes allocated for instance data.
+	 */
+	public long byteSize() {
+		return (long) capacity() * stride;
+	}
+
+	/**
+	 * Make room for the given number of instances.
+	 * <br>
+	 * Must be called under the instancer's lock, but is safe to call while other threads access existing instances.
+	 */
+	public void ensureCapacity(int count) {
+		var current = pages;
+		int needed = (count + PAGE_MASK) >>> PAGE_SHIFT;
+
+		if (needed <= current.length) {
+			return;
+		}
+
+		var grown = Arrays.copyOf(current, needed);
+
+		for (int i = current.length; i < needed; i++) {
+			grown[i] = MemoryBlock.malloc(PAGE_SIZE * stride);
+		}
+
+		pages = grown;
+	}
+
+	/**
+	 * @param index The index of an instance, or a negative number for deleted instances.
+	 * @return The address of the instance's data.
+	 */
+	public long ptr(int index) {
+		if (index < 0) {
+			return SINK.ptr();
+		}
+
+		return pages[index >>> PAGE_SHIFT].ptr() + (index & PAGE_MASK) * stride;
+	}
+
+	/**
+	 * Move the data of one instance into the slot of another.
+	 */
+	public void move(int from, int to) {
+		MemoryUtil.memCopy(ptr(from), ptr(to), stride);
+	}
+
+	/**
+	 * Copy instances {@code [startInclusive, endInclusive]} contiguously to the given address, one copy per page touched.
+	 */
+	public void copyTo(long dst, int startInclusive, int endInclusive) {
+		int index = startInclusive;
+
+		while (index <= endInclusive) {
+			int pageEnd = Math.min(endInclusive, index | PAGE_MASK);
+			long bytes = (pageEnd - index + 1) * stride;
+
+			MemoryUtil.memCopy(ptr(index), dst, bytes);
+
+			dst += bytes;
+			index = pageEnd + 1;
+		}
+	}
+
+	public void delete() {
+		var current = pages;
+		pages = new MemoryBlock[0];
+
+		for (MemoryBlock page : current) {
+			page.free();
+		}
+	}
+}
@@ -67,6 +67,7 @@ public abstract class AbstractEmbeddedEnvironment extends AtomicReferenceCounted
 	@Override
 	public void setupCull(GlProgram program) {
 		program.setBool(EmbeddingUniforms.USE_MODEL_MATRIX, true);
+		program.setBool(EmbeddingUniforms.USE_EMBEDDING_BUFFER, false);
 
 		program.setMat4(EmbeddingUniforms.MODEL_MATRIX1, poseComposed);
 	}
@@ -113,8 +114,17 @@ public abstract class AbstractEmbeddedEnvironment extends AtomicReferenceCounted
 		engine.environmentStorage().enqueueDeletion(this);
 	}
 
+	/**
+	 * Write the matrices composed in the last {@link #flush} into a slot of a batch of embeddings.
+	 */
+	public void writeBatchedTransforms(EmbeddingTable<AbstractEmbeddedEnvironment> table, int slot) {
+		table.writeTransforms(slot, poseComposed, normalComposed);
+	}
+
 	public abstract void setupLight(GlProgram program);
 
+	public abstract void writeBatchedLight(EmbeddingTable<AbstractEmbeddedEnvironment> table, int slot);
+
 	public abstract void composeMatrices(Matrix4f pose, Matrix3f normal);
 
 	/**
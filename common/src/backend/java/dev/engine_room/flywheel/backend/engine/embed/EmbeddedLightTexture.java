@@ -1,6 +1,7 @@
 package dev.engine_room.flywheel.backend.engine.embed;
 
 import static org.lwjgl.opengl.GL11.GL_LINEAR;
+import static org.lwjgl.opengl.GL11.GL_NEAREST;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
@@ -10,6 +11,7 @@ import static org.lwjgl.opengl.GL11.GL_UNPACK_ROW_LENGTH;
 import static org.lwjgl.opengl.GL11.GL_UNPACK_SKIP_PIXELS;
 import static org.lwjgl.opengl.GL11.GL_UNPACK_SKIP_ROWS;
 import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
 import static org.lwjgl.opengl.GL11.glPixelStorei;
 import static org.lwjgl.opengl.GL11.glTexParameteri;
 import static org.lwjgl.opengl.GL12.GL_TEXTURE_3D;
@@ -18,27 +20,52 @@ import static org.lwjgl.opengl.GL12.GL_UNPACK_IMAGE_HEIGHT;
 import static org.lwjgl.opengl.GL12.GL_UNPACK_SKIP_IMAGES;
 import static org.lwjgl.opengl.GL12.glTexImage3D;
 import static org.lwjgl.opengl.GL12.glTexSubImage3D;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
 import static org.lwjgl.opengl.GL14.GL_MIRRORED_REPEAT;
 
 import org.jetbrains.annotations.Nullable;
 import org.lwjgl.opengl.GL30;
 
+import dev.engine_room.flywheel.backend.Samplers;
 import dev.engine_room.flywheel.backend.gl.GlTexture;
 import net.minecraft.util.Mth;
 
 public class EmbeddedLightTexture {
+	/**
+	 * The atlas for sparse light volumes is this many pages wide and tall, and grows in depth.
+	 */
+	public static final int ATLAS_PAGES_XY = 8;
+
 	@Nullable
 	private GlTexture texture;
+	@Nullable
+	private GlTexture pageTable;
 
 	public int sizeX;
 	public int sizeY;
 	public int sizeZ;
 
+	/**
+	 * The number of pages the atlas can hold in depth, for sparse light volumes.
+	 */
+	private int atlasPagesZ;
+
 	public void bind() {
 
 		texture().bind();
 	}
 
+	/**
+	 * Bind the page table of a sparse light volume to its own texture unit.
+	 * <br>
+	 * Leaves {@link Samplers#EMBEDDED_LIGHT} active.
+	 */
+	public void bindPageTable() {
+		Samplers.EMBEDDED_LIGHT_PAGE_TABLE.makeActive();
+		pageTable().bind();
+		Samplers.EMBEDDED_LIGHT.makeActive();
+	}
+
 	private GlTexture texture() {
 		if (texture == null) {
 			texture = new GlTexture(GL_TEXTURE_3D);
@@ -46,6 +73,13 @@ public class EmbeddedLightTexture {
 		return texture;
 	}
 
+	private GlTexture pageTable() {
+		if (pageTable == null) {
+			pageTable = new GlTexture(GL_TEXTURE_3D);
+		}
+		return pageTable;
+	}
+
 	public void ensureCapacity(int sizeX, int sizeY, int sizeZ) {
 		sizeX = Mth.smallestEncompassingPowerOfTwo(sizeX);
 		sizeY = Mth.smallestEncompassingPowerOfTwo(sizeY);
@@ -79,9 +113,89 @@ public class EmbeddedLightTexture {
 		glPixelStorei(GL_UNPACK_ALIGNMENT, 4); // 4 is the default
 	}
 
+	/**
+	 * Make sure the atlas of the bound texture can hold the given number of sparse light volume pages.
+	 *
+	 * @return {@code true} if the atlas was reallocated and all pages need to be uploaded again.
+	 */
+	public boolean ensurePageCapacity(int pageCount) {
+		int pagesPerLayer = ATLAS_PAGES_XY * ATLAS_PAGES_XY;
+		int pagesZ = Mth.smallestEncompassingPowerOfTwo((pageCount + pagesPerLayer - 1) / pagesPerLayer);
+
+		if (pagesZ <= atlasPagesZ) {
+			return false;
+		}
+
+		atlasPagesZ = pagesZ;
+		sizeX = ATLAS_PAGES_XY * SparseEmbeddedLightVolume.PAGE_SIZE;
+		sizeY = ATLAS_PAGES_XY * SparseEmbeddedLightVolume.PAGE_SIZE;
+		sizeZ = pagesZ * SparseEmbeddedLightVolume.PAGE_SIZE;
+
+		glTexImage3D(GL_TEXTURE_3D, 0, GL30.GL_RG8, sizeX, sizeY, sizeZ, 0, GL30.GL_RG, GL_UNSIGNED_BYTE, 0);
+
+		// Pages are sampled with texelFetch, filtering happens in the shader so it never crosses into unrelated pages.
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+		return true;
+	}
+
+	/**
+	 * Upload a single page of a sparse light volume into the atlas of the bound texture.
+	 *
+	 * @param page The index of the page.
+	 * @param ptr  Pointer to the {@link SparseEmbeddedLightVolume#PAGE_BYTES} bytes of the page.
+	 */
+	public void uploadPage(int page, long ptr) {
+		int pageX = page % ATLAS_PAGES_XY;
+		int pageY = (page / ATLAS_PAGES_XY) % ATLAS_PAGES_XY;
+		int pageZ = page / (ATLAS_PAGES_XY * ATLAS_PAGES_XY);
+		int size = SparseEmbeddedLightVolume.PAGE_SIZE;
+
+		glPixelStorei(GL_UNPACK_ROW_LENGTH, 0);
+		glPixelStorei(GL_UNPACK_SKIP_PIXELS, 0);
+		glPixelStorei(GL_UNPACK_SKIP_ROWS, 0);
+		glPixelStorei(GL_UNPACK_SKIP_IMAGES, 0);
+		glPixelStorei(GL_UNPACK_IMAGE_HEIGHT, 0);
+		glPixelStorei(GL_UNPACK_ALIGNMENT, (int) EmbeddedLightVolume.STRIDE);
+
+		glTexSubImage3D(GL_TEXTURE_3D, 0, pageX * size, pageY * size, pageZ * size, size, size, size, GL30.GL_RG, GL_UNSIGNED_BYTE, ptr);
+
+		glPixelStorei(GL_UNPACK_ALIGNMENT, 4); // 4 is the default
+	}
+
+	/**
+	 * Replace the page table of a sparse light volume.
+	 * <br>
+	 * Leaves {@link Samplers#EMBEDDED_LIGHT} active.
+	 */
+	public void uploadPageTable(long ptr, int sizeX, int sizeY, int sizeZ) {
+		Samplers.EMBEDDED_LIGHT_PAGE_TABLE.makeActive();
+		pageTable().bind();
+
+		glPixelStorei(GL_UNPACK_ROW_LENGTH, 0);
+		glPixelStorei(GL_UNPACK_SKIP_PIXELS, 0);
+		glPixelStorei(GL_UNPACK_SKIP_ROWS, 0);
+		glPixelStorei(GL_UNPACK_SKIP_IMAGES, 0);
+		glPixelStorei(GL_UNPACK_IMAGE_HEIGHT, 0);
+
+		// The table is tiny compared to the pages, so just reallocate it every time it changes.
+		glTexImage3D(GL_TEXTURE_3D, 0, GL30.GL_R32UI, sizeX, sizeY, sizeZ, 0, GL30.GL_RED_INTEGER, GL_UNSIGNED_INT, ptr);
+
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_WRAP_R, GL_CLAMP_TO_EDGE);
+		glTexParameteri(GL_TEXTURE_3D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+
+		Samplers.EMBEDDED_LIGHT.makeActive();
+	}
+
 	public void delete() {
 		if (texture != null) {
 			texture.delete();
 		}
+		if (pageTable != null) {
+			pageTable.delete();
+		}
 	}
 }
@@ -18,8 +18,6 @@ public class EmbeddedLightVolume {
 	private int maxY;
 	private int maxZ;
 
-	private final BlockPos.MutableBlockPos scratchPos = new BlockPos.MutableBlockPos();
-
 	@Nullable
 	protected MemoryBlock memoryBlock;
 	protected boolean empty = true;
@@ -29,6 +27,10 @@ public class EmbeddedLightVolume {
 	}
 
 	public void collect(BlockAndTintGetter level, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+		collect(LightSource.of(level), minX, minY, minZ, sizeX, sizeY, sizeZ);
+	}
+
+	public void collect(LightSource source, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
 		maybeExpandForBox(minX, minY, minZ, sizeX, sizeY, sizeZ);
 
 		empty = false;
@@ -36,20 +38,26 @@ public class EmbeddedLightVolume {
 		for (int z = minZ; z < minZ + sizeZ; z++) {
 			for (int y = minY; y < minY + sizeY; y++) {
 				for (int x = minX; x < minX + sizeX; x++) {
-					paintLight(level, x, y, z);
+					paintLight(source, x, y, z);
 				}
 			}
 		}
 	}
 
-	private void paintLight(BlockAndTintGetter level, int x, int y, int z) {
-		scratchPos.set(x, y, z);
+	private void paintLight(LightSource source, int x, int y, int z) {
+		long ptr = this.memoryBlock.ptr() + offset(x - x(), y - y(), z - z(), sizeX(), sizeY());
+		MemoryUtil.memPutShort(ptr, source.get(x, y, z));
+	}
 
-		int block = level.getBrightness(LightLayer.BLOCK, scratchPos);
-		int sky = level.getBrightness(LightLayer.SKY, scratchPos);
+	/**
+	 * @return The packed light at the given position, or {@code 0} if it's outside the volume.
+	 */
+	short get(int x, int y, int z) {
+		if (empty || x < minX || y < minY || z < minZ || x >= maxX || y >= maxY || z >= maxZ) {
+			return 0;
+		}
 
-		long ptr = this.memoryBlock.ptr() + offset(x - x(), y - y(), z - z(), sizeX(), sizeY());
-		MemoryUtil.memPutShort(ptr, (short) ((block << 4) | sky << 12));
+		return MemoryUtil.memGetShort(memoryBlock.ptr() + offset(x - minX, y - minY, z - minZ, sizeX(), sizeY()));
 	}
 
 	private void maybeExpandForBox(int x, int y, int z, int sizeX, int sizeY, int sizeZ) {
@@ -126,9 +134,10 @@ public class EmbeddedLightVolume {
 	}
 
 	public static void blit(long src, int srcX, int srcY, int srcZ, int srcSizeX, int srcSizeY, long dst, int dstX, int dstY, int dstZ, int dstSizeX, int dstSizeY, int sizeX, int sizeY, int sizeZ) {
-		for (int z = 0; z < sizeZ; z++) {
-			for (int y = 0; y < sizeY; y++) {
-				for (int x = 0; x < sizeX; x++) {
+		// Go backwards so that growing a volume in place never overwrites cells that haven't been moved yet.
+		for (int z = sizeZ - 1; z >= 0; z--) {
+			for (int y = sizeY - 1; y >= 0; y--) {
+				for (int x = sizeX - 1; x >= 0; x--) {
 					long srcPtr = src + offset(x + srcX, y + srcY, z + srcZ, srcSizeX, srcSizeY);
 					long dstPtr = dst + offset(x + dstX, y + dstY, z + dstZ, dstSizeX, dstSizeY);
 
@@ -184,4 +193,34 @@ public class EmbeddedLightVolume {
 	public int volume() {
 		return sizeX() * sizeY() * sizeZ();
 	}
+
+	/**
+	 * Pack block and sky light into the 2 byte format stored in light volumes.
+	 * <br>
+	 * The low byte is sampled as the red channel and holds block light, the high byte holds sky light.
+	 */
+	public static short pack(int block, int sky) {
+		return (short) ((block << 4) | sky << 12);
+	}
+
+	@FunctionalInterface
+	public interface LightSource {
+		/**
+		 * @return The light at the given position, packed with {@link #pack}.
+		 */
+		short get(int x, int y, int z);
+
+		static LightSource of(BlockAndTintGetter level) {
+			var scratchPos = new BlockPos.MutableBlockPos();
+
+			return (x, y, z) -> {
+				scratchPos.set(x, y, z);
+
+				int block = level.getBrightness(LightLayer.BLOCK, scratchPos);
+				int sky = level.getBrightness(LightLayer.SKY, scratchPos);
+
+				return pack(block, sky);
+			};
+		}
+	}
 }
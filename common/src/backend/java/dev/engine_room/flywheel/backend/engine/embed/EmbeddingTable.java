@@ -0,0 +1,229 @@
+package dev.engine_room.flywheel.backend.engine.embed;
+
+import java.util.function.Predicate;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.lib.math.MatrixMath;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+
+/**
+ * The CPU side of {@link dev.engine_room.flywheel.backend.engine.indirect.EmbeddingBatch}. Hands out a slot for each embedding and packs the matrices and
+ * light volume of each slot into the layout of {@code flywheel:internal/indirect/embedding_descriptor.glsl}.
+ * <br>
+ * Slot {@code 0} is reserved for instances without a live embedding and always holds identity matrices and no light.
+ *
+ * @param <E> The embedding type. Embeddings are compared by identity.
+ */
+public class EmbeddingTable<E> {
+	public static final long DESCRIPTOR_STRIDE = 144;
+	public static final long POSE_OFFSET = 0;
+	public static final long NORMAL_OFFSET = 64;
+	public static final long LIGHT_VOLUME_MIN_OFFSET = 112;
+	public static final long LIGHT_VOLUME_SIZE_OFFSET = 128;
+	/**
+	 * Stored in place of the light data offset for slots without a light volume.
+	 */
+	public static final int NO_LIGHT = -1;
+
+	private static final int RESERVED_SLOTS = 1;
+	private static final Matrix4f IDENTITY_POSE = new Matrix4f();
+	private static final Matrix3f IDENTITY_NORMAL = new Matrix3f();
+
+	private final Reference2IntMap<E> slots = new Reference2IntOpenHashMap<>();
+	private final IntArrayList freeSlots = new IntArrayList();
+	private final Reference2LongMap<Object> lightOffsets = new Reference2LongOpenHashMap<>();
+	private int slotCount = RESERVED_SLOTS;
+
+	private MemoryBlock descriptors;
+	private MemoryBlock light;
+	private long lightBytes;
+
+	public EmbeddingTable() {
+		slots.defaultReturnValue(-1);
+		descriptors = MemoryBlock.malloc(8 * DESCRIPTOR_STRIDE);
+		light = MemoryBlock.malloc(1024);
+
+		writeTransforms(0, IDENTITY_POSE, IDENTITY_NORMAL);
+		writeNoLight(0);
+	}
+
+	/**
+	 * Get the slot of the given embedding, assigning a new one if it doesn't have one yet.
+	 */
+	public int slot(E embedding) {
+		int slot = slots.getInt(embedding);
+
+		if (slot != -1) {
+			return slot;
+		}
+
+		if (freeSlots.isEmpty()) {
+			slot = slotCount++;
+			ensureDescriptorCapacity(slotCount);
+		} else {
+			slot = freeSlots.popInt();
+		}
+
+		slots.put(embedding, slot);
+
+		// Don't leave garbage in the slot until the owner gets around to writing it.
+		writeTransforms(slot, IDENTITY_POSE, IDENTITY_NORMAL);
+		writeNoLight(slot);
+		return slot;
+	}
+
+	/**
+	 * Free the slots of all embeddings matching the given predicate so they can be handed out again.
+	 */
+	public void removeIf(Predicate<E> predicate) {
+		for (var iterator = slots.reference2IntEntrySet().iterator(); iterator.hasNext(); ) {
+			var entry = iterator.next();
+
+			if (predicate.test(entry.getKey())) {
+				freeSlots.add(entry.getIntValue());
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Call the given consumer for each assigned slot.
+	 */
+	public void forEach(SlotConsumer<E> consumer) {
+		for (var entry : slots.reference2IntEntrySet()) {
+			consumer.accept(entry.getKey(), entry.getIntValue());
+		}
+	}
+
+	/**
+	 * @return The number of descriptors that must be uploaded to cover every assigned slot.
+	 */
+	public int slotCount() {
+		return slotCount;
+	}
+
+	public int assignedSlots() {
+		return slots.size();
+	}
+
+	public void writeTransforms(int slot, Matrix4f pose, Matrix3f normal) {
+		long ptr = descriptorPtr(slot);
+
+		MatrixMath.writeUnsafe(ptr + POSE_OFFSET, pose);
+
+		// std430 pads each column of a mat3 to a vec4.
+		long normalPtr = ptr + NORMAL_OFFSET;
+		MemoryUtil.memPutFloat(normalPtr, normal.m00());
+		MemoryUtil.memPutFloat(normalPtr + 4, normal.m01());
+		MemoryUtil.memPutFloat(normalPtr + 8, normal.m02());
+		MemoryUtil.memPutFloat(normalPtr + 12, 0);
+		MemoryUtil.memPutFloat(normalPtr + 16, normal.m10());
+		MemoryUtil.memPutFloat(normalPtr + 20, normal.m11());
+		MemoryUtil.memPutFloat(normalPtr + 24, normal.m12());
+		MemoryUtil.memPutFloat(normalPtr + 28, 0);
+		MemoryUtil.memPutFloat(normalPtr + 32, normal.m20());
+		MemoryUtil.memPutFloat(normalPtr + 36, normal.m21());
+		MemoryUtil.memPutFloat(normalPtr + 40, normal.m22());
+		MemoryUtil.memPutFloat(normalPtr + 44, 0);
+	}
+
+	/**
+	 * Forget the light data packed last frame. Must be called before the first {@link #writeLight} of a frame.
+	 */
+	public void beginLight() {
+		lightOffsets.clear();
+		lightBytes = 0;
+	}
+
+	/**
+	 * Point a slot at a dense light volume, copying the volume into the light buffer
+	 * unless the same owner was already packed since the last {@link #beginLight}.
+	 *
+	 * @param owner   The object owning the light volume, so nested embeddings can share their parent's volume.
+	 * @param ptr     The cells of the volume laid out as in {@link EmbeddedLightVolume#offset}.
+	 */
+	public void writeLight(int slot, Object owner, float minX, float minY, float minZ, int sizeX, int sizeY, int sizeZ, long ptr) {
+		long cellOffset = lightOffsets.getOrDefault(owner, -1L);
+
+		if (cellOffset == -1L) {
+			long bytes = (long) sizeX * sizeY * sizeZ * EmbeddedLightVolume.STRIDE;
+			ensureLightCapacity(lightBytes + bytes);
+
+			MemoryUtil.memCopy(ptr, light.ptr() + lightBytes, bytes);
+
+			cellOffset = lightBytes / EmbeddedLightVolume.STRIDE;
+			lightBytes += bytes;
+			lightOffsets.put(owner, cellOffset);
+		}
+
+		long descriptorPtr = descriptorPtr(slot);
+		MemoryUtil.memPutFloat(descriptorPtr + LIGHT_VOLUME_MIN_OFFSET, minX);
+		MemoryUtil.memPutFloat(descriptorPtr + LIGHT_VOLUME_MIN_OFFSET + 4, minY);
+		MemoryUtil.memPutFloat(descriptorPtr + LIGHT_VOLUME_MIN_OFFSET + 8, minZ);
+		MemoryUtil.memPutFloat(descriptorPtr + LIGHT_VOLUME_MIN_OFFSET + 12, 0);
+		MemoryUtil.memPutInt(descriptorPtr + LIGHT_VOLUME_SIZE_OFFSET, sizeX);
+		MemoryUtil.memPutInt(descriptorPtr + LIGHT_VOLUME_SIZE_OFFSET + 4, sizeY);
+		MemoryUtil.memPutInt(descriptorPtr + LIGHT_VOLUME_SIZE_OFFSET + 8, sizeZ);
+		MemoryUtil.memPutInt(descriptorPtr + LIGHT_VOLUME_SIZE_OFFSET + 12, (int) cellOffset);
+	}
+
+	public void writeNoLight(int slot) {
+		long descriptorPtr = descriptorPtr(slot);
+		MemoryUtil.memSet(descriptorPtr + LIGHT_VOLUME_MIN_OFFSET, 0, LIGHT_VOLUME_SIZE_OFFSET - LIGHT_VOLUME_MIN_OFFSET + 12);
+		MemoryUtil.memPutInt(descriptorPtr + LIGHT_VOLUME_SIZE_OFFSET + 12, NO_LIGHT);
+	}
+
+	public long descriptorPtr(int slot) {
+		return descriptors.ptr() + slot * DESCRIPTOR_STRIDE;
+	}
+
+	public long descriptorBytes() {
+		return slotCount * DESCRIPTOR_STRIDE;
+	}
+
+	public long lightPtr() {
+		return light.ptr();
+	}
+
+	/**
+	 * @return The number of bytes of light data packed since the last {@link #beginLight}, rounded up to a whole uint.
+	 */
+	public long lightBytes() {
+		return (lightBytes + 3) & ~3L;
+	}
+
+	public void delete() {
+		descriptors.free();
+		light.free();
+	}
+
+	private void ensureDescriptorCapacity(int slots) {
+		long needed = slots * DESCRIPTOR_STRIDE;
+
+		if (descriptors.size() < needed) {
+			descriptors = descriptors.realloc(Math.max(needed, descriptors.size() * 2));
+		}
+	}
+
+	private void ensureLightCapacity(long bytes) {
+		// The shader reads the light buffer as an array of uints, so leave room to upload a trailing partial one.
+		bytes = (bytes + 3) & ~3L;
+
+		if (light.size() < bytes) {
+			light = light.realloc(Math.max(bytes, light.size() * 2));
+		}
+	}
+
+	@FunctionalInterface
+	public interface SlotConsumer<E> {
+		void accept(E embedding, int slot);
+	}
+}
@@ -8,4 +8,5 @@ public class EmbeddingUniforms {
 	public static final String ONE_OVER_LIGHT_BOX_SIZE = "_flw_oneOverLightBoxSize";
 	public static final String LIGHT_VOLUME_MIN = "_flw_lightVolumeMin";
 	public static final String USE_LIGHT_VOLUME = "_flw_useLightVolume";
+	public static final String USE_EMBEDDING_BUFFER = "_flw_useEmbeddingBuffer";
 }
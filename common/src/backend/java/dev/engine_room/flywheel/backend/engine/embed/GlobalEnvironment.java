@@ -22,6 +22,7 @@ public class GlobalEnvironment implements Environment {
 	@Override
 	public void setupCull(GlProgram cullProgram) {
 		cullProgram.setBool(EmbeddingUniforms.USE_MODEL_MATRIX, false);
+		cullProgram.setBool(EmbeddingUniforms.USE_EMBEDDING_BUFFER, false);
 	}
 
 	@Override
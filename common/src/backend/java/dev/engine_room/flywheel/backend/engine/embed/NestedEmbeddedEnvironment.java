@@ -30,6 +30,11 @@ public class NestedEmbeddedEnvironment extends AbstractEmbeddedEnvironment {
 		parent.setupLight(program);
 	}
 
+	@Override
+	public void writeBatchedLight(EmbeddingTable<AbstractEmbeddedEnvironment> table, int slot) {
+		parent.writeBatchedLight(table, slot);
+	}
+
 	@Override
 	public void composeMatrices(Matrix4f pose, Matrix3f normal) {
 		parent.composeMatrices(pose, normal);
@@ -0,0 +1,97 @@
+package dev.engine_room.flywheel.backend.engine.embed;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+
+import dev.engine_room.flywheel.backend.compile.ContextShader;
+import dev.engine_room.flywheel.backend.engine.EngineImpl;
+import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
+import net.minecraft.core.Vec3i;
+
+/**
+ * The environment for instances written relative to a render origin other than the current one.
+ * <br>
+ * Used in place of {@link GlobalEnvironment} when the engine rebases the render origin instead of recreating
+ * every visual. The offset from this origin to the current one is applied as the model matrix, so instances
+ * keep their original, small coordinates and only the integer delta is added on the GPU.
+ */
+public class OriginEnvironment implements Environment {
+	private static final Matrix3f IDENTITY_NORMAL = new Matrix3f();
+
+	private final EngineImpl engine;
+	private final Matrix4f pose = new Matrix4f();
+	private Vec3i origin;
+
+	public OriginEnvironment(EngineImpl engine, Vec3i origin) {
+		this.engine = engine;
+		this.origin = origin;
+	}
+
+	public Vec3i origin() {
+		return origin;
+	}
+
+	/**
+	 * Reuse this environment, and every instancer keyed on it, for a new origin.
+	 * <br>
+	 * Only valid once every visual created against the previous origin has been deleted.
+	 */
+	public void origin(Vec3i origin) {
+		this.origin = origin;
+	}
+
+	public int offsetX() {
+		return origin.getX() - engine.renderOrigin()
+				.getX();
+	}
+
+	public int offsetY() {
+		return origin.getY() - engine.renderOrigin()
+				.getY();
+	}
+
+	public int offsetZ() {
+		return origin.getZ() - engine.renderOrigin()
+				.getZ();
+	}
+
+	@Override
+	public ContextShader contextShader() {
+		return ContextShader.EMBEDDED;
+	}
+
+	@Override
+	public void setupDraw(GlProgram drawProgram) {
+		drawProgram.setMat4(EmbeddingUniforms.MODEL_MATRIX, pose());
+		drawProgram.setMat3(EmbeddingUniforms.NORMAL_MATRIX, IDENTITY_NORMAL);
+		drawProgram.setBool(EmbeddingUniforms.USE_LIGHT_VOLUME, false);
+	}
+
+	/**
+	 * Crumbling programs aren't compiled with this environment's context shader, so only the offset is applied.
+	 */
+	public void setupCrumbling(GlProgram crumblingProgram) {
+		crumblingProgram.setMat4(EmbeddingUniforms.MODEL_MATRIX, pose());
+	}
+
+	@Override
+	public void setupCull(GlProgram cullProgram) {
+		cullProgram.setBool(EmbeddingUniforms.USE_MODEL_MATRIX, true);
+		cullProgram.setBool(EmbeddingUniforms.USE_EMBEDDING_BUFFER, false);
+		cullProgram.setMat4(EmbeddingUniforms.MODEL_MATRIX1, pose());
+	}
+
+	private Matrix4f pose() {
+		return pose.translation(offsetX(), offsetY(), offsetZ());
+	}
+
+	@Override
+	public void acquire() {
+
+	}
+
+	@Override
+	public void release() {
+
+	}
+}
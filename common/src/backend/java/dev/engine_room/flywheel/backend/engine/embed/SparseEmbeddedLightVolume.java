@@ -0,0 +1,313 @@
+package dev.engine_room.flywheel.backend.engine.embed;
+
+import java.util.BitSet;
+
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.BlockAndTintGetter;
+
+/**
+ * A light volume stored as 16³ pages, one per section that any collected box touches.
+ * <br>
+ * Unlike {@link EmbeddedLightVolume}, boxes far away from each other don't force everything between them to
+ * be allocated. On the GPU the pages live in an atlas, and a page table covering the bounding box of all
+ * sections maps each section to its page. The page table costs 4 bytes per section, so memory scales with
+ * the sampled area rather than the bounding box.
+ */
+public class SparseEmbeddedLightVolume {
+	public static final int PAGE_SIZE_LOG2 = 4;
+	public static final int PAGE_SIZE = 1 << PAGE_SIZE_LOG2;
+	public static final int PAGE_MASK = PAGE_SIZE - 1;
+	public static final long PAGE_BYTES = (long) PAGE_SIZE * PAGE_SIZE * PAGE_SIZE * EmbeddedLightVolume.STRIDE;
+	public static final long PAGE_TABLE_STRIDE = Integer.BYTES;
+
+	/**
+	 * Section position to page index.
+	 */
+	private final Long2IntMap pageIndices = new Long2IntOpenHashMap();
+	/**
+	 * Pages that were written to since the last upload.
+	 */
+	private final BitSet dirtyPages = new BitSet();
+
+	@Nullable
+	private MemoryBlock pages;
+	private int pageCount;
+
+	@Nullable
+	private MemoryBlock pageTable;
+	private boolean pageTableDirty;
+
+	// The page table's bounds, in sections.
+	private int tableMinX;
+	private int tableMinY;
+	private int tableMinZ;
+	private int tableSizeX;
+	private int tableSizeY;
+	private int tableSizeZ;
+
+	private boolean empty = true;
+
+	public SparseEmbeddedLightVolume() {
+		pageIndices.defaultReturnValue(-1);
+	}
+
+	public boolean empty() {
+		return empty;
+	}
+
+	public void collect(BlockAndTintGetter level, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+		collect(EmbeddedLightVolume.LightSource.of(level), minX, minY, minZ, sizeX, sizeY, sizeZ);
+	}
+
+	public void collect(EmbeddedLightVolume.LightSource source, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+		if (empty) {
+			// Recently #clear'd, drop the old pages but keep the memory around.
+			pageIndices.clear();
+			dirtyPages.clear();
+			pageCount = 0;
+			pageTableDirty = true;
+		}
+
+		empty = false;
+
+		int maxX = minX + sizeX;
+		int maxY = minY + sizeY;
+		int maxZ = minZ + sizeZ;
+
+		for (int sectionZ = SectionPos.blockToSectionCoord(minZ); sectionZ <= SectionPos.blockToSectionCoord(maxZ - 1); sectionZ++) {
+			for (int sectionY = SectionPos.blockToSectionCoord(minY); sectionY <= SectionPos.blockToSectionCoord(maxY - 1); sectionY++) {
+				for (int sectionX = SectionPos.blockToSectionCoord(minX); sectionX <= SectionPos.blockToSectionCoord(maxX - 1); sectionX++) {
+					int page = getOrCreatePage(sectionX, sectionY, sectionZ);
+					long pagePtr = pagePtr(page);
+
+					int blockX = SectionPos.sectionToBlockCoord(sectionX);
+					int blockY = SectionPos.sectionToBlockCoord(sectionY);
+					int blockZ = SectionPos.sectionToBlockCoord(sectionZ);
+
+					// Only the part of the box that overlaps this section.
+					int fromX = Math.max(minX, blockX);
+					int fromY = Math.max(minY, blockY);
+					int fromZ = Math.max(minZ, blockZ);
+					int toX = Math.min(maxX, blockX + PAGE_SIZE);
+					int toY = Math.min(maxY, blockY + PAGE_SIZE);
+					int toZ = Math.min(maxZ, blockZ + PAGE_SIZE);
+
+					for (int z = fromZ; z < toZ; z++) {
+						for (int y = fromY; y < toY; y++) {
+							for (int x = fromX; x < toX; x++) {
+								MemoryUtil.memPutShort(pagePtr + offsetInPage(x, y, z), source.get(x, y, z));
+							}
+						}
+					}
+
+					dirtyPages.set(page);
+				}
+			}
+		}
+	}
+
+	private int getOrCreatePage(int sectionX, int sectionY, int sectionZ) {
+		long section = SectionPos.asLong(sectionX, sectionY, sectionZ);
+		int page = pageIndices.get(section);
+
+		if (page != -1) {
+			return page;
+		}
+
+		page = pageCount++;
+		pageIndices.put(section, page);
+		pageTableDirty = true;
+
+		long neededSize = pageCount * PAGE_BYTES;
+		if (pages == null) {
+			pages = MemoryBlock.malloc(neededSize);
+		} else if (pages.size() < neededSize) {
+			pages = pages.realloc(Math.max(neededSize, pages.size() * 2));
+		}
+
+		// The box may not cover the whole section, don't leave garbage in the rest.
+		MemoryUtil.memSet(pagePtr(page), 0, PAGE_BYTES);
+
+		return page;
+	}
+
+	/**
+	 * Rebuild the page table if any pages were added since the last call.
+	 *
+	 * @return {@code true} if the page table changed.
+	 */
+	public boolean updatePageTable() {
+		if (!pageTableDirty) {
+			return false;
+		}
+
+		pageTableDirty = false;
+
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int minZ = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		int maxZ = Integer.MIN_VALUE;
+
+		for (long section : pageIndices.keySet()) {
+			int x = SectionPos.x(section);
+			int y = SectionPos.y(section);
+			int z = SectionPos.z(section);
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			minZ = Math.min(minZ, z);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			maxZ = Math.max(maxZ, z);
+		}
+
+		if (pageIndices.isEmpty()) {
+			tableSizeX = tableSizeY = tableSizeZ = 0;
+			return true;
+		}
+
+		tableMinX = minX;
+		tableMinY = minY;
+		tableMinZ = minZ;
+		tableSizeX = maxX - minX + 1;
+		tableSizeY = maxY - minY + 1;
+		tableSizeZ = maxZ - minZ + 1;
+
+		long neededSize = (long) tableSizeX * tableSizeY * tableSizeZ * PAGE_TABLE_STRIDE;
+		if (pageTable == null) {
+			pageTable = MemoryBlock.malloc(neededSize);
+		} else if (pageTable.size() < neededSize) {
+			pageTable = pageTable.realloc(neededSize);
+		}
+
+		// Entries are the page index plus one, so zero means the section has no page.
+		MemoryUtil.memSet(pageTable.ptr(), 0, neededSize);
+
+		for (Long2IntMap.Entry entry : pageIndices.long2IntEntrySet()) {
+			long section = entry.getLongKey();
+			long offset = pageTableOffset(SectionPos.x(section) - tableMinX, SectionPos.y(section) - tableMinY, SectionPos.z(section) - tableMinZ);
+			MemoryUtil.memPutInt(pageTable.ptr() + offset, entry.getIntValue() + 1);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Upload the page table and every page that changed since the last upload.
+	 */
+	public void upload(EmbeddedLightTexture texture) {
+		boolean pageTableChanged = updatePageTable();
+
+		if (pageCount == 0) {
+			return;
+		}
+
+		if (texture.ensurePageCapacity(pageCount)) {
+			// The atlas was reallocated, so everything in it is gone.
+			dirtyPages.set(0, pageCount);
+		}
+
+		for (int page = dirtyPages.nextSetBit(0); page >= 0; page = dirtyPages.nextSetBit(page + 1)) {
+			texture.uploadPage(page, pagePtr(page));
+		}
+		dirtyPages.clear();
+
+		if (pageTableChanged) {
+			texture.uploadPageTable(pageTable.ptr(), tableSizeX, tableSizeY, tableSizeZ);
+		}
+	}
+
+	/**
+	 * @return The packed light at the given position, or {@code 0} if it was never collected.
+	 */
+	short get(int x, int y, int z) {
+		if (empty) {
+			return 0;
+		}
+
+		int page = pageIndices.get(SectionPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(y), SectionPos.blockToSectionCoord(z)));
+
+		if (page == -1) {
+			return 0;
+		}
+
+		return MemoryUtil.memGetShort(pagePtr(page) + offsetInPage(x, y, z));
+	}
+
+	long pagePtr(int page) {
+		return pages.ptr() + page * PAGE_BYTES;
+	}
+
+	public static long offsetInPage(int x, int y, int z) {
+		return EmbeddedLightVolume.offset(x & PAGE_MASK, y & PAGE_MASK, z & PAGE_MASK, PAGE_SIZE, PAGE_SIZE);
+	}
+
+	public long pageTableOffset(int x, int y, int z) {
+		return (x + (long) tableSizeX * (y + (long) tableSizeY * z)) * PAGE_TABLE_STRIDE;
+	}
+
+	public void clear() {
+		empty = true;
+	}
+
+	public void delete() {
+		if (pages != null) {
+			pages.free();
+			pages = null;
+		}
+		if (pageTable != null) {
+			pageTable.free();
+			pageTable = null;
+		}
+	}
+
+	public long pageTablePtr() {
+		return pageTable.ptr();
+	}
+
+	public int pageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * @return The number of bytes of CPU memory needed to hold the pages and the page table.
+	 */
+	public long byteSize() {
+		return pageCount * PAGE_BYTES + (long) tableSizeX * tableSizeY * tableSizeZ * PAGE_TABLE_STRIDE;
+	}
+
+	// The minimum corner of the page table, in blocks.
+
+	public int x() {
+		return SectionPos.sectionToBlockCoord(tableMinX);
+	}
+
+	public int y() {
+		return SectionPos.sectionToBlockCoord(tableMinY);
+	}
+
+	public int z() {
+		return SectionPos.sectionToBlockCoord(tableMinZ);
+	}
+
+	// The size of the page table, in sections.
+
+	public int tableSizeX() {
+		return tableSizeX;
+	}
+
+	public int tableSizeY() {
+		return tableSizeY;
+	}
+
+	public int tableSizeZ() {
+		return tableSizeZ;
+	}
+}
@@ -1,5 +1,6 @@
 package dev.engine_room.flywheel.backend.engine.embed;
 
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix3f;
 import org.joml.Matrix4f;
 
@@ -10,17 +11,52 @@ import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
 import net.minecraft.world.level.BlockAndTintGetter;
 
 public class TopLevelEmbeddedEnvironment extends AbstractEmbeddedEnvironment {
-	private final EmbeddedLightVolume lightVolume = new EmbeddedLightVolume();
+	/**
+	 * Store light in 16³ pages per section instead of one box covering everything that was collected.
+	 */
+	public static final boolean SPARSE_LIGHT_VOLUMES = System.getProperty("flw.sparseLightVolumes") != null;
+
+	@Nullable
+	private final EmbeddedLightVolume lightVolume = SPARSE_LIGHT_VOLUMES ? null : new EmbeddedLightVolume();
+	@Nullable
+	private final SparseEmbeddedLightVolume sparseLightVolume = SPARSE_LIGHT_VOLUMES ? new SparseEmbeddedLightVolume() : null;
 	private final EmbeddedLightTexture lightTexture = new EmbeddedLightTexture();
-
-	public TopLevelEmbeddedEnvironment(EngineImpl engine, RenderStage renderStage) {
+	/**
+	 * The origin the visual that created this was created against, if the engine rebases instead of recreating visuals.
+	 */
+	@Nullable
+	private final OriginEnvironment origin;
+	/**
+	 * Whether the draw manager reads light from a shared buffer instead of our texture.
+	 */
+	private final boolean batched;
+
+	public TopLevelEmbeddedEnvironment(EngineImpl engine, RenderStage renderStage, @Nullable OriginEnvironment origin) {
 		super(engine, renderStage);
+		this.origin = origin;
+		batched = engine.batchesEmbeddings();
 	}
 
 	@Override
 	public void flush() {
 		super.flush();
 
+		if (batched) {
+			return;
+		}
+
+		if (sparseLightVolume != null) {
+			if (sparseLightVolume.empty()) {
+				return;
+			}
+			Samplers.EMBEDDED_LIGHT.makeActive();
+
+			lightTexture.bind();
+
+			sparseLightVolume.upload(lightTexture);
+			return;
+		}
+
 		if (lightVolume.empty()) {
 			return;
 		}
@@ -35,17 +71,28 @@ public class TopLevelEmbeddedEnvironment extends AbstractEmbeddedEnvironment {
 
 	@Override
 	public void collectLight(BlockAndTintGetter level, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+		if (sparseLightVolume != null) {
+			sparseLightVolume.collect(level, minX, minY, minZ, sizeX, sizeY, sizeZ);
+			return;
+		}
+
 		lightVolume.collect(level, minX, minY, minZ, sizeX, sizeY, sizeZ);
 	}
 
 	@Override
 	public void invalidateLight() {
-		lightVolume.clear();
+		if (sparseLightVolume != null) {
+			sparseLightVolume.clear();
+		} else {
+			lightVolume.clear();
+		}
 	}
 
 	@Override
 	public void setupLight(GlProgram program) {
-		if (!lightVolume.empty()) {
+		if (sparseLightVolume != null) {
+			setupSparseLight(program);
+		} else if (!lightVolume.empty()) {
 			Samplers.EMBEDDED_LIGHT.makeActive();
 
 			lightTexture.bind();
@@ -55,17 +102,72 @@ public class TopLevelEmbeddedEnvironment extends AbstractEmbeddedEnvironment {
 			float oneOverSizeZ = 1f / (float) lightTexture.sizeZ;
 
 			program.setVec3(EmbeddingUniforms.ONE_OVER_LIGHT_BOX_SIZE, oneOverSizeX, oneOverSizeY, oneOverSizeZ);
-			program.setVec3(EmbeddingUniforms.LIGHT_VOLUME_MIN, lightVolume.x(), lightVolume.y(), lightVolume.z());
+			setLightVolumeMin(program, lightVolume.x(), lightVolume.y(), lightVolume.z());
 			program.setBool(EmbeddingUniforms.USE_LIGHT_VOLUME, true);
 		} else {
 			program.setBool(EmbeddingUniforms.USE_LIGHT_VOLUME, false);
 		}
 	}
 
+	private void setupSparseLight(GlProgram program) {
+		if (sparseLightVolume.empty() || sparseLightVolume.pageCount() == 0) {
+			program.setBool(EmbeddingUniforms.USE_LIGHT_VOLUME, false);
+			return;
+		}
+
+		Samplers.EMBEDDED_LIGHT.makeActive();
+
+		lightTexture.bind();
+		lightTexture.bindPageTable();
+
+		// The shader works in blocks relative to the page table, this just keeps the vertex stage the same.
+		float oneOverSizeX = 1f / (float) (sparseLightVolume.tableSizeX() * SparseEmbeddedLightVolume.PAGE_SIZE);
+		float oneOverSizeY = 1f / (float) (sparseLightVolume.tableSizeY() * SparseEmbeddedLightVolume.PAGE_SIZE);
+		float oneOverSizeZ = 1f / (float) (sparseLightVolume.tableSizeZ() * SparseEmbeddedLightVolume.PAGE_SIZE);
+
+		program.setVec3(EmbeddingUniforms.ONE_OVER_LIGHT_BOX_SIZE, oneOverSizeX, oneOverSizeY, oneOverSizeZ);
+		setLightVolumeMin(program, sparseLightVolume.x(), sparseLightVolume.y(), sparseLightVolume.z());
+		program.setBool(EmbeddingUniforms.USE_LIGHT_VOLUME, true);
+	}
+
+	@Override
+	public void writeBatchedLight(EmbeddingTable<AbstractEmbeddedEnvironment> table, int slot) {
+		// Batching is never enabled along with sparse light volumes.
+		if (lightVolume == null || lightVolume.empty()) {
+			table.writeNoLight(slot);
+			return;
+		}
+
+		float minX = lightVolume.x();
+		float minY = lightVolume.y();
+		float minZ = lightVolume.z();
+
+		if (origin != null) {
+			minX += origin.offsetX();
+			minY += origin.offsetY();
+			minZ += origin.offsetZ();
+		}
+
+		table.writeLight(slot, this, minX, minY, minZ, lightVolume.sizeX(), lightVolume.sizeY(), lightVolume.sizeZ(), lightVolume.ptr());
+	}
+
+	// The origin offset moves vertices before the light volume lookup, so move the volume along with them.
+	private void setLightVolumeMin(GlProgram program, float x, float y, float z) {
+		if (origin != null) {
+			program.setVec3(EmbeddingUniforms.LIGHT_VOLUME_MIN, x + origin.offsetX(), y + origin.offsetY(), z + origin.offsetZ());
+		} else {
+			program.setVec3(EmbeddingUniforms.LIGHT_VOLUME_MIN, x, y, z);
+		}
+	}
+
 	@Override
 	public void composeMatrices(Matrix4f pose, Matrix3f normal) {
 		pose.set(this.pose);
 		normal.set(this.normal);
+
+		if (origin != null) {
+			pose.translateLocal(origin.offsetX(), origin.offsetY(), origin.offsetZ());
+		}
 	}
 
 	@Override
@@ -73,7 +175,11 @@ public class TopLevelEmbeddedEnvironment extends AbstractEmbeddedEnvironment {
 		// We could technically free the light volume right away in _delete, but
 		// the control flow here is so convoluted that it's probably best to do
 		// everything in one place.
-		lightVolume.delete();
+		if (sparseLightVolume != null) {
+			sparseLightVolume.delete();
+		} else {
+			lightVolume.delete();
+		}
 		lightTexture.delete();
 	}
 }
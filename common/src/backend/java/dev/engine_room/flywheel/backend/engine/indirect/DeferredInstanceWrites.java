@@ -0,0 +1,74 @@
+package dev.engine_room.flywheel.backend.engine.indirect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.lib.task.Distribute;
+import dev.engine_room.flywheel.lib.task.NamedFlag;
+import dev.engine_room.flywheel.lib.task.SliceSizer;
+import dev.engine_room.flywheel.lib.task.functional.RangeConsumerWithContext;
+import dev.engine_room.flywheel.lib.util.Unit;
+
+/**
+ * Instance writes into staging memory that has already been reserved, to be run in parallel before the
+ * staging buffer is flushed.
+ * <br>
+ * Reservation happens serially on the render thread in the same order as the serial upload path,
+ * so the transfer list is identical whether or not writes are deferred. Only the
+ * {@link dev.engine_room.flywheel.api.instance.InstanceWriter InstanceWriter} calls move off-thread.
+ */
+public class DeferredInstanceWrites {
+	/**
+	 * Roughly how many bytes each task should write. Large spans are split so one
+	 * big instancer doesn't serialize the whole upload.
+	 */
+	private static final long BYTES_PER_TASK = 64 * 1024;
+
+	private final List<Write> writes = new ArrayList<>();
+	// Writes vary a lot in cost between instance types, so let measurement decide how many go in each task.
+	private final SliceSizer sliceSizer = new SliceSizer();
+	private final RangeConsumerWithContext.Ignored<Unit> runWrites = this::runWrites;
+
+	/**
+	 * Queue a write of instances {@code [startInclusive, endInclusive]} to the given pointer.
+	 * <br>
+	 * The instancer must not be modified until {@link #run} returns.
+	 */
+	public void add(IndirectInstancer<?> instancer, long ptr, long instanceStride, int startInclusive, int endInclusive) {
+		int instancesPerTask = (int) Math.max(1, BYTES_PER_TASK / instanceStride);
+
+		for (int start = startInclusive; start <= endInclusive; start += instancesPerTask) {
+			int end = Math.min(start + instancesPerTask - 1, endInclusive);
+			writes.add(new Write(instancer, ptr + (start - startInclusive) * instanceStride, start, end));
+		}
+	}
+
+	/**
+	 * Run all queued writes, blocking until they complete.
+	 */
+	public void run(TaskExecutor executor) {
+		if (writes.isEmpty()) {
+			return;
+		}
+
+		var done = new NamedFlag("instance writes");
+		Distribute.ranges(executor, Unit.INSTANCE, done::raise, writes.size(), sliceSizer, runWrites);
+		executor.syncUntil(done::isRaised);
+
+		writes.clear();
+	}
+
+	private void runWrites(int start, int end) {
+		for (int i = start; i < end; i++) {
+			writes.get(i)
+					.run();
+		}
+	}
+
+	private record Write(IndirectInstancer<?> instancer, long ptr, int startInclusive, int endInclusive) {
+		public void run() {
+			instancer.writeInstances(ptr, startInclusive, endInclusive);
+		}
+	}
+}
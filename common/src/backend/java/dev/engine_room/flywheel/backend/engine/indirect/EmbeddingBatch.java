@@ -0,0 +1,118 @@
+package dev.engine_room.flywheel.backend.engine.indirect;
+
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BUFFER;
+
+import dev.engine_room.flywheel.backend.compile.ContextShader;
+import dev.engine_room.flywheel.backend.engine.embed.AbstractEmbeddedEnvironment;
+import dev.engine_room.flywheel.backend.engine.embed.EmbeddingTable;
+import dev.engine_room.flywheel.backend.engine.embed.EmbeddingUniforms;
+import dev.engine_room.flywheel.backend.engine.embed.Environment;
+import dev.engine_room.flywheel.backend.gl.buffer.GlBuffer;
+import dev.engine_room.flywheel.backend.gl.buffer.GlBufferUsage;
+import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
+
+/**
+ * Stands in for every {@link AbstractEmbeddedEnvironment} of a draw manager, so all embeddings of an
+ * instance type share one culling group and one multi-draw per material.
+ * <br>
+ * Each instancer's model descriptor holds the slot of its embedding in a buffer of embedding descriptors,
+ * which carry the composed matrices and light volume bounds. The light volumes themselves are packed into
+ * a second buffer and filtered by hand in the fragment shader.
+ */
+public class EmbeddingBatch implements Environment {
+	private final EmbeddingTable<AbstractEmbeddedEnvironment> table = new EmbeddingTable<>();
+	private final GlBuffer descriptorBuffer = new GlBuffer(GlBufferUsage.DYNAMIC_DRAW);
+	private final GlBuffer lightBuffer = new GlBuffer(GlBufferUsage.DYNAMIC_DRAW);
+
+	private boolean needsDrawUpload;
+
+	/**
+	 * Get the descriptor slot for instances of an instancer in the given environment.
+	 *
+	 * @return The slot to write into the instancer's model descriptor.
+	 */
+	public int slot(Environment environment) {
+		// Instancers can outlive their embedding by a frame. They should be empty by then, but draw them untransformed just in case.
+		if (environment instanceof AbstractEmbeddedEnvironment embedded && !embedded.isDeleted()) {
+			return table.slot(embedded);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Upload transforms for the cull pass.
+	 * <br>
+	 * Embeddings compose their matrices after the draw manager flushes, so like unbatched embeddings this culls
+	 * against last frame's transforms. {@link #prepareDraw} uploads the current ones before anything is drawn.
+	 */
+	public void flush() {
+		table.removeIf(AbstractEmbeddedEnvironment::isDeleted);
+
+		table.forEach((embedding, slot) -> embedding.writeBatchedTransforms(table, slot));
+
+		descriptorBuffer.upload(table.descriptorPtr(0), table.descriptorBytes());
+
+		needsDrawUpload = true;
+	}
+
+	/**
+	 * Upload this frame's transforms and light volumes. Only does anything the first time it's called after {@link #flush}.
+	 */
+	public void prepareDraw() {
+		if (!needsDrawUpload) {
+			return;
+		}
+
+		needsDrawUpload = false;
+
+		table.beginLight();
+
+		table.forEach((embedding, slot) -> {
+			// Deleted this frame, after our flush. Its light volume may already be freed.
+			if (!embedding.isDeleted()) {
+				embedding.writeBatchedTransforms(table, slot);
+				embedding.writeBatchedLight(table, slot);
+			}
+		});
+
+		descriptorBuffer.upload(table.descriptorPtr(0), table.descriptorBytes());
+		// Empty buffers can't be bound.
+		lightBuffer.upload(table.lightPtr(), Math.max(table.lightBytes(), Integer.BYTES));
+	}
+
+	@Override
+	public ContextShader contextShader() {
+		return ContextShader.EMBEDDED_BATCHED;
+	}
+
+	@Override
+	public void setupDraw(GlProgram drawProgram) {
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, IndirectBuffers.EMBEDDING_INDEX, descriptorBuffer.handle());
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, IndirectBuffers.EMBEDDING_LIGHT_INDEX, lightBuffer.handle());
+	}
+
+	@Override
+	public void setupCull(GlProgram cullProgram) {
+		cullProgram.setBool(EmbeddingUniforms.USE_MODEL_MATRIX, false);
+		cullProgram.setBool(EmbeddingUniforms.USE_EMBEDDING_BUFFER, true);
+
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, IndirectBuffers.EMBEDDING_INDEX, descriptorBuffer.handle());
+	}
+
+	@Override
+	public void acquire() {
+		// Owned by the draw manager.
+	}
+
+	@Override
+	public void release() {
+	}
+
+	public void delete() {
+		table.delete();
+		descriptorBuffer.delete();
+		lightBuffer.delete();
+	}
+}
@@ -6,6 +6,7 @@ import static org.lwjgl.opengl.GL44.nglBindBuffersRange;
 import org.lwjgl.system.MemoryUtil;
 import org.lwjgl.system.Pointer;
 
+import dev.engine_room.flywheel.backend.InternalVertex;
 import dev.engine_room.flywheel.backend.gl.buffer.GlBufferType;
 import dev.engine_room.flywheel.lib.memory.MemoryBlock;
 
@@ -16,10 +17,11 @@ public class IndirectBuffers {
 	public static final long INT_SIZE = Integer.BYTES;
 	public static final long PTR_SIZE = Pointer.POINTER_SIZE;
 
-	public static final long MODEL_STRIDE = 24;
+	public static final long MODEL_STRIDE = 28;
 
 	// Byte size of a draw command, plus our added mesh data.
-	public static final long DRAW_COMMAND_STRIDE = 40;
+	// Quantized vertices add the mesh's dequantization bounds, see draw_command.glsl.
+	public static final long DRAW_COMMAND_STRIDE = InternalVertex.QUANTIZED ? 80 : 40;
 	public static final long DRAW_COMMAND_OFFSET = 0;
 
 	public static final int INSTANCE_INDEX = 0;
@@ -27,6 +29,9 @@ public class IndirectBuffers {
 	public static final int MODEL_INDEX_INDEX = 2;
 	public static final int MODEL_INDEX = 3;
 	public static final int DRAW_INDEX = 4;
+	// Not owned by the culling groups, see EmbeddingBatch.
+	public static final int EMBEDDING_INDEX = 5;
+	public static final int EMBEDDING_LIGHT_INDEX = 6;
 
 
 	// Offsets to the 3 segments
@@ -16,6 +16,8 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
+import org.jetbrains.annotations.Nullable;
+
 import dev.engine_room.flywheel.api.event.RenderStage;
 import dev.engine_room.flywheel.api.instance.Instance;
 import dev.engine_room.flywheel.api.instance.InstanceType;
@@ -47,10 +49,10 @@ public class IndirectCullingGroup<I extends Instance> {
 	private final List<IndirectDraw> indirectDraws = new ArrayList<>();
 	private final Map<RenderStage, List<MultiDraw>> multiDraws = new EnumMap<>(RenderStage.class);
 
-	private final IndirectPrograms programs;
-	private final GlProgram cullProgram;
-	private final GlProgram applyProgram;
-	private final GlProgram drawProgram;
+	private IndirectPrograms programs;
+	private GlProgram cullProgram;
+	private GlProgram applyProgram;
+	private GlProgram drawProgram;
 
 	private boolean needsDrawBarrier;
 	private boolean needsDrawSort;
@@ -63,6 +65,13 @@ public class IndirectCullingGroup<I extends Instance> {
 				.byteSize());
 		buffers = new IndirectBuffers(instanceStride);
 
+		programs(programs);
+	}
+
+	/**
+	 * Switch to programs compiled by a resource reload.
+	 */
+	void programs(IndirectPrograms programs) {
 		this.programs = programs;
 		cullProgram = programs.getCullingProgram(instanceType);
 		applyProgram = programs.getApplyProgram();
@@ -85,6 +94,10 @@ public class IndirectCullingGroup<I extends Instance> {
 
 			instancer.modelIndex = modelIndex;
 			instancer.baseInstance = instanceCountThisFrame;
+
+			if (environment instanceof EmbeddingBatch batch) {
+				instancer.embeddingIndex = batch.slot(instancer.environment);
+			}
 			instanceCountThisFrame += instanceCount;
 
 			modelIndex++;
@@ -95,7 +108,7 @@ public class IndirectCullingGroup<I extends Instance> {
 		}
 	}
 
-	public void upload(StagingBuffer stagingBuffer) {
+	public void upload(StagingBuffer stagingBuffer, @Nullable DeferredInstanceWrites deferredWrites) {
 		if (nothingToDo()) {
 			return;
 		}
@@ -103,7 +116,7 @@ public class IndirectCullingGroup<I extends Instance> {
 		buffers.updateCounts(instanceCountThisFrame, instancers.size(), indirectDraws.size());
 
 		// Upload only instances that have changed.
-		uploadInstances(stagingBuffer);
+		uploadInstances(stagingBuffer, deferredWrites);
 
 		// We need to upload the models every frame to reset the instance count.
 		uploadModels(stagingBuffer);
@@ -217,7 +230,7 @@ public class IndirectCullingGroup<I extends Instance> {
 		}
 	}
 
-	public void bindWithContextShader(ContextShader override) {
+	public GlProgram bindWithContextShader(ContextShader override) {
 		var program = programs.getIndirectProgram(instanceType, override);
 
 		program.bind();
@@ -228,6 +241,8 @@ public class IndirectCullingGroup<I extends Instance> {
 
 		var flwBaseDraw = drawProgram.getUniformLocation("_flw_baseDraw");
 		glUniform1ui(flwBaseDraw, 0);
+
+		return program;
 	}
 
 	private void drawBarrier() {
@@ -237,9 +252,9 @@ public class IndirectCullingGroup<I extends Instance> {
 		}
 	}
 
-	private void uploadInstances(StagingBuffer stagingBuffer) {
+	private void uploadInstances(StagingBuffer stagingBuffer, @Nullable DeferredInstanceWrites deferredWrites) {
 		for (var instancer : instancers) {
-			instancer.uploadInstances(stagingBuffer, buffers.instance.handle());
+			instancer.uploadInstances(stagingBuffer, buffers.instance.handle(), deferredWrites);
 		}
 
 		for (var instancer : instancers) {
@@ -4,6 +4,7 @@ import org.lwjgl.system.MemoryUtil;
 
 import dev.engine_room.flywheel.api.event.RenderStage;
 import dev.engine_room.flywheel.api.material.Material;
+import dev.engine_room.flywheel.backend.InternalVertex;
 import dev.engine_room.flywheel.backend.ShaderIndices;
 import dev.engine_room.flywheel.backend.engine.MaterialEncoder;
 import dev.engine_room.flywheel.backend.engine.MeshPool;
@@ -69,6 +70,10 @@ public class IndirectDraw {
 		MemoryUtil.memPutInt(ptr + 28, materialFragmentIndex); // materialFragmentIndex
 		MemoryUtil.memPutInt(ptr + 32, packedFogAndCutout); // packedFogAndCutout
 		MemoryUtil.memPutInt(ptr + 36, packedMaterialProperties); // packedMaterialProperties
+
+		if (InternalVertex.QUANTIZED) {
+			mesh.writeDequantization(ptr + 40); // mesh bounds
+		}
 	}
 
 	public void writeWithOverrides(long ptr, int instanceIndex, Material materialOverride) {
@@ -84,6 +89,10 @@ public class IndirectDraw {
 		MemoryUtil.memPutInt(ptr + 28, ShaderIndices.getFragmentShaderIndex(materialOverride.shaders())); // materialFragmentIndex
 		MemoryUtil.memPutInt(ptr + 32, MaterialEncoder.packFogAndCutout(materialOverride)); // packedFogAndCutout
 		MemoryUtil.memPutInt(ptr + 36, MaterialEncoder.packProperties(materialOverride)); // packedMaterialProperties
+
+		if (InternalVertex.QUANTIZED) {
+			mesh.writeDequantization(ptr + 40); // mesh bounds
+		}
 	}
 
 	public void delete() {
@@ -10,9 +10,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.jetbrains.annotations.Nullable;
+
 import dev.engine_room.flywheel.api.backend.Engine;
 import dev.engine_room.flywheel.api.event.RenderStage;
 import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.backend.Samplers;
 import dev.engine_room.flywheel.backend.compile.ContextShader;
 import dev.engine_room.flywheel.backend.compile.IndirectPrograms;
@@ -23,6 +26,8 @@ import dev.engine_room.flywheel.backend.engine.InstancerKey;
 import dev.engine_room.flywheel.backend.engine.MaterialRenderState;
 import dev.engine_room.flywheel.backend.engine.MeshPool;
 import dev.engine_room.flywheel.backend.engine.TextureBinder;
+import dev.engine_room.flywheel.backend.engine.embed.AbstractEmbeddedEnvironment;
+import dev.engine_room.flywheel.backend.engine.embed.TopLevelEmbeddedEnvironment;
 import dev.engine_room.flywheel.backend.engine.uniform.Uniforms;
 import dev.engine_room.flywheel.backend.gl.GlStateTracker;
 import dev.engine_room.flywheel.backend.gl.array.GlVertexArray;
@@ -33,12 +38,28 @@ import dev.engine_room.flywheel.lib.memory.MemoryBlock;
 import net.minecraft.client.resources.model.ModelBakery;
 
 public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
-	private final IndirectPrograms programs;
+	/**
+	 * Serialize changed instances into the staging buffer on the task executor instead of the render thread.
+	 */
+	public static final boolean PARALLEL_INSTANCE_UPLOADS = System.getProperty("flw.parallelInstanceUploads") != null;
+	/**
+	 * Draw all embedded environments of an instance type through one culling group, reading their transforms
+	 * and light from shared buffers instead of per-environment uniforms and textures.
+	 * <br>
+	 * The batched light lookup only understands dense light volumes, so this does nothing with sparse ones.
+	 */
+	public static final boolean BATCH_EMBEDDINGS = System.getProperty("flw.batchEmbeddings") != null && !TopLevelEmbeddedEnvironment.SPARSE_LIGHT_VOLUMES;
+
+	private IndirectPrograms programs;
 	private final StagingBuffer stagingBuffer;
 	private final MeshPool meshPool;
 	private final GlVertexArray vertexArray;
 	private final Map<GroupKey<?>, IndirectCullingGroup<?>> cullingGroups = new HashMap<>();
 	private final GlBuffer crumblingDrawBuffer = new GlBuffer();
+	@Nullable
+	private final DeferredInstanceWrites deferredWrites = PARALLEL_INSTANCE_UPLOADS ? new DeferredInstanceWrites() : null;
+	@Nullable
+	private final EmbeddingBatch embeddingBatch = BATCH_EMBEDDINGS ? new EmbeddingBatch() : null;
 
 	public IndirectDrawManager(IndirectPrograms programs) {
 		this.programs = programs;
@@ -60,11 +81,27 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 	@SuppressWarnings("unchecked")
 	@Override
 	protected <I extends Instance> void initialize(InstancerKey<I> key, IndirectInstancer<?> instancer) {
-		var groupKey = new GroupKey<>(key.type(), key.environment());
+		var groupKey = groupKey(new GroupKey<>(key.type(), key.environment()));
 		var group = (IndirectCullingGroup<I>) cullingGroups.computeIfAbsent(groupKey, t -> new IndirectCullingGroup<>(t.instanceType(), t.environment(), programs));
 		group.add((IndirectInstancer<I>) instancer, key.model(), key.stage(), meshPool);
 	}
 
+	/**
+	 * Map the environment an instancer was created in to the environment of the culling group it belongs to.
+	 */
+	private <I extends Instance> GroupKey<I> groupKey(GroupKey<I> key) {
+		if (embeddingBatch != null && key.environment() instanceof AbstractEmbeddedEnvironment) {
+			return new GroupKey<>(key.instanceType(), embeddingBatch);
+		}
+
+		return key;
+	}
+
+	@Override
+	public boolean batchesEmbeddings() {
+		return embeddingBatch != null;
+	}
+
 	public boolean hasStage(RenderStage stage) {
 		for (var group : cullingGroups.values()) {
 			if (group.hasStage(stage)) {
@@ -85,6 +122,10 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 			vertexArray.bindForDraw();
 			Uniforms.bindAll();
 
+			if (embeddingBatch != null) {
+				embeddingBatch.prepareDraw();
+			}
+
 			for (var group : cullingGroups.values()) {
 				group.submit(stage);
 			}
@@ -95,8 +136,8 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 	}
 
 	@Override
-	public void flush() {
-		super.flush();
+	public void flush(TaskExecutor executor) {
+		super.flush(executor);
 
 		for (var group : cullingGroups.values()) {
 			group.flushInstancers();
@@ -109,11 +150,20 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 		stagingBuffer.reclaim();
 
 		for (var group : cullingGroups.values()) {
-			group.upload(stagingBuffer);
+			group.upload(stagingBuffer, deferredWrites);
+		}
+
+		if (deferredWrites != null) {
+			// All reserved ranges must be filled before the staging buffer flushes them.
+			deferredWrites.run(executor);
 		}
 
 		stagingBuffer.flush();
 
+		if (embeddingBatch != null) {
+			embeddingBatch.flush();
+		}
+
 		for (var group : cullingGroups.values()) {
 			group.dispatchCull();
 		}
@@ -123,6 +173,28 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 		}
 	}
 
+	@Override
+	public boolean reloadPrograms() {
+		var newPrograms = IndirectPrograms.get();
+
+		if (newPrograms == null) {
+			return false;
+		}
+
+		if (newPrograms != programs) {
+			newPrograms.acquire();
+			programs.release();
+			programs = newPrograms;
+
+			stagingBuffer.programs(newPrograms);
+			for (var group : cullingGroups.values()) {
+				group.programs(newPrograms);
+			}
+		}
+
+		return true;
+	}
+
 	@Override
 	public void delete() {
 		super.delete();
@@ -137,6 +209,10 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 
 		crumblingDrawBuffer.delete();
 
+		if (embeddingBatch != null) {
+			embeddingBatch.delete();
+		}
+
 		programs.release();
 	}
 
@@ -165,9 +241,12 @@ public class IndirectDrawManager extends DrawManager<IndirectInstancer<?>> {
 				var byProgress = groupEntry.getValue();
 
 				// Set up the crumbling program buffers. Nothing changes here between draws.
-				cullingGroups.get(groupEntry.getKey())
+				var program = cullingGroups.get(groupKey(groupEntry.getKey()))
 						.bindWithContextShader(ContextShader.CRUMBLING);
 
+				CommonCrumbling.setupEnvironment(program, groupEntry.getKey()
+						.environment());
+
 				for (var progressEntry : byProgress.int2ObjectEntrySet()) {
 					Samplers.CRUMBLING.makeActive();
 					TextureBinder.bind(ModelBakery.BREAKING_LOCATIONS.get(progressEntry.getIntKey()));
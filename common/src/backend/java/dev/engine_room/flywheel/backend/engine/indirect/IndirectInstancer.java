@@ -3,6 +3,7 @@ package dev.engine_room.flywheel.backend.engine.indirect;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector4fc;
 import org.lwjgl.system.MemoryUtil;
 
@@ -22,6 +23,10 @@ public class IndirectInstancer<I extends Instance> extends AbstractInstancer<I>
 
 	public int modelIndex = -1;
 	public int baseInstance = -1;
+	/**
+	 * The slot of this instancer's embedding in the {@link EmbeddingBatch}, or {@code 0} if embeddings aren't batched.
+	 */
+	public int embeddingIndex = 0;
 	private int lastModelIndex = -1;
 	private int lastBaseInstance = -1;
 	private int lastInstanceCount = -1;
@@ -53,15 +58,22 @@ public class IndirectInstancer<I extends Instance> extends AbstractInstancer<I>
 		MemoryUtil.memPutFloat(ptr + 12, boundingSphere.y());
 		MemoryUtil.memPutFloat(ptr + 16, boundingSphere.z());
 		MemoryUtil.memPutFloat(ptr + 20, boundingSphere.w());
+		MemoryUtil.memPutInt(ptr + 24, embeddingIndex); // embeddingIndex
 	}
 
-	public void uploadInstances(StagingBuffer stagingBuffer, int instanceVbo) {
+	/**
+	 * @param deferred If not null, writes that fit in reserved staging memory are queued here instead of run
+	 *                 immediately. Writes that don't fit are always run immediately.
+	 */
+	public void uploadInstances(StagingBuffer stagingBuffer, int instanceVbo, @Nullable DeferredInstanceWrites deferred) {
 		long baseByte = baseInstance * instanceStride;
 
 		if (baseInstance != lastBaseInstance) {
-			uploadAllInstances(stagingBuffer, baseByte, instanceVbo);
+			if (!instances.isEmpty()) {
+				uploadInstanceSpan(stagingBuffer, baseByte, instanceVbo, deferred, 0, instances.size() - 1);
+			}
 		} else {
-			uploadChangedInstances(stagingBuffer, baseByte, instanceVbo);
+			uploadChangedInstances(stagingBuffer, baseByte, instanceVbo, deferred);
 		}
 	}
 
@@ -80,7 +92,16 @@ public class IndirectInstancer<I extends Instance> extends AbstractInstancer<I>
 		changed.clear();
 	}
 
-	private void uploadChangedInstances(StagingBuffer stagingBuffer, long baseByte, int instanceVbo) {
+	/**
+	 * Write instances {@code [startInclusive, endInclusive]} contiguously starting at the given pointer.
+	 * <br>
+	 * Safe to call from multiple threads at once for disjoint ranges while the instancer is not being modified.
+	 */
+	public void writeInstances(long ptr, int startInclusive, int endInclusive) {
+		writeInstanceRange(writer, ptr, instanceStride, startInclusive, endInclusive);
+	}
+
+	private void uploadChangedInstances(StagingBuffer stagingBuffer, long baseByte, int instanceVbo, @Nullable DeferredInstanceWrites deferred) {
 		changed.forEachSetSpan((startInclusive, endInclusive) -> {
 			// Generally we're good about ensuring we don't have changed bits set out of bounds, but check just in case
 			if (startInclusive >= instances.size()) {
@@ -88,28 +109,28 @@ public class IndirectInstancer<I extends Instance> extends AbstractInstancer<I>
 			}
 			int actualEnd = Math.min(endInclusive, instances.size() - 1);
 
-			int instanceCount = actualEnd - startInclusive + 1;
-			long totalSize = instanceCount * instanceStride;
-
-			stagingBuffer.enqueueCopy(totalSize, instanceVbo, baseByte + startInclusive * instanceStride, ptr -> {
-				for (int i = startInclusive; i <= actualEnd; i++) {
-					var instance = instances.get(i);
-					writer.write(ptr, instance);
-					ptr += instanceStride;
-				}
-			});
+			uploadInstanceSpan(stagingBuffer, baseByte, instanceVbo, deferred, startInclusive, actualEnd);
 		});
 	}
 
-	private void uploadAllInstances(StagingBuffer stagingBuffer, long baseByte, int instanceVbo) {
-		long totalSize = instances.size() * instanceStride;
+	private void uploadInstanceSpan(StagingBuffer stagingBuffer, long baseByte, int instanceVbo, @Nullable DeferredInstanceWrites deferred, int startInclusive, int endInclusive) {
+		int instanceCount = endInclusive - startInclusive + 1;
+		long totalSize = instanceCount * instanceStride;
+		long dstOffset = baseByte + startInclusive * instanceStride;
+
+		if (deferred != null) {
+			long ptr = stagingBuffer.reserveForCopy(totalSize, instanceVbo, dstOffset);
 
-		stagingBuffer.enqueueCopy(totalSize, instanceVbo, baseByte, ptr -> {
-			for (I instance : instances) {
-				writer.write(ptr, instance);
-				ptr += instanceStride;
+			if (ptr != MemoryUtil.NULL) {
+				deferred.add(this, ptr, instanceStride, startInclusive, endInclusive);
+				return;
 			}
-		});
+
+			// The span would wrap around the end of the staging buffer or overflow it.
+			// Fall through and write it now so the scratch/overflow paths see complete data.
+		}
+
+		stagingBuffer.enqueueCopy(totalSize, instanceVbo, dstOffset, ptr -> writeInstances(ptr, startInclusive, endInclusive));
 	}
 
 	private void uploadAllModelIndices(StagingBuffer stagingBuffer, long modelIndexBaseByte, int modelIndexVbo) {
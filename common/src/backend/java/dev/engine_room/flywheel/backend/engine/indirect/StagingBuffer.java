@@ -11,6 +11,7 @@ import dev.engine_room.flywheel.backend.compile.IndirectPrograms;
 import dev.engine_room.flywheel.backend.gl.GlFence;
 import dev.engine_room.flywheel.backend.gl.buffer.GlBuffer;
 import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import dev.engine_room.flywheel.lib.memory.FlwMemoryTracker;
 import dev.engine_room.flywheel.lib.memory.MemoryBlock;
 import it.unimi.dsi.fastutil.PriorityQueue;
@@ -33,7 +34,7 @@ public class StagingBuffer {
 	private final GlBuffer scatterBuffer = new GlBuffer();
 	private final ScatterList scatterList = new ScatterList();
 
-	private final GlProgram scatterProgram;
+	private GlProgram scatterProgram;
 
 	/**
 	 * The position in the buffer at the time of the last flush.
@@ -57,6 +58,11 @@ public class StagingBuffer {
 	 */
 	private long totalAvailable;
 
+	/**
+	 * The number of bytes sent through the overflow buffer since the last flush.
+	 */
+	private long overflowBytes = 0;
+
 	/**
 	 * A scratch buffer for when there is not enough contiguous space
 	 * in the staging buffer for the write the user wants to make.
@@ -79,6 +85,13 @@ public class StagingBuffer {
 
 		FlwMemoryTracker._allocCPUMemory(capacity);
 
+		programs(programs);
+	}
+
+	/**
+	 * Switch to programs compiled by a resource reload.
+	 */
+	public void programs(IndirectPrograms programs) {
 		scatterProgram = programs.getScatterProgram();
 	}
 
@@ -121,6 +134,7 @@ public class StagingBuffer {
 
 		if (size > totalAvailable) {
 			overflow.upload(ptr, size, dstVbo, dstOffset);
+			overflowBytes += size;
 			return;
 		}
 
@@ -177,6 +191,9 @@ public class StagingBuffer {
 	}
 
 	public void flush() {
+		FlwMetrics.STAGING_BYTES.add(usedCapacity + overflowBytes);
+		overflowBytes = 0;
+
 		if (transfers.isEmpty()) {
 			return;
 		}
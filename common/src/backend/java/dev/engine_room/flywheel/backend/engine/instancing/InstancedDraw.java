@@ -4,6 +4,7 @@ import dev.engine_room.flywheel.api.material.Material;
 import dev.engine_room.flywheel.backend.engine.GroupKey;
 import dev.engine_room.flywheel.backend.engine.MeshPool;
 import dev.engine_room.flywheel.backend.gl.TextureBuffer;
+import dev.engine_room.flywheel.backend.gl.shader.GlProgram;
 
 public class InstancedDraw {
 	public final GroupKey<?> groupKey;
@@ -36,22 +37,24 @@ public class InstancedDraw {
 		return deleted;
 	}
 
-	public void render(TextureBuffer buffer) {
+	public void render(TextureBuffer buffer, GlProgram program) {
 		if (mesh.isInvalid()) {
 			return;
 		}
 
 		instancer.bind(buffer);
+		mesh.setupDraw(program);
 
 		mesh.draw(instancer.instanceCount());
 	}
 
-	public void renderOne(TextureBuffer buffer) {
+	public void renderOne(TextureBuffer buffer, GlProgram program) {
 		if (mesh.isInvalid()) {
 			return;
 		}
 
 		instancer.bind(buffer);
+		mesh.setupDraw(program);
 
 		mesh.draw(1);
 	}
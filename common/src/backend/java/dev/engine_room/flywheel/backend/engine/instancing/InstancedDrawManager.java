@@ -10,6 +10,7 @@ import dev.engine_room.flywheel.api.backend.Engine;
 import dev.engine_room.flywheel.api.event.RenderStage;
 import dev.engine_room.flywheel.api.instance.Instance;
 import dev.engine_room.flywheel.api.material.Material;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.backend.Samplers;
 import dev.engine_room.flywheel.backend.ShaderIndices;
 import dev.engine_room.flywheel.backend.compile.ContextShader;
@@ -23,6 +24,8 @@ import dev.engine_room.flywheel.backend.engine.MaterialRenderState;
 import dev.engine_room.flywheel.backend.engine.MeshPool;
 import dev.engine_room.flywheel.backend.engine.TextureBinder;
 import dev.engine_room.flywheel.backend.engine.uniform.Uniforms;
+import dev.engine_room.flywheel.backend.gl.GlCompat;
+import dev.engine_room.flywheel.backend.gl.GlFence;
 import dev.engine_room.flywheel.backend.gl.GlStateTracker;
 import dev.engine_room.flywheel.backend.gl.TextureBuffer;
 import dev.engine_room.flywheel.backend.gl.array.GlVertexArray;
@@ -31,11 +34,17 @@ import dev.engine_room.flywheel.lib.material.SimpleMaterial;
 import net.minecraft.client.resources.model.ModelBakery;
 
 public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
+	/**
+	 * Keep a persistent CPU mirror of each instancer and upload all dirty spans in one pass after every
+	 * instancer has been updated. Uses persistently mapped, multi-buffered storage when the driver supports it.
+	 */
+	public static final boolean PERSISTENT_INSTANCE_BUFFERS = System.getProperty("flw.persistentInstanceBuffers") != null;
+
 	/**
 	 * The set of draw calls to make in each {@link RenderStage}.
 	 */
 	private final Map<RenderStage, InstancedRenderStage> stages = new EnumMap<>(RenderStage.class);
-	private final InstancingPrograms programs;
+	private InstancingPrograms programs;
 	/**
 	 * A map of vertex types to their mesh pools.
 	 */
@@ -43,6 +52,12 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 	private final GlVertexArray vao;
 	private final TextureBuffer instanceTexture;
 
+	/**
+	 * Fences guarding each region of the persistent instance buffers, indexed by region.
+	 */
+	private final GlFence[] regionFences = new GlFence[PersistentInstanceBuffer.REGION_COUNT];
+	private int region;
+
 	public InstancedDrawManager(InstancingPrograms programs) {
 		programs.acquire();
 		this.programs = programs;
@@ -55,8 +70,8 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 	}
 
 	@Override
-	public void flush() {
-		super.flush();
+	public void flush(TaskExecutor executor) {
+		super.flush(executor);
 
 		var instancers = this.instancers.values();
 		instancers.removeIf(instancer -> {
@@ -76,9 +91,34 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 			instancedRenderStage.flush();
 		}
 
+		if (PERSISTENT_INSTANCE_BUFFERS) {
+			uploadMirrors(instancers);
+		}
+
 		meshPool.flush();
 	}
 
+	private void uploadMirrors(Iterable<InstancedInstancer<?>> instancers) {
+		if (GlCompat.SUPPORTS_PERSISTENT_MAPPING) {
+			// Everything up to here includes the draws from last frame, which read the previous region.
+			regionFences[region] = new GlFence();
+
+			region = (region + 1) % PersistentInstanceBuffer.REGION_COUNT;
+
+			// Wait for the GPU to finish with the region we're about to write.
+			var fence = regionFences[region];
+			if (fence != null) {
+				fence.waitSignaled();
+				fence.delete();
+				regionFences[region] = null;
+			}
+		}
+
+		for (var instancer : instancers) {
+			instancer.uploadMirror(region);
+		}
+	}
+
 	@Override
 	public void renderStage(RenderStage stage) {
 		var drawSet = stages.get(stage);
@@ -99,6 +139,23 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 		}
 	}
 
+	@Override
+	public boolean reloadPrograms() {
+		var newPrograms = InstancingPrograms.get();
+
+		if (newPrograms == null) {
+			return false;
+		}
+
+		if (newPrograms != programs) {
+			newPrograms.acquire();
+			programs.release();
+			programs = newPrograms;
+		}
+
+		return true;
+	}
+
 	@Override
 	public void delete() {
 		instancers.values()
@@ -108,6 +165,13 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 				.forEach(InstancedRenderStage::delete);
 		stages.clear();
 
+		for (int i = 0; i < regionFences.length; i++) {
+			if (regionFences[i] != null) {
+				regionFences[i].delete();
+				regionFences[i] = null;
+			}
+		}
+
 		meshPool.delete();
 		instanceTexture.delete();
 		programs.release();
@@ -165,6 +229,8 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 				var program = programs.get(shader.instanceType(), ContextShader.CRUMBLING);
 				program.bind();
 
+				CommonCrumbling.setupEnvironment(program, shader.environment());
+
 				for (var progressEntry : byProgress.int2ObjectEntrySet()) {
 					Samplers.CRUMBLING.makeActive();
 					TextureBinder.bind(ModelBakery.BREAKING_LOCATIONS.get(progressEntry.getIntKey()));
@@ -183,7 +249,7 @@ public class InstancedDrawManager extends DrawManager<InstancedInstancer<?>> {
 
 							Samplers.INSTANCE_BUFFER.makeActive();
 
-							draw.renderOne(instanceTexture);
+							draw.renderOne(instanceTexture, program);
 						}
 					}
 				}
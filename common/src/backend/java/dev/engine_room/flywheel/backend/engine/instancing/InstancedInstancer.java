@@ -10,19 +10,43 @@ import dev.engine_room.flywheel.api.instance.InstanceType;
 import dev.engine_room.flywheel.api.instance.InstanceWriter;
 import dev.engine_room.flywheel.backend.engine.AbstractInstancer;
 import dev.engine_room.flywheel.backend.engine.embed.Environment;
+import dev.engine_room.flywheel.backend.gl.GlCompat;
 import dev.engine_room.flywheel.backend.gl.TextureBuffer;
 import dev.engine_room.flywheel.backend.gl.buffer.GlBuffer;
 import dev.engine_room.flywheel.backend.gl.buffer.GlBufferUsage;
 import dev.engine_room.flywheel.lib.math.MoreMath;
 import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 public class InstancedInstancer<I extends Instance> extends AbstractInstancer<I> {
+	/**
+	 * Dirty spans closer together than this are uploaded as one.
+	 * Re-sending a few unchanged bytes is cheaper than another driver call.
+	 */
+	private static final long MERGE_GAP_BYTES = 4096;
+
 	private final int instanceStride;
 
 	private final InstanceWriter<I> writer;
 	@Nullable
 	private GlBuffer vbo;
 
+	/**
+	 * A persistent CPU copy of every instance, only used with {@link InstancedDrawManager#PERSISTENT_INSTANCE_BUFFERS}.
+	 */
+	@Nullable
+	private MemoryBlock mirror;
+	/**
+	 * Only used with {@link InstancedDrawManager#PERSISTENT_INSTANCE_BUFFERS} when the driver supports it.
+	 */
+	@Nullable
+	private PersistentInstanceBuffer persistentBuffer;
+	/**
+	 * Start/end byte offset pairs in the mirror that changed since the last upload.
+	 */
+	private final LongArrayList dirtySpans = new LongArrayList();
+	private boolean mirrorGrew;
+
 	private final List<InstancedDraw> draws = new ArrayList<>();
 
 	public InstancedInstancer(InstanceType<I> type, Environment environment) {
@@ -42,12 +66,111 @@ public class InstancedInstancer<I extends Instance> extends AbstractInstancer<I>
 			return;
 		}
 
-		vbo = new GlBuffer(GlBufferUsage.DYNAMIC_DRAW);
+		if (InstancedDrawManager.PERSISTENT_INSTANCE_BUFFERS && GlCompat.SUPPORTS_PERSISTENT_MAPPING) {
+			persistentBuffer = new PersistentInstanceBuffer();
+		} else {
+			vbo = new GlBuffer(GlBufferUsage.DYNAMIC_DRAW);
+		}
 	}
 
 	public void update() {
 		removeDeletedInstances();
-		updateBuffer();
+
+		if (InstancedDrawManager.PERSISTENT_INSTANCE_BUFFERS) {
+			updateMirror();
+		} else {
+			updateBuffer();
+		}
+	}
+
+	/**
+	 * Write changed instances into the mirror and remember which bytes changed.
+	 * Nothing is sent to the GPU until {@link #uploadMirror}.
+	 */
+	private void updateMirror() {
+		if (changed.isEmpty() || (vbo == null && persistentBuffer == null)) {
+			return;
+		}
+
+		long byteSize = (long) instanceStride * instances.size();
+
+		if (mirror == null || mirror.size() < byteSize) {
+			long newSize = increaseSize(byteSize);
+			mirror = mirror == null ? MemoryBlock.malloc(newSize) : mirror.realloc(newSize);
+			mirrorGrew = true;
+
+			writeAll(mirror.ptr());
+			dirtySpans.clear();
+			dirtySpans.add(0);
+			dirtySpans.add(byteSize);
+		} else {
+			writeChangedToMirror();
+		}
+
+		changed.clear();
+	}
+
+	private void writeChangedToMirror() {
+		long base = mirror.ptr();
+
+		changed.forEachSetSpan((startInclusive, endInclusive) -> {
+			// Generally we're good about ensuring we don't have changed bits set out of bounds, but check just in case
+			if (startInclusive >= instances.size()) {
+				return;
+			}
+			int actualEnd = Math.min(endInclusive, instances.size() - 1);
+
+			long start = (long) startInclusive * instanceStride;
+			writeInstanceRange(writer, base + start, instanceStride, startInclusive, actualEnd);
+
+			addDirtySpan(start, (long) (actualEnd + 1) * instanceStride);
+		});
+	}
+
+	private void addDirtySpan(long start, long end) {
+		int size = dirtySpans.size();
+
+		// Spans arrive in order, so we only ever need to check the last one.
+		if (size > 0 && start - dirtySpans.getLong(size - 1) <= MERGE_GAP_BYTES) {
+			dirtySpans.set(size - 1, Math.max(end, dirtySpans.getLong(size - 1)));
+			return;
+		}
+
+		dirtySpans.add(start);
+		dirtySpans.add(end);
+	}
+
+	/**
+	 * Send everything that changed in the mirror since the last call to the GPU.
+	 *
+	 * @param region The region of the persistent buffer to use this frame, if there is one.
+	 */
+	public void uploadMirror(int region) {
+		if (mirror == null) {
+			return;
+		}
+
+		long byteSize = (long) instanceStride * instances.size();
+
+		if (persistentBuffer != null) {
+			persistentBuffer.upload(mirror.ptr(), byteSize, dirtySpans, region);
+		} else if (vbo != null && !dirtySpans.isEmpty()) {
+			if (mirrorGrew || needsToGrow(byteSize)) {
+				// Orphan the old store and send the whole mirror, including its spare capacity.
+				vbo.upload(mirror);
+			} else {
+				for (int i = 0; i < dirtySpans.size(); i += 2) {
+					long start = dirtySpans.getLong(i);
+					long end = Math.min(dirtySpans.getLong(i + 1), byteSize);
+					if (start < end) {
+						vbo.uploadSpan(start, mirror.ptr() + start, end - start);
+					}
+				}
+			}
+		}
+
+		dirtySpans.clear();
+		mirrorGrew = false;
 	}
 
 	private void updateBuffer() {
@@ -80,11 +203,7 @@ public class InstancedInstancer<I extends Instance> extends AbstractInstancer<I>
 			}
 			int actualEnd = Math.min(endInclusive, instances.size() - 1);
 			var temp = MemoryBlock.malloc((long) instanceStride * (actualEnd - startInclusive + 1));
-			long ptr = temp.ptr();
-			for (int i = startInclusive; i <= actualEnd; i++) {
-				writer.write(ptr, instances.get(i));
-				ptr += instanceStride;
-			}
+			writeInstanceRange(writer, temp.ptr(), instanceStride, startInclusive, actualEnd);
 
 			vbo.uploadSpan((long) startInclusive * instanceStride, temp);
 
@@ -93,9 +212,8 @@ public class InstancedInstancer<I extends Instance> extends AbstractInstancer<I>
 	}
 
 	private void writeAll(long ptr) {
-		for (I instance : instances) {
-			writer.write(ptr, instance);
-			ptr += instanceStride;
+		if (!instances.isEmpty()) {
+			writeInstanceRange(writer, ptr, instanceStride, 0, instances.size() - 1);
 		}
 	}
 
@@ -118,11 +236,20 @@ public class InstancedInstancer<I extends Instance> extends AbstractInstancer<I>
 	public void delete() {
 		super.delete();
 
-		if (vbo == null) {
+		if (mirror != null) {
+			mirror.free();
+			mirror = null;
+		}
+
+		if (persistentBuffer != null) {
+			persistentBuffer.delete();
+			persistentBuffer = null;
+		} else if (vbo != null) {
+			vbo.delete();
+			vbo = null;
+		} else {
 			return;
 		}
-		vbo.delete();
-		vbo = null;
 
 		for (InstancedDraw instancedDraw : draws) {
 			instancedDraw.delete();
@@ -134,6 +261,11 @@ public class InstancedInstancer<I extends Instance> extends AbstractInstancer<I>
 	}
 
 	public void bind(TextureBuffer buffer) {
+		if (persistentBuffer != null) {
+			persistentBuffer.bind(buffer);
+			return;
+		}
+
 		if (vbo == null) {
 			return;
 		}
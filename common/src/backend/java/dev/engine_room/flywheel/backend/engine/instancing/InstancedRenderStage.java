@@ -67,7 +67,7 @@ public class InstancedRenderStage {
 
 				Samplers.INSTANCE_BUFFER.makeActive();
 
-				drawCall.render(instanceTexture);
+				drawCall.render(instanceTexture, program);
 			}
 		}
 	}
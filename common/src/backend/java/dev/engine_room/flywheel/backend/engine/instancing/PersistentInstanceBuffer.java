@@ -0,0 +1,120 @@
+package dev.engine_room.flywheel.backend.engine.instancing;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.backend.gl.TextureBuffer;
+import dev.engine_room.flywheel.backend.gl.buffer.GlBufferType;
+import dev.engine_room.flywheel.lib.math.MoreMath;
+import dev.engine_room.flywheel.lib.memory.FlwMemoryTracker;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * A persistently mapped instance buffer split into {@link #REGION_COUNT} regions, one per frame in flight.
+ * <br>
+ * Each frame writes into and draws from the next region, so we never write to memory the GPU may still be reading.
+ * Every region remembers the byte range that changed since it was last written and only copies that from the
+ * instancer's CPU mirror. Requires {@link dev.engine_room.flywheel.backend.gl.GlCompat#SUPPORTS_PERSISTENT_MAPPING}.
+ */
+public class PersistentInstanceBuffer {
+	public static final int REGION_COUNT = 3;
+
+	private static final int FLAGS = GL44.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+	private static final int OFFSET_ALIGNMENT = Math.max(4, GL15.glGetInteger(GL43.GL_TEXTURE_BUFFER_OFFSET_ALIGNMENT));
+
+	private int vbo;
+	private long map;
+	/**
+	 * The size in bytes of one region, aligned so every region can be bound to a buffer texture.
+	 */
+	private long regionSize;
+
+	private final long[] dirtyStart = new long[REGION_COUNT];
+	private final long[] dirtyEnd = new long[REGION_COUNT];
+
+	private int currentRegion;
+	private long usedBytes;
+
+	/**
+	 * Copy everything that changed since the given region was last written from the mirror into it,
+	 * reallocating the buffer if the mirror no longer fits.
+	 *
+	 * @param mirror     Pointer to the CPU copy of all instances.
+	 * @param usedBytes  The number of bytes in the mirror that hold instances.
+	 * @param dirtySpans Start/end byte offset pairs that changed in the mirror since the last call.
+	 * @param region     The region to write and draw from this frame.
+	 */
+	public void upload(long mirror, long usedBytes, LongArrayList dirtySpans, int region) {
+		this.usedBytes = usedBytes;
+		currentRegion = region;
+
+		if (usedBytes > regionSize) {
+			realloc(usedBytes);
+		} else {
+			for (int i = 0; i < dirtySpans.size(); i += 2) {
+				markDirty(dirtySpans.getLong(i), dirtySpans.getLong(i + 1));
+			}
+		}
+
+		long start = dirtyStart[region];
+		long end = Math.min(dirtyEnd[region], usedBytes);
+
+		if (start < end) {
+			MemoryUtil.memCopy(mirror + start, map + region * regionSize + start, end - start);
+		}
+
+		dirtyStart[region] = Long.MAX_VALUE;
+		dirtyEnd[region] = 0;
+	}
+
+	public void bind(TextureBuffer buffer) {
+		if (vbo == 0 || usedBytes == 0) {
+			return;
+		}
+
+		buffer.bindRange(vbo, currentRegion * regionSize, usedBytes);
+	}
+
+	public void delete() {
+		if (vbo == 0) {
+			return;
+		}
+
+		// Deleting a mapped buffer implicitly unmaps it.
+		GL15.glDeleteBuffers(vbo);
+		FlwMemoryTracker._freeGPUMemory(regionSize * REGION_COUNT);
+		vbo = 0;
+		map = MemoryUtil.NULL;
+	}
+
+	private void markDirty(long start, long end) {
+		for (int i = 0; i < REGION_COUNT; i++) {
+			dirtyStart[i] = Math.min(dirtyStart[i], start);
+			dirtyEnd[i] = Math.max(dirtyEnd[i], end);
+		}
+	}
+
+	private void realloc(long minRegionSize) {
+		delete();
+
+		regionSize = MoreMath.ceilingDiv(Math.max(minRegionSize, (long) (regionSize * 1.6)), OFFSET_ALIGNMENT) * OFFSET_ALIGNMENT;
+		long totalSize = regionSize * REGION_COUNT;
+
+		vbo = GL15.glGenBuffers();
+		GlBufferType.COPY_WRITE_BUFFER.bind(vbo);
+		GL44.glBufferStorage(GlBufferType.COPY_WRITE_BUFFER.glEnum, totalSize, FLAGS);
+		map = GL30.nglMapBufferRange(GlBufferType.COPY_WRITE_BUFFER.glEnum, 0, totalSize, FLAGS);
+
+		FlwMemoryTracker._allocGPUMemory(totalSize);
+		FlwMemoryTracker._countGPUAllocation();
+
+		// The new storage is empty, so every region needs a full copy.
+		for (int i = 0; i < REGION_COUNT; i++) {
+			dirtyStart[i] = 0;
+			dirtyEnd[i] = Long.MAX_VALUE;
+		}
+	}
+}
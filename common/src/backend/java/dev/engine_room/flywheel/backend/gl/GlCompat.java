@@ -8,6 +8,7 @@ import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL20C;
 import org.lwjgl.opengl.GL31C;
+import org.lwjgl.opengl.GL41C;
 import org.lwjgl.opengl.GLCapabilities;
 import org.lwjgl.opengl.KHRShaderSubgroup;
 import org.lwjgl.system.MemoryStack;
@@ -39,6 +40,18 @@ public final class GlCompat {
 
 	public static final boolean SUPPORTS_INSTANCING = isInstancingSupported();
 	public static final boolean SUPPORTS_INDIRECT = isIndirectSupported();
+	/**
+	 * Whether we can persistently map buffer storage and bind sub-ranges of it to buffer textures.
+	 */
+	public static final boolean SUPPORTS_PERSISTENT_MAPPING = isPersistentMappingSupported();
+	/**
+	 * Whether linked programs can be saved with glGetProgramBinary and loaded again with glProgramBinary.
+	 */
+	public static final boolean SUPPORTS_PROGRAM_BINARY = isProgramBinarySupported();
+	/**
+	 * Vendor, renderer and version strings, used to invalidate cached program binaries when the driver changes.
+	 */
+	public static final String DRIVER_STRING = readDriverString();
 
 	private GlCompat() {
 	}
@@ -96,6 +109,14 @@ public final class GlCompat {
 		return Driver.UNKNOWN;
 	}
 
+	private static String readDriverString() {
+		if (CAPABILITIES == null) {
+			return "";
+		}
+
+		return GL20C.glGetString(GL20C.GL_VENDOR) + "\n" + GL20C.glGetString(GL20C.GL_RENDERER) + "\n" + GL20C.glGetString(GL20C.GL_VERSION);
+	}
+
 	private static int subgroupSize() {
 		if (CAPABILITIES == null) {
 			return 32;
@@ -122,6 +143,25 @@ public final class GlCompat {
 		return CAPABILITIES.GL_ARB_shader_bit_encoding;
 	}
 
+	private static boolean isPersistentMappingSupported() {
+		if (CAPABILITIES == null) {
+			return false;
+		}
+		return (CAPABILITIES.OpenGL44 || CAPABILITIES.GL_ARB_buffer_storage)
+				&& (CAPABILITIES.OpenGL43 || CAPABILITIES.GL_ARB_texture_buffer_range);
+	}
+
+	private static boolean isProgramBinarySupported() {
+		if (CAPABILITIES == null) {
+			return false;
+		}
+		if (!CAPABILITIES.OpenGL41 && !CAPABILITIES.GL_ARB_get_program_binary) {
+			return false;
+		}
+		// Drivers are allowed to support the entry points without supporting any binary formats.
+		return GL20C.glGetInteger(GL41C.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+	}
+
 	private static boolean isIndirectSupported() {
 		if (CAPABILITIES == null) {
 			return false;
@@ -1,8 +1,13 @@
 package dev.engine_room.flywheel.backend.gl;
 
+import static org.lwjgl.opengl.GL32.GL_ALREADY_SIGNALED;
+import static org.lwjgl.opengl.GL32.GL_CONDITION_SATISFIED;
 import static org.lwjgl.opengl.GL32.GL_SIGNALED;
+import static org.lwjgl.opengl.GL32.GL_SYNC_FLUSH_COMMANDS_BIT;
 import static org.lwjgl.opengl.GL32.GL_SYNC_GPU_COMMANDS_COMPLETE;
 import static org.lwjgl.opengl.GL32.GL_SYNC_STATUS;
+import static org.lwjgl.opengl.GL32.GL_WAIT_FAILED;
+import static org.lwjgl.opengl.GL32.glClientWaitSync;
 import static org.lwjgl.opengl.GL32.glDeleteSync;
 import static org.lwjgl.opengl.GL32.glFenceSync;
 import static org.lwjgl.opengl.GL32.nglGetSynciv;
@@ -28,6 +33,19 @@ public class GlFence {
 		return result == GL_SIGNALED;
 	}
 
+	/**
+	 * Block until the GPU has passed this fence.
+	 */
+	public void waitSignaled() {
+		while (true) {
+			int result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, 1_000_000);
+
+			if (result == GL_ALREADY_SIGNALED || result == GL_CONDITION_SATISFIED || result == GL_WAIT_FAILED) {
+				return;
+			}
+		}
+	}
+
 	public void delete() {
 		glDeleteSync(fence);
 	}
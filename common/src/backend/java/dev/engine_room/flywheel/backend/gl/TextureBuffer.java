@@ -1,6 +1,7 @@
 package dev.engine_room.flywheel.backend.gl;
 
 import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL43;
 
 public class TextureBuffer extends GlObject {
 	public static final int MAX_TEXELS = GL32.glGetInteger(GL32.GL_MAX_TEXTURE_BUFFER_SIZE);
@@ -15,6 +16,14 @@ public class TextureBuffer extends GlObject {
 		GL32.glTexBuffer(GL32.GL_TEXTURE_BUFFER, GL32.GL_RGBA32UI, buffer);
 	}
 
+	/**
+	 * Bind a sub-range of the given buffer. Requires {@link GlCompat#SUPPORTS_PERSISTENT_MAPPING}.
+	 */
+	public void bindRange(int buffer, long offset, long size) {
+		GL32.glBindTexture(GL32.GL_TEXTURE_BUFFER, handle());
+		GL43.glTexBufferRange(GL32.GL_TEXTURE_BUFFER, GL32.GL_RGBA32UI, buffer, offset, size);
+	}
+
 	@Override
 	protected void deleteInternal(int handle) {
 		GL32.glDeleteTextures(handle);
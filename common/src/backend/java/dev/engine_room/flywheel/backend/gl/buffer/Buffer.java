@@ -1,6 +1,7 @@
 package dev.engine_room.flywheel.backend.gl.buffer;
 
 import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL31;
 import org.lwjgl.opengl.GL45C;
 import org.lwjgl.system.Checks;
 
@@ -15,6 +16,8 @@ public interface Buffer {
 
 	void subData(int vbo, long offset, long size, long ptr);
 
+	void copySubData(int src, int dst, long srcOffset, long dstOffset, long size);
+
 	class DSA implements Buffer {
 		@Override
 		public int create() {
@@ -31,6 +34,11 @@ public interface Buffer {
 			GL45C.nglNamedBufferSubData(vbo, offset, size, ptr);
 		}
 
+		@Override
+		public void copySubData(int src, int dst, long srcOffset, long dstOffset, long size) {
+			GL45C.glCopyNamedBufferSubData(src, dst, srcOffset, dstOffset, size);
+		}
+
 		public Buffer fallback() {
 			if (GlCompat.ALLOW_DSA && dsaMethodsAvailable()) {
 				return this;
@@ -61,5 +69,12 @@ public interface Buffer {
 			GlBufferType.COPY_WRITE_BUFFER.bind(vbo);
 			GL15.nglBufferSubData(GlBufferType.COPY_WRITE_BUFFER.glEnum, offset, size, ptr);
 		}
+
+		@Override
+		public void copySubData(int src, int dst, long srcOffset, long dstOffset, long size) {
+			GlBufferType.COPY_READ_BUFFER.bind(src);
+			GlBufferType.COPY_WRITE_BUFFER.bind(dst);
+			GL31.glCopyBufferSubData(GlBufferType.COPY_READ_BUFFER.glEnum, GlBufferType.COPY_WRITE_BUFFER.glEnum, srcOffset, dstOffset, size);
+		}
 	}
 }
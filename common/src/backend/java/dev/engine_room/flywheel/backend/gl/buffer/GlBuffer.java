@@ -31,6 +31,7 @@ public class GlBuffer extends GlObject {
 		Buffer.IMPL.data(handle(), size, ptr, usage.glEnum);
 		this.size = size;
 		FlwMemoryTracker._allocGPUMemory(this.size);
+		FlwMemoryTracker._countGPUAllocation();
 	}
 
 	public void uploadSpan(long offset, MemoryBlock memoryBlock) {
@@ -41,6 +42,39 @@ public class GlBuffer extends GlObject {
 		Buffer.IMPL.subData(handle(), offset, size, ptr);
 	}
 
+	/**
+	 * Copy bytes within this buffer on the GPU. The ranges must not overlap.
+	 */
+	public void copySpan(long srcOffset, long dstOffset, long size) {
+		Buffer.IMPL.copySubData(handle(), handle(), srcOffset, dstOffset, size);
+	}
+
+	/**
+	 * Grow the buffer to at least the given size, keeping its contents and its handle.
+	 * <br>
+	 * The old contents take a round trip through a temporary buffer on the GPU, so nothing is read back.
+	 */
+	public void ensureCapacity(long capacity) {
+		if (size >= capacity) {
+			return;
+		}
+
+		if (size == 0) {
+			upload(0, capacity);
+			return;
+		}
+
+		long oldSize = size;
+		int temp = Buffer.IMPL.create();
+		Buffer.IMPL.data(temp, oldSize, 0, GlBufferUsage.STREAM_COPY.glEnum);
+		Buffer.IMPL.copySubData(handle(), temp, 0, 0, oldSize);
+
+		upload(0, capacity);
+
+		Buffer.IMPL.copySubData(temp, handle(), 0, 0, oldSize);
+		GlStateManager._glDeleteBuffers(temp);
+	}
+
 	public long size() {
 		return size;
 	}
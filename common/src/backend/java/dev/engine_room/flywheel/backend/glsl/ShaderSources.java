@@ -5,9 +5,9 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.VisibleForTesting;
 
@@ -16,6 +16,8 @@ import net.minecraft.server.packs.resources.ResourceManager;
 
 /**
  * The main object for loading and parsing source files.
+ * <br>
+ * Safe to use from multiple threads. Two threads may race to load the same file, but only one result is kept.
  */
 public class ShaderSources {
 	public static final String SHADER_DIR = "flywheel/";
@@ -23,12 +25,14 @@ public class ShaderSources {
 	private final ResourceManager manager;
 
 	@VisibleForTesting
-	protected final Map<ResourceLocation, LoadResult> cache = new HashMap<>();
+	protected final Map<ResourceLocation, LoadResult> cache = new ConcurrentHashMap<>();
 
 	/**
 	 * Tracks where we are in the mutual recursion to detect circular imports.
+	 * <br>
+	 * Imports are resolved on the thread that loads the importing file, so each thread only needs its own stack.
 	 */
-	private final Deque<ResourceLocation> findStack = new ArrayDeque<>();
+	private final ThreadLocal<Deque<ResourceLocation>> findStack = ThreadLocal.withInitial(ArrayDeque::new);
 
 	public ShaderSources(ResourceManager manager) {
 		this.manager = manager;
@@ -40,6 +44,8 @@ public class ShaderSources {
 	}
 
 	public LoadResult find(ResourceLocation location) {
+		var findStack = this.findStack.get();
+
 		if (findStack.contains(location)) {
 			// Make a copy of the find stack with the offending location added on top to show the full path.
 			findStack.addLast(location);
@@ -60,7 +66,11 @@ public class ShaderSources {
 		var out = cache.get(location);
 		if (out == null) {
 			out = load(location);
-			cache.put(location, out);
+			var existing = cache.putIfAbsent(location, out);
+			if (existing != null) {
+				// Another thread finished loading the same file first.
+				out = existing;
+			}
 		}
 		return out;
 	}
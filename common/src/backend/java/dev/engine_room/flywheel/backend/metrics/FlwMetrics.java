@@ -0,0 +1,183 @@
+package dev.engine_room.flywheel.backend.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.stream.JsonWriter;
+
+import dev.engine_room.flywheel.api.instance.InstanceType;
+
+/**
+ * Always-on timings and counters for the visualization pipeline.
+ * <br>
+ * Every metric keeps its last {@link #CAPACITY} samples. Per-frame metrics take one sample in {@link #endFrame()},
+ * so their percentiles are over the last {@link #CAPACITY} frames.
+ */
+public final class FlwMetrics {
+	public static final int CAPACITY = 256;
+
+	private static final Map<InstanceType<?>, Metric> DIRTY_INSTANCES = new ConcurrentHashMap<>();
+	/**
+	 * Replaced rather than modified so {@link #endFrame()} can iterate it without allocating.
+	 */
+	private static volatile Metric[] metrics = new Metric[0];
+
+	/**
+	 * How long a task sat in the executor's queue before a thread picked it up.
+	 */
+	public static final Metric TASK_QUEUE_WAIT = register("task/queue_wait", Metric.Unit.NANOS, false);
+	public static final Metric TASK_RUN = register("task/run", Metric.Unit.NANOS, false);
+
+	// Frame phases run once per visual manager, often in parallel. Each phase's sample is the sum over all managers.
+	public static final Metric FRAME_PROCESS_QUEUE = register("frame/process_queue", Metric.Unit.NANOS, true);
+	public static final Metric FRAME_DYNAMIC_VISUALS = register("frame/dynamic_visuals", Metric.Unit.NANOS, true);
+	public static final Metric FRAME_LIGHT_UPDATES = register("frame/light_updates", Metric.Unit.NANOS, true);
+	public static final Metric FRAME_ENGINE_FLUSH = register("frame/engine_flush", Metric.Unit.NANOS, true);
+
+	public static final Metric STAGING_BYTES = register("backend/staging_bytes", Metric.Unit.BYTES, true);
+	public static final Metric DIRTY_INSTANCES_TOTAL = register("backend/dirty_instances", Metric.Unit.COUNT, true);
+
+	private FlwMetrics() {
+	}
+
+	/**
+	 * @return The per-frame count of changed instances of the given type.
+	 */
+	public static Metric dirtyInstances(InstanceType<?> type) {
+		Metric metric = DIRTY_INSTANCES.get(type);
+
+		if (metric == null) {
+			metric = DIRTY_INSTANCES.computeIfAbsent(type, FlwMetrics::createDirtyInstancesMetric);
+		}
+
+		return metric;
+	}
+
+	private static Metric createDirtyInstancesMetric(InstanceType<?> type) {
+		return register("backend/dirty_instances/" + type.vertexShader(), Metric.Unit.COUNT, true);
+	}
+
+	private static synchronized Metric register(String name, Metric.Unit unit, boolean perFrame) {
+		var metric = new Metric(name, unit, perFrame, CAPACITY);
+
+		Metric[] out = Arrays.copyOf(metrics, metrics.length + 1);
+		out[metrics.length] = metric;
+		metrics = out;
+
+		return metric;
+	}
+
+	/**
+	 * Turn this frame's totals into samples for every per-frame metric.
+	 */
+	public static void endFrame() {
+		for (Metric metric : metrics) {
+			if (metric.perFrame()) {
+				metric.commitFrame();
+			}
+		}
+	}
+
+	public static List<Metric> all() {
+		return List.of(metrics);
+	}
+
+	public static String write(Format format) {
+		return format.write(all());
+	}
+
+	public enum Format {
+		CSV("csv"),
+		JSON("json");
+
+		public final String extension;
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		public String write(List<Metric> metrics) {
+			return switch (this) {
+				case CSV -> writeCsv(metrics);
+				case JSON -> writeJson(metrics);
+			};
+		}
+
+		private static String writeCsv(List<Metric> metrics) {
+			var out = new StringBuilder("name,unit,samples,min,p50,p95,p99,max,mean\n");
+
+			for (Metric metric : metrics) {
+				var snapshot = metric.snapshot();
+				out.append(metric.name())
+						.append(',')
+						.append(metric.unit()
+								.name()
+								.toLowerCase(Locale.ROOT))
+						.append(',')
+						.append(snapshot.size())
+						.append(',')
+						.append(snapshot.min())
+						.append(',')
+						.append(snapshot.percentile(0.5))
+						.append(',')
+						.append(snapshot.percentile(0.95))
+						.append(',')
+						.append(snapshot.percentile(0.99))
+						.append(',')
+						.append(snapshot.max())
+						.append(',')
+						.append(String.format(Locale.ROOT, "%.1f", snapshot.mean()))
+						.append('\n');
+			}
+
+			return out.toString();
+		}
+
+		private static String writeJson(List<Metric> metrics) {
+			var out = new StringWriter();
+
+			try (var writer = new JsonWriter(out)) {
+				writer.setIndent("  ");
+				writer.beginObject();
+
+				for (Metric metric : metrics) {
+					var snapshot = metric.snapshot();
+					writer.name(metric.name())
+							.beginObject();
+					writer.name("unit")
+							.value(metric.unit()
+									.name()
+									.toLowerCase(Locale.ROOT));
+					writer.name("samples")
+							.value(snapshot.size());
+					writer.name("min")
+							.value(snapshot.min());
+					writer.name("p50")
+							.value(snapshot.percentile(0.5));
+					writer.name("p95")
+							.value(snapshot.percentile(0.95));
+					writer.name("p99")
+							.value(snapshot.percentile(0.99));
+					writer.name("max")
+							.value(snapshot.max());
+					writer.name("mean")
+							.value(snapshot.mean());
+					writer.endObject();
+				}
+
+				writer.endObject();
+			} catch (IOException e) {
+				// StringWriter doesn't throw.
+				throw new UncheckedIOException(e);
+			}
+
+			return out.toString();
+		}
+	}
+}
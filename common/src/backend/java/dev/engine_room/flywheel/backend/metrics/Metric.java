@@ -0,0 +1,71 @@
+package dev.engine_room.flywheel.backend.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.engine_room.flywheel.lib.util.StringUtil;
+
+/**
+ * A named, rolling set of samples.
+ * <br>
+ * Plain metrics take one sample per {@link #record} call.
+ * Per-frame metrics instead {@link #add} to a running total, which becomes one sample when the frame ends.
+ */
+public final class Metric {
+	private final String name;
+	private final Unit unit;
+	private final boolean perFrame;
+	private final RollingSamples samples;
+	private final AtomicLong frameTotal = new AtomicLong();
+
+	Metric(String name, Unit unit, boolean perFrame, int capacity) {
+		this.name = name;
+		this.unit = unit;
+		this.perFrame = perFrame;
+		samples = new RollingSamples(capacity);
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public Unit unit() {
+		return unit;
+	}
+
+	public boolean perFrame() {
+		return perFrame;
+	}
+
+	public void record(long value) {
+		samples.record(value);
+	}
+
+	/**
+	 * Add to this frame's total. Only meaningful for per-frame metrics.
+	 */
+	public void add(long value) {
+		frameTotal.getAndAdd(value);
+	}
+
+	void commitFrame() {
+		samples.record(frameTotal.getAndSet(0));
+	}
+
+	public RollingSamples.Snapshot snapshot() {
+		return samples.snapshot();
+	}
+
+	public enum Unit {
+		NANOS,
+		BYTES,
+		COUNT;
+
+		public String format(long value) {
+			return switch (this) {
+				case NANOS -> StringUtil.formatTime(value);
+				case BYTES -> StringUtil.formatBytes(value);
+				case COUNT -> Long.toString(value);
+			};
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package dev.engine_room.flywheel.backend.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size ring of the most recent samples of some value.
+ * <br>
+ * Recording is lock free and allocates nothing, so it can be done from any thread on hot paths.
+ * Percentiles are computed on demand from a {@link #snapshot()}.
+ */
+public final class RollingSamples {
+	private final AtomicLongArray samples;
+	private final int mask;
+	/**
+	 * The number of samples recorded since creation, including those that have since been overwritten.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * @param capacity The number of samples to keep. Must be a power of two.
+	 */
+	public RollingSamples(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a positive power of two, got " + capacity);
+		}
+
+		samples = new AtomicLongArray(capacity);
+		mask = capacity - 1;
+	}
+
+	public void record(long value) {
+		long index = count.getAndIncrement();
+		samples.lazySet((int) (index & mask), value);
+	}
+
+	public int capacity() {
+		return samples.length();
+	}
+
+	public long count() {
+		return count.get();
+	}
+
+	/**
+	 * Copy out the samples currently in the ring.
+	 * <br>
+	 * Samples recorded while this runs may or may not be included.
+	 */
+	public Snapshot snapshot() {
+		long total = count.get();
+		int size = (int) Math.min(total, samples.length());
+
+		// Until the ring wraps, the filled slots are all at the front.
+		long[] out = new long[size];
+		for (int i = 0; i < size; i++) {
+			out[i] = samples.get(i);
+		}
+		Arrays.sort(out);
+
+		return new Snapshot(out, total);
+	}
+
+	public static final class Snapshot {
+		private final long[] sorted;
+		private final long count;
+
+		private Snapshot(long[] sorted, long count) {
+			this.sorted = sorted;
+			this.count = count;
+		}
+
+		/**
+		 * @return The number of samples in this snapshot.
+		 */
+		public int size() {
+			return sorted.length;
+		}
+
+		/**
+		 * @return The number of samples ever recorded, including those no longer in the ring.
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * Nearest-rank percentile.
+		 *
+		 * @param fraction The percentile as a fraction between 0 and 1.
+		 * @return The smallest sample that is at least {@code fraction} of the way through the samples,
+		 * or 0 if there are none.
+		 */
+		public long percentile(double fraction) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+
+			int rank = (int) Math.ceil(fraction * sorted.length);
+			return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+		}
+
+		public long min() {
+			return sorted.length == 0 ? 0 : sorted[0];
+		}
+
+		public long max() {
+			return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+		}
+
+		public double mean() {
+			if (sorted.length == 0) {
+				return 0;
+			}
+
+			double sum = 0;
+			for (long sample : sorted) {
+				sum += sample;
+			}
+			return sum / sorted.length;
+		}
+	}
+}
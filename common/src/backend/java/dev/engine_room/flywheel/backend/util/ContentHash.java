@@ -0,0 +1,112 @@
+package dev.engine_room.flywheel.backend.util;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Hashing and comparison of raw memory, for finding identical blocks of data.
+ * <br>
+ * The hash is XXH64 with a seed of 0, reading memory in native byte order.
+ */
+public final class ContentHash {
+	private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME_3 = 0x165667B19E3779F9L;
+	private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+	private ContentHash() {
+	}
+
+	/**
+	 * @param ptr       The address of the data.
+	 * @param byteCount The number of bytes to hash.
+	 * @return The 64 bit hash of the data.
+	 */
+	public static long hash(long ptr, long byteCount) {
+		long end = ptr + byteCount;
+		long h;
+
+		if (byteCount >= 32) {
+			long v1 = PRIME_1 + PRIME_2;
+			long v2 = PRIME_2;
+			long v3 = 0;
+			long v4 = -PRIME_1;
+			long limit = end - 32;
+
+			do {
+				v1 = round(v1, MemoryUtil.memGetLong(ptr));
+				v2 = round(v2, MemoryUtil.memGetLong(ptr + 8));
+				v3 = round(v3, MemoryUtil.memGetLong(ptr + 16));
+				v4 = round(v4, MemoryUtil.memGetLong(ptr + 24));
+				ptr += 32;
+			} while (ptr <= limit);
+
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = mergeRound(h, v1);
+			h = mergeRound(h, v2);
+			h = mergeRound(h, v3);
+			h = mergeRound(h, v4);
+		} else {
+			h = PRIME_5;
+		}
+
+		h += byteCount;
+
+		while (ptr + 8 <= end) {
+			h ^= round(0, MemoryUtil.memGetLong(ptr));
+			h = Long.rotateLeft(h, 27) * PRIME_1 + PRIME_4;
+			ptr += 8;
+		}
+
+		if (ptr + 4 <= end) {
+			h ^= Integer.toUnsignedLong(MemoryUtil.memGetInt(ptr)) * PRIME_1;
+			h = Long.rotateLeft(h, 23) * PRIME_2 + PRIME_3;
+			ptr += 4;
+		}
+
+		while (ptr < end) {
+			h ^= Byte.toUnsignedLong(MemoryUtil.memGetByte(ptr)) * PRIME_5;
+			h = Long.rotateLeft(h, 11) * PRIME_1;
+			ptr++;
+		}
+
+		h ^= h >>> 33;
+		h *= PRIME_2;
+		h ^= h >>> 29;
+		h *= PRIME_3;
+		h ^= h >>> 32;
+		return h;
+	}
+
+	/**
+	 * @return {@code true} if the {@code byteCount} bytes at {@code a} and {@code b} are identical.
+	 */
+	public static boolean contentEquals(long a, long b, long byteCount) {
+		long i = 0;
+
+		for (; i + 8 <= byteCount; i += 8) {
+			if (MemoryUtil.memGetLong(a + i) != MemoryUtil.memGetLong(b + i)) {
+				return false;
+			}
+		}
+
+		for (; i < byteCount; i++) {
+			if (MemoryUtil.memGetByte(a + i) != MemoryUtil.memGetByte(b + i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static long round(long acc, long input) {
+		acc += input * PRIME_2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * PRIME_1;
+	}
+
+	private static long mergeRound(long acc, long value) {
+		acc ^= round(0, value);
+		return acc * PRIME_1 + PRIME_4;
+	}
+}
@@ -0,0 +1,158 @@
+package dev.engine_room.flywheel.backend.util;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntRBTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2IntSortedMap;
+
+/**
+ * Hands out ranges of a linear arena, measured in arbitrary units.
+ * <br>
+ * Freed ranges are kept in a sorted free list and coalesced with their neighbours.
+ * Allocations are first-fit from the free list, falling back to appending at the end of the arena.
+ * Freeing the range at the end of the arena shrinks it.
+ */
+public class RangeAllocator {
+	/**
+	 * Offset to size of every free range below {@link #end}. Adjacent ranges are always merged.
+	 */
+	private final Int2IntSortedMap free = new Int2IntRBTreeMap();
+
+	private int end;
+	private int used;
+
+	/**
+	 * @param size The number of units to allocate.
+	 * @return The offset of the allocated range.
+	 */
+	public int alloc(int size) {
+		if (size <= 0) {
+			return 0;
+		}
+
+		int out = allocBelow(size, Integer.MAX_VALUE);
+
+		if (out != -1) {
+			return out;
+		}
+
+		out = end;
+		end += size;
+		used += size;
+		return out;
+	}
+
+	/**
+	 * Allocate from the free list only, in a range that ends at or before the given limit.
+	 * <br>
+	 * Used for compaction: moving something into the returned range never moves it further from the start.
+	 *
+	 * @param size  The number of units to allocate.
+	 * @param limit The maximum end of the allocated range, exclusive.
+	 * @return The offset of the allocated range, or {@code -1} if no free range fits.
+	 */
+	public int allocBelow(int size, int limit) {
+		for (Int2IntMap.Entry entry : free.int2IntEntrySet()) {
+			int offset = entry.getIntKey();
+
+			if (offset + size > limit) {
+				// Sorted by offset, so nothing later can fit either.
+				return -1;
+			}
+
+			int holeSize = entry.getIntValue();
+
+			if (holeSize < size) {
+				continue;
+			}
+
+			free.remove(offset);
+			if (holeSize > size) {
+				free.put(offset + size, holeSize - size);
+			}
+
+			used += size;
+			return offset;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Return a range to the arena.
+	 *
+	 * @param offset The offset returned by {@link #alloc}.
+	 * @param size   The size passed to {@link #alloc}.
+	 */
+	public void free(int offset, int size) {
+		if (size <= 0) {
+			return;
+		}
+
+		if (offset < 0 || offset + size > end) {
+			throw new IllegalArgumentException("Range [" + offset + ", " + (offset + size) + ") is outside the arena [0, " + end + ")");
+		}
+
+		used -= size;
+
+		// Merge with the free range directly before us, if any.
+		var before = free.headMap(offset);
+		if (!before.isEmpty()) {
+			int prevOffset = before.lastIntKey();
+			int prevSize = free.get(prevOffset);
+
+			if (prevOffset + prevSize > offset) {
+				throw new IllegalArgumentException("Range [" + offset + ", " + (offset + size) + ") is already free");
+			}
+
+			if (prevOffset + prevSize == offset) {
+				free.remove(prevOffset);
+				offset = prevOffset;
+				size += prevSize;
+			}
+		}
+
+		// And with the free range directly after us.
+		int next = offset + size;
+		if (free.containsKey(next)) {
+			size += free.remove(next);
+		} else {
+			var after = free.tailMap(offset);
+			if (!after.isEmpty() && after.firstIntKey() < next) {
+				throw new IllegalArgumentException("Range [" + offset + ", " + next + ") is already free");
+			}
+		}
+
+		if (offset + size == end) {
+			end = offset;
+		} else {
+			free.put(offset, size);
+		}
+	}
+
+	/**
+	 * @return One past the last allocated unit.
+	 */
+	public int end() {
+		return end;
+	}
+
+	/**
+	 * @return The number of allocated units.
+	 */
+	public int used() {
+		return used;
+	}
+
+	/**
+	 * @return The fraction of the arena, up to {@link #end}, that is free.
+	 */
+	public float fragmentation() {
+		return end == 0 ? 0 : (float) (end - used) / end;
+	}
+
+	public void clear() {
+		free.clear();
+		end = 0;
+		used = 0;
+	}
+}
@@ -1,6 +1,8 @@
 #include "flywheel:internal/packed_material.glsl"
 #include "flywheel:internal/diffuse.glsl"
 #include "flywheel:internal/colorizer.glsl"
+#include "flywheel:internal/indirect/buffer_bindings.glsl"
+#include "flywheel:internal/indirect/embedding_descriptor.glsl"
 
 // optimize discard usage
 #ifdef GL_ARB_conservative_depth
@@ -19,6 +21,105 @@ uniform sampler3D _flw_lightVolume;
 uniform bool _flw_useLightVolume;
 
 in vec3 _flw_lightVolumeCoord;
+
+#ifdef _FLW_SPARSE_LIGHT_VOLUME
+// Page index + 1 for each section, 0 if the section has no page.
+uniform usampler3D _flw_lightPageTable;
+
+vec2 _flw_fetchLightVolume(ivec3 cell) {
+    ivec3 section = cell >> 4;
+
+    if (any(lessThan(section, ivec3(0))) || any(greaterThanEqual(section, textureSize(_flw_lightPageTable, 0)))) {
+        return vec2(0.);
+    }
+
+    uint entry = texelFetch(_flw_lightPageTable, section, 0).r;
+
+    if (entry == 0u) {
+        return vec2(0.);
+    }
+
+    // Must match EmbeddedLightTexture#uploadPage.
+    int page = int(entry - 1u);
+    ivec3 atlasPages = textureSize(_flw_lightVolume, 0) >> 4;
+    ivec3 atlasPage = ivec3(page % atlasPages.x, (page / atlasPages.x) % atlasPages.y, page / (atlasPages.x * atlasPages.y));
+
+    return texelFetch(_flw_lightVolume, (atlasPage << 4) + (cell & 15), 0).rg;
+}
+
+vec2 _flw_sampleLightVolume(vec3 coord) {
+    // Filter by hand so we never blend with texels from an unrelated page in the atlas.
+    vec3 cellCoord = coord * vec3(textureSize(_flw_lightPageTable, 0) << 4) - 0.5;
+    ivec3 base = ivec3(floor(cellCoord));
+    vec3 t = cellCoord - vec3(base);
+
+    vec2 c000 = _flw_fetchLightVolume(base);
+    vec2 c100 = _flw_fetchLightVolume(base + ivec3(1, 0, 0));
+    vec2 c010 = _flw_fetchLightVolume(base + ivec3(0, 1, 0));
+    vec2 c110 = _flw_fetchLightVolume(base + ivec3(1, 1, 0));
+    vec2 c001 = _flw_fetchLightVolume(base + ivec3(0, 0, 1));
+    vec2 c101 = _flw_fetchLightVolume(base + ivec3(1, 0, 1));
+    vec2 c011 = _flw_fetchLightVolume(base + ivec3(0, 1, 1));
+    vec2 c111 = _flw_fetchLightVolume(base + ivec3(1, 1, 1));
+
+    vec2 c00 = mix(c000, c100, t.x);
+    vec2 c10 = mix(c010, c110, t.x);
+    vec2 c01 = mix(c001, c101, t.x);
+    vec2 c11 = mix(c011, c111, t.x);
+
+    return mix(mix(c00, c10, t.y), mix(c01, c11, t.y), t.z);
+}
+#else
+vec2 _flw_sampleLightVolume(vec3 coord) {
+    return texture(_flw_lightVolume, coord).rg;
+}
+#endif
+#endif
+
+#ifdef _FLW_EMBEDDED_BATCHED
+layout(std430, binding = _FLW_EMBEDDING_BUFFER_BINDING) restrict readonly buffer EmbeddingBuffer {
+    EmbeddingDescriptor _flw_embeddings[];
+};
+
+// Two cells per uint, laid out like EmbeddedLightVolume.
+layout(std430, binding = _FLW_EMBEDDING_LIGHT_BUFFER_BINDING) restrict readonly buffer EmbeddingLightBuffer {
+    uint _flw_embeddingLight[];
+};
+
+flat in uint _flw_embeddingIndex;
+in vec3 _flw_lightVolumeCoord;
+
+vec2 _flw_fetchBatchedLight(uvec4 volume, ivec3 cell) {
+    // Clamp to the edge like the light texture of unbatched embeddings.
+    uvec3 clamped = uvec3(clamp(cell, ivec3(0), ivec3(volume.xyz) - 1));
+    uint index = volume.w + clamped.x + volume.x * (clamped.y + volume.y * clamped.z);
+    uint cellLight = (_flw_embeddingLight[index >> 1u] >> ((index & 1u) << 4u)) & 0xFFFFu;
+
+    return vec2(cellLight & 0xFFu, cellLight >> 8u) / 255.;
+}
+
+vec2 _flw_sampleBatchedLight(uvec4 volume, vec3 coord) {
+    // Same as linear filtering of the light texture, coord is in blocks relative to the volume.
+    vec3 cellCoord = coord - 0.5;
+    ivec3 base = ivec3(floor(cellCoord));
+    vec3 t = cellCoord - vec3(base);
+
+    vec2 c000 = _flw_fetchBatchedLight(volume, base);
+    vec2 c100 = _flw_fetchBatchedLight(volume, base + ivec3(1, 0, 0));
+    vec2 c010 = _flw_fetchBatchedLight(volume, base + ivec3(0, 1, 0));
+    vec2 c110 = _flw_fetchBatchedLight(volume, base + ivec3(1, 1, 0));
+    vec2 c001 = _flw_fetchBatchedLight(volume, base + ivec3(0, 0, 1));
+    vec2 c101 = _flw_fetchBatchedLight(volume, base + ivec3(1, 0, 1));
+    vec2 c011 = _flw_fetchBatchedLight(volume, base + ivec3(0, 1, 1));
+    vec2 c111 = _flw_fetchBatchedLight(volume, base + ivec3(1, 1, 1));
+
+    vec2 c00 = mix(c000, c100, t.x);
+    vec2 c10 = mix(c010, c110, t.x);
+    vec2 c01 = mix(c001, c101, t.x);
+    vec2 c11 = mix(c011, c111, t.x);
+
+    return mix(mix(c00, c10, t.y), mix(c01, c11, t.y), t.z);
+}
 #endif
 
 flat in uint _flw_instanceID;
@@ -45,7 +146,15 @@ void _flw_main() {
 
     #ifdef _FLW_EMBEDDED
     if (_flw_useLightVolume) {
-        flw_fragLight = max(flw_fragLight, texture(_flw_lightVolume, _flw_lightVolumeCoord).rg);
+        flw_fragLight = max(flw_fragLight, _flw_sampleLightVolume(_flw_lightVolumeCoord));
+    }
+    #endif
+
+    #ifdef _FLW_EMBEDDED_BATCHED
+    uvec4 lightVolume = _flw_embeddings[_flw_embeddingIndex].lightVolume;
+
+    if (lightVolume.w != ~0u) {
+        flw_fragLight = max(flw_fragLight, _flw_sampleBatchedLight(lightVolume, _flw_lightVolumeCoord));
     }
     #endif
 
@@ -103,6 +212,11 @@ void _flw_main() {
         color = vec4(_flw_lightVolumeCoord, 1.);
         break;
         #endif
+        #ifdef _FLW_EMBEDDED_BATCHED
+        case 7u:
+        color = vec4(_flw_lightVolumeCoord / vec3(max(_flw_embeddings[_flw_embeddingIndex].lightVolume.xyz, 1u)), 1.);
+        break;
+        #endif
     }
 
     _flw_outputColor = flw_fogFilter(color);
@@ -1,6 +1,11 @@
 #include "flywheel:internal/fog_distance.glsl"
+#include "flywheel:internal/indirect/buffer_bindings.glsl"
+#include "flywheel:internal/indirect/embedding_descriptor.glsl"
 
 #ifdef _FLW_CRUMBLING
+// Offset of instances written against a previous render origin, identity otherwise.
+uniform mat4 _flw_modelMatrix;
+
 out vec2 _flw_crumblingTexCoord;
 
 const int DOWN = 0;
@@ -75,6 +80,16 @@ uniform mat3 _flw_normalMatrix;
 out vec3 _flw_lightVolumeCoord;
 #endif
 
+#ifdef _FLW_EMBEDDED_BATCHED
+layout(std430, binding = _FLW_EMBEDDING_BUFFER_BINDING) restrict readonly buffer EmbeddingBuffer {
+    EmbeddingDescriptor _flw_embeddings[];
+};
+
+// Written by main before calling _flw_main.
+flat out uint _flw_embeddingIndex;
+out vec3 _flw_lightVolumeCoord;
+#endif
+
 flat out uint _flw_instanceID;
 
 void _flw_main(in FlwInstance instance, in uint stableInstanceID) {
@@ -84,6 +99,8 @@ void _flw_main(in FlwInstance instance, in uint stableInstanceID) {
 
     #ifdef _FLW_CRUMBLING
     _flw_crumblingTexCoord = getCrumblingTexCoord();
+
+    flw_vertexPos = _flw_modelMatrix * flw_vertexPos;
     #endif
 
     #ifdef _FLW_EMBEDDED
@@ -93,6 +110,16 @@ void _flw_main(in FlwInstance instance, in uint stableInstanceID) {
     _flw_lightVolumeCoord = (flw_vertexPos.xyz - _flw_lightVolumeMin) * _flw_oneOverLightBoxSize;
     #endif
 
+    #ifdef _FLW_EMBEDDED_BATCHED
+    EmbeddingDescriptor embedding = _flw_embeddings[_flw_embeddingIndex];
+
+    flw_vertexPos = embedding.pose * flw_vertexPos;
+    flw_vertexNormal = embedding.normal * flw_vertexNormal;
+
+    // In blocks rather than texture coordinates since there's no texture to sample.
+    _flw_lightVolumeCoord = flw_vertexPos.xyz - embedding.lightVolumeMin.xyz;
+    #endif
+
     flw_vertexNormal = normalize(flw_vertexNormal);
 
     flw_distance = fogDistance(flw_vertexPos.xyz, flw_cameraPos, flw_fogShape);
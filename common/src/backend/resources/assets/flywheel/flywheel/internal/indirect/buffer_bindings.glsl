@@ -3,3 +3,5 @@
 #define _FLW_MODEL_INDEX_BUFFER_BINDING 2
 #define _FLW_MODEL_BUFFER_BINDING 3
 #define _FLW_DRAW_BUFFER_BINDING 4
+#define _FLW_EMBEDDING_BUFFER_BINDING 5
+#define _FLW_EMBEDDING_LIGHT_BUFFER_BINDING 6
@@ -1,5 +1,6 @@
 #include "flywheel:internal/indirect/buffer_bindings.glsl"
 #include "flywheel:internal/indirect/model_descriptor.glsl"
+#include "flywheel:internal/indirect/embedding_descriptor.glsl"
 #include "flywheel:internal/uniforms/uniforms.glsl"
 #include "flywheel:util/matrix.glsl"
 
@@ -17,6 +18,14 @@ layout(std430, binding = _FLW_MODEL_BUFFER_BINDING) restrict buffer ModelBuffer
     ModelDescriptor _flw_models[];
 };
 
+#ifdef _FLW_EMBEDDED_BATCHED
+layout(std430, binding = _FLW_EMBEDDING_BUFFER_BINDING) restrict readonly buffer EmbeddingBuffer {
+    EmbeddingDescriptor _flw_embeddings[];
+};
+
+uniform bool _flw_useEmbeddingBuffer = false;
+#endif
+
 uniform mat4 _flw_modelMatrix;
 uniform bool _flw_useModelMatrix = false;
 
@@ -44,6 +53,12 @@ bool _flw_isVisible(uint instanceIndex, uint modelIndex) {
 
     flw_transformBoundingSphere(instance, center, radius);
 
+    #ifdef _FLW_EMBEDDED_BATCHED
+    if (_flw_useEmbeddingBuffer) {
+        transformBoundingSphere(_flw_embeddings[_flw_models[modelIndex].embeddingIndex].pose, center, radius);
+    }
+    #endif
+
     if (_flw_useModelMatrix) {
         transformBoundingSphere(_flw_modelMatrix, center, radius);
     }
@@ -11,4 +11,12 @@ struct MeshDrawCommand {
     uint materialFragmentIndex;
     uint packedFogAndCutout;
     uint packedMaterialProperties;
+
+    #ifdef _FLW_QUANTIZED_VERTICES
+    // Dequantization parameters of the mesh.
+    float meshPosMinX, meshPosMinY, meshPosMinZ;
+    float meshPosExtentX, meshPosExtentY, meshPosExtentZ;
+    float meshTexMinU, meshTexMinV;
+    float meshTexExtentU, meshTexExtentV;
+    #endif
 };
@@ -0,0 +1,9 @@
+// Must match EmbeddingTable.
+struct EmbeddingDescriptor {
+    mat4 pose;
+    mat3 normal;
+    vec4 lightVolumeMin;
+    // xyz: size of the light volume in blocks
+    // w: index of the first cell of the light volume in the light buffer, or ~0u if there is no light volume
+    uvec4 lightVolume;
+};
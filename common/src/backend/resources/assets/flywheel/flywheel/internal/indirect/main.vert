@@ -2,6 +2,7 @@
 #include "flywheel:internal/packed_material.glsl"
 #include "flywheel:internal/indirect/buffer_bindings.glsl"
 #include "flywheel:internal/indirect/draw_command.glsl"
+#include "flywheel:internal/indirect/model_descriptor.glsl"
 
 layout(std430, binding = _FLW_TARGET_BUFFER_BINDING) restrict readonly buffer TargetBuffer {
     uint _flw_instanceIndices[];
@@ -11,6 +12,12 @@ layout(std430, binding = _FLW_DRAW_BUFFER_BINDING) restrict readonly buffer Draw
     MeshDrawCommand _flw_drawCommands[];
 };
 
+#ifdef _FLW_EMBEDDED_BATCHED
+layout(std430, binding = _FLW_MODEL_BUFFER_BINDING) restrict readonly buffer ModelBuffer {
+    ModelDescriptor _flw_models[];
+};
+#endif
+
 uniform uint _flw_baseDraw;
 
 flat out uvec3 _flw_packedMaterial;
@@ -28,6 +35,13 @@ void main() {
     _flw_unpackMaterialProperties(packedMaterialProperties, flw_material);
     _flw_packedMaterial = uvec3(draw.materialFragmentIndex, draw.packedFogAndCutout, packedMaterialProperties);
 
+    #ifdef _FLW_QUANTIZED_VERTICES
+    _flw_meshPosMin = vec3(draw.meshPosMinX, draw.meshPosMinY, draw.meshPosMinZ);
+    _flw_meshPosExtent = vec3(draw.meshPosExtentX, draw.meshPosExtentY, draw.meshPosExtentZ);
+    _flw_meshTexMin = vec2(draw.meshTexMinU, draw.meshTexMinV);
+    _flw_meshTexExtent = vec2(draw.meshTexExtentU, draw.meshTexExtentV);
+    #endif
+
 #if __VERSION__ < 460
     uint instanceIndex = _flw_instanceIndices[gl_BaseInstanceARB + gl_InstanceID];
 #else
@@ -35,5 +49,9 @@ void main() {
 #endif
     FlwInstance instance = _flw_unpackInstance(instanceIndex);
 
+    #ifdef _FLW_EMBEDDED_BATCHED
+    _flw_embeddingIndex = _flw_models[draw.modelIndex].embeddingIndex;
+    #endif
+
     _flw_main(instance, instanceIndex);
 }
@@ -9,6 +9,7 @@ struct ModelDescriptor {
     uint instanceCount;
     uint baseInstance;
     BoundingSphere boundingSphere;
+    uint embeddingIndex;
 };
 
 void _flw_unpackBoundingSphere(in BoundingSphere sphere, out vec3 center, out float radius) {
@@ -4,10 +4,24 @@
 uniform uvec4 _flw_packedMaterial;
 uniform int _flw_baseInstance = 0;
 
+#ifdef _FLW_QUANTIZED_VERTICES
+uniform vec3 _flw_meshPositionMin;
+uniform vec3 _flw_meshPositionExtent;
+uniform vec2 _flw_meshTexCoordMin;
+uniform vec2 _flw_meshTexCoordExtent;
+#endif
+
 void main() {
     _flw_uberMaterialVertexIndex = _flw_packedMaterial.x;
     _flw_unpackMaterialProperties(_flw_packedMaterial.w, flw_material);
 
+    #ifdef _FLW_QUANTIZED_VERTICES
+    _flw_meshPosMin = _flw_meshPositionMin;
+    _flw_meshPosExtent = _flw_meshPositionExtent;
+    _flw_meshTexMin = _flw_meshTexCoordMin;
+    _flw_meshTexExtent = _flw_meshTexCoordExtent;
+    #endif
+
     FlwInstance instance = _flw_unpackInstance(_flw_baseInstance + gl_InstanceID);
 
     _flw_main(instance, uint(gl_InstanceID));
@@ -0,0 +1,29 @@
+in vec3 _flw_aPos;
+in vec2 _flw_aNormal;
+in vec4 _flw_aColor;
+in vec2 _flw_aTexCoord;
+
+// Dequantization parameters of the mesh being drawn, set by main before calling _flw_main.
+vec3 _flw_meshPosMin;
+vec3 _flw_meshPosExtent;
+vec2 _flw_meshTexMin;
+vec2 _flw_meshTexExtent;
+
+// Must stay in sync with QuantizedVertexView.
+vec3 _flw_decodeOctahedral(vec2 e) {
+    vec3 n = vec3(e, 1.0 - abs(e.x) - abs(e.y));
+    float t = max(-n.z, 0.0);
+    n.x += n.x >= 0.0 ? -t : t;
+    n.y += n.y >= 0.0 ? -t : t;
+    return normalize(n);
+}
+
+void _flw_layoutVertex() {
+    flw_vertexPos = vec4(_flw_meshPosMin + _flw_aPos * _flw_meshPosExtent, 1.0);
+    flw_vertexColor = _flw_aColor;
+    flw_vertexTexCoord = _flw_meshTexMin + _flw_aTexCoord * _flw_meshTexExtent;
+    // Quantized meshes have no overlay or light, the instance provides them.
+    flw_vertexOverlay = ivec2(0, 10);
+    flw_vertexLight = vec2(0.0);
+    flw_vertexNormal = _flw_decodeOctahedral(_flw_aNormal);
+}
@@ -0,0 +1,66 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.lib.instance.InstanceTypes;
+import dev.engine_room.flywheel.lib.instance.TransformedInstance;
+
+/**
+ * Many threads creating instances in the same instancer, as happens when every visual of a kind shares one model.
+ * <br>
+ * Each iteration creates a fixed batch per thread and the instancer is reset in between,
+ * so memory use stays bounded no matter how fast creation is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = InstanceCreationContentionBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = InstanceCreationContentionBenchmark.BATCH_SIZE)
+@Threads(8)
+@Fork(1)
+public class InstanceCreationContentionBenchmark {
+	public static final int BATCH_SIZE = 50_000;
+
+	private CpuInstancer instancer;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		instancer = new CpuInstancer();
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		instancer.mergeStagedInstances();
+		instancer.clear();
+	}
+
+	@Benchmark
+	public TransformedInstance locked() {
+		return instancer.createLockedInstance();
+	}
+
+	@Benchmark
+	public TransformedInstance staged() {
+		return instancer.createStagedInstance();
+	}
+
+	private static class CpuInstancer extends AbstractInstancer<TransformedInstance> {
+		private CpuInstancer() {
+			super(InstanceTypes.TRANSFORMED, GlobalEnvironment.INSTANCE);
+		}
+	}
+}
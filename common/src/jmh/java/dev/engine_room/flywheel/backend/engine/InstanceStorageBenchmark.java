@@ -0,0 +1,137 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.lib.instance.InstanceTypes;
+import dev.engine_room.flywheel.lib.instance.OffHeapTransformedInstance;
+import dev.engine_room.flywheel.lib.instance.TransformedInstance;
+import dev.engine_room.flywheel.lib.math.MoreMath;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+
+/**
+ * Transformed instances stored as one object each versus as views of off heap data.
+ * <br>
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} of the {@code create} benchmarks is the heap cost of
+ * {@link #COUNT} instances, and the {@code upload} benchmarks show writer calls versus plain copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InstanceStorageBenchmark {
+	public static final int COUNT = 10_000;
+
+	@Param({"100", "10000"})
+	public int changed;
+
+	private CpuInstancer<TransformedInstance> objects;
+	private CpuInstancer<OffHeapTransformedInstance> offHeap;
+	private MemoryBlock staging;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		objects = new CpuInstancer<>(InstanceTypes.TRANSFORMED);
+		offHeap = new CpuInstancer<>(InstanceTypes.TRANSFORMED_OFF_HEAP);
+
+		for (int i = 0; i < COUNT; i++) {
+			objects.createLockedInstance();
+			offHeap.createLockedInstance();
+		}
+
+		staging = MemoryBlock.malloc((long) COUNT * objects.stride);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		objects.delete();
+		offHeap.delete();
+		staging.free();
+	}
+
+	@Benchmark
+	public int createObjects() {
+		var instancer = new CpuInstancer<>(InstanceTypes.TRANSFORMED);
+		for (int i = 0; i < COUNT; i++) {
+			instancer.createLockedInstance();
+		}
+		instancer.delete();
+		return instancer.instanceCount();
+	}
+
+	@Benchmark
+	public int createOffHeap() {
+		var instancer = new CpuInstancer<>(InstanceTypes.TRANSFORMED_OFF_HEAP);
+		for (int i = 0; i < COUNT; i++) {
+			instancer.createLockedInstance();
+		}
+		instancer.delete();
+		return instancer.instanceCount();
+	}
+
+	@Benchmark
+	public void updateObjects() {
+		for (int i = 0; i < changed; i++) {
+			objects.instances.get(i)
+					.loadIdentity()
+					.translate(i, 1, 2)
+					.light(i);
+		}
+	}
+
+	@Benchmark
+	public void updateOffHeap() {
+		for (int i = 0; i < changed; i++) {
+			offHeap.instances.get(i)
+					.loadIdentity()
+					.translate(i, 1, 2)
+					.light(i);
+		}
+	}
+
+	@Benchmark
+	public void uploadObjects() {
+		objects.upload(staging, changed);
+	}
+
+	@Benchmark
+	public void uploadOffHeap() {
+		offHeap.upload(staging, changed);
+	}
+
+	private static class CpuInstancer<I extends Instance> extends AbstractInstancer<I> {
+		private final long stride;
+
+		private CpuInstancer(InstanceType<I> type) {
+			super(type, GlobalEnvironment.INSTANCE);
+
+			stride = MoreMath.align4(type.layout()
+					.byteSize());
+		}
+
+		/**
+		 * Write the first {@code count} instances the way the indirect backend fills its staging buffer.
+		 */
+		private void upload(MemoryBlock staging, int count) {
+			writeInstanceRange(type.writer(), staging.ptr(), stride, 0, count - 1);
+		}
+	}
+}
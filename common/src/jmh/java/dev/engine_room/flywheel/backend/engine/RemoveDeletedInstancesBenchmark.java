@@ -0,0 +1,96 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.lib.instance.InstanceTypes;
+import dev.engine_room.flywheel.lib.instance.TransformedInstance;
+
+/**
+ * Measures compacting an instancer after a batch of deletions, without touching any GPU state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoveDeletedInstancesBenchmark {
+	@Param({"10000", "100000", "1000000"})
+	public int count;
+
+	/**
+	 * Which 10% of instances get deleted. {@code front} is the worst case for shifting compaction,
+	 * {@code tail} the best, and {@code scattered} deletes every 10th instance.
+	 */
+	@Param({"front", "scattered", "tail"})
+	public String pattern;
+
+	@Param({"shift", "swap"})
+	public String strategy;
+
+	private CpuInstancer instancer;
+	private TransformedInstance[] created;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		instancer = new CpuInstancer();
+		created = new TransformedInstance[count];
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		instancer.clear();
+		instancer.createInstances(created);
+
+		int toDelete = count / 10;
+
+		switch (pattern) {
+		case "front" -> {
+			for (int i = 0; i < toDelete; i++) {
+				created[i].delete();
+			}
+		}
+		case "tail" -> {
+			for (int i = count - toDelete; i < count; i++) {
+				created[i].delete();
+			}
+		}
+		default -> {
+			for (int i = 0; i < count; i += 10) {
+				created[i].delete();
+			}
+		}
+		}
+	}
+
+	@Benchmark
+	public int removeDeletedInstances() {
+		if (strategy.equals("swap")) {
+			instancer.swapRemoveDeletedInstances();
+		} else {
+			instancer.shiftRemoveDeletedInstances();
+		}
+		return instancer.instanceCount();
+	}
+
+	private static class CpuInstancer extends AbstractInstancer<TransformedInstance> {
+		private CpuInstancer() {
+			super(InstanceTypes.TRANSFORMED, GlobalEnvironment.INSTANCE);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package dev.engine_room.flywheel.impl.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.lib.task.ForEachPlan;
+import dev.engine_room.flywheel.lib.task.NamedFlag;
+import dev.engine_room.flywheel.lib.task.NestedPlan;
+import dev.engine_room.flywheel.lib.task.SimplePlan;
+import dev.engine_room.flywheel.lib.util.Unit;
+
+/**
+ * Compares {@link ParallelTaskExecutor} and {@link WorkStealingTaskExecutor} on the plan shapes exercised by
+ * {@code PlanExecutionTest}: wide fan-out through {@code Distribute}, barrier chains, and nested plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskExecutorBenchmark {
+	@Param({"parallel", "work_stealing"})
+	public String executorType;
+
+	@Param({"4", "10"})
+	public int threadCount;
+
+	@Param({"1000", "100000"})
+	public int size;
+
+	private TaskExecutor executor;
+	private Runnable stopWorkers;
+
+	private Plan<Unit> forEachPlan;
+	private Plan<Unit> barrierPlan;
+	private Plan<Unit> nestedPlan;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		var mainThread = Thread.currentThread();
+
+		if (executorType.equals("work_stealing")) {
+			var workStealing = new WorkStealingTaskExecutor("Benchmark", threadCount, () -> mainThread == Thread.currentThread());
+			workStealing.startWorkers();
+			executor = workStealing;
+			stopWorkers = workStealing::stopWorkers;
+		} else {
+			var parallel = new ParallelTaskExecutor("Benchmark", threadCount, () -> mainThread == Thread.currentThread());
+			parallel.startWorkers();
+			executor = parallel;
+			stopWorkers = parallel::stopWorkers;
+		}
+
+		List<Integer> items = Collections.nCopies(size, 1);
+		forEachPlan = ForEachPlan.of(() -> items, (Integer i) -> Blackhole.consumeCPU(i * 16));
+
+		Plan<Unit> barriers = SimplePlan.of(() -> Blackhole.consumeCPU(16));
+		for (int i = 0; i < 32; i++) {
+			barriers = barriers.then(SimplePlan.of(() -> Blackhole.consumeCPU(16), () -> Blackhole.consumeCPU(16), () -> Blackhole.consumeCPU(16), () -> Blackhole.consumeCPU(16)));
+		}
+		barrierPlan = barriers;
+
+		List<Plan<Unit>> nested = new ArrayList<>();
+		for (int i = 0; i < 256; i++) {
+			nested.add(SimplePlan.of(() -> Blackhole.consumeCPU(64), () -> Blackhole.consumeCPU(64)));
+		}
+		nestedPlan = new NestedPlan<>(nested);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		stopWorkers.run();
+	}
+
+	@Benchmark
+	public void forEach() {
+		runAndWait(forEachPlan);
+	}
+
+	@Benchmark
+	public void barrierChain() {
+		runAndWait(barrierPlan);
+	}
+
+	@Benchmark
+	public void nested() {
+		runAndWait(nestedPlan);
+	}
+
+	private void runAndWait(Plan<Unit> plan) {
+		var flag = new NamedFlag("benchmark");
+		plan.execute(executor, Unit.INSTANCE, flag::raise);
+		executor.syncUntil(flag::isRaised);
+	}
+}
@@ -0,0 +1,166 @@
+package dev.engine_room.flywheel.impl.visualization.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.api.visual.DynamicVisual;
+import dev.engine_room.flywheel.impl.visual.DynamicVisualContextImpl;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.AdaptiveLimiter;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.BandedPrimeLimiter;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.DistanceUpdateLimiterImpl;
+import dev.engine_room.flywheel.lib.math.MoreMath;
+import dev.engine_room.flywheel.lib.visual.CullableDynamicVisual;
+import net.minecraft.client.Camera;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.Vec3i;
+
+/**
+ * Measures one frame of chest-like dynamic visuals on a single thread while the camera turns in place.
+ * <br>
+ * {@code flat} calls every visual and lets it cull itself, as all simple dynamic visuals used to be.
+ * {@code sectioned} goes through {@link CulledVisualStorage} first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CulledVisualsBenchmark {
+	@Param({"100000"})
+	public int count;
+
+	/**
+	 * Visuals are spread uniformly over a square with this side length, centered on the camera.
+	 */
+	@Param({"512"})
+	public int spread;
+
+	@Param({"flat", "sectioned"})
+	public String strategy;
+
+	/**
+	 * The adaptive limiter is given an unreachable target, so its bands stay as narrow as possible.
+	 */
+	@Param({"banded", "adaptive"})
+	public String limiterType;
+
+	/**
+	 * How far the camera turns each frame, in degrees.
+	 */
+	private static final float YAW_STEP = 3;
+
+	private final List<ChestLikeVisual> visuals = new ArrayList<>();
+	private final CulledVisualStorage storage = new CulledVisualStorage();
+	private final Vec3i origin = new Vec3i(0, 64, 0);
+
+	private SweepCamera camera;
+	private DistanceUpdateLimiterImpl limiter;
+	private float yaw;
+
+	@Setup
+	public void setUp() {
+		var random = new Random(42);
+		for (int i = 0; i < count; i++) {
+			var pos = new BlockPos(random.nextInt(spread) - spread / 2, random.nextInt(0, 128), random.nextInt(spread) - spread / 2);
+			var visual = new ChestLikeVisual(pos, pos.subtract(origin));
+			visuals.add(visual);
+			storage.add(visual);
+		}
+
+		camera = new SweepCamera();
+		camera.moveTo(0.5, 80, 0.5);
+		limiter = limiterType.equals("adaptive") ? new AdaptiveLimiter(0) : new BandedPrimeLimiter();
+	}
+
+	@Benchmark
+	public void frame() {
+		limiter.finishUpdates();
+		limiter.tick();
+		yaw = (yaw + YAW_STEP) % 360;
+
+		var cameraPos = camera.getPosition();
+		var viewProjection = new Matrix4f().perspective((float) Math.toRadians(70), 16f / 9f, 0.05f, 512)
+				.rotateY((float) Math.toRadians(yaw));
+		var context = DynamicVisualContextImpl.create(camera, viewProjection, origin, 0, limiter);
+
+		if (strategy.equals("sectioned")) {
+			storage.cull(cameraPos, origin, context.frustum(), limiter, visual -> visual.beginFrame(context));
+		} else {
+			for (var visual : visuals) {
+				visual.beginFrame(context);
+			}
+		}
+	}
+
+	private static class SweepCamera extends Camera {
+		private void moveTo(double x, double y, double z) {
+			setPosition(x, y, z);
+		}
+	}
+
+	/**
+	 * Does the same checks as the chest visual, and stands in for the lid transform with a field write.
+	 */
+	private static class ChestLikeVisual implements CullableDynamicVisual {
+		private final BlockPos pos;
+		private final BlockPos visualPos;
+		private final int phase;
+		private float lastProgress;
+
+		private ChestLikeVisual(BlockPos pos, BlockPos visualPos) {
+			this.pos = pos;
+			this.visualPos = visualPos;
+			phase = Long.hashCode(SectionPos.asLong(pos));
+		}
+
+		@Override
+		public BlockPos cullingPosition() {
+			return pos;
+		}
+
+		@Override
+		public void beginFrame(DynamicVisual.Context context) {
+			if (!context.limiter()
+					.shouldUpdate(pos.distToCenterSqr(context.camera()
+							.getPosition()), phase)) {
+				return;
+			}
+
+			if (!context.frustum()
+					.testSphere(visualPos.getX() + 0.5f, visualPos.getY() + 0.5f, visualPos.getZ() + 0.5f, MoreMath.SQRT_3_OVER_2)) {
+				return;
+			}
+
+			lastProgress = context.partialTick();
+		}
+
+		@Override
+		public void init(float partialTick) {
+		}
+
+		@Override
+		public void update(float partialTick) {
+		}
+
+		@Override
+		public void delete() {
+		}
+	}
+}
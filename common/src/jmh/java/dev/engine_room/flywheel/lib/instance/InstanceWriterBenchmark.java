@@ -0,0 +1,115 @@
+package dev.engine_room.flywheel.lib.instance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.instance.InstanceHandle;
+import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.api.instance.InstanceWriter;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+
+/**
+ * Measures the {@link InstanceWriter}s in {@link InstanceTypes} writing a full instancer's worth of data,
+ * which is what an upload does after every instance in an instancer has changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceWriterBenchmark {
+	@Param({"10000", "100000", "1000000"})
+	public int count;
+
+	@Param({"transformed", "oriented", "shadow"})
+	public String type;
+
+	private List<Instance> instances;
+	private InstanceWriter<Instance> writer;
+	private long stride;
+	private MemoryBlock block;
+
+	@Setup
+	public void setUp() {
+		var random = new SplittableRandom(0);
+
+		switch (type) {
+		case "transformed" -> setUp(InstanceTypes.TRANSFORMED, instance -> instance.translate(random.nextDouble(), random.nextDouble(), random.nextDouble())
+				.rotateYDegrees((float) random.nextDouble(360))
+				.light(random.nextInt()));
+		case "oriented" -> setUp(InstanceTypes.ORIENTED, instance -> instance.setPosition((float) random.nextDouble(), (float) random.nextDouble(), (float) random.nextDouble())
+				.rotateYDegrees((float) random.nextDouble(360))
+				.light(random.nextInt()));
+		default -> setUp(InstanceTypes.SHADOW, instance -> {
+			instance.x = (float) random.nextDouble();
+			instance.y = (float) random.nextDouble();
+			instance.z = (float) random.nextDouble();
+			instance.radius = 0.5f;
+			instance.alpha = 1;
+		});
+		}
+
+		block = MemoryBlock.malloc(stride * count);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <I extends Instance> void setUp(InstanceType<I> instanceType, Consumer<I> randomize) {
+		List<Instance> out = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			I instance = instanceType.create(NoopHandle.INSTANCE);
+			randomize.accept(instance);
+			out.add(instance);
+		}
+
+		instances = out;
+		writer = (InstanceWriter<Instance>) instanceType.writer();
+		stride = instanceType.layout()
+				.byteSize();
+	}
+
+	@TearDown
+	public void tearDown() {
+		block.free();
+	}
+
+	@Benchmark
+	public long writeAll() {
+		long ptr = block.ptr();
+		for (Instance instance : instances) {
+			writer.write(ptr, instance);
+			ptr += stride;
+		}
+		return ptr;
+	}
+
+	private enum NoopHandle implements InstanceHandle {
+		INSTANCE;
+
+		@Override
+		public void setChanged() {
+		}
+
+		@Override
+		public void setDeleted() {
+		}
+	}
+}
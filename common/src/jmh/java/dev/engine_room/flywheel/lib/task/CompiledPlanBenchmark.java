@@ -0,0 +1,143 @@
+package dev.engine_room.flywheel.lib.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import dev.engine_room.flywheel.impl.task.WorkStealingTaskExecutor;
+
+/**
+ * Executes the plan shapes from {@code PlanExecutionTest} with trivial tasks, either as built or after
+ * {@link CompiledPlan#compile}. Run with {@code -prof gc} to compare allocation per execution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledPlanBenchmark {
+	/**
+	 * <ul>
+	 *     <li>{@code barriers}: a chain of 10 single task plans.</li>
+	 *     <li>{@code wide}: 4 tasks, then 4 more.</li>
+	 *     <li>{@code nested}: two copies of two nested pairs of tasks.</li>
+	 *     <li>{@code frame}: the shape of the visualization frame plan,
+	 *     a branch into a mapped context with timed parallel phases, then a few sequenced steps and flags.</li>
+	 * </ul>
+	 */
+	@Param({"barriers", "wide", "nested", "frame"})
+	public String shape;
+
+	@Param({"false", "true"})
+	public boolean compiled;
+
+	@Param({"parallel", "work_stealing"})
+	public String executorType;
+
+	@Param({"4"})
+	public int threadCount;
+
+	private TaskExecutor executor;
+	private Runnable stopWorkers;
+	private Plan<AtomicLong> plan;
+
+	private final NamedFlag done = new NamedFlag("done");
+	private final Runnable raiseDone = done::raise;
+	private final AtomicLong counter = new AtomicLong();
+
+	@Setup
+	public void setUp() {
+		var mainThread = Thread.currentThread();
+
+		if (executorType.equals("work_stealing")) {
+			var workStealing = new WorkStealingTaskExecutor("Benchmark", threadCount, () -> mainThread == Thread.currentThread());
+			workStealing.startWorkers();
+			executor = workStealing;
+			stopWorkers = workStealing::stopWorkers;
+		} else {
+			var parallel = new ParallelTaskExecutor("Benchmark", threadCount, () -> mainThread == Thread.currentThread());
+			parallel.startWorkers();
+			executor = parallel;
+			stopWorkers = parallel::stopWorkers;
+		}
+
+		plan = switch (shape) {
+			case "barriers" -> barriers();
+			case "wide" -> wide();
+			case "nested" -> nested();
+			case "frame" -> frame();
+			default -> throw new IllegalArgumentException(shape);
+		};
+
+		if (compiled) {
+			plan = CompiledPlan.compile(plan);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		stopWorkers.run();
+	}
+
+	@Benchmark
+	public long execute() {
+		done.lower();
+		plan.execute(executor, counter, raiseDone);
+		executor.syncUntil(done::isRaised);
+		return counter.get();
+	}
+
+	private static Plan<AtomicLong> barriers() {
+		Plan<AtomicLong> plan = SimplePlan.of(AtomicLong::incrementAndGet);
+		for (int i = 0; i < 10; i++) {
+			plan = plan.then(SimplePlan.of(AtomicLong::incrementAndGet));
+		}
+		return plan;
+	}
+
+	private static Plan<AtomicLong> wide() {
+		return SimplePlan.<AtomicLong>of(AtomicLong::incrementAndGet, AtomicLong::incrementAndGet, AtomicLong::incrementAndGet, AtomicLong::incrementAndGet)
+				.then(SimplePlan.of(AtomicLong::decrementAndGet, AtomicLong::decrementAndGet, AtomicLong::decrementAndGet, AtomicLong::decrementAndGet));
+	}
+
+	private static Plan<AtomicLong> nested() {
+		var count4 = NestedPlan.<AtomicLong>of(SimplePlan.of(AtomicLong::incrementAndGet, AtomicLong::incrementAndGet), SimplePlan.of(AtomicLong::incrementAndGet, AtomicLong::incrementAndGet));
+		return NestedPlan.of(count4, count4);
+	}
+
+	private static Plan<AtomicLong> frame() {
+		var total = new AtomicLong();
+		var visualsFlag = new NamedFlag("visuals");
+		var frameFlag = new NamedFlag("frame");
+
+		Plan<AtomicLong> manager = TimedPlan.of(total::addAndGet, SimplePlan.<AtomicLong>of(AtomicLong::incrementAndGet))
+				.then(NestedPlan.of(TimedPlan.of(total::addAndGet, SimplePlan.of(AtomicLong::incrementAndGet)), TimedPlan.of(total::addAndGet, SimplePlan.of(AtomicLong::incrementAndGet))));
+		var update = MapContextPlan.<AtomicLong, AtomicLong>map(counter -> counter)
+				.to(NestedPlan.of(manager, manager, manager));
+
+		return IfElsePlan.<AtomicLong>on(counter -> false)
+				.ifTrue(SimplePlan.of(AtomicLong::decrementAndGet))
+				.ifFalse(update)
+				.plan()
+				.then(SimplePlan.of(AtomicLong::incrementAndGet))
+				.then(RaisePlan.raise(visualsFlag))
+				.then(SimplePlan.of(AtomicLong::incrementAndGet))
+				.then(RaisePlan.raise(frameFlag));
+	}
+}
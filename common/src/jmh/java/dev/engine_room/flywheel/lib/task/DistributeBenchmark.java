@@ -0,0 +1,138 @@
+package dev.engine_room.flywheel.lib.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Measures the fan-out helpers in {@link Distribute} with a trivially cheap per-element action,
+ * so the results mostly reflect scheduling overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributeBenchmark {
+	@Param({"10000", "100000", "1000000"})
+	public int count;
+
+	@Param({"4", "10"})
+	public int threadCount;
+
+	private ParallelTaskExecutor executor;
+	private List<Integer> list;
+	private List<Plan<AtomicLong>> plans;
+	private IntArrayList ints;
+	private final SliceSizer sizer = new SliceSizer();
+
+	@Setup
+	public void setUp() {
+		Thread mainThread = Thread.currentThread();
+		executor = new ParallelTaskExecutor("DistributeBenchmark", threadCount, () -> Thread.currentThread() == mainThread);
+		executor.startWorkers();
+
+		list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(i);
+		}
+
+		ints = new IntArrayList(count);
+		for (int i = 0; i < count; i++) {
+			ints.add(i);
+		}
+
+		plans = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			long value = i;
+			plans.add(SimplePlan.<AtomicLong>of(counter -> counter.addAndGet(value)));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.stopWorkers();
+	}
+
+	@Benchmark
+	public long tasks() {
+		var counter = new AtomicLong();
+		var done = new NamedFlag("tasks");
+		Distribute.tasks(executor, counter, done::raise, list, (i, c) -> c.addAndGet(i));
+		executor.syncUntil(done::isRaised);
+		return counter.get();
+	}
+
+	@Benchmark
+	public long slices() {
+		var counter = new AtomicLong();
+		var done = new NamedFlag("slices");
+		Distribute.slices(executor, counter, done::raise, list, (slice, c) -> {
+			long sum = 0;
+			for (int i : slice) {
+				sum += i;
+			}
+			c.addAndGet(sum);
+		});
+		executor.syncUntil(done::isRaised);
+		return counter.get();
+	}
+
+	@Benchmark
+	public long ranges() {
+		var counter = new AtomicLong();
+		var done = new NamedFlag("ranges");
+		Distribute.ranges(executor, counter, done::raise, count, Distribute.sliceSize(executor, count), (start, end, c) -> {
+			long sum = 0;
+			for (int i = start; i < end; i++) {
+				sum += i;
+			}
+			c.addAndGet(sum);
+		});
+		executor.syncUntil(done::isRaised);
+		return counter.get();
+	}
+
+	@Benchmark
+	public long intSlicesAdaptive() {
+		var counter = new AtomicLong();
+		var done = new NamedFlag("intSlicesAdaptive");
+		Distribute.slices(executor, counter, done::raise, ints.elements(), ints.size(), sizer, (elements, start, end, c) -> {
+			long sum = 0;
+			for (int i = start; i < end; i++) {
+				sum += elements[i];
+			}
+			c.addAndGet(sum);
+		});
+		executor.syncUntil(done::isRaised);
+		return counter.get();
+	}
+
+	@Benchmark
+	public long plans() {
+		var counter = new AtomicLong();
+		var done = new NamedFlag("plans");
+		Distribute.plans(executor, counter, done::raise, plans);
+		executor.syncUntil(done::isRaised);
+		return counter.get();
+	}
+}
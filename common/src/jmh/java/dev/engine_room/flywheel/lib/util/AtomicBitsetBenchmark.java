@@ -0,0 +1,65 @@
+package dev.engine_room.flywheel.lib.util;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AtomicBitsetBenchmark {
+	@Param({"10000", "100000", "1000000"})
+	public int count;
+
+	/**
+	 * How the set bits are laid out. {@code sparse} sets 1% of bits at random, {@code runs} sets
+	 * 64-bit runs with gaps between them, and {@code dense} sets every bit.
+	 */
+	@Param({"sparse", "runs", "dense"})
+	public String pattern;
+
+	private AtomicBitset bitset;
+
+	@Setup
+	public void setUp() {
+		bitset = new AtomicBitset(AtomicBitset.DEFAULT_LOG2_SEGMENT_SIZE_IN_BITS, count);
+
+		switch (pattern) {
+		case "sparse" -> {
+			var random = new SplittableRandom(0);
+			for (int i = 0; i < count / 100; i++) {
+				bitset.set(random.nextInt(count));
+			}
+		}
+		case "runs" -> {
+			for (int i = 0; i < count; i += 256) {
+				bitset.set(i, Math.min(i + 64, count));
+			}
+		}
+		default -> bitset.set(0, count);
+		}
+	}
+
+	@Benchmark
+	public void forEachSetSpan(Blackhole bh) {
+		bitset.forEachSetSpan((startInclusive, endInclusive) -> {
+			bh.consume(startInclusive);
+			bh.consume(endInclusive);
+		});
+	}
+}
@@ -0,0 +1,100 @@
+package dev.engine_room.flywheel.lib.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.engine_room.flywheel.lib.task.PlanMap;
+import dev.engine_room.flywheel.lib.task.SimplePlan;
+
+/**
+ * Measures removing a batch of visuals from the collections backing visual storage,
+ * e.g. when a wave of chunks unloads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapRemoveListBenchmark {
+	@Param({"100000"})
+	public int count;
+
+	@Param({"10000"})
+	public int toRemove;
+
+	/**
+	 * {@code arrayList} is what storage used before, and scans the list for every removal.
+	 */
+	@Param({"arrayList", "swapRemove", "planMap"})
+	public String collection;
+
+	private Object[] visuals;
+	private List<Object> removed;
+
+	private List<Object> list;
+	private PlanMap<Object, Float> planMap;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		visuals = new Object[count];
+		for (int i = 0; i < count; i++) {
+			visuals[i] = new Object();
+		}
+
+		removed = new ArrayList<>(List.of(visuals));
+		Collections.shuffle(removed, new Random(42));
+		removed = removed.subList(0, toRemove);
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		switch (collection) {
+		case "planMap" -> {
+			planMap = new PlanMap<>();
+			for (Object visual : visuals) {
+				planMap.add(visual, SimplePlan.of());
+			}
+		}
+		case "swapRemove" -> {
+			list = new SwapRemoveList<>();
+			Collections.addAll(list, visuals);
+		}
+		default -> {
+			list = new ArrayList<>(count);
+			Collections.addAll(list, visuals);
+		}
+		}
+	}
+
+	@Benchmark
+	public int remove() {
+		if (planMap != null) {
+			for (Object visual : removed) {
+				planMap.remove(visual);
+			}
+			return planMap.size();
+		}
+
+		for (Object visual : removed) {
+			list.remove(visual);
+		}
+		return list.size();
+	}
+}
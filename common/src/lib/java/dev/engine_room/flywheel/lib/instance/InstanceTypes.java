@@ -7,17 +7,50 @@ import dev.engine_room.flywheel.api.Flywheel;
 import dev.engine_room.flywheel.api.instance.InstanceType;
 import dev.engine_room.flywheel.api.layout.FloatRepr;
 import dev.engine_room.flywheel.api.layout.IntegerRepr;
+import dev.engine_room.flywheel.api.layout.Layout;
 import dev.engine_room.flywheel.api.layout.LayoutBuilder;
 import dev.engine_room.flywheel.lib.math.MatrixMath;
 
 public final class InstanceTypes {
+	private static final Layout TRANSFORMED_LAYOUT = LayoutBuilder.create()
+			.vector("color", FloatRepr.NORMALIZED_UNSIGNED_BYTE, 4)
+			.vector("overlay", IntegerRepr.SHORT, 2)
+			.vector("light", FloatRepr.UNSIGNED_SHORT, 2)
+			.matrix("pose", FloatRepr.FLOAT, 4)
+			.matrix("normal", FloatRepr.FLOAT, 3)
+			.build();
+
 	public static final InstanceType<TransformedInstance> TRANSFORMED = SimpleInstanceType.builder(TransformedInstance::new)
+			.layout(TRANSFORMED_LAYOUT)
+			.writer((ptr, instance) -> {
+				MemoryUtil.memPutByte(ptr, instance.r);
+				MemoryUtil.memPutByte(ptr + 1, instance.g);
+				MemoryUtil.memPutByte(ptr + 2, instance.b);
+				MemoryUtil.memPutByte(ptr + 3, instance.a);
+				MemoryUtil.memPutShort(ptr + 4, (short) (instance.overlay & 0xFFFF));
+				MemoryUtil.memPutShort(ptr + 6, (short) (instance.overlay >> 16 & 0xFFFF));
+				MemoryUtil.memPutShort(ptr + 8, (short) (instance.packedLight & 0xFFFF));
+				MemoryUtil.memPutShort(ptr + 10, (short) (instance.packedLight >> 16 & 0xFFFF));
+				MatrixMath.writeUnsafe(ptr + 12, instance.model);
+				MatrixMath.writeUnsafe(ptr + 76, instance.normal);
+			})
+			.vertexShader(Flywheel.rl("instance/transformed.vert"))
+			.cullShader(Flywheel.rl("instance/cull/transformed.glsl"))
+			.register();
+
+	/**
+	 * Draws {@link TransformedInstance}s with 60 bytes per instance instead of the 112 bytes of {@link #TRANSFORMED}.
+	 * <br>
+	 * Only the top three rows of the pose are uploaded and the shader derives the normal matrix from the pose,
+	 * so {@link TransformedInstance#normal} is ignored. That is exact for any pose that isn't singular, including
+	 * non-uniform scale, but not for instances that set a normal matrix unrelated to their pose.
+	 */
+	public static final InstanceType<TransformedInstance> TRANSFORMED_COMPACT = SimpleInstanceType.builder(TransformedInstance::new)
 			.layout(LayoutBuilder.create()
 					.vector("color", FloatRepr.NORMALIZED_UNSIGNED_BYTE, 4)
 					.vector("overlay", IntegerRepr.SHORT, 2)
 					.vector("light", FloatRepr.UNSIGNED_SHORT, 2)
-					.matrix("pose", FloatRepr.FLOAT, 4)
-					.matrix("normal", FloatRepr.FLOAT, 3)
+					.matrix("pose", FloatRepr.FLOAT, 3, 4)
 					.build())
 			.writer((ptr, instance) -> {
 				MemoryUtil.memPutByte(ptr, instance.r);
@@ -28,9 +61,18 @@ public final class InstanceTypes {
 				MemoryUtil.memPutShort(ptr + 6, (short) (instance.overlay >> 16 & 0xFFFF));
 				MemoryUtil.memPutShort(ptr + 8, (short) (instance.packedLight & 0xFFFF));
 				MemoryUtil.memPutShort(ptr + 10, (short) (instance.packedLight >> 16 & 0xFFFF));
-				MatrixMath.writeUnsafe(ptr + 12, instance.model);
-				MatrixMath.writeUnsafe(ptr + 76, instance.normal);
+				MatrixMath.writeAffineUnsafe(ptr + 12, instance.model);
 			})
+			.vertexShader(Flywheel.rl("instance/transformed_compact.vert"))
+			.cullShader(Flywheel.rl("instance/cull/transformed_compact.glsl"))
+			.register();
+
+	/**
+	 * Draws exactly like {@link #TRANSFORMED}, but stores instances off heap.
+	 */
+	public static final InstanceType<OffHeapTransformedInstance> TRANSFORMED_OFF_HEAP = SimpleInstanceType.builder(OffHeapTransformedInstance::new)
+			.layout(TRANSFORMED_LAYOUT)
+			.offHeap()
 			.vertexShader(Flywheel.rl("instance/transformed.vert"))
 			.cullShader(Flywheel.rl("instance/cull/transformed.glsl"))
 			.register();
@@ -0,0 +1,245 @@
+package dev.engine_room.flywheel.lib.instance;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.lwjgl.system.MemoryUtil;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+
+import dev.engine_room.flywheel.api.instance.InstanceHandle;
+import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.lib.math.MatrixMath;
+import dev.engine_room.flywheel.lib.transform.Transform;
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.util.Mth;
+
+/**
+ * A {@link TransformedInstance} that keeps no fields of its own. Every accessor reads and writes the instance's data
+ * through {@link InstanceHandle#ptr()}, which is laid out exactly as the GPU sees it, so uploading is a plain copy.
+ * <br>
+ * Matrix operations read the stored matrix into a thread local scratch matrix and write it back, so prefer
+ * composing a transform elsewhere and calling {@link #setTransform} once over chaining many small operations.
+ */
+public class OffHeapTransformedInstance extends AbstractInstance implements Transform<OffHeapTransformedInstance>, FlatLit {
+	public static final long COLOR_OFFSET = 0;
+	public static final long OVERLAY_OFFSET = 4;
+	public static final long LIGHT_OFFSET = 8;
+	public static final long POSE_OFFSET = 12;
+	public static final long NORMAL_OFFSET = 76;
+
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+	public OffHeapTransformedInstance(InstanceType<? extends OffHeapTransformedInstance> type, InstanceHandle handle) {
+		super(type, handle);
+
+		long ptr = handle.ptr();
+		MemoryUtil.memPutInt(ptr + COLOR_OFFSET, 0xFFFFFFFF);
+		putPacked(ptr + OVERLAY_OFFSET, OverlayTexture.NO_OVERLAY);
+		putPacked(ptr + LIGHT_OFFSET, 0);
+		writeIdentity(ptr);
+	}
+
+	public OffHeapTransformedInstance setColor(int color) {
+		return setColor(color, false);
+	}
+
+	public OffHeapTransformedInstance setColor(int color, boolean alpha) {
+		byte r = (byte) ((color >> 16) & 0xFF);
+		byte g = (byte) ((color >> 8) & 0xFF);
+		byte b = (byte) (color & 0xFF);
+
+		if (alpha) {
+			byte a = (byte) ((color >> 24) & 0xFF);
+			return setColor(r, g, b, a);
+		} else {
+			return setColor(r, g, b);
+		}
+	}
+
+	public OffHeapTransformedInstance setColor(int r, int g, int b) {
+		return setColor((byte) r, (byte) g, (byte) b);
+	}
+
+	public OffHeapTransformedInstance setColor(byte r, byte g, byte b) {
+		long ptr = handle.ptr() + COLOR_OFFSET;
+		MemoryUtil.memPutByte(ptr, r);
+		MemoryUtil.memPutByte(ptr + 1, g);
+		MemoryUtil.memPutByte(ptr + 2, b);
+		return this;
+	}
+
+	public OffHeapTransformedInstance setColor(byte r, byte g, byte b, byte a) {
+		setColor(r, g, b);
+		MemoryUtil.memPutByte(handle.ptr() + COLOR_OFFSET + 3, a);
+		return this;
+	}
+
+	@Override
+	public OffHeapTransformedInstance light(int blockLight, int skyLight) {
+		return light(LightTexture.pack(blockLight, skyLight));
+	}
+
+	@Override
+	public OffHeapTransformedInstance light(int packedLight) {
+		putPacked(handle.ptr() + LIGHT_OFFSET, packedLight);
+		return this;
+	}
+
+	public OffHeapTransformedInstance setOverlay(int overlay) {
+		putPacked(handle.ptr() + OVERLAY_OFFSET, overlay);
+		return this;
+	}
+
+	public int packedLight() {
+		return getPacked(handle.ptr() + LIGHT_OFFSET);
+	}
+
+	public int overlay() {
+		return getPacked(handle.ptr() + OVERLAY_OFFSET);
+	}
+
+	/**
+	 * Copy the pose matrix of this instance into the given matrix.
+	 */
+	public Matrix4f pose(Matrix4f dest) {
+		return MatrixMath.readUnsafe(handle.ptr() + POSE_OFFSET, dest);
+	}
+
+	/**
+	 * Copy the normal matrix of this instance into the given matrix.
+	 */
+	public Matrix3f normal(Matrix3f dest) {
+		return MatrixMath.readUnsafe(handle.ptr() + NORMAL_OFFSET, dest);
+	}
+
+	@Override
+	public OffHeapTransformedInstance mulPose(Matrix4f pose) {
+		long ptr = handle.ptr() + POSE_OFFSET;
+		var scratch = SCRATCH.get();
+		MatrixMath.writeUnsafe(ptr, MatrixMath.readUnsafe(ptr, scratch.pose)
+				.mul(pose));
+		return this;
+	}
+
+	@Override
+	public OffHeapTransformedInstance mulNormal(Matrix3f normal) {
+		long ptr = handle.ptr() + NORMAL_OFFSET;
+		var scratch = SCRATCH.get();
+		MatrixMath.writeUnsafe(ptr, MatrixMath.readUnsafe(ptr, scratch.normal)
+				.mul(normal));
+		return this;
+	}
+
+	@Override
+	public OffHeapTransformedInstance rotateAround(Quaternionf quaternion, float x, float y, float z) {
+		long ptr = handle.ptr();
+		var scratch = SCRATCH.get();
+		MatrixMath.writeUnsafe(ptr + POSE_OFFSET, pose(scratch.pose).rotateAround(quaternion, x, y, z));
+		MatrixMath.writeUnsafe(ptr + NORMAL_OFFSET, normal(scratch.normal).rotate(quaternion));
+		return this;
+	}
+
+	@Override
+	public OffHeapTransformedInstance scale(float x, float y, float z) {
+		long ptr = handle.ptr();
+		var scratch = SCRATCH.get();
+		MatrixMath.writeUnsafe(ptr + POSE_OFFSET, pose(scratch.pose).scale(x, y, z));
+
+		if (x == y && y == z) {
+			if (x < 0.0f) {
+				MatrixMath.writeUnsafe(ptr + NORMAL_OFFSET, normal(scratch.normal).scale(-1.0f));
+			}
+
+			return this;
+		}
+
+		float invX = 1.0f / x;
+		float invY = 1.0f / y;
+		float invZ = 1.0f / z;
+		float f = Mth.fastInvCubeRoot(Math.abs(invX * invY * invZ));
+		MatrixMath.writeUnsafe(ptr + NORMAL_OFFSET, normal(scratch.normal).scale(f * invX, f * invY, f * invZ));
+		return this;
+	}
+
+	@Override
+	public OffHeapTransformedInstance rotate(Quaternionf quaternion) {
+		long ptr = handle.ptr();
+		var scratch = SCRATCH.get();
+		MatrixMath.writeUnsafe(ptr + POSE_OFFSET, pose(scratch.pose).rotate(quaternion));
+		MatrixMath.writeUnsafe(ptr + NORMAL_OFFSET, normal(scratch.normal).rotate(quaternion));
+		return this;
+	}
+
+	@Override
+	public OffHeapTransformedInstance translate(double x, double y, double z) {
+		long ptr = handle.ptr() + POSE_OFFSET;
+		float fx = (float) x;
+		float fy = (float) y;
+		float fz = (float) z;
+
+		// Only the last column changes, so skip the round trip through a scratch matrix.
+		for (long row = 0; row < 16; row += 4) {
+			float m0 = MemoryUtil.memGetFloat(ptr + row);
+			float m1 = MemoryUtil.memGetFloat(ptr + 16 + row);
+			float m2 = MemoryUtil.memGetFloat(ptr + 32 + row);
+			float m3 = MemoryUtil.memGetFloat(ptr + 48 + row);
+			MemoryUtil.memPutFloat(ptr + 48 + row, Math.fma(m0, fx, Math.fma(m1, fy, Math.fma(m2, fz, m3))));
+		}
+
+		return this;
+	}
+
+	public OffHeapTransformedInstance setTransform(PoseStack stack) {
+		return setTransform(stack.last());
+	}
+
+	public OffHeapTransformedInstance setTransform(PoseStack.Pose pose) {
+		long ptr = handle.ptr();
+		MatrixMath.writeUnsafe(ptr + POSE_OFFSET, pose.pose());
+		MatrixMath.writeUnsafe(ptr + NORMAL_OFFSET, pose.normal());
+		return this;
+	}
+
+	/**
+	 * Sets the transform matrices to be all zeros.
+	 *
+	 * @see TransformedInstance#setEmptyTransform()
+	 */
+	public OffHeapTransformedInstance setEmptyTransform() {
+		MemoryUtil.memSet(handle.ptr() + POSE_OFFSET, 0, NORMAL_OFFSET + 36 - POSE_OFFSET);
+		return this;
+	}
+
+	public OffHeapTransformedInstance loadIdentity() {
+		writeIdentity(handle.ptr());
+		return this;
+	}
+
+	private static void writeIdentity(long ptr) {
+		MemoryUtil.memSet(ptr + POSE_OFFSET, 0, NORMAL_OFFSET + 36 - POSE_OFFSET);
+
+		for (int i = 0; i < 4; i++) {
+			MemoryUtil.memPutFloat(ptr + POSE_OFFSET + i * 20L, 1.0f);
+		}
+
+		for (int i = 0; i < 3; i++) {
+			MemoryUtil.memPutFloat(ptr + NORMAL_OFFSET + i * 16L, 1.0f);
+		}
+	}
+
+	private static void putPacked(long ptr, int packed) {
+		MemoryUtil.memPutShort(ptr, (short) (packed & 0xFFFF));
+		MemoryUtil.memPutShort(ptr + 2, (short) (packed >> 16 & 0xFFFF));
+	}
+
+	private static int getPacked(long ptr) {
+		return (MemoryUtil.memGetShort(ptr) & 0xFFFF) | (MemoryUtil.memGetShort(ptr + 2) & 0xFFFF) << 16;
+	}
+
+	private static final class Scratch {
+		private final Matrix4f pose = new Matrix4f();
+		private final Matrix3f normal = new Matrix3f();
+	}
+}
@@ -2,6 +2,8 @@ package dev.engine_room.flywheel.lib.instance;
 
 import java.util.Objects;
 
+import org.lwjgl.system.MemoryUtil;
+
 import dev.engine_room.flywheel.api.instance.Instance;
 import dev.engine_room.flywheel.api.instance.InstanceHandle;
 import dev.engine_room.flywheel.api.instance.InstanceType;
@@ -15,13 +17,19 @@ public class SimpleInstanceType<I extends Instance> implements InstanceType<I> {
 	private final InstanceWriter<I> writer;
 	private final ResourceLocation vertexShader;
 	private final ResourceLocation cullShader;
+	private final boolean offHeap;
 
 	public SimpleInstanceType(Factory<I> factory, Layout layout, InstanceWriter<I> writer, ResourceLocation vertexShader, ResourceLocation cullShader) {
+		this(factory, layout, writer, vertexShader, cullShader, false);
+	}
+
+	public SimpleInstanceType(Factory<I> factory, Layout layout, InstanceWriter<I> writer, ResourceLocation vertexShader, ResourceLocation cullShader, boolean offHeap) {
 		this.factory = factory;
 		this.layout = layout;
 		this.writer = writer;
 		this.vertexShader = vertexShader;
 		this.cullShader = cullShader;
+		this.offHeap = offHeap;
 	}
 
 	public static <I extends Instance> Builder<I> builder(Factory<I> factory) {
@@ -53,6 +61,11 @@ public class SimpleInstanceType<I extends Instance> implements InstanceType<I> {
 		return cullShader;
 	}
 
+	@Override
+	public boolean offHeap() {
+		return offHeap;
+	}
+
 	@FunctionalInterface
 	public interface Factory<I extends Instance> {
 		I create(InstanceType<I> type, InstanceHandle handle);
@@ -64,6 +77,7 @@ public class SimpleInstanceType<I extends Instance> implements InstanceType<I> {
 		private InstanceWriter<I> writer;
 		private ResourceLocation vertexShader;
 		private ResourceLocation cullShader;
+		private boolean offHeap;
 
 		public Builder(Factory<I> factory) {
 			this.factory = factory;
@@ -89,13 +103,27 @@ public class SimpleInstanceType<I extends Instance> implements InstanceType<I> {
 			return this;
 		}
 
+		/**
+		 * Store instances of this type off heap. The factory must create views that access their data through
+		 * {@link InstanceHandle#ptr()}. If no writer is given, instances are written by copying their data.
+		 */
+		public Builder<I> offHeap() {
+			this.offHeap = true;
+			return this;
+		}
+
 		public SimpleInstanceType<I> register() {
 			Objects.requireNonNull(layout);
+			if (offHeap && writer == null) {
+				long size = layout.byteSize();
+				writer = (ptr, instance) -> MemoryUtil.memCopy(instance.handle()
+						.ptr(), ptr, size);
+			}
 			Objects.requireNonNull(writer);
 			Objects.requireNonNull(vertexShader);
 			Objects.requireNonNull(cullShader);
 
-			var out = new SimpleInstanceType<>(factory, layout, writer, vertexShader, cullShader);
+			var out = new SimpleInstanceType<>(factory, layout, writer, vertexShader, cullShader, offHeap);
 			return InstanceType.REGISTRY.registerAndGet(out);
 		}
 	}
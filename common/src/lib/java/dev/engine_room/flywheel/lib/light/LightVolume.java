@@ -1,5 +1,7 @@
 package dev.engine_room.flywheel.lib.light;
 
+import java.util.BitSet;
+
 import org.lwjgl.system.MemoryUtil;
 
 import dev.engine_room.flywheel.lib.box.Box;
@@ -9,14 +11,36 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.BlockAndTintGetter;
 import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.lighting.LevelLightEngine;
 
 public class LightVolume implements Box {
 	protected final BlockAndTintGetter level;
 	protected final MutableBox box = new MutableBox();
 	protected MemoryBlock lightData;
 
+	/**
+	 * If true, light is copied a section at a time straight from the light engine's {@link DataLayer}s,
+	 * light updates are coalesced per section until {@link #processLightUpdates}, and {@link #move} keeps
+	 * the light of the area the old and new volumes share.
+	 */
+	protected final boolean incremental;
+	/**
+	 * Sections of the box with pending block light updates, indexed by {@link #sectionIndex}.
+	 */
+	private final BitSet dirtyBlockSections = new BitSet();
+	/**
+	 * Sections of the box with pending sky light updates, indexed by {@link #sectionIndex}.
+	 */
+	private final BitSet dirtySkySections = new BitSet();
+
 	public LightVolume(BlockAndTintGetter level, Box sampleVolume) {
+		this(level, sampleVolume, false);
+	}
+
+	public LightVolume(BlockAndTintGetter level, Box sampleVolume, boolean incremental) {
 		this.level = level;
+		this.incremental = incremental;
 		this.setBox(sampleVolume);
 
 		this.lightData = MemoryBlock.malloc(this.box.volume() * 2);
@@ -65,6 +89,8 @@ public class LightVolume implements Box {
 	}
 
 	public short getPackedLight(int x, int y, int z) {
+		processLightUpdates();
+
 		if (box.contains(x, y, z)) {
 			return MemoryUtil.memGetShort(levelPosToPtr(x, y, z));
 		} else {
@@ -75,6 +101,14 @@ public class LightVolume implements Box {
 	public void move(Box newSampleVolume) {
 		if (lightData == null) return;
 
+		if (incremental && box.intersects(newSampleVolume)) {
+			moveIncremental(newSampleVolume);
+			return;
+		}
+
+		dirtyBlockSections.clear();
+		dirtySkySections.clear();
+
 		setBox(newSampleVolume);
 		int neededCapacity = box.volume() * 2;
 		if (neededCapacity > lightData.size()) {
@@ -83,6 +117,102 @@ public class LightVolume implements Box {
 		initialize();
 	}
 
+	/**
+	 * Move the volume, keeping the light of the area shared by the old and new volume,
+	 * and only copying light for the area that is new.
+	 */
+	private void moveIncremental(Box newSampleVolume) {
+		// Pending updates are indexed relative to the old box.
+		processLightUpdates();
+
+		MutableBox oldBox = box.copy();
+		MutableBox overlap = oldBox.intersect(newSampleVolume);
+
+		setBox(newSampleVolume);
+
+		if (oldBox.sizeX() == box.sizeX() && oldBox.sizeY() == box.sizeY() && oldBox.sizeZ() == box.sizeZ()) {
+			// Same layout, so we can shift the shared area in place.
+			copyOverlap(lightData.ptr(), oldBox, lightData.ptr(), box, overlap);
+		} else {
+			MemoryBlock newLightData = MemoryBlock.malloc(box.volume() * 2);
+			copyOverlap(lightData.ptr(), oldBox, newLightData.ptr(), box, overlap);
+			lightData.free();
+			lightData = newLightData;
+		}
+
+		// Copy light for the up to 6 slabs of the new box that aren't covered by the overlap.
+		int minX = box.getMinX();
+		int minY = box.getMinY();
+		int minZ = box.getMinZ();
+		int maxX = box.getMaxX();
+		int maxY = box.getMaxY();
+		int maxZ = box.getMaxZ();
+		int overlapMinX = overlap.getMinX();
+		int overlapMinY = overlap.getMinY();
+		int overlapMinZ = overlap.getMinZ();
+		int overlapMaxX = overlap.getMaxX();
+		int overlapMaxY = overlap.getMaxY();
+		int overlapMaxZ = overlap.getMaxZ();
+
+		copyLightIfNotEmpty(minX, minY, minZ, overlapMinX, maxY, maxZ);
+		copyLightIfNotEmpty(overlapMaxX, minY, minZ, maxX, maxY, maxZ);
+		copyLightIfNotEmpty(overlapMinX, minY, minZ, overlapMaxX, overlapMinY, maxZ);
+		copyLightIfNotEmpty(overlapMinX, overlapMaxY, minZ, overlapMaxX, maxY, maxZ);
+		copyLightIfNotEmpty(overlapMinX, overlapMinY, minZ, overlapMaxX, overlapMaxY, overlapMinZ);
+		copyLightIfNotEmpty(overlapMinX, overlapMinY, overlapMaxZ, overlapMaxX, overlapMaxY, maxZ);
+
+		markDirty();
+	}
+
+	private void copyLightIfNotEmpty(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+		if (minX < maxX && minY < maxY && minZ < maxZ) {
+			copySections(new MutableBox(minX, minY, minZ, maxX, maxY, maxZ), true, true);
+		}
+	}
+
+	/**
+	 * Copy the packed light of a region from one volume layout to another.
+	 * <br>
+	 * Safe to use when both layouts share the same memory and have the same size.
+	 */
+	private static void copyOverlap(long src, Box srcBox, long dst, Box dstBox, Box region) {
+		int srcSizeX = srcBox.sizeX();
+		int srcSizeY = srcBox.sizeY();
+		int dstSizeX = dstBox.sizeX();
+		int dstSizeY = dstBox.sizeY();
+
+		int srcX = region.getMinX() - srcBox.getMinX();
+		int srcY = region.getMinY() - srcBox.getMinY();
+		int srcZ = region.getMinZ() - srcBox.getMinZ();
+		int dstX = region.getMinX() - dstBox.getMinX();
+		int dstY = region.getMinY() - dstBox.getMinY();
+		int dstZ = region.getMinZ() - dstBox.getMinZ();
+
+		int sizeX = region.sizeX();
+		int sizeY = region.sizeY();
+		int sizeZ = region.sizeZ();
+
+		// When shifting towards higher addresses go backwards so we never overwrite cells that haven't moved yet.
+		boolean backwards = dst + (dstX + (long) dstSizeX * (dstY + (long) dstSizeY * dstZ)) > src + (srcX + (long) srcSizeX * (srcY + (long) srcSizeY * srcZ));
+
+		for (int i = 0; i < sizeZ; i++) {
+			int z = backwards ? sizeZ - 1 - i : i;
+
+			for (int j = 0; j < sizeY; j++) {
+				int y = backwards ? sizeY - 1 - j : j;
+
+				for (int k = 0; k < sizeX; k++) {
+					int x = backwards ? sizeX - 1 - k : k;
+
+					long srcPtr = src + ((x + srcX) + (long) srcSizeX * ((y + srcY) + (long) srcSizeY * (z + srcZ))) * 2;
+					long dstPtr = dst + ((x + dstX) + (long) dstSizeX * ((y + dstY) + (long) dstSizeY * (z + dstZ))) * 2;
+
+					MemoryUtil.memPutShort(dstPtr, MemoryUtil.memGetShort(srcPtr));
+				}
+			}
+		}
+	}
+
 	/**
 	 * Completely (re)populate this volume with block and sky lighting data.
 	 * This is expensive and should be avoided.
@@ -94,6 +224,12 @@ public class LightVolume implements Box {
 		markDirty();
 	}
 
+	/**
+	 * Called whenever the light in this volume changes.
+	 * <br>
+	 * In incremental mode this is called as soon as a light update is queued, before the light is copied.
+	 * Overrides that read {@link #lightData} must call {@link #processLightUpdates} first.
+	 */
 	protected void markDirty() {
 		// noop
 	}
@@ -109,6 +245,11 @@ public class LightVolume implements Box {
 	 * @param levelVolume the region in the level to copy data from.
 	 */
 	public void copyLight(Box levelVolume) {
+		if (incremental) {
+			copySections(levelVolume, true, true);
+			return;
+		}
+
 		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
 
 		int xShift = box.getMinX();
@@ -140,6 +281,11 @@ public class LightVolume implements Box {
 	 * @param levelVolume the region in the level to copy data from.
 	 */
 	public void copyBlock(Box levelVolume) {
+		if (incremental) {
+			copySections(levelVolume, true, false);
+			return;
+		}
+
 		var pos = new BlockPos.MutableBlockPos();
 
 		int xShift = box.getMinX();
@@ -165,6 +311,11 @@ public class LightVolume implements Box {
 	 * @param levelVolume the region in the level to copy data from.
 	 */
 	public void copySky(Box levelVolume) {
+		if (incremental) {
+			copySections(levelVolume, false, true);
+			return;
+		}
+
 		var pos = new BlockPos.MutableBlockPos();
 
 		int xShift = box.getMinX();
@@ -184,6 +335,93 @@ public class LightVolume implements Box {
 		MemoryUtil.memPutByte(boxPosToPtr(x, y, z) + 1, s);
 	}
 
+	/**
+	 * Copy light from the level a section at a time, reading the light engine's data layers directly
+	 * instead of looking up the section again for every block.
+	 *
+	 * @param levelVolume the region in the level to copy data from.
+	 */
+	protected void copySections(Box levelVolume, boolean block, boolean sky) {
+		LevelLightEngine lightEngine = level.getLightEngine();
+
+		int minX = levelVolume.getMinX();
+		int minY = levelVolume.getMinY();
+		int minZ = levelVolume.getMinZ();
+		int maxX = levelVolume.getMaxX();
+		int maxY = levelVolume.getMaxY();
+		int maxZ = levelVolume.getMaxZ();
+
+		for (int sectionZ = SectionPos.blockToSectionCoord(minZ); sectionZ <= SectionPos.blockToSectionCoord(maxZ - 1); sectionZ++) {
+			for (int sectionY = SectionPos.blockToSectionCoord(minY); sectionY <= SectionPos.blockToSectionCoord(maxY - 1); sectionY++) {
+				for (int sectionX = SectionPos.blockToSectionCoord(minX); sectionX <= SectionPos.blockToSectionCoord(maxX - 1); sectionX++) {
+					SectionPos section = SectionPos.of(sectionX, sectionY, sectionZ);
+
+					var region = MutableBox.from(section);
+					region.intersectAssign(levelVolume);
+
+					if (block) {
+						copyLayer(lightEngine, LightLayer.BLOCK, section, region, 0);
+					}
+					if (sky) {
+						copyLayer(lightEngine, LightLayer.SKY, section, region, 1);
+					}
+				}
+			}
+		}
+	}
+
+	private void copyLayer(LevelLightEngine lightEngine, LightLayer layer, SectionPos section, Box region, int byteOffset) {
+		DataLayer dataLayer = lightEngine.getLayerListener(layer)
+				.getDataLayerData(section);
+
+		int xShift = box.getMinX();
+		int yShift = box.getMinY();
+		int zShift = box.getMinZ();
+
+		if (dataLayer == null) {
+			// Not every light engine has data layers, and sky light may come from a section further up.
+			var pos = new BlockPos.MutableBlockPos();
+
+			for (int z = region.getMinZ(); z < region.getMaxZ(); z++) {
+				for (int y = region.getMinY(); y < region.getMaxY(); y++) {
+					for (int x = region.getMinX(); x < region.getMaxX(); x++) {
+						int light = level.getBrightness(layer, pos.set(x, y, z));
+						MemoryUtil.memPutByte(boxPosToPtr(x - xShift, y - yShift, z - zShift) + byteOffset, (byte) ((light & 0xF) << 4));
+					}
+				}
+			}
+			return;
+		}
+
+		if (dataLayer.isEmpty()) {
+			// Every block in the section has the same light.
+			byte light = (byte) ((dataLayer.get(0, 0, 0) & 0xF) << 4);
+
+			for (int z = region.getMinZ(); z < region.getMaxZ(); z++) {
+				for (int y = region.getMinY(); y < region.getMaxY(); y++) {
+					for (int x = region.getMinX(); x < region.getMaxX(); x++) {
+						MemoryUtil.memPutByte(boxPosToPtr(x - xShift, y - yShift, z - zShift) + byteOffset, light);
+					}
+				}
+			}
+			return;
+		}
+
+		byte[] nibbles = dataLayer.getData();
+
+		for (int z = region.getMinZ(); z < region.getMaxZ(); z++) {
+			for (int y = region.getMinY(); y < region.getMaxY(); y++) {
+				for (int x = region.getMinX(); x < region.getMaxX(); x++) {
+					// Same layout as DataLayer#getIndex.
+					int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+					int light = nibbles[index >> 1] >> ((index & 1) << 2) & 0xF;
+
+					MemoryUtil.memPutByte(boxPosToPtr(x - xShift, y - yShift, z - zShift) + byteOffset, (byte) (light << 4));
+				}
+			}
+		}
+	}
+
 	protected long levelPosToPtr(int x, int y, int z) {
 		return lightData.ptr() + levelPosToPtrOffset(x, y, z);
 	}
@@ -206,6 +444,16 @@ public class LightVolume implements Box {
 	public void onLightUpdate(LightLayer type, SectionPos pos) {
 		if (lightData == null) return;
 
+		if (incremental) {
+			int index = sectionIndex(pos.x(), pos.y(), pos.z());
+
+			if (index != -1) {
+				(type == LightLayer.BLOCK ? dirtyBlockSections : dirtySkySections).set(index);
+				markDirty();
+			}
+			return;
+		}
+
 		MutableBox vol = MutableBox.from(pos);
 		if (!vol.intersects(getVolume())) return;
 		vol.intersectAssign(getVolume()); // compute the region contained by us that has dirty lighting data.
@@ -214,4 +462,65 @@ public class LightVolume implements Box {
 		else if (type == LightLayer.SKY) copySky(vol);
 		markDirty();
 	}
+
+	/**
+	 * Copy light for every section that received light updates since the last call.
+	 * <br>
+	 * Only does anything in incremental mode, where {@link #onLightUpdate} just marks sections dirty.
+	 */
+	public void processLightUpdates() {
+		if (lightData == null || (dirtyBlockSections.isEmpty() && dirtySkySections.isEmpty())) {
+			return;
+		}
+
+		var dirty = (BitSet) dirtyBlockSections.clone();
+		dirty.or(dirtySkySections);
+
+		int sectionsX = sectionsX();
+		int sectionsY = sectionsY();
+
+		for (int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+			int sectionX = SectionPos.blockToSectionCoord(box.getMinX()) + index % sectionsX;
+			int sectionY = SectionPos.blockToSectionCoord(box.getMinY()) + (index / sectionsX) % sectionsY;
+			int sectionZ = SectionPos.blockToSectionCoord(box.getMinZ()) + index / (sectionsX * sectionsY);
+
+			MutableBox vol = MutableBox.from(SectionPos.of(sectionX, sectionY, sectionZ));
+			vol.intersectAssign(getVolume());
+
+			copySections(vol, dirtyBlockSections.get(index), dirtySkySections.get(index));
+		}
+
+		dirtyBlockSections.clear();
+		dirtySkySections.clear();
+		markDirty();
+	}
+
+	/**
+	 * @return The index of the given section among the sections the box touches, or {@code -1} if it doesn't touch it.
+	 */
+	private int sectionIndex(int sectionX, int sectionY, int sectionZ) {
+		int x = sectionX - SectionPos.blockToSectionCoord(box.getMinX());
+		int y = sectionY - SectionPos.blockToSectionCoord(box.getMinY());
+		int z = sectionZ - SectionPos.blockToSectionCoord(box.getMinZ());
+		int sectionsX = sectionsX();
+		int sectionsY = sectionsY();
+
+		if (x < 0 || y < 0 || z < 0 || x >= sectionsX || y >= sectionsY || z >= sectionsZ()) {
+			return -1;
+		}
+
+		return x + sectionsX * (y + sectionsY * z);
+	}
+
+	private int sectionsX() {
+		return SectionPos.blockToSectionCoord(box.getMaxX() - 1) - SectionPos.blockToSectionCoord(box.getMinX()) + 1;
+	}
+
+	private int sectionsY() {
+		return SectionPos.blockToSectionCoord(box.getMaxY() - 1) - SectionPos.blockToSectionCoord(box.getMinY()) + 1;
+	}
+
+	private int sectionsZ() {
+		return SectionPos.blockToSectionCoord(box.getMaxZ() - 1) - SectionPos.blockToSectionCoord(box.getMinZ()) + 1;
+	}
 }
@@ -81,6 +81,47 @@ public final class MatrixMath {
 		MemoryUtil.memPutFloat(ptr + 32, matrix.m22());
 	}
 
+	/**
+	 * Write the top three rows of an affine matrix in column major order, as a GLSL {@code mat4x3}.
+	 */
+	public static void writeAffineUnsafe(long ptr, Matrix4f matrix) {
+		MemoryUtil.memPutFloat(ptr, matrix.m00());
+		MemoryUtil.memPutFloat(ptr + 4, matrix.m01());
+		MemoryUtil.memPutFloat(ptr + 8, matrix.m02());
+		MemoryUtil.memPutFloat(ptr + 12, matrix.m10());
+		MemoryUtil.memPutFloat(ptr + 16, matrix.m11());
+		MemoryUtil.memPutFloat(ptr + 20, matrix.m12());
+		MemoryUtil.memPutFloat(ptr + 24, matrix.m20());
+		MemoryUtil.memPutFloat(ptr + 28, matrix.m21());
+		MemoryUtil.memPutFloat(ptr + 32, matrix.m22());
+		MemoryUtil.memPutFloat(ptr + 36, matrix.m30());
+		MemoryUtil.memPutFloat(ptr + 40, matrix.m31());
+		MemoryUtil.memPutFloat(ptr + 44, matrix.m32());
+	}
+
+	public static Matrix4f readUnsafe(long ptr, Matrix4f dest) {
+		return dest.set(MemoryUtil.memGetFloat(ptr), MemoryUtil.memGetFloat(ptr + 4), MemoryUtil.memGetFloat(ptr + 8), MemoryUtil.memGetFloat(ptr + 12),
+				MemoryUtil.memGetFloat(ptr + 16), MemoryUtil.memGetFloat(ptr + 20), MemoryUtil.memGetFloat(ptr + 24), MemoryUtil.memGetFloat(ptr + 28),
+				MemoryUtil.memGetFloat(ptr + 32), MemoryUtil.memGetFloat(ptr + 36), MemoryUtil.memGetFloat(ptr + 40), MemoryUtil.memGetFloat(ptr + 44),
+				MemoryUtil.memGetFloat(ptr + 48), MemoryUtil.memGetFloat(ptr + 52), MemoryUtil.memGetFloat(ptr + 56), MemoryUtil.memGetFloat(ptr + 60));
+	}
+
+	public static Matrix3f readUnsafe(long ptr, Matrix3f dest) {
+		return dest.set(MemoryUtil.memGetFloat(ptr), MemoryUtil.memGetFloat(ptr + 4), MemoryUtil.memGetFloat(ptr + 8),
+				MemoryUtil.memGetFloat(ptr + 12), MemoryUtil.memGetFloat(ptr + 16), MemoryUtil.memGetFloat(ptr + 20),
+				MemoryUtil.memGetFloat(ptr + 24), MemoryUtil.memGetFloat(ptr + 28), MemoryUtil.memGetFloat(ptr + 32));
+	}
+
+	/**
+	 * Read a matrix written by {@link #writeAffineUnsafe}. The bottom row is set to {@code (0, 0, 0, 1)}.
+	 */
+	public static Matrix4f readAffineUnsafe(long ptr, Matrix4f dest) {
+		return dest.set(MemoryUtil.memGetFloat(ptr), MemoryUtil.memGetFloat(ptr + 4), MemoryUtil.memGetFloat(ptr + 8), 0,
+				MemoryUtil.memGetFloat(ptr + 12), MemoryUtil.memGetFloat(ptr + 16), MemoryUtil.memGetFloat(ptr + 20), 0,
+				MemoryUtil.memGetFloat(ptr + 24), MemoryUtil.memGetFloat(ptr + 28), MemoryUtil.memGetFloat(ptr + 32), 0,
+				MemoryUtil.memGetFloat(ptr + 36), MemoryUtil.memGetFloat(ptr + 40), MemoryUtil.memGetFloat(ptr + 44), 1);
+	}
+
 	/**
 	 * Extracts the greatest scale factor across all axes from the given matrix.
 	 *
@@ -11,11 +11,24 @@ public final class FlwMemoryTracker {
 
 	private static final AtomicLong CPU_MEMORY = new AtomicLong(0);
 	private static final AtomicLong GPU_MEMORY = new AtomicLong(0);
+	/**
+	 * The number of native allocations and reallocations made since startup.
+	 */
+	private static final AtomicLong CPU_ALLOCATIONS = new AtomicLong(0);
+	/**
+	 * The number of times a GPU buffer's data store has been (re)allocated since startup.
+	 */
+	private static final AtomicLong GPU_ALLOCATIONS = new AtomicLong(0);
+	/**
+	 * The number of GPU bytes not allocated because identical data was already resident.
+	 */
+	private static final AtomicLong DEDUPLICATED_GPU_MEMORY = new AtomicLong(0);
 
 	private FlwMemoryTracker() {
 	}
 
 	public static long malloc(long size) {
+		CPU_ALLOCATIONS.getAndIncrement();
 		long ptr = MemoryUtil.nmemAlloc(size);
 		if (ptr == MemoryUtil.NULL) {
 			throw new OutOfMemoryError("Failed to allocate " + size + " bytes");
@@ -24,6 +37,7 @@ public final class FlwMemoryTracker {
 	}
 
 	public static long calloc(long num, long size) {
+		CPU_ALLOCATIONS.getAndIncrement();
 		long ptr = MemoryUtil.nmemCalloc(num, size);
 		if (ptr == MemoryUtil.NULL) {
 			throw new OutOfMemoryError("Failed to allocate " + num + " elements of size " + size + " bytes");
@@ -32,6 +46,7 @@ public final class FlwMemoryTracker {
 	}
 
 	public static long realloc(long ptr, long size) {
+		CPU_ALLOCATIONS.getAndIncrement();
 		ptr = MemoryUtil.nmemRealloc(ptr, size);
 		if (ptr == MemoryUtil.NULL) {
 			throw new OutOfMemoryError("Failed to reallocate " + size + " bytes for address " + StringUtil.formatAddress(ptr));
@@ -59,6 +74,18 @@ public final class FlwMemoryTracker {
 		GPU_MEMORY.getAndAdd(-size);
 	}
 
+	public static void _countGPUAllocation() {
+		GPU_ALLOCATIONS.getAndIncrement();
+	}
+
+	public static void _addDeduplicatedGPUMemory(long size) {
+		DEDUPLICATED_GPU_MEMORY.getAndAdd(size);
+	}
+
+	public static void _removeDeduplicatedGPUMemory(long size) {
+		DEDUPLICATED_GPU_MEMORY.getAndAdd(-size);
+	}
+
 	public static long getCPUMemory() {
 		return CPU_MEMORY.get();
 	}
@@ -66,4 +93,16 @@ public final class FlwMemoryTracker {
 	public static long getGPUMemory() {
 		return GPU_MEMORY.get();
 	}
+
+	public static long getCPUAllocations() {
+		return CPU_ALLOCATIONS.get();
+	}
+
+	public static long getGPUAllocations() {
+		return GPU_ALLOCATIONS.get();
+	}
+
+	public static long getDeduplicatedGPUMemory() {
+		return DEDUPLICATED_GPU_MEMORY.get();
+	}
 }
@@ -14,6 +14,10 @@ public class ModelCache<T> {
 	private static final List<ModelCache<?>> ALL = new ArrayList<>();
 	private final Function<T, Model> factory;
 	private final Map<T, Model> map = new ConcurrentHashMap<>();
+	/**
+	 * Models replaced by the last {@link #reload}, deleted by the next one.
+	 */
+	private final List<Model> retired = new ArrayList<>();
 
 	public ModelCache(Function<T, Model> factory) {
 		this.factory = factory;
@@ -32,10 +36,40 @@ public class ModelCache<T> {
 		map.clear();
 	}
 
+	/**
+	 * Rebuild every cached model, keeping the old model wherever the new one came out the same.
+	 *
+	 * @see ModelReloads
+	 */
+	public void reload() {
+		retired.forEach(Model::delete);
+		retired.clear();
+
+		for (var key : List.copyOf(map.keySet())) {
+			map.computeIfPresent(key, (k, old) -> {
+				Model fresh;
+
+				try {
+					fresh = factory.apply(k);
+				} catch (RuntimeException e) {
+					// Let the next get try again.
+					ModelReloads.dropped(old, retired);
+					return null;
+				}
+
+				return ModelReloads.reconcile(old, fresh, retired);
+			});
+		}
+	}
+
 	@ApiStatus.Internal
 	public static void onEndClientResourceReload() {
 		for (ModelCache<?> cache : ALL) {
-			cache.clear();
+			if (ModelReloads.RELOAD_IN_PLACE) {
+				cache.reload();
+			} else {
+				cache.clear();
+			}
 		}
 	}
 }
@@ -14,6 +14,10 @@ public class ModelHolder {
 	private final Supplier<Model> factory;
 	@Nullable
 	private volatile Model model;
+	/**
+	 * The model replaced by the last {@link #reload}, deleted by the next one.
+	 */
+	private final List<Model> retired = new ArrayList<>(1);
 
 	public ModelHolder(Supplier<Model> factory) {
 		this.factory = factory;
@@ -52,10 +56,43 @@ public class ModelHolder {
 		}
 	}
 
+	/**
+	 * Rebuild the model if one was built, keeping the old model if the new one came out the same.
+	 *
+	 * @see ModelReloads
+	 */
+	public synchronized void reload() {
+		retired.forEach(Model::delete);
+		retired.clear();
+
+		Model old = model;
+
+		if (old == null) {
+			return;
+		}
+
+		Model fresh;
+
+		try {
+			fresh = factory.get();
+		} catch (RuntimeException e) {
+			// Let the next get try again.
+			ModelReloads.dropped(old, retired);
+			model = null;
+			return;
+		}
+
+		model = ModelReloads.reconcile(old, fresh, retired);
+	}
+
 	@ApiStatus.Internal
 	public static void onEndClientResourceReload() {
 		for (ModelHolder holder : ALL) {
-			holder.clear();
+			if (ModelReloads.RELOAD_IN_PLACE) {
+				holder.reload();
+			} else {
+				holder.clear();
+			}
 		}
 	}
 }
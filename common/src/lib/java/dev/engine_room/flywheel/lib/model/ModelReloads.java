@@ -0,0 +1,140 @@
+package dev.engine_room.flywheel.lib.model;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.api.model.Mesh;
+import dev.engine_room.flywheel.api.model.Model;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import dev.engine_room.flywheel.lib.vertex.FullVertexView;
+
+/**
+ * Shared bookkeeping for {@link ModelCache} and {@link ModelHolder} across resource reloads.
+ * <br>
+ * Models are rebuilt after every reload, but one that comes out identical to the model it would replace is
+ * dropped in favor of the old one, so visuals holding on to the old model don't need to be touched.
+ */
+public final class ModelReloads {
+	/**
+	 * Rebuild cached models on resource reload instead of dropping them, and let the impl keep its visuals
+	 * alive when none of them changed.
+	 */
+	public static final boolean RELOAD_IN_PLACE = System.getProperty("flw.reloadInPlace") != null;
+
+	private static final AtomicInteger GENERATION = new AtomicInteger();
+
+	private ModelReloads() {
+	}
+
+	/**
+	 * Get a counter that is bumped every time a reload replaces a model.
+	 * <br>
+	 * Anything still using models from before a change in this counter should fetch them again.
+	 *
+	 * @return The current model generation.
+	 */
+	public static int generation() {
+		return GENERATION.get();
+	}
+
+	/**
+	 * Pick which of an old and a freshly built model to keep.
+	 *
+	 * @param old The model from before the reload.
+	 * @param fresh The model built from the reloaded resources.
+	 * @param retired Collects the model that was replaced. It must not be deleted until the next reload
+	 *                because instancers created before this one may not have uploaded it yet.
+	 * @return The model to keep using.
+	 */
+	static Model reconcile(Model old, Model fresh, List<Model> retired) {
+		if (sameContents(old, fresh)) {
+			fresh.delete();
+			return old;
+		}
+
+		retired.add(old);
+		GENERATION.incrementAndGet();
+		return fresh;
+	}
+
+	/**
+	 * Mark that a model was dropped without a replacement, for example because rebuilding it failed.
+	 */
+	static void dropped(Model old, List<Model> retired) {
+		retired.add(old);
+		GENERATION.incrementAndGet();
+	}
+
+	/**
+	 * Check if two models would render exactly the same.
+	 * <br>
+	 * Materials are compared by identity, which holds for the shared constants in {@code Materials}.
+	 *
+	 * @return {@code true} if both models have the same materials and vertex data in the same order.
+	 */
+	public static boolean sameContents(Model a, Model b) {
+		if (a == b) {
+			return true;
+		}
+
+		var aMeshes = a.meshes();
+		var bMeshes = b.meshes();
+
+		if (aMeshes.size() != bMeshes.size() || !a.boundingSphere()
+				.equals(b.boundingSphere())) {
+			return false;
+		}
+
+		for (int i = 0; i < aMeshes.size(); i++) {
+			var aMesh = aMeshes.get(i);
+			var bMesh = bMeshes.get(i);
+
+			if (aMesh.material() != bMesh.material() || !sameContents(aMesh.mesh(), bMesh.mesh())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean sameContents(Mesh a, Mesh b) {
+		if (a == b) {
+			return true;
+		}
+
+		int vertexCount = a.vertexCount();
+
+		if (vertexCount != b.vertexCount() || a.indexCount() != b.indexCount() || !Objects.equals(a.indexSequence(), b.indexSequence())) {
+			return false;
+		}
+
+		if (vertexCount == 0) {
+			return true;
+		}
+
+		// Zeroed so padding bytes the views don't write compare equal.
+		var aBlock = MemoryBlock.calloc(vertexCount, FullVertexView.STRIDE);
+		var bBlock = MemoryBlock.calloc(vertexCount, FullVertexView.STRIDE);
+
+		try {
+			write(a, aBlock);
+			write(b, bBlock);
+
+			return MemoryUtil.memByteBuffer(aBlock.ptr(), (int) aBlock.size())
+					.equals(MemoryUtil.memByteBuffer(bBlock.ptr(), (int) bBlock.size()));
+		} finally {
+			aBlock.free();
+			bBlock.free();
+		}
+	}
+
+	private static void write(Mesh mesh, MemoryBlock block) {
+		var view = new FullVertexView();
+		view.ptr(block.ptr());
+		view.vertexCount(mesh.vertexCount());
+		mesh.write(view);
+	}
+}
@@ -0,0 +1,474 @@
+package dev.engine_room.flywheel.lib.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.lib.task.functional.BooleanSupplierWithContext;
+import dev.engine_room.flywheel.lib.task.functional.RunnableWithContext;
+import dev.engine_room.flywheel.lib.task.functional.SupplierWithContext;
+
+/**
+ * A plan tree flattened once into a fixed graph of nodes, each with a preallocated dependency counter.
+ * <br>
+ * Executing a compiled plan resets the counters and starts every node without dependencies.
+ * Each node starts as soon as the nodes it depends on complete, so unlike executing the tree directly
+ * there are no {@link Synchronizer}s or completion lambdas to allocate.
+ * <br>
+ * {@link NestedPlan}, {@link BarrierPlan}, {@link SimplePlan}, {@link SyncedPlan}, {@link RaisePlan},
+ * {@link UnitPlan}, {@link MapContextPlan}, {@link IfElsePlan} and {@link TimedPlan} are compiled into the graph.
+ * Any other plan becomes a single node that is executed as usual,
+ * so list driven plans such as {@link ForEachPlan} and {@link PlanMap} still fan out dynamically.
+ * <br>
+ * Only one execution can use the graph at a time. If a compiled plan is executed again before it completes,
+ * the extra execution falls back to executing the original tree.
+ *
+ * @param <C> The type of the context object.
+ */
+public final class CompiledPlan<C> implements SimplyComposedPlan<C> {
+	private final Plan<C> source;
+	private final Graph root;
+	/**
+	 * The context of each node, indexed by slot. Slot 0 holds the context passed to {@link #execute},
+	 * and each {@link MapContextPlan} adds a slot for its mapped context.
+	 */
+	private final Object[] contexts;
+	/**
+	 * The start time of each {@link TimedPlan}.
+	 */
+	private final long[] startTimes;
+	private final int nodeCount;
+	private final AtomicBoolean executing = new AtomicBoolean(false);
+
+	@Nullable
+	private TaskExecutor executor;
+	@Nullable
+	private Runnable onCompletion;
+
+	private CompiledPlan(Plan<C> source) {
+		this.source = source;
+
+		var compiler = new Compiler();
+		root = compiler.graph(source, 0, this::finish);
+		contexts = new Object[compiler.contextSlots];
+		startTimes = new long[compiler.timers];
+		nodeCount = compiler.nodeCount;
+	}
+
+	public static <C> CompiledPlan<C> compile(Plan<C> plan) {
+		if (plan instanceof CompiledPlan<C> compiled) {
+			return compiled;
+		}
+
+		return new CompiledPlan<>(plan);
+	}
+
+	/**
+	 * @return The plan this was compiled from.
+	 */
+	public Plan<C> source() {
+		return source;
+	}
+
+	/**
+	 * @return The number of nodes in the graph, including those in both sides of every branch.
+	 */
+	public int nodeCount() {
+		return nodeCount;
+	}
+
+	@Override
+	public void execute(TaskExecutor taskExecutor, C context, Runnable onCompletion) {
+		if (!executing.compareAndSet(false, true)) {
+			// The graph is still in use, so this execution can't share its counters.
+			source.execute(taskExecutor, context, onCompletion);
+			return;
+		}
+
+		executor = taskExecutor;
+		this.onCompletion = onCompletion;
+		contexts[0] = context;
+
+		root.start();
+	}
+
+	private void finish() {
+		Runnable onCompletion = this.onCompletion;
+
+		executor = null;
+		this.onCompletion = null;
+		// Don't hold on to contexts between executions.
+		Arrays.fill(contexts, null);
+
+		executing.set(false);
+		onCompletion.run();
+	}
+
+	private final class Graph {
+		// Lists rather than arrays since nodes are inner classes of a generic class. Iterated by index to avoid allocating.
+		private final List<Node> nodes;
+		private final List<Node> roots;
+
+		private Graph(List<Node> nodes) {
+			this.nodes = ImmutableList.copyOf(nodes);
+
+			for (Node node : nodes) {
+				node.freeze();
+			}
+
+			roots = nodes.stream()
+					.filter(node -> node.dependencies == 0)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		private void start() {
+			for (int i = 0; i < nodes.size(); i++) {
+				nodes.get(i)
+						.reset();
+			}
+
+			for (int i = 0; i < roots.size(); i++) {
+				roots.get(i)
+						.start();
+			}
+		}
+	}
+
+	private final class Compiler {
+		private int contextSlots = 1;
+		private int timers = 0;
+		private int nodeCount = 0;
+
+		/**
+		 * Compile a plan into its own graph.
+		 *
+		 * @param onExit Run once every node in the graph has completed.
+		 */
+		private Graph graph(Plan<?> plan, int slot, Runnable onExit) {
+			List<Node> nodes = new ArrayList<>();
+			var tails = compile(nodes, plan, slot, List.of());
+			add(nodes, new ExitNode(tails, onExit));
+			return new Graph(nodes);
+		}
+
+		/**
+		 * Add the nodes for a plan to a graph.
+		 *
+		 * @param dependencies The nodes that must complete before the plan starts.
+		 * @return The nodes that complete last, which may be {@code dependencies} if the plan does nothing.
+		 */
+		@SuppressWarnings("unchecked")
+		private List<Node> compile(List<Node> nodes, Plan<?> plan, int slot, List<Node> dependencies) {
+			if (plan instanceof UnitPlan<?>) {
+				return dependencies;
+			}
+
+			if (plan instanceof BarrierPlan<?> barrier) {
+				var first = compile(nodes, barrier.first(), slot, dependencies);
+				return compile(nodes, barrier.second(), slot, first);
+			}
+
+			if (plan instanceof NestedPlan<?> nested) {
+				var plans = nested.parallelPlans();
+				if (plans.isEmpty()) {
+					return dependencies;
+				}
+
+				var shared = join(nodes, dependencies, plans.size());
+				List<Node> tails = new ArrayList<>();
+				for (var child : plans) {
+					tails.addAll(compile(nodes, child, slot, shared));
+				}
+				return tails;
+			}
+
+			if (plan instanceof SimplePlan<?> simple) {
+				var tasks = simple.parallelTasks();
+				if (tasks.isEmpty()) {
+					return dependencies;
+				}
+
+				var shared = join(nodes, dependencies, tasks.size());
+				List<Node> tails = new ArrayList<>();
+				for (var task : tasks) {
+					tails.add(add(nodes, new TaskNode(shared, (RunnableWithContext<Object>) task, slot)));
+				}
+				return tails;
+			}
+
+			if (plan instanceof SyncedPlan<?> synced) {
+				return List.of(add(nodes, new SyncedNode(dependencies, (RunnableWithContext<Object>) synced.task(), slot)));
+			}
+
+			if (plan instanceof RaisePlan<?> raise) {
+				return List.of(add(nodes, new RaiseNode(dependencies, raise.flag())));
+			}
+
+			if (plan instanceof TimedPlan<?> timed) {
+				int timer = timers++;
+				var start = add(nodes, new TimerStartNode(dependencies, timer));
+				var inner = compile(nodes, timed.plan(), slot, List.of(start));
+				return List.of(add(nodes, new TimerEndNode(inner, timed.sink(), timer)));
+			}
+
+			if (plan instanceof MapContextPlan<?, ?> map) {
+				int mapped = contextSlots++;
+				var mapNode = add(nodes, new MapNode(dependencies, (SupplierWithContext<Object, Object>) map.map(), slot, mapped));
+				return compile(nodes, map.plan(), mapped, List.of(mapNode));
+			}
+
+			if (plan instanceof IfElsePlan<?> ifElse) {
+				return List.of(add(nodes, new BranchNode(dependencies, this, (IfElsePlan<Object>) ifElse, slot)));
+			}
+
+			return List.of(add(nodes, new PlanNode(dependencies, (Plan<Object>) plan, slot)));
+		}
+
+		/**
+		 * Funnel many dependencies through one node when they fan out to many dependents,
+		 * so the number of edges stays linear.
+		 */
+		private List<Node> join(List<Node> nodes, List<Node> dependencies, int dependents) {
+			if (dependencies.size() > 1 && dependents > 1) {
+				return List.of(add(nodes, new JoinNode(dependencies)));
+			}
+
+			return dependencies;
+		}
+
+		private <N extends Node> N add(List<Node> nodes, N node) {
+			nodes.add(node);
+			nodeCount++;
+			return node;
+		}
+	}
+
+	/**
+	 * A step in the graph. Running a node marks it as complete.
+	 */
+	private abstract class Node implements Runnable {
+		private final int dependencies;
+		private final AtomicInteger pending = new AtomicInteger();
+		private List<Node> successors = new ArrayList<>();
+
+		private Node(List<Node> dependencies) {
+			this.dependencies = dependencies.size();
+
+			for (Node dependency : dependencies) {
+				dependency.successors.add(this);
+			}
+		}
+
+		private void freeze() {
+			successors = ImmutableList.copyOf(successors);
+		}
+
+		private void reset() {
+			pending.set(dependencies);
+		}
+
+		private void dependencyDone() {
+			if (pending.decrementAndGet() == 0) {
+				start();
+			}
+		}
+
+		/**
+		 * Start this node. It must eventually {@link #run} itself, on any thread.
+		 */
+		protected abstract void start();
+
+		@Override
+		public final void run() {
+			for (int i = 0; i < successors.size(); i++) {
+				successors.get(i)
+						.dependencyDone();
+			}
+		}
+	}
+
+	private final class JoinNode extends Node {
+		private JoinNode(List<Node> dependencies) {
+			super(dependencies);
+		}
+
+		@Override
+		protected void start() {
+			run();
+		}
+	}
+
+	private final class ExitNode extends Node {
+		private final Runnable onExit;
+
+		private ExitNode(List<Node> dependencies, Runnable onExit) {
+			super(dependencies);
+			this.onExit = onExit;
+		}
+
+		@Override
+		protected void start() {
+			onExit.run();
+		}
+	}
+
+	private final class PlanNode extends Node {
+		private final Plan<Object> plan;
+		private final int slot;
+
+		private PlanNode(List<Node> dependencies, Plan<Object> plan, int slot) {
+			super(dependencies);
+			this.plan = plan;
+			this.slot = slot;
+		}
+
+		@Override
+		protected void start() {
+			plan.execute(executor, contexts[slot], this);
+		}
+	}
+
+	private final class TaskNode extends Node {
+		private final RunnableWithContext<Object> task;
+		private final int slot;
+		private final Runnable runTask = this::runTask;
+
+		private TaskNode(List<Node> dependencies, RunnableWithContext<Object> task, int slot) {
+			super(dependencies);
+			this.task = task;
+			this.slot = slot;
+		}
+
+		@Override
+		protected void start() {
+			executor.execute(runTask);
+		}
+
+		private void runTask() {
+			task.run(contexts[slot]);
+			run();
+		}
+	}
+
+	private final class SyncedNode extends Node {
+		private final RunnableWithContext<Object> task;
+		private final int slot;
+		private final Runnable runTask = this::runTask;
+
+		private SyncedNode(List<Node> dependencies, RunnableWithContext<Object> task, int slot) {
+			super(dependencies);
+			this.task = task;
+			this.slot = slot;
+		}
+
+		@Override
+		protected void start() {
+			executor.scheduleForMainThread(runTask);
+		}
+
+		private void runTask() {
+			task.run(contexts[slot]);
+			run();
+		}
+	}
+
+	private final class RaiseNode extends Node {
+		private final Flag flag;
+
+		private RaiseNode(List<Node> dependencies, Flag flag) {
+			super(dependencies);
+			this.flag = flag;
+		}
+
+		@Override
+		protected void start() {
+			flag.raise();
+			run();
+		}
+	}
+
+	private final class MapNode extends Node {
+		private final SupplierWithContext<Object, Object> map;
+		private final int slot;
+		private final int mappedSlot;
+
+		private MapNode(List<Node> dependencies, SupplierWithContext<Object, Object> map, int slot, int mappedSlot) {
+			super(dependencies);
+			this.map = map;
+			this.slot = slot;
+			this.mappedSlot = mappedSlot;
+		}
+
+		@Override
+		protected void start() {
+			contexts[mappedSlot] = map.get(contexts[slot]);
+			run();
+		}
+	}
+
+	private final class BranchNode extends Node {
+		private final BooleanSupplierWithContext<Object> condition;
+		private final int slot;
+		private final Graph onTrue;
+		private final Graph onFalse;
+
+		private BranchNode(List<Node> dependencies, Compiler compiler, IfElsePlan<Object> plan, int slot) {
+			super(dependencies);
+			condition = plan.condition();
+			this.slot = slot;
+			// Each side is its own graph, so the side not taken never has to be marked complete.
+			onTrue = compiler.graph(plan.onTrue(), slot, this);
+			onFalse = compiler.graph(plan.onFalse(), slot, this);
+		}
+
+		@Override
+		protected void start() {
+			if (condition.getAsBoolean(contexts[slot])) {
+				onTrue.start();
+			} else {
+				onFalse.start();
+			}
+		}
+	}
+
+	private final class TimerStartNode extends Node {
+		private final int timer;
+
+		private TimerStartNode(List<Node> dependencies, int timer) {
+			super(dependencies);
+			this.timer = timer;
+		}
+
+		@Override
+		protected void start() {
+			startTimes[timer] = System.nanoTime();
+			run();
+		}
+	}
+
+	private final class TimerEndNode extends Node {
+		private final LongConsumer sink;
+		private final int timer;
+
+		private TimerEndNode(List<Node> dependencies, LongConsumer sink, int timer) {
+			super(dependencies);
+			this.sink = sink;
+			this.timer = timer;
+		}
+
+		@Override
+		protected void start() {
+			sink.accept(System.nanoTime() - startTimes[timer]);
+			run();
+		}
+	}
+}
@@ -2,11 +2,19 @@ package dev.engine_room.flywheel.lib.task;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
+import org.jetbrains.annotations.Nullable;
+
 import dev.engine_room.flywheel.api.task.Plan;
 import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.lib.math.MoreMath;
+import dev.engine_room.flywheel.lib.task.functional.IntSliceConsumerWithContext;
+import dev.engine_room.flywheel.lib.task.functional.LongSliceConsumerWithContext;
+import dev.engine_room.flywheel.lib.task.functional.RangeConsumerWithContext;
 
 public final class Distribute {
 	/**
@@ -38,6 +46,13 @@ public final class Distribute {
 				action.accept(t, context);
 			}
 			onCompletion.run();
+		} else if (list instanceof RandomAccess) {
+			// Indexed lists can share one runnable between all slices rather than needing a view and closure for each.
+			ranges(taskExecutor, context, onCompletion, size, sliceSize, (start, end, ctx) -> {
+				for (int i = start; i < end; i++) {
+					action.accept(list.get(i), ctx);
+				}
+			}, null);
 		} else if (sliceSize == 1) {
 			var synchronizer = new Synchronizer(size, onCompletion);
 			for (T t : list) {
@@ -123,6 +138,85 @@ public final class Distribute {
 		}
 	}
 
+	/**
+	 * Distribute the index range {@code [0, size)} in slices across the threads of the task executor.
+	 *
+	 * <p>Slices are handed to the action as {@code [start, end)} pairs. A single runnable is submitted
+	 * once per slice and claims the next unclaimed slice when it runs, so nothing is allocated per slice.</p>
+	 *
+	 * @param taskExecutor The task executor to run on.
+	 * @param context The context to pass to each slice.
+	 * @param onCompletion The action to run when all slices are complete.
+	 * @param size The number of indices to distribute.
+	 * @param sliceSize The maximum number of indices in each slice.
+	 * @param action The action to run on each slice.
+	 * @param <C> The context type.
+	 */
+	public static <C> void ranges(TaskExecutor taskExecutor, C context, Runnable onCompletion, int size, int sliceSize, RangeConsumerWithContext<C> action) {
+		ranges(taskExecutor, context, onCompletion, size, sliceSize, action, null);
+	}
+
+	/**
+	 * Distribute the index range {@code [0, size)} in slices across the threads of the task executor,
+	 * sizing the slices from the cost the given sizer measured on previous calls.
+	 *
+	 * <p>The time spent in the action is measured and fed back into the sizer once all slices are complete.</p>
+	 *
+	 * @param taskExecutor The task executor to run on.
+	 * @param context The context to pass to each slice.
+	 * @param onCompletion The action to run when all slices are complete.
+	 * @param size The number of indices to distribute.
+	 * @param sizer The sizer to pick the slice size with and to report the measured cost to.
+	 * @param action The action to run on each slice.
+	 * @param <C> The context type.
+	 */
+	public static <C> void ranges(TaskExecutor taskExecutor, C context, Runnable onCompletion, int size, SliceSizer sizer, RangeConsumerWithContext<C> action) {
+		ranges(taskExecutor, context, onCompletion, size, sizer.sliceSize(taskExecutor, size), action, sizer);
+	}
+
+	/**
+	 * Distribute the first {@code size} elements of the given array in slices across the threads of the task executor.
+	 *
+	 * @see #ranges(TaskExecutor, Object, Runnable, int, SliceSizer, RangeConsumerWithContext)
+	 */
+	public static <C> void slices(TaskExecutor taskExecutor, C context, Runnable onCompletion, int[] elements, int size, SliceSizer sizer, IntSliceConsumerWithContext<C> action) {
+		ranges(taskExecutor, context, onCompletion, size, sizer, (start, end, ctx) -> action.accept(elements, start, end, ctx));
+	}
+
+	/**
+	 * Distribute the first {@code size} elements of the given array in slices across the threads of the task executor.
+	 *
+	 * @see #ranges(TaskExecutor, Object, Runnable, int, SliceSizer, RangeConsumerWithContext)
+	 */
+	public static <C> void slices(TaskExecutor taskExecutor, C context, Runnable onCompletion, long[] elements, int size, SliceSizer sizer, LongSliceConsumerWithContext<C> action) {
+		ranges(taskExecutor, context, onCompletion, size, sizer, (start, end, ctx) -> action.accept(elements, start, end, ctx));
+	}
+
+	private static <C> void ranges(TaskExecutor taskExecutor, C context, Runnable onCompletion, int size, int sliceSize, RangeConsumerWithContext<C> action, @Nullable SliceSizer sizer) {
+		if (size <= 0) {
+			onCompletion.run();
+			return;
+		}
+
+		sliceSize = Math.max(sliceSize, 1);
+
+		if (size <= sliceSize) {
+			long startTime = sizer != null ? System.nanoTime() : 0;
+			action.accept(0, size, context);
+			if (sizer != null) {
+				sizer.record(System.nanoTime() - startTime, size);
+			}
+			onCompletion.run();
+			return;
+		}
+
+		var job = new RangeJob<>(context, onCompletion, size, sliceSize, action, sizer);
+
+		for (int i = 0; i < job.sliceCount; i++) {
+			taskExecutor.execute(job);
+		}
+	}
+
 	/**
 	 * Distribute the given list of plans across the threads of the task executor.
 	 *
@@ -187,4 +281,59 @@ public final class Distribute {
 
 	private Distribute() {
 	}
+
+	/**
+	 * Submitted once per slice. Each run claims whichever slice is next, so the order slices are
+	 * run in doesn't matter and the same instance can sit in the queue many times.
+	 */
+	private static final class RangeJob<C> implements Runnable {
+		private final C context;
+		private final Runnable onCompletion;
+		private final int size;
+		private final int sliceSize;
+		private final int sliceCount;
+		private final RangeConsumerWithContext<C> action;
+		@Nullable
+		private final SliceSizer sizer;
+
+		private final AtomicInteger nextSlice = new AtomicInteger();
+		private final AtomicInteger remainingSlices;
+		@Nullable
+		private final AtomicLong elapsedNanos;
+
+		private RangeJob(C context, Runnable onCompletion, int size, int sliceSize, RangeConsumerWithContext<C> action, @Nullable SliceSizer sizer) {
+			this.context = context;
+			this.onCompletion = onCompletion;
+			this.size = size;
+			this.sliceSize = sliceSize;
+			this.action = action;
+			this.sizer = sizer;
+
+			sliceCount = MoreMath.ceilingDiv(size, sliceSize);
+			remainingSlices = new AtomicInteger(sliceCount);
+			elapsedNanos = sizer != null ? new AtomicLong() : null;
+		}
+
+		@Override
+		public void run() {
+			int slice = nextSlice.getAndIncrement();
+			int start = (int) Math.min((long) slice * sliceSize, size);
+			int end = (int) Math.min((long) start + sliceSize, size);
+
+			if (elapsedNanos != null) {
+				long startTime = System.nanoTime();
+				action.accept(start, end, context);
+				elapsedNanos.addAndGet(System.nanoTime() - startTime);
+			} else {
+				action.accept(start, end, context);
+			}
+
+			if (remainingSlices.decrementAndGet() == 0) {
+				if (sizer != null) {
+					sizer.record(elapsedNanos.get(), size);
+				}
+				onCompletion.run();
+			}
+		}
+	}
 }
@@ -0,0 +1,45 @@
+package dev.engine_room.flywheel.lib.task;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.lib.task.functional.IntSliceConsumerWithContext;
+import dev.engine_room.flywheel.lib.task.functional.SupplierWithContext;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * A plan that executes code over slices of a provided {@code int} list, without boxing.
+ * <p>
+ * The action is given the list's backing array, so the list must not be modified until the plan completes.
+ * Slice sizes adapt to the per-element cost measured on previous executions of this plan.
+ * The list supplier is called on the thread that executes the plan.
+ *
+ * @param listSupplier A supplier of the list to iterate over.
+ * @param action       The action to perform on each slice.
+ * @param sizer        The sizer tracking the cost of the action.
+ * @param <C>          The type of the context object.
+ */
+public record ForEachIntSlicePlan<C>(SupplierWithContext<C, IntArrayList> listSupplier,
+									 IntSliceConsumerWithContext<C> action,
+									 SliceSizer sizer) implements SimplyComposedPlan<C> {
+	public static <C> Plan<C> of(SupplierWithContext<C, IntArrayList> iterable, IntSliceConsumerWithContext<C> forEach) {
+		return new ForEachIntSlicePlan<>(iterable, forEach, new SliceSizer());
+	}
+
+	public static <C> Plan<C> of(SupplierWithContext<C, IntArrayList> iterable, IntSliceConsumerWithContext.Ignored<C> forEach) {
+		return new ForEachIntSlicePlan<>(iterable, forEach, new SliceSizer());
+	}
+
+	public static <C> Plan<C> of(SupplierWithContext.Ignored<C, IntArrayList> iterable, IntSliceConsumerWithContext<C> forEach) {
+		return new ForEachIntSlicePlan<>(iterable, forEach, new SliceSizer());
+	}
+
+	public static <C> Plan<C> of(SupplierWithContext.Ignored<C, IntArrayList> iterable, IntSliceConsumerWithContext.Ignored<C> forEach) {
+		return new ForEachIntSlicePlan<>(iterable, forEach, new SliceSizer());
+	}
+
+	@Override
+	public void execute(TaskExecutor taskExecutor, C context, Runnable onCompletion) {
+		var list = listSupplier.get(context);
+		Distribute.slices(taskExecutor, context, onCompletion, list.elements(), list.size(), sizer, action);
+	}
+}
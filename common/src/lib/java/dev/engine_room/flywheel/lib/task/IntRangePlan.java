@@ -0,0 +1,42 @@
+package dev.engine_room.flywheel.lib.task;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.lib.task.functional.IntSupplierWithContext;
+import dev.engine_room.flywheel.lib.task.functional.RangeConsumerWithContext;
+
+/**
+ * A plan that executes code over slices of the index range {@code [0, size)}.
+ * <p>
+ * Slice sizes adapt to the per-element cost measured on previous executions of this plan.
+ * The size supplier is called on the thread that executes the plan.
+ *
+ * @param sizeSupplier A supplier of the number of indices.
+ * @param action       The action to perform on each {@code [start, end)} slice.
+ * @param sizer        The sizer tracking the cost of the action.
+ * @param <C>          The type of the context object.
+ */
+public record IntRangePlan<C>(IntSupplierWithContext<C> sizeSupplier,
+							  RangeConsumerWithContext<C> action,
+							  SliceSizer sizer) implements SimplyComposedPlan<C> {
+	public static <C> Plan<C> of(IntSupplierWithContext<C> size, RangeConsumerWithContext<C> forEach) {
+		return new IntRangePlan<>(size, forEach, new SliceSizer());
+	}
+
+	public static <C> Plan<C> of(IntSupplierWithContext<C> size, RangeConsumerWithContext.Ignored<C> forEach) {
+		return new IntRangePlan<>(size, forEach, new SliceSizer());
+	}
+
+	public static <C> Plan<C> of(IntSupplierWithContext.Ignored<C> size, RangeConsumerWithContext<C> forEach) {
+		return new IntRangePlan<>(size, forEach, new SliceSizer());
+	}
+
+	public static <C> Plan<C> of(IntSupplierWithContext.Ignored<C> size, RangeConsumerWithContext.Ignored<C> forEach) {
+		return new IntRangePlan<>(size, forEach, new SliceSizer());
+	}
+
+	@Override
+	public void execute(TaskExecutor taskExecutor, C context, Runnable onCompletion) {
+		Distribute.ranges(taskExecutor, context, onCompletion, sizeSupplier.getAsInt(context), sizer, action);
+	}
+}
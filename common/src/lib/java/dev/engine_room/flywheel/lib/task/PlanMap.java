@@ -5,34 +5,68 @@ import java.util.List;
 
 import dev.engine_room.flywheel.api.task.Plan;
 import dev.engine_room.flywheel.api.task.TaskExecutor;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 
 /**
  * A plan that executes a dynamic list of plans in parallel.
  *
- * <p>The plans can be added/removed by association with a key object.</p>
+ * <p>The plans can be added/removed by association with a key object.
+ * Keys are compared by identity, and adding and removing are both constant time.
+ * The order in which plans are started is not preserved across removals.</p>
  *
  * @param <K> The key type
  * @param <C> The context type
  */
 public class PlanMap<K, C> implements SimplyComposedPlan<C> {
+	private final Reference2IntMap<K> indices = new Reference2IntOpenHashMap<>();
 	private final List<K> keys = new ArrayList<>();
 	private final List<Plan<C>> values = new ArrayList<>();
 
+	public PlanMap() {
+		indices.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Add a plan, replacing the existing plan if the key is already present.
+	 */
 	public void add(K object, Plan<C> plan) {
+		int index = indices.putIfAbsent(object, keys.size());
+
+		if (index != -1) {
+			values.set(index, plan);
+			return;
+		}
+
 		keys.add(object);
 		values.add(plan);
 	}
 
 	public void remove(K object) {
-		int index = keys.indexOf(object);
+		int index = indices.removeInt(object);
 
-		if (index != -1) {
-			keys.remove(index);
-			values.remove(index);
+		if (index == -1) {
+			return;
+		}
+
+		// Move the last entry into the hole.
+		int last = keys.size() - 1;
+		K lastKey = keys.remove(last);
+		Plan<C> lastValue = values.remove(last);
+
+		if (index != last) {
+			keys.set(index, lastKey);
+			values.set(index, lastValue);
+			indices.put(lastKey, index);
 		}
 	}
 
+	public int size() {
+		return keys.size();
+	}
+
 	public void clear() {
+		indices.clear();
 		keys.clear();
 		values.clear();
 	}
@@ -0,0 +1,84 @@
+package dev.engine_room.flywheel.lib.task;
+
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+
+/**
+ * Picks slice sizes for {@link Distribute#ranges} from the per-element cost measured on previous runs.
+ * <br>
+ * Each slice aims to take about {@link #targetSliceNanos()} nanoseconds, which is long enough to amortize
+ * scheduling it but short enough for the executor to balance the load. Until the first measurement comes in,
+ * {@link Distribute#sliceSize(TaskExecutor, int)} is used.
+ * <br>
+ * One sizer should be kept per call site, since per-element cost differs wildly between them.
+ */
+public final class SliceSizer {
+	public static final long DEFAULT_TARGET_SLICE_NANOS = 20_000;
+
+	/**
+	 * How much weight each new measurement gets. Low enough that a single hitch doesn't collapse the slices.
+	 */
+	private static final double SMOOTHING = 0.25;
+
+	/**
+	 * Measurements below this are clamped so trivially cheap actions don't turn into a single giant slice
+	 * on the strength of timer noise.
+	 */
+	private static final double MIN_NANOS_PER_ELEMENT = 0.5;
+
+	private final long targetSliceNanos;
+
+	// Negative until the first measurement.
+	private volatile double nanosPerElement = -1;
+
+	public SliceSizer() {
+		this(DEFAULT_TARGET_SLICE_NANOS);
+	}
+
+	public SliceSizer(long targetSliceNanos) {
+		if (targetSliceNanos <= 0) {
+			throw new IllegalArgumentException("Target slice duration must be positive, got " + targetSliceNanos);
+		}
+
+		this.targetSliceNanos = targetSliceNanos;
+	}
+
+	public int sliceSize(TaskExecutor taskExecutor, int totalSize) {
+		double cost = nanosPerElement;
+
+		if (cost < 0) {
+			return Math.max(Distribute.sliceSize(taskExecutor, totalSize), 1);
+		}
+
+		double elements = targetSliceNanos / Math.max(cost, MIN_NANOS_PER_ELEMENT);
+		return (int) Math.max(1, Math.min(elements, Math.max(totalSize, 1)));
+	}
+
+	/**
+	 * Fold a measurement into the running estimate.
+	 *
+	 * @param nanos    The time spent in the action, summed over all slices.
+	 * @param elements The number of elements processed in that time.
+	 */
+	public void record(long nanos, int elements) {
+		if (elements <= 0) {
+			return;
+		}
+
+		double sample = (double) nanos / elements;
+		double current = nanosPerElement;
+
+		// Only the thread completing a distribution records, so a plain read-modify-write is fine.
+		nanosPerElement = current < 0 ? sample : current + (sample - current) * SMOOTHING;
+	}
+
+	public long targetSliceNanos() {
+		return targetSliceNanos;
+	}
+
+	/**
+	 * @return The smoothed cost of one element in nanoseconds, or a negative number if nothing has been measured yet.
+	 */
+	public double nanosPerElement() {
+		return nanosPerElement;
+	}
+}
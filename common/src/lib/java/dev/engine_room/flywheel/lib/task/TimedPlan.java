@@ -0,0 +1,29 @@
+package dev.engine_room.flywheel.lib.task;
+
+import java.util.function.LongConsumer;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+
+/**
+ * Reports the wall time from starting a plan until it completes, in nanoseconds.
+ *
+ * @param sink  Receives the elapsed time of each execution.
+ * @param plan  The plan to time.
+ * @param <C>   The type of the context object.
+ */
+public record TimedPlan<C>(LongConsumer sink, Plan<C> plan) implements SimplyComposedPlan<C> {
+	public static <C> Plan<C> of(LongConsumer sink, Plan<C> plan) {
+		return new TimedPlan<>(sink, plan);
+	}
+
+	@Override
+	public void execute(TaskExecutor taskExecutor, C context, Runnable onCompletion) {
+		long start = System.nanoTime();
+
+		plan.execute(taskExecutor, context, () -> {
+			sink.accept(System.nanoTime() - start);
+			onCompletion.run();
+		});
+	}
+}
@@ -0,0 +1,35 @@
+package dev.engine_room.flywheel.lib.task.functional;
+
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * An int supplier like interface for use with {@link dev.engine_room.flywheel.api.task.Plan Plans} and their contexts.
+ *
+ * @param <C> The context type.
+ */
+@FunctionalInterface
+public interface IntSupplierWithContext<C> extends ToIntFunction<C> {
+	int getAsInt(C context);
+
+	@Override
+	default int applyAsInt(C c) {
+		return getAsInt(c);
+	}
+
+	/**
+	 * An {@link IntSupplierWithContext} that ignores the context object.
+	 *
+	 * @param <C> The (ignored) context type.
+	 */
+	@FunctionalInterface
+	interface Ignored<C> extends IntSupplierWithContext<C>, IntSupplier {
+		@Override
+		int getAsInt();
+
+		@Override
+		default int getAsInt(C ignored) {
+			return getAsInt();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package dev.engine_room.flywheel.lib.task.functional;
+
+/**
+ * A consumer of slices of a {@code long[]} for use with {@link dev.engine_room.flywheel.api.task.Plan Plans} and their contexts.
+ * <br>
+ * The subinterface {@link Ignored} is provided for consumers that do not need the context object.
+ *
+ * @param <C> The context type.
+ */
+@FunctionalInterface
+public interface LongSliceConsumerWithContext<C> {
+	/**
+	 * @param elements The backing array. Only {@code [start, end)} belongs to this slice.
+	 * @param start    The first index of the slice, inclusive.
+	 * @param end      The last index of the slice, exclusive.
+	 * @param context  The context object.
+	 */
+	void accept(long[] elements, int start, int end, C context);
+
+	/**
+	 * A {@link LongSliceConsumerWithContext} that ignores the context object.
+	 *
+	 * @param <C> The (ignored) context type.
+	 */
+	@FunctionalInterface
+	interface Ignored<C> extends LongSliceConsumerWithContext<C> {
+		void accept(long[] elements, int start, int end);
+
+		@Override
+		default void accept(long[] elements, int start, int end, C ignored) {
+			accept(elements, start, end);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package dev.engine_room.flywheel.lib.task.functional;
+
+/**
+ * A consumer of index ranges for use with {@link dev.engine_room.flywheel.api.task.Plan Plans} and their contexts.
+ * <br>
+ * The subinterface {@link Ignored} is provided for consumers that do not need the context object.
+ *
+ * @param <C> The context type.
+ */
+@FunctionalInterface
+public interface RangeConsumerWithContext<C> {
+	/**
+	 * @param start   The first index in the range, inclusive.
+	 * @param end     The last index in the range, exclusive.
+	 * @param context The context object.
+	 */
+	void accept(int start, int end, C context);
+
+	/**
+	 * A {@link RangeConsumerWithContext} that ignores the context object.
+	 *
+	 * @param <C> The (ignored) context type.
+	 */
+	@FunctionalInterface
+	interface Ignored<C> extends RangeConsumerWithContext<C> {
+		void accept(int start, int end);
+
+		@Override
+		default void accept(int start, int end, C ignored) {
+			accept(start, end);
+		}
+	}
+}
@@ -6,6 +6,7 @@ import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -68,6 +69,15 @@ public final class LevelAttached<T> {
 		cache.invalidateAll();
 	}
 
+	/**
+	 * Remove, and finalize, every value matching the given predicate.
+	 */
+	public void removeIf(Predicate<? super T> predicate) {
+		cache.asMap()
+				.values()
+				.removeIf(predicate);
+	}
+
 	private static class CleaningAction implements Runnable {
 		private final WeakReference<LevelAttached<?>> ref;
 		private final LoadingCache<LevelAccessor, ?> cache;
@@ -0,0 +1,100 @@
+package dev.engine_room.flywheel.lib.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+/**
+ * A list of unique elements with constant time removal.
+ * <br>
+ * Elements are kept in a dense array, and an identity map tracks the index of each one.
+ * Removing an element moves the last element into its slot, so the order of elements is not preserved.
+ * Adding an element that is already present does nothing and returns {@code false}.
+ *
+ * @param <T> The element type. Elements are compared by identity.
+ */
+public class SwapRemoveList<T> extends AbstractList<T> implements RandomAccess {
+	private final ObjectArrayList<T> elements = new ObjectArrayList<>();
+	private final Reference2IntMap<T> indices = new Reference2IntOpenHashMap<>();
+
+	public SwapRemoveList() {
+		indices.defaultReturnValue(-1);
+	}
+
+	@Override
+	public boolean add(T element) {
+		if (indices.putIfAbsent(element, elements.size()) != -1) {
+			return false;
+		}
+
+		elements.add(element);
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object element) {
+		int index = indices.removeInt(element);
+
+		if (index == -1) {
+			return false;
+		}
+
+		removeAt(index);
+		return true;
+	}
+
+	@Override
+	public T remove(int index) {
+		T out = elements.get(index);
+		indices.removeInt(out);
+		removeAt(index);
+		return out;
+	}
+
+	private void removeAt(int index) {
+		T last = elements.pop();
+
+		if (index < elements.size()) {
+			elements.set(index, last);
+			indices.put(last, index);
+		}
+
+		modCount++;
+	}
+
+	@Override
+	public T get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public boolean contains(Object element) {
+		return indices.containsKey(element);
+	}
+
+	@Override
+	public int indexOf(Object element) {
+		return indices.getInt(element);
+	}
+
+	@Override
+	public int lastIndexOf(Object element) {
+		return indexOf(element);
+	}
+
+	@Override
+	public void clear() {
+		elements.clear();
+		indices.clear();
+		modCount++;
+	}
+}
@@ -0,0 +1,352 @@
+package dev.engine_room.flywheel.lib.vertex;
+
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.api.vertex.VertexList;
+import dev.engine_room.flywheel.lib.math.RenderMath;
+
+/**
+ * A 16 byte vertex for meshes that are stored once and drawn many times.
+ * <br>
+ * Positions and texture coordinates are unsigned shorts normalized within the {@link Bounds} of the mesh, normals are
+ * octahedral encoded into two signed bytes, and there is no overlay or light. The bounds must be
+ * {@link #bounds(Bounds) set} before writing and are needed again to dequantize the mesh on the GPU.
+ */
+public class QuantizedVertexView extends AbstractVertexView implements EmptyVertexList {
+	public static final long STRIDE = 16;
+
+	private static final float MAX_UNSIGNED_SHORT = 65535.0f;
+
+	private Bounds bounds = Bounds.EMPTY;
+
+	/**
+	 * The normal of the vertex last written to, kept unencoded so writing one component at a time isn't lossy.
+	 */
+	private int pendingNormalIndex = -1;
+	private float pendingNormalX;
+	private float pendingNormalY;
+	private float pendingNormalZ;
+
+	@Override
+	public long stride() {
+		return STRIDE;
+	}
+
+	public Bounds bounds() {
+		return bounds;
+	}
+
+	public void bounds(Bounds bounds) {
+		this.bounds = bounds;
+	}
+
+	@Override
+	public void ptr(long ptr) {
+		super.ptr(ptr);
+		pendingNormalIndex = -1;
+	}
+
+	/**
+	 * Quantize all vertices of the given list into this view, writing each vertex once.
+	 * <br>
+	 * Faster than {@link VertexList#writeAll}, which writes normals one component at a time.
+	 */
+	public void quantize(VertexList src) {
+		int count = Math.min(vertexCount, src.vertexCount());
+
+		for (int i = 0; i < count; i++) {
+			long vertexPtr = ptr + i * STRIDE;
+			putPosition(vertexPtr, src.x(i), src.y(i), src.z(i));
+			putNormal(vertexPtr, src.normalX(i), src.normalY(i), src.normalZ(i));
+			MemoryUtil.memPutByte(vertexPtr + 8, RenderMath.unb(src.r(i)));
+			MemoryUtil.memPutByte(vertexPtr + 9, RenderMath.unb(src.g(i)));
+			MemoryUtil.memPutByte(vertexPtr + 10, RenderMath.unb(src.b(i)));
+			MemoryUtil.memPutByte(vertexPtr + 11, RenderMath.unb(src.a(i)));
+			putTexCoord(vertexPtr, src.u(i), src.v(i));
+		}
+
+		pendingNormalIndex = -1;
+	}
+
+	@Override
+	public float x(int index) {
+		return dequantize(MemoryUtil.memGetShort(ptr + index * STRIDE), bounds.minX, bounds.extentX);
+	}
+
+	@Override
+	public float y(int index) {
+		return dequantize(MemoryUtil.memGetShort(ptr + index * STRIDE + 2), bounds.minY, bounds.extentY);
+	}
+
+	@Override
+	public float z(int index) {
+		return dequantize(MemoryUtil.memGetShort(ptr + index * STRIDE + 4), bounds.minZ, bounds.extentZ);
+	}
+
+	@Override
+	public float normalX(int index) {
+		return decodeNormal(index, 0);
+	}
+
+	@Override
+	public float normalY(int index) {
+		return decodeNormal(index, 1);
+	}
+
+	@Override
+	public float normalZ(int index) {
+		return decodeNormal(index, 2);
+	}
+
+	@Override
+	public float r(int index) {
+		return RenderMath.uf(MemoryUtil.memGetByte(ptr + index * STRIDE + 8));
+	}
+
+	@Override
+	public float g(int index) {
+		return RenderMath.uf(MemoryUtil.memGetByte(ptr + index * STRIDE + 9));
+	}
+
+	@Override
+	public float b(int index) {
+		return RenderMath.uf(MemoryUtil.memGetByte(ptr + index * STRIDE + 10));
+	}
+
+	@Override
+	public float a(int index) {
+		return RenderMath.uf(MemoryUtil.memGetByte(ptr + index * STRIDE + 11));
+	}
+
+	@Override
+	public float u(int index) {
+		return dequantize(MemoryUtil.memGetShort(ptr + index * STRIDE + 12), bounds.minU, bounds.extentU);
+	}
+
+	@Override
+	public float v(int index) {
+		return dequantize(MemoryUtil.memGetShort(ptr + index * STRIDE + 14), bounds.minV, bounds.extentV);
+	}
+
+	@Override
+	public int light(int index) {
+		// Light comes from the instance.
+		return 0;
+	}
+
+	@Override
+	public void x(int index, float x) {
+		MemoryUtil.memPutShort(ptr + index * STRIDE, quantize(x, bounds.minX, bounds.extentX));
+	}
+
+	@Override
+	public void y(int index, float y) {
+		MemoryUtil.memPutShort(ptr + index * STRIDE + 2, quantize(y, bounds.minY, bounds.extentY));
+	}
+
+	@Override
+	public void z(int index, float z) {
+		MemoryUtil.memPutShort(ptr + index * STRIDE + 4, quantize(z, bounds.minZ, bounds.extentZ));
+	}
+
+	@Override
+	public void normalX(int index, float normalX) {
+		loadPendingNormal(index);
+		pendingNormalX = normalX;
+		putNormal(ptr + index * STRIDE, pendingNormalX, pendingNormalY, pendingNormalZ);
+	}
+
+	@Override
+	public void normalY(int index, float normalY) {
+		loadPendingNormal(index);
+		pendingNormalY = normalY;
+		putNormal(ptr + index * STRIDE, pendingNormalX, pendingNormalY, pendingNormalZ);
+	}
+
+	@Override
+	public void normalZ(int index, float normalZ) {
+		loadPendingNormal(index);
+		pendingNormalZ = normalZ;
+		putNormal(ptr + index * STRIDE, pendingNormalX, pendingNormalY, pendingNormalZ);
+	}
+
+	@Override
+	public void r(int index, float r) {
+		MemoryUtil.memPutByte(ptr + index * STRIDE + 8, RenderMath.unb(r));
+	}
+
+	@Override
+	public void g(int index, float g) {
+		MemoryUtil.memPutByte(ptr + index * STRIDE + 9, RenderMath.unb(g));
+	}
+
+	@Override
+	public void b(int index, float b) {
+		MemoryUtil.memPutByte(ptr + index * STRIDE + 10, RenderMath.unb(b));
+	}
+
+	@Override
+	public void a(int index, float a) {
+		MemoryUtil.memPutByte(ptr + index * STRIDE + 11, RenderMath.unb(a));
+	}
+
+	@Override
+	public void u(int index, float u) {
+		MemoryUtil.memPutShort(ptr + index * STRIDE + 12, quantize(u, bounds.minU, bounds.extentU));
+	}
+
+	@Override
+	public void v(int index, float v) {
+		MemoryUtil.memPutShort(ptr + index * STRIDE + 14, quantize(v, bounds.minV, bounds.extentV));
+	}
+
+	private void loadPendingNormal(int index) {
+		if (pendingNormalIndex == index) {
+			return;
+		}
+
+		pendingNormalIndex = index;
+		pendingNormalX = normalX(index);
+		pendingNormalY = normalY(index);
+		pendingNormalZ = normalZ(index);
+	}
+
+	private void putPosition(long vertexPtr, float x, float y, float z) {
+		MemoryUtil.memPutShort(vertexPtr, quantize(x, bounds.minX, bounds.extentX));
+		MemoryUtil.memPutShort(vertexPtr + 2, quantize(y, bounds.minY, bounds.extentY));
+		MemoryUtil.memPutShort(vertexPtr + 4, quantize(z, bounds.minZ, bounds.extentZ));
+	}
+
+	private void putTexCoord(long vertexPtr, float u, float v) {
+		MemoryUtil.memPutShort(vertexPtr + 12, quantize(u, bounds.minU, bounds.extentU));
+		MemoryUtil.memPutShort(vertexPtr + 14, quantize(v, bounds.minV, bounds.extentV));
+	}
+
+	/**
+	 * Octahedral encode a normal into two signed bytes.
+	 * Must stay in sync with {@code _flw_decodeOctahedral} in {@code vertex_input_quantized.vert}.
+	 */
+	private static void putNormal(long vertexPtr, float x, float y, float z) {
+		float l1 = Math.abs(x) + Math.abs(y) + Math.abs(z);
+		float px = 0;
+		float py = 0;
+
+		if (l1 > 0) {
+			px = x / l1;
+			py = y / l1;
+
+			if (z < 0) {
+				float foldedX = (1 - Math.abs(py)) * signNotZero(px);
+				float foldedY = (1 - Math.abs(px)) * signNotZero(py);
+				px = foldedX;
+				py = foldedY;
+			}
+		}
+
+		MemoryUtil.memPutByte(vertexPtr + 6, (byte) Math.round(px * 127));
+		MemoryUtil.memPutByte(vertexPtr + 7, (byte) Math.round(py * 127));
+	}
+
+	private float decodeNormal(int index, int component) {
+		long vertexPtr = ptr + index * STRIDE;
+		float x = Math.max(RenderMath.f(MemoryUtil.memGetByte(vertexPtr + 6)), -1);
+		float y = Math.max(RenderMath.f(MemoryUtil.memGetByte(vertexPtr + 7)), -1);
+		float z = 1 - Math.abs(x) - Math.abs(y);
+		float t = Math.max(-z, 0);
+		x += x >= 0 ? -t : t;
+		y += y >= 0 ? -t : t;
+
+		float invLength = 1 / (float) Math.sqrt(x * x + y * y + z * z);
+
+		return switch (component) {
+			case 0 -> x * invLength;
+			case 1 -> y * invLength;
+			default -> z * invLength;
+		};
+	}
+
+	private static float signNotZero(float f) {
+		return f >= 0 ? 1 : -1;
+	}
+
+	private static short quantize(float value, float min, float extent) {
+		if (extent <= 0) {
+			return 0;
+		}
+
+		int quantized = Math.round((value - min) / extent * MAX_UNSIGNED_SHORT);
+		return (short) Math.max(0, Math.min(quantized, 0xFFFF));
+	}
+
+	private static float dequantize(short quantized, float min, float extent) {
+		return min + Short.toUnsignedInt(quantized) / MAX_UNSIGNED_SHORT * extent;
+	}
+
+	/**
+	 * The axis aligned box that positions and texture coordinates of a mesh are quantized within.
+	 */
+	public record Bounds(float minX, float minY, float minZ, float extentX, float extentY, float extentZ, float minU,
+						 float minV, float extentU, float extentV) {
+		public static final Bounds EMPTY = new Bounds(0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+		/**
+		 * The size of the bounds as written by {@link #write}.
+		 */
+		public static final long BYTE_SIZE = 10 * Float.BYTES;
+
+		public static Bounds of(VertexList vertices) {
+			int count = vertices.vertexCount();
+
+			if (count == 0) {
+				return EMPTY;
+			}
+
+			float minX = Float.POSITIVE_INFINITY;
+			float minY = Float.POSITIVE_INFINITY;
+			float minZ = Float.POSITIVE_INFINITY;
+			float minU = Float.POSITIVE_INFINITY;
+			float minV = Float.POSITIVE_INFINITY;
+			float maxX = Float.NEGATIVE_INFINITY;
+			float maxY = Float.NEGATIVE_INFINITY;
+			float maxZ = Float.NEGATIVE_INFINITY;
+			float maxU = Float.NEGATIVE_INFINITY;
+			float maxV = Float.NEGATIVE_INFINITY;
+
+			for (int i = 0; i < count; i++) {
+				float x = vertices.x(i);
+				float y = vertices.y(i);
+				float z = vertices.z(i);
+				float u = vertices.u(i);
+				float v = vertices.v(i);
+				minX = Math.min(minX, x);
+				minY = Math.min(minY, y);
+				minZ = Math.min(minZ, z);
+				minU = Math.min(minU, u);
+				minV = Math.min(minV, v);
+				maxX = Math.max(maxX, x);
+				maxY = Math.max(maxY, y);
+				maxZ = Math.max(maxZ, z);
+				maxU = Math.max(maxU, u);
+				maxV = Math.max(maxV, v);
+			}
+
+			return new Bounds(minX, minY, minZ, maxX - minX, maxY - minY, maxZ - minZ, minU, minV, maxU - minU, maxV - minV);
+		}
+
+		/**
+		 * Write the bounds as 10 floats: position min, position extent, texture coordinate min, texture coordinate extent.
+		 */
+		public void write(long ptr) {
+			MemoryUtil.memPutFloat(ptr, minX);
+			MemoryUtil.memPutFloat(ptr + 4, minY);
+			MemoryUtil.memPutFloat(ptr + 8, minZ);
+			MemoryUtil.memPutFloat(ptr + 12, extentX);
+			MemoryUtil.memPutFloat(ptr + 16, extentY);
+			MemoryUtil.memPutFloat(ptr + 20, extentZ);
+			MemoryUtil.memPutFloat(ptr + 24, minU);
+			MemoryUtil.memPutFloat(ptr + 28, minV);
+			MemoryUtil.memPutFloat(ptr + 32, extentU);
+			MemoryUtil.memPutFloat(ptr + 36, extentV);
+		}
+	}
+}
@@ -92,12 +92,13 @@ public abstract class AbstractBlockEntityVisual<T extends BlockEntity> extends A
 	 * Limits which frames this visual is updated on based on its distance from the camera.
 	 * <p>
 	 * You may optionally do this check to avoid updating your visual every frame when it is far away.
+	 * All visuals in the same section share an update phase, so whole sections can be skipped at once.
 	 *
 	 * @param context The current frame context.
 	 * @return {@code true} if this visual shouldn't be updated this frame based on its distance from the camera.
 	 */
 	public boolean doDistanceLimitThisFrame(DynamicVisual.Context context) {
 		return !context.limiter()
-				.shouldUpdate(pos.distToCenterSqr(context.camera().getPosition()));
+				.shouldUpdate(pos.distToCenterSqr(context.camera().getPosition()), Long.hashCode(SectionPos.asLong(pos)));
 	}
 }
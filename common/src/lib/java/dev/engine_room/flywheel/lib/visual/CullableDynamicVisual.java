@@ -0,0 +1,27 @@
+package dev.engine_room.flywheel.lib.visual;
+
+import org.joml.FrustumIntersection;
+
+import dev.engine_room.flywheel.api.visual.DistanceUpdateLimiter;
+import net.minecraft.core.BlockPos;
+
+/**
+ * A {@link SimpleDynamicVisual} at a fixed block position that has nothing to do in frames where it is
+ * outside the frustum or its {@link DistanceUpdateLimiter distance limit} skips it.
+ * <br>
+ * Visual storage groups these by section and skips whole sections that are culled, so {@link #beginFrame}
+ * is not called at all for most visuals that aren't on screen. Sections are only culled conservatively,
+ * so {@link #beginFrame} must still do its own checks, e.g. with
+ * {@link AbstractBlockEntityVisual#doDistanceLimitThisFrame} and {@link AbstractBlockEntityVisual#isVisible}.
+ * <br>
+ * Sections are tested against the {@link FrustumIntersection} with a margin of one block,
+ * so the visual must not be visible further than that from its block. Sections are tested against the
+ * limiter with a phase of {@code Long.hashCode(SectionPos.asLong(cullingPosition()))}, so distance checks
+ * must use that phase too.
+ */
+public interface CullableDynamicVisual extends SimpleDynamicVisual {
+	/**
+	 * @return The position of the block this visual is at, in world space. Must never change.
+	 */
+	BlockPos cullingPosition();
+}
@@ -0,0 +1,10 @@
+#include "flywheel:util/matrix.glsl"
+
+void flw_instanceVertex(in FlwInstance i) {
+    flw_vertexPos = vec4(i.pose * flw_vertexPos, 1.0);
+    flw_vertexNormal = normalize(affineToNormal(i.pose) * flw_vertexNormal);
+    flw_vertexColor *= i.color;
+    flw_vertexOverlay = i.overlay;
+    // Some drivers have a bug where uint over float division is invalid, so use an explicit cast.
+    flw_vertexLight = vec2(i.light) / 256.0;
+}
@@ -42,6 +42,22 @@ mat3 modelToNormal(mat4 mat) {
     return m;
 }
 
+/*
+ * Derive the normal matrix of an affine transform from the cofactors of its linear part.
+ * The cofactor matrix is the inverse transpose scaled by the determinant, so it handles non-uniform scale,
+ * but the result must be normalized after transforming a normal.
+ */
+mat3 affineToNormal(mat4x3 mat) {
+    vec3 c0 = mat[0];
+    vec3 c1 = mat[1];
+    vec3 c2 = mat[2];
+
+    mat3 cofactor = mat3(cross(c1, c2), cross(c2, c0), cross(c0, c1));
+
+    // Keep mirrored transforms from flipping normals inside out.
+    return dot(c0, cofactor[0]) < 0. ? -cofactor : cofactor;
+}
+
 void transformBoundingSphere(in mat4 mat, inout vec3 center, inout float radius) {
     center = (mat * vec4(center, 1.)).xyz;
 
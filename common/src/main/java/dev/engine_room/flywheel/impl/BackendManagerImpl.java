@@ -7,6 +7,7 @@ import dev.engine_room.flywheel.api.backend.Backend;
 import dev.engine_room.flywheel.backend.Backends;
 import dev.engine_room.flywheel.impl.visualization.VisualizationManagerImpl;
 import dev.engine_room.flywheel.lib.backend.SimpleBackend;
+import dev.engine_room.flywheel.lib.model.ModelReloads;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.resources.ResourceLocation;
 
@@ -66,8 +67,14 @@ public final class BackendManagerImpl {
 			return;
 		}
 
+		var previous = backend;
 		chooseBackend();
-		VisualizationManagerImpl.resetAll();
+
+		if (ModelReloads.RELOAD_IN_PLACE && backend == previous) {
+			VisualizationManagerImpl.reloadAll();
+		} else {
+			VisualizationManagerImpl.resetAll();
+		}
 	}
 
 	public static void onReloadLevelRenderer(@Nullable ClientLevel level) {
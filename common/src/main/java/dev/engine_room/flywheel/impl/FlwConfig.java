@@ -9,5 +9,13 @@ public interface FlwConfig {
 
 	boolean limitUpdates();
 
+	/**
+	 * Whether to adjust update limiting to keep frame visual updates close to {@link #limitUpdatesTargetMillis}.
+	 * Only used if {@link #limitUpdates} is on.
+	 */
+	boolean adaptiveLimitUpdates();
+
+	double limitUpdatesTargetMillis();
+
 	int workerThreads();
 }
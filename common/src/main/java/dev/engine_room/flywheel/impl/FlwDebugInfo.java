@@ -1,14 +1,24 @@
 package dev.engine_room.flywheel.impl;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
-import dev.engine_room.flywheel.api.visualization.VisualizationManager;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
+import dev.engine_room.flywheel.backend.metrics.Metric;
+import dev.engine_room.flywheel.impl.visualization.VisualizationManagerImpl;
+import dev.engine_room.flywheel.impl.visualization.manager.VisualManagerImpl;
 import dev.engine_room.flywheel.lib.memory.FlwMemoryTracker;
 import dev.engine_room.flywheel.lib.util.StringUtil;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.Vec3i;
 
 public final class FlwDebugInfo {
+	private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
 	private FlwDebugInfo() {
 	}
 
@@ -22,15 +32,58 @@ public final class FlwDebugInfo {
 		systemInfo.add("Backend: " + BackendManagerImpl.getBackendString());
 		systemInfo.add("Update limiting: " + (FlwConfig.INSTANCE.limitUpdates() ? "on" : "off"));
 
-		VisualizationManager manager = VisualizationManager.get(minecraft.level);
+		VisualizationManagerImpl manager = VisualizationManagerImpl.get(minecraft.level);
 		if (manager != null) {
 			systemInfo.add("B: " + manager.getBlockEntities().getVisualCount()
 					+ ", E: " + manager.getEntities().getVisualCount()
 					+ ", F: " + manager.getEffects().getVisualCount());
+			if (VisualManagerImpl.CREATION_BUDGET_NANOS > 0) {
+				systemInfo.add("Pending: B: " + manager.getBlockEntities().pendingCreations()
+						+ ", E: " + manager.getEntities().pendingCreations()
+						+ ", F: " + manager.getEffects().pendingCreations()
+						+ ", over budget: " + (manager.getBlockEntities().creationBudgetOverruns() + manager.getEntities().creationBudgetOverruns() + manager.getEffects().creationBudgetOverruns()));
+			}
 			Vec3i renderOrigin = manager.getRenderOrigin();
 			systemInfo.add("Origin: " + renderOrigin.getX() + ", " + renderOrigin.getY() + ", " + renderOrigin.getZ());
+
+			systemInfo.add("Frame p50/p95: Q: " + percentiles(FlwMetrics.FRAME_PROCESS_QUEUE)
+					+ ", D: " + percentiles(FlwMetrics.FRAME_DYNAMIC_VISUALS)
+					+ ", L: " + percentiles(FlwMetrics.FRAME_LIGHT_UPDATES)
+					+ ", F: " + percentiles(FlwMetrics.FRAME_ENGINE_FLUSH));
+			systemInfo.add("Tasks p50/p95: wait: " + percentiles(FlwMetrics.TASK_QUEUE_WAIT)
+					+ ", run: " + percentiles(FlwMetrics.TASK_RUN));
+			systemInfo.add("Uploads p50/p95: staging: " + percentiles(FlwMetrics.STAGING_BYTES)
+					+ ", dirty: " + percentiles(FlwMetrics.DIRTY_INSTANCES_TOTAL));
 		}
 
 		systemInfo.add("Memory Usage: CPU: " + StringUtil.formatBytes(FlwMemoryTracker.getCPUMemory()) + ", GPU: " + StringUtil.formatBytes(FlwMemoryTracker.getGPUMemory()));
+		systemInfo.add("Allocations: CPU: " + FlwMemoryTracker.getCPUAllocations() + ", GPU: " + FlwMemoryTracker.getGPUAllocations());
+
+		long deduplicated = FlwMemoryTracker.getDeduplicatedGPUMemory();
+		if (deduplicated > 0) {
+			systemInfo.add("Deduplicated: GPU: " + StringUtil.formatBytes(deduplicated));
+		}
+	}
+
+	private static String percentiles(Metric metric) {
+		var snapshot = metric.snapshot();
+		var unit = metric.unit();
+		return unit.format(snapshot.percentile(0.5)) + "/" + unit.format(snapshot.percentile(0.95));
+	}
+
+	/**
+	 * Write every metric to a new file in {@code flywheel_metrics} in the game directory.
+	 *
+	 * @return The file written to.
+	 */
+	public static Path dumpMetrics(FlwMetrics.Format format) throws IOException {
+		Path dir = Minecraft.getInstance().gameDirectory.toPath()
+				.resolve("flywheel_metrics");
+		Files.createDirectories(dir);
+
+		Path file = dir.resolve("metrics-" + LocalDateTime.now()
+				.format(FILE_TIME_FORMAT) + "." + format.extension);
+		Files.writeString(file, FlwMetrics.write(format));
+		return file;
 	}
 }
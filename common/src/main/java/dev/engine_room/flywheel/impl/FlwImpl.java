@@ -7,6 +7,7 @@ import dev.engine_room.flywheel.api.Flywheel;
 import dev.engine_room.flywheel.backend.FlwBackend;
 import dev.engine_room.flywheel.impl.registry.IdRegistryImpl;
 import dev.engine_room.flywheel.impl.registry.RegistryImpl;
+import dev.engine_room.flywheel.impl.task.FlwTaskExecutor;
 import dev.engine_room.flywheel.lib.instance.InstanceTypes;
 import dev.engine_room.flywheel.lib.material.CutoutShaders;
 import dev.engine_room.flywheel.lib.material.FogShaders;
@@ -33,7 +34,7 @@ public final class FlwImpl {
 		StandardMaterialShaders.init();
 
 		// backend
-		FlwBackend.init();
+		FlwBackend.init(FlwTaskExecutor::get);
 
 		// vanilla
 		VanillaVisuals.init();
@@ -10,6 +10,11 @@ import dev.engine_room.flywheel.impl.FlwConfig;
 import net.minecraft.util.Mth;
 
 public final class FlwTaskExecutor {
+	/**
+	 * Use {@link WorkStealingTaskExecutor} instead of {@link ParallelTaskExecutor}.
+	 */
+	public static final boolean WORK_STEALING = System.getProperty("flw.workStealing") != null;
+
 	private static final Initializer INITIALIZER = new Initializer();
 
 	private FlwTaskExecutor() {
@@ -50,6 +55,12 @@ public final class FlwTaskExecutor {
 				threadCount = Mth.clamp(threadCount, 1, getMaxThreadCount());
 			}
 
+			if (WORK_STEALING) {
+				WorkStealingTaskExecutor executor = new WorkStealingTaskExecutor("Flywheel", threadCount, RenderSystem::isOnRenderThread);
+				executor.startWorkers();
+				return executor;
+			}
+
 			ParallelTaskExecutor executor = new ParallelTaskExecutor("Flywheel", threadCount, RenderSystem::isOnRenderThread);
 			executor.startWorkers();
 			return executor;
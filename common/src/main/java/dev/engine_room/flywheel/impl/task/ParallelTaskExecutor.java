@@ -10,6 +10,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BooleanSupplier;
 
 import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import dev.engine_room.flywheel.impl.FlwImpl;
 import net.minecraft.util.Mth;
 
@@ -104,6 +105,7 @@ public class ParallelTaskExecutor implements TaskExecutor {
 			throw new IllegalStateException("Executor is stopped");
 		}
 
+		task = QueuedTask.sample(task);
 		waitGroup.add();
 		taskQueue.add(task);
 
@@ -224,11 +226,14 @@ public class ParallelTaskExecutor implements TaskExecutor {
 	}
 
 	private void processTask(Runnable task) {
+		long start = System.nanoTime();
+
 		try {
 			task.run();
 		} catch (Exception e) {
 			FlwImpl.LOGGER.error("Error running task", e);
 		} finally {
+			FlwMetrics.TASK_RUN.record(System.nanoTime() - start);
 			waitGroup.done();
 		}
 	}
@@ -0,0 +1,30 @@
+package dev.engine_room.flywheel.impl.task;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
+
+/**
+ * Remembers when a task was submitted so its queue wait can be recorded once a thread picks it up.
+ */
+record QueuedTask(Runnable task, long enqueueNanos) implements Runnable {
+	/**
+	 * Only one in this many tasks is wrapped. Wrapping all of them would add an allocation to every submission.
+	 */
+	private static final int SAMPLE_INTERVAL = 16;
+
+	static Runnable sample(Runnable task) {
+		if (ThreadLocalRandom.current()
+				.nextInt(SAMPLE_INTERVAL) != 0) {
+			return task;
+		}
+
+		return new QueuedTask(task, System.nanoTime());
+	}
+
+	@Override
+	public void run() {
+		FlwMetrics.TASK_QUEUE_WAIT.record(System.nanoTime() - enqueueNanos);
+		task.run();
+	}
+}
@@ -0,0 +1,132 @@
+package dev.engine_room.flywheel.impl.task;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A Chase-Lev work-stealing deque.
+ * <br>
+ * Exactly one thread, the owner, may call {@link #push} and {@link #pop}. The owner works LIFO off the bottom of
+ * the deque to keep recently pushed tasks hot in its cache. Any thread may call {@link #steal}, which takes tasks
+ * FIFO off the top so thieves tend to grab the oldest, and generally largest, units of work.
+ */
+// https://www.dre.vanderbilt.edu/~schmidt/PDF/work-stealing-dequeue.pdf
+class WorkStealingDeque {
+	private static final int INITIAL_LOG2_CAPACITY = 8;
+
+	/**
+	 * The index of the next task to steal. Only ever incremented, and only through CAS.
+	 */
+	private final AtomicLong top = new AtomicLong(0);
+	/**
+	 * The index one past the last pushed task. Only written by the owner.
+	 */
+	private volatile long bottom = 0;
+	/**
+	 * Only ever replaced by the owner. Old arrays are never cleared so slow thieves still read valid tasks.
+	 */
+	private volatile AtomicReferenceArray<Runnable> tasks = new AtomicReferenceArray<>(1 << INITIAL_LOG2_CAPACITY);
+
+	/**
+	 * Push a task onto the bottom of the deque. Must only be called by the owner.
+	 */
+	public void push(Runnable task) {
+		long b = bottom;
+		long t = top.get();
+		var tasks = this.tasks;
+
+		if (b - t >= tasks.length()) {
+			tasks = grow(tasks, t, b);
+		}
+
+		tasks.set(index(tasks, b), task);
+		// Volatile write publishes the task to thieves.
+		bottom = b + 1;
+	}
+
+	/**
+	 * Pop the most recently pushed task. Must only be called by the owner.
+	 *
+	 * @return The task, or {@code null} if the deque is empty or the last task was stolen from under us.
+	 */
+	@Nullable
+	public Runnable pop() {
+		long b = bottom - 1;
+		var tasks = this.tasks;
+		// Reserve the bottom slot before looking at top so a concurrent thief cannot also claim it.
+		bottom = b;
+		long t = top.get();
+
+		if (t > b) {
+			// Empty, restore bottom.
+			bottom = b + 1;
+			return null;
+		}
+
+		Runnable task = tasks.get(index(tasks, b));
+
+		if (t == b) {
+			// Last task, race thieves for it.
+			if (!top.compareAndSet(t, t + 1)) {
+				task = null;
+			}
+			bottom = b + 1;
+		}
+
+		return task;
+	}
+
+	/**
+	 * Steal the oldest task. May be called from any thread.
+	 *
+	 * @return The task, or {@code null} if the deque is empty or we lost a race with another thread.
+	 */
+	@Nullable
+	public Runnable steal() {
+		long t = top.get();
+		long b = bottom;
+
+		if (t >= b) {
+			return null;
+		}
+
+		var tasks = this.tasks;
+		Runnable task = tasks.get(index(tasks, t));
+
+		if (!top.compareAndSet(t, t + 1)) {
+			return null;
+		}
+
+		return task;
+	}
+
+	public boolean isEmpty() {
+		return top.get() >= bottom;
+	}
+
+	/**
+	 * Drop all tasks. Must only be called when no other thread is accessing the deque.
+	 */
+	public void clear() {
+		top.set(0);
+		bottom = 0;
+		tasks = new AtomicReferenceArray<>(1 << INITIAL_LOG2_CAPACITY);
+	}
+
+	private AtomicReferenceArray<Runnable> grow(AtomicReferenceArray<Runnable> tasks, long t, long b) {
+		var out = new AtomicReferenceArray<Runnable>(tasks.length() << 1);
+
+		for (long i = t; i < b; i++) {
+			out.set(index(out, i), tasks.get(index(tasks, i)));
+		}
+
+		this.tasks = out;
+		return out;
+	}
+
+	private static int index(AtomicReferenceArray<?> tasks, long i) {
+		return (int) (i & (tasks.length() - 1));
+	}
+}
@@ -0,0 +1,407 @@
+package dev.engine_room.flywheel.impl.task;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.jetbrains.annotations.Nullable;
+
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
+import dev.engine_room.flywheel.impl.FlwImpl;
+import net.minecraft.util.Mth;
+
+/**
+ * A task executor where each worker owns a {@link WorkStealingDeque}.
+ * <br>
+ * Tasks submitted from a worker land in that worker's deque and are popped LIFO by the same worker.
+ * Idle workers steal FIFO from a random victim. The main thread owns a deque of its own so that plans
+ * kicked off from the render thread don't contend on a shared queue either. Tasks submitted from any
+ * other thread go through a shared injection queue.
+ * <br>
+ * Unlike {@link ParallelTaskExecutor}, idle workers are parked individually, and each submission wakes
+ * at most one of them.
+ */
+public class WorkStealingTaskExecutor implements TaskExecutor {
+	private final String name;
+	private final int threadCount;
+
+	private final BooleanSupplier mainThreadQuery;
+
+	/**
+	 * If set to false, the executor will shut down.
+	 */
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private final WorkerThread[] workers;
+	/**
+	 * One deque per worker, plus one for the main thread at the end.
+	 */
+	private final WorkStealingDeque[] deques;
+	private final WorkStealingDeque mainThreadDeque;
+	private final Queue<Runnable> injectionQueue = new ConcurrentLinkedQueue<>();
+	private final Queue<Runnable> mainThreadQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger parkedWorkers = new AtomicInteger(0);
+	private final WaitGroup waitGroup = new WaitGroup();
+
+	public WorkStealingTaskExecutor(String name, int threadCount, BooleanSupplier mainThreadQuery) {
+		this.name = name;
+		this.mainThreadQuery = mainThreadQuery;
+		this.threadCount = threadCount;
+
+		workers = new WorkerThread[threadCount];
+		deques = new WorkStealingDeque[threadCount + 1];
+
+		for (int i = 0; i < deques.length; i++) {
+			deques[i] = new WorkStealingDeque();
+		}
+
+		mainThreadDeque = deques[threadCount];
+	}
+
+	@Override
+	public int threadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Spawns the worker threads. If the executor is already running, this method does nothing and exits.
+	 */
+	public void startWorkers() {
+		if (running.getAndSet(true)) {
+			return;
+		}
+
+		for (int i = 0; i < threadCount; i++) {
+			WorkerThread thread = new WorkerThread(name + " Task Executor #" + i, deques[i]);
+			thread.setPriority(Mth.clamp(Thread.NORM_PRIORITY - 2, Thread.MIN_PRIORITY, Thread.MAX_PRIORITY));
+			workers[i] = thread;
+		}
+
+		// Only start once every worker exists so notifyWorker never sees a null slot.
+		for (WorkerThread worker : workers) {
+			worker.start();
+		}
+
+		FlwImpl.LOGGER.info("Started {} work-stealing worker threads", threadCount);
+	}
+
+	public void stopWorkers() {
+		if (!running.getAndSet(false)) {
+			return;
+		}
+
+		FlwImpl.LOGGER.info("Stopping worker threads");
+
+		for (WorkerThread worker : workers) {
+			LockSupport.unpark(worker);
+		}
+
+		for (int i = 0; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				//
+			}
+			workers[i] = null;
+		}
+
+		for (WorkStealingDeque deque : deques) {
+			deque.clear();
+		}
+
+		injectionQueue.clear();
+		mainThreadQueue.clear();
+		parkedWorkers.set(0);
+		waitGroup._reset();
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		if (!running.get()) {
+			throw new IllegalStateException("Executor is stopped");
+		}
+
+		task = QueuedTask.sample(task);
+		waitGroup.add();
+
+		var deque = ownedDeque();
+		if (deque != null) {
+			deque.push(task);
+		} else {
+			injectionQueue.add(task);
+		}
+
+		notifyWorker();
+	}
+
+	@Override
+	public void scheduleForMainThread(Runnable runnable) {
+		if (!running.get()) {
+			throw new IllegalStateException("Executor is stopped");
+		}
+
+		mainThreadQueue.add(runnable);
+	}
+
+	@Override
+	public boolean isMainThread() {
+		return mainThreadQuery.getAsBoolean();
+	}
+
+	@Override
+	public void syncPoint() {
+		var deque = ownedDeque();
+		boolean onMainThread = deque == mainThreadDeque;
+		while (true) {
+			if (syncOneTask(deque, onMainThread)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public boolean syncUntil(BooleanSupplier cond) {
+		var deque = ownedDeque();
+		boolean onMainThread = deque == mainThreadDeque;
+		while (true) {
+			if (cond.getAsBoolean()) {
+				return true;
+			}
+
+			if (syncOneTask(deque, onMainThread)) {
+				return cond.getAsBoolean();
+			}
+		}
+	}
+
+	@Override
+	public boolean syncWhile(BooleanSupplier cond) {
+		var deque = ownedDeque();
+		boolean onMainThread = deque == mainThreadDeque;
+		while (true) {
+			if (!cond.getAsBoolean()) {
+				return true;
+			}
+
+			if (syncOneTask(deque, onMainThread)) {
+				return !cond.getAsBoolean();
+			}
+		}
+	}
+
+	/**
+	 * Attempt to process a single task.
+	 *
+	 * @param deque      The deque owned by the calling thread, if any.
+	 * @param mainThread Whether this is being called from the main thread or not.
+	 * @return {@code true} if the executor has nothing left to do.
+	 */
+	private boolean syncOneTask(@Nullable WorkStealingDeque deque, boolean mainThread) {
+		Runnable task;
+		if (mainThread && (task = mainThreadQueue.poll()) != null) {
+			// Prioritize main thread tasks.
+			processMainThreadTask(task);
+			return false;
+		} else if ((task = findTask(deque)) != null) {
+			processTask(task);
+			return false;
+		} else {
+			// Nothing right now, wait for the other threads to finish.
+			boolean done = waitGroup.await(10_000);
+			// If we timed-out tasks may have been added to the queue, so check again.
+			// if they didn't, we're done.
+			return done && (!mainThread || mainThreadQueue.isEmpty());
+		}
+	}
+
+	/**
+	 * @return The deque the current thread is allowed to push to and pop from, or {@code null}.
+	 */
+	@Nullable
+	private WorkStealingDeque ownedDeque() {
+		if (Thread.currentThread() instanceof WorkerThread worker && worker.executor() == this) {
+			return worker.deque;
+		}
+
+		if (isMainThread()) {
+			return mainThreadDeque;
+		}
+
+		return null;
+	}
+
+	@Nullable
+	private Runnable findTask(@Nullable WorkStealingDeque own) {
+		Runnable task;
+
+		if (own != null && (task = own.pop()) != null) {
+			return task;
+		}
+
+		if ((task = injectionQueue.poll()) != null) {
+			return task;
+		}
+
+		return steal(own);
+	}
+
+	@Nullable
+	private Runnable steal(@Nullable WorkStealingDeque own) {
+		int count = deques.length;
+		int start = ThreadLocalRandom.current()
+				.nextInt(count);
+
+		for (int i = 0; i < count; i++) {
+			var victim = deques[(start + i) % count];
+
+			if (victim == own) {
+				continue;
+			}
+
+			Runnable task = victim.steal();
+			if (task != null) {
+				return task;
+			}
+		}
+
+		return null;
+	}
+
+	private boolean hasQueuedTasks() {
+		if (!injectionQueue.isEmpty()) {
+			return true;
+		}
+
+		for (WorkStealingDeque deque : deques) {
+			if (!deque.isEmpty()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Wake up a single parked worker, if there is one.
+	 */
+	private void notifyWorker() {
+		if (parkedWorkers.get() == 0) {
+			return;
+		}
+
+		int start = ThreadLocalRandom.current()
+				.nextInt(threadCount);
+
+		for (int i = 0; i < threadCount; i++) {
+			var worker = workers[(start + i) % threadCount];
+
+			if (worker != null && worker.unpark()) {
+				return;
+			}
+		}
+	}
+
+	private void processTask(Runnable task) {
+		long start = System.nanoTime();
+
+		try {
+			task.run();
+		} catch (Exception e) {
+			FlwImpl.LOGGER.error("Error running task", e);
+		} finally {
+			FlwMetrics.TASK_RUN.record(System.nanoTime() - start);
+			waitGroup.done();
+		}
+	}
+
+	private void processMainThreadTask(Runnable task) {
+		try {
+			task.run();
+		} catch (Exception e) {
+			FlwImpl.LOGGER.error("Error running main thread task", e);
+		}
+	}
+
+	private class WorkerThread extends Thread {
+		private final WorkStealingDeque deque;
+		private final AtomicBoolean parked = new AtomicBoolean(false);
+
+		public WorkerThread(String name, WorkStealingDeque deque) {
+			super(name);
+			this.deque = deque;
+		}
+
+		private WorkStealingTaskExecutor executor() {
+			return WorkStealingTaskExecutor.this;
+		}
+
+		@Override
+		public void run() {
+			// Run until the executor shuts down
+			while (WorkStealingTaskExecutor.this.running.get()) {
+				Runnable task = findTask(deque);
+
+				if (task != null) {
+					// Propagate wakeups so a burst of submissions ramps up every worker, not just one.
+					if (parkedWorkers.get() > 0 && hasQueuedTasks()) {
+						notifyWorker();
+					}
+
+					processTask(task);
+				} else {
+					// Nothing to do, time to sleep.
+					spinThenPark();
+				}
+			}
+		}
+
+		/**
+		 * Called by other threads to wake this worker.
+		 *
+		 * @return {@code true} if this worker was parked and is now waking up.
+		 */
+		private boolean unpark() {
+			if (parked.get() && parked.compareAndSet(true, false)) {
+				parkedWorkers.decrementAndGet();
+				LockSupport.unpark(this);
+				return true;
+			}
+			return false;
+		}
+
+		private void spinThenPark() {
+			var waitStart = System.nanoTime();
+
+			// Spin for .01ms before waiting to reduce latency in narrow conditions.
+			while (System.nanoTime() - waitStart < 10_000) {
+				if (hasQueuedTasks()) {
+					// Nice! Exit without waiting.
+					return;
+				}
+
+				Thread.onSpinWait();
+			}
+
+			parked.set(true);
+			parkedWorkers.incrementAndGet();
+
+			// Check again now that we're visible as parked. Anyone who pushed before seeing us parked
+			// won't try to wake us, so we'd sleep through their task.
+			if (hasQueuedTasks() || !running.get()) {
+				if (parked.compareAndSet(true, false)) {
+					parkedWorkers.decrementAndGet();
+				}
+				return;
+			}
+
+			while (parked.get() && running.get()) {
+				LockSupport.park(this);
+			}
+		}
+	}
+}
@@ -1,11 +1,41 @@
 package dev.engine_room.flywheel.impl.visual;
 
 import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 
 import dev.engine_room.flywheel.api.visual.DistanceUpdateLimiter;
 import dev.engine_room.flywheel.api.visual.DynamicVisual;
 import net.minecraft.client.Camera;
+import net.minecraft.core.Vec3i;
 
+/**
+ * @param origin         The render origin {@code frustum} is relative to.
+ * @param viewProjection The camera relative view projection matrix, used to build frustums for other origins.
+ */
 public record DynamicVisualContextImpl(Camera camera, FrustumIntersection frustum, float partialTick,
-									   DistanceUpdateLimiter limiter) implements DynamicVisual.Context {
+									   DistanceUpdateLimiter limiter, Vec3i origin,
+									   Matrix4fc viewProjection) implements DynamicVisual.Context {
+	public static DynamicVisualContextImpl create(Camera camera, Matrix4fc viewProjection, Vec3i origin, float partialTick, DistanceUpdateLimiter limiter) {
+		return new DynamicVisualContextImpl(camera, frustum(camera, viewProjection, origin), partialTick, limiter, origin, viewProjection);
+	}
+
+	/**
+	 * @return A context whose frustum is relative to the given origin, for visuals created against it.
+	 */
+	public DynamicVisualContextImpl withOrigin(Vec3i origin) {
+		if (origin.equals(this.origin)) {
+			return this;
+		}
+
+		return new DynamicVisualContextImpl(camera, frustum(camera, viewProjection, origin), partialTick, limiter, origin, viewProjection);
+	}
+
+	private static FrustumIntersection frustum(Camera camera, Matrix4fc viewProjection, Vec3i origin) {
+		var cameraPos = camera.getPosition();
+
+		Matrix4f originViewProjection = new Matrix4f(viewProjection);
+		originViewProjection.translate((float) (origin.getX() - cameraPos.x), (float) (origin.getY() - cameraPos.y), (float) (origin.getZ() - cameraPos.z));
+		return new FrustumIntersection(originViewProjection);
+	}
 }
@@ -7,7 +7,6 @@ import java.util.function.Supplier;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
-import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
 
 import dev.engine_room.flywheel.api.backend.BackendManager;
@@ -20,10 +19,10 @@ import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.api.visual.DynamicVisual;
 import dev.engine_room.flywheel.api.visual.Effect;
 import dev.engine_room.flywheel.api.visual.TickableVisual;
-import dev.engine_room.flywheel.api.visualization.VisualManager;
 import dev.engine_room.flywheel.api.visualization.VisualizationContext;
 import dev.engine_room.flywheel.api.visualization.VisualizationLevel;
 import dev.engine_room.flywheel.api.visualization.VisualizationManager;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import dev.engine_room.flywheel.impl.FlwConfig;
 import dev.engine_room.flywheel.impl.extension.LevelExtension;
 import dev.engine_room.flywheel.impl.task.FlwTaskExecutor;
@@ -33,9 +32,12 @@ import dev.engine_room.flywheel.impl.visualization.manager.BlockEntityStorage;
 import dev.engine_room.flywheel.impl.visualization.manager.EffectStorage;
 import dev.engine_room.flywheel.impl.visualization.manager.EntityStorage;
 import dev.engine_room.flywheel.impl.visualization.manager.VisualManagerImpl;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.AdaptiveLimiter;
 import dev.engine_room.flywheel.impl.visualization.ratelimit.BandedPrimeLimiter;
 import dev.engine_room.flywheel.impl.visualization.ratelimit.DistanceUpdateLimiterImpl;
 import dev.engine_room.flywheel.impl.visualization.ratelimit.NonLimiter;
+import dev.engine_room.flywheel.lib.model.ModelReloads;
+import dev.engine_room.flywheel.lib.task.CompiledPlan;
 import dev.engine_room.flywheel.lib.task.Flag;
 import dev.engine_room.flywheel.lib.task.IfElsePlan;
 import dev.engine_room.flywheel.lib.task.MapContextPlan;
@@ -75,6 +77,11 @@ public class VisualizationManagerImpl implements VisualizationManager {
 
 	protected DistanceUpdateLimiterImpl frameLimiter;
 
+	/**
+	 * The {@link ModelReloads#generation} the visuals were last brought up to date with.
+	 */
+	private int modelGeneration = ModelReloads.generation();
+
 	private VisualizationManagerImpl(LevelAccessor level) {
 		frameLimiter = createUpdateLimiter();
 
@@ -90,23 +97,26 @@ public class VisualizationManagerImpl implements VisualizationManager {
 		entities = new VisualManagerImpl<>(entitiesStorage);
 		effects = new VisualManagerImpl<>(effectsStorage);
 
-		tickPlan = NestedPlan.of(blockEntities.tickPlan(), entities.tickPlan(), effects.tickPlan())
-				.then(RaisePlan.raise(tickFlag));
+		tickPlan = CompiledPlan.compile(NestedPlan.of(blockEntities.tickPlan(), entities.tickPlan(), effects.tickPlan())
+				.then(RaisePlan.raise(tickFlag)));
 
-		var recreate = SimplePlan.<RenderContext>of(context -> blockEntitiesStorage.recreateAll(context.partialTick()),
-				context -> entitiesStorage.recreateAll(context.partialTick()),
-				context -> effectsStorage.recreateAll(context.partialTick()));
+		// Only recreates the visuals the engine can't keep across the origin change, which may be all of them.
+		var rebase = SimplePlan.<RenderContext>of(context -> blockEntitiesStorage.rebase(context.partialTick(), engine::canKeepVisual),
+				context -> entitiesStorage.rebase(context.partialTick(), engine::canKeepVisual),
+				context -> effectsStorage.rebase(context.partialTick(), engine::canKeepVisual));
 
 		var update = MapContextPlan.map(this::createVisualFrameContext)
 				.to(NestedPlan.of(blockEntities.framePlan(), entities.framePlan(), effects.framePlan()));
 
-		framePlan = IfElsePlan.on((RenderContext ctx) -> engine.updateRenderOrigin(ctx.camera()))
-				.ifTrue(recreate)
-				.ifFalse(update)
+		framePlan = CompiledPlan.compile(IfElsePlan.on((RenderContext ctx) -> engine.updateRenderOrigin(ctx.camera()))
+				.ifTrue(rebase)
 				.plan()
+				.then(update)
+				.then(SimplePlan.<RenderContext>of(() -> frameLimiter.finishUpdates()))
 				.then(RaisePlan.raise(frameVisualsFlag))
 				.then(engine.createFramePlan())
-				.then(RaisePlan.raise(frameFlag));
+				.then(SimplePlan.<RenderContext>of(FlwMetrics::endFrame))
+				.then(RaisePlan.raise(frameFlag)));
 
 		if (level instanceof Level l) {
 			LevelExtension.getAllLoadedEntities(l)
@@ -114,30 +124,52 @@ public class VisualizationManagerImpl implements VisualizationManager {
 		}
 	}
 
+	/**
+	 * Contexts are bound to the render origin they were created under, so a new one is handed out
+	 * whenever the origin moves. Visuals created before that keep the context they were given.
+	 */
 	public static Supplier<VisualizationContext> provider(Engine engine, RenderStage stage) {
-		var context = engine.createVisualizationContext(stage);
-		return () -> context;
+		return new Supplier<>() {
+			private volatile VisualizationContext context = engine.createVisualizationContext(stage);
+
+			@Override
+			public VisualizationContext get() {
+				var out = context;
+
+				if (!out.renderOrigin()
+						.equals(engine.renderOrigin())) {
+					synchronized (this) {
+						out = context;
+
+						if (!out.renderOrigin()
+								.equals(engine.renderOrigin())) {
+							out = engine.createVisualizationContext(stage);
+							context = out;
+						}
+					}
+				}
+
+				return out;
+			}
+		};
 	}
 
 	private DynamicVisual.Context createVisualFrameContext(RenderContext ctx) {
-		Vec3i renderOrigin = engine.renderOrigin();
-		var cameraPos = ctx.camera()
-				.getPosition();
-
-		Matrix4f viewProjection = new Matrix4f(ctx.viewProjection());
-		viewProjection.translate((float) (renderOrigin.getX() - cameraPos.x), (float) (renderOrigin.getY() - cameraPos.y), (float) (renderOrigin.getZ() - cameraPos.z));
-		FrustumIntersection frustum = new FrustumIntersection(viewProjection);
-
-		return new DynamicVisualContextImpl(ctx.camera(), frustum, ctx.partialTick(), frameLimiter);
+		return DynamicVisualContextImpl.create(ctx.camera(), new Matrix4f(ctx.viewProjection()), engine.renderOrigin(), ctx.partialTick(), frameLimiter);
 	}
 
 	protected DistanceUpdateLimiterImpl createUpdateLimiter() {
-		if (FlwConfig.INSTANCE
+		if (!FlwConfig.INSTANCE
 				.limitUpdates()) {
-			return new BandedPrimeLimiter();
-		} else {
 			return new NonLimiter();
 		}
+
+		if (FlwConfig.INSTANCE
+				.adaptiveLimitUpdates()) {
+			return new AdaptiveLimiter((long) (FlwConfig.INSTANCE.limitUpdatesTargetMillis() * 1_000_000));
+		} else {
+			return new BandedPrimeLimiter();
+		}
 	}
 
 	@Contract("null -> false")
@@ -188,23 +220,41 @@ public class VisualizationManagerImpl implements VisualizationManager {
 		MANAGERS.reset();
 	}
 
+	/**
+	 * Keep every manager whose engine can pick up the reloaded resources, and reset the rest.
+	 * <br>
+	 * Visuals are brought up to date with the reloaded models at the start of the next frame,
+	 * once every model cache has been reloaded.
+	 */
+	public static void reloadAll() {
+		MANAGERS.removeIf(manager -> !manager.reloadResources());
+	}
+
+	private boolean reloadResources() {
+		// Make sure no plan is using the engine.
+		taskExecutor.syncUntil(frameFlag::isRaised);
+		taskExecutor.syncUntil(tickFlag::isRaised);
+
+		return engine.reloadResources();
+	}
+
 	@Override
 	public Vec3i getRenderOrigin() {
 		return engine.renderOrigin();
 	}
 
 	@Override
-	public VisualManager<BlockEntity> getBlockEntities() {
+	public VisualManagerImpl<BlockEntity, BlockEntityStorage> getBlockEntities() {
 		return blockEntities;
 	}
 
 	@Override
-	public VisualManager<Entity> getEntities() {
+	public VisualManagerImpl<Entity, EntityStorage> getEntities() {
 		return entities;
 	}
 
 	@Override
-	public VisualManager<Effect> getEffects() {
+	public VisualManagerImpl<Effect, EffectStorage> getEffects() {
 		return effects;
 	}
 
@@ -230,6 +280,19 @@ public class VisualizationManagerImpl implements VisualizationManager {
 		// Note we don't lower here because many frames may happen per tick.
 		taskExecutor.syncUntil(tickFlag::isRaised);
 
+		int generation = ModelReloads.generation();
+		if (generation != modelGeneration) {
+			// Nothing is running, so it's safe to touch the storages directly.
+			modelGeneration = generation;
+			float partialTick = context.partialTick();
+			blockEntities.getStorage()
+					.reloadModels(partialTick);
+			entities.getStorage()
+					.reloadModels(partialTick);
+			effects.getStorage()
+					.reloadModels(partialTick);
+		}
+
 		frameVisualsFlag.lower();
 		frameFlag.lower();
 
@@ -3,6 +3,7 @@ package dev.engine_room.flywheel.impl.visualization.manager;
 import java.util.function.Supplier;
 
 import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
 
 import dev.engine_room.flywheel.api.visual.BlockEntityVisual;
 import dev.engine_room.flywheel.api.visual.Visual;
@@ -60,12 +61,20 @@ public class BlockEntityStorage extends Storage<BlockEntity> {
 			return null;
 		}
 
-		var visual = visualizer.createVisual(visualizationContextSupplier.get(), obj);
+		return visualizer.createVisual(visualizationContextSupplier.get(), obj);
+	}
 
+	@Override
+	protected void visualAdded(BlockEntity obj, Visual visual) {
 		BlockPos blockPos = obj.getBlockPos();
-		posLookup.put(blockPos.asLong(), visual);
+		posLookup.put(blockPos.asLong(), (BlockEntityVisual<?>) visual);
+	}
 
-		return visual;
+	@Override
+	public boolean position(BlockEntity obj, Vector3d out) {
+		BlockPos pos = obj.getBlockPos();
+		out.set(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+		return true;
 	}
 
 	@Override
@@ -3,6 +3,7 @@ package dev.engine_room.flywheel.impl.visualization.manager;
 import java.util.function.Supplier;
 
 import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
 
 import dev.engine_room.flywheel.api.visual.Visual;
 import dev.engine_room.flywheel.api.visualization.VisualizationContext;
@@ -27,6 +28,12 @@ public class EntityStorage extends Storage<Entity> {
 		return visualizer.createVisual(visualizationContextSupplier.get(), obj);
 	}
 
+	@Override
+	public boolean position(Entity obj, Vector3d out) {
+		out.set(obj.getX(), obj.getY(0.5), obj.getZ());
+		return true;
+	}
+
 	@Override
 	public boolean willAccept(Entity entity) {
 		if (!entity.isAlive()) {
@@ -0,0 +1,206 @@
+package dev.engine_room.flywheel.impl.visualization.manager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+import org.joml.FrustumIntersection;
+import org.joml.Vector3d;
+
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.api.visual.Visual;
+import dev.engine_room.flywheel.impl.visualization.storage.Storage;
+import dev.engine_room.flywheel.impl.visualization.storage.Transaction;
+import dev.engine_room.flywheel.lib.task.Distribute;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+/**
+ * Holds objects waiting for a visual and creates as many of them as fit in a per-frame time budget.
+ * <br>
+ * Each frame the pending objects are sorted so that objects inside the frustum come first,
+ * and within that, objects closer to the camera come first. Objects without a position are always
+ * created before anything else. A burst of adds, e.g. from joining a world, is therefore spread
+ * over several frames instead of stalling one, and what the player is looking at shows up first.
+ */
+public class VisualCreationQueue<T> {
+	/**
+	 * Objects are treated as spheres with this radius when testing them against the frustum.
+	 */
+	private static final float VISIBILITY_RADIUS = 2;
+	/**
+	 * How many visuals each thread creates between budget checks when creating in parallel.
+	 */
+	private static final int PARALLEL_BATCH_PER_THREAD = 4;
+
+	private final long budgetNanos;
+	private final Set<T> pending = new ReferenceOpenHashSet<>();
+
+	private long overruns;
+	private long lastOverrunNanos;
+
+	public VisualCreationQueue(long budgetNanos) {
+		this.budgetNanos = budgetNanos;
+	}
+
+	/**
+	 * Apply a transaction, deferring creation for adds.
+	 * <br>
+	 * Removes and updates of an object that is still pending never reach the storage.
+	 * The object doesn't have a visual yet, and it will be up to date once it does.
+	 */
+	public void apply(Transaction<T> transaction, Storage<T> storage, float partialTick) {
+		T obj = transaction.obj();
+
+		switch (transaction.action()) {
+		case ADD -> {
+			if (!storage.contains(obj)) {
+				pending.add(obj);
+			}
+		}
+		case REMOVE -> {
+			if (!pending.remove(obj)) {
+				storage.remove(obj);
+			}
+		}
+		case UPDATE -> {
+			if (!pending.contains(obj)) {
+				storage.update(obj, partialTick);
+			}
+		}
+		}
+	}
+
+	/**
+	 * Create visuals for the highest priority pending objects until the budget runs out.
+	 * <br>
+	 * At least one visual is created per call so the queue always makes progress.
+	 *
+	 * @param camera       The camera position, in world space.
+	 * @param origin       The render origin. The frustum is relative to it.
+	 * @param onCompletion Called once all visuals for this frame were added to the storage.
+	 */
+	public void create(TaskExecutor executor, Storage<T> storage, Vector3d camera, Vector3d origin, FrustumIntersection frustum, float partialTick, boolean parallel, Runnable onCompletion) {
+		if (pending.isEmpty()) {
+			onCompletion.run();
+			return;
+		}
+
+		long start = System.nanoTime();
+		List<T> ordered = prioritize(storage, camera, origin, frustum);
+
+		if (parallel) {
+			createParallel(executor, storage, ordered, 0, start, partialTick, onCompletion);
+			return;
+		}
+
+		int i = 0;
+		do {
+			T obj = ordered.get(i++);
+			pending.remove(obj);
+
+			Visual visual = storage.createAndInit(obj, partialTick);
+			if (visual != null) {
+				storage.addCreated(obj, visual);
+			}
+		} while (i < ordered.size() && System.nanoTime() - start < budgetNanos);
+
+		finish(start);
+		onCompletion.run();
+	}
+
+	private void createParallel(TaskExecutor executor, Storage<T> storage, List<T> ordered, int from, long start, float partialTick, Runnable onCompletion) {
+		int to = Math.min(ordered.size(), from + Math.max(1, executor.threadCount()) * PARALLEL_BATCH_PER_THREAD);
+		List<Slot<T>> batch = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			batch.add(new Slot<>(ordered.get(i)));
+		}
+
+		Distribute.tasks(executor, partialTick, () -> {
+			for (var slot : batch) {
+				pending.remove(slot.obj);
+
+				if (slot.visual != null) {
+					storage.addCreated(slot.obj, slot.visual);
+				}
+			}
+
+			if (to < ordered.size() && System.nanoTime() - start < budgetNanos) {
+				createParallel(executor, storage, ordered, to, start, partialTick, onCompletion);
+			} else {
+				finish(start);
+				onCompletion.run();
+			}
+		}, batch, (slot, pt) -> slot.visual = storage.createAndInit(slot.obj, pt));
+	}
+
+	private List<T> prioritize(Storage<T> storage, Vector3d camera, Vector3d origin, FrustumIntersection frustum) {
+		List<Candidate<T>> candidates = new ArrayList<>(pending.size());
+		var pos = new Vector3d();
+
+		for (T obj : pending) {
+			if (!storage.position(obj, pos)) {
+				candidates.add(new Candidate<>(obj, true, -1));
+				continue;
+			}
+
+			boolean visible = frustum.testSphere((float) (pos.x - origin.x), (float) (pos.y - origin.y), (float) (pos.z - origin.z), VISIBILITY_RADIUS);
+			candidates.add(new Candidate<>(obj, visible, pos.distanceSquared(camera)));
+		}
+
+		candidates.sort(Candidate.PRIORITY);
+
+		List<T> out = new ArrayList<>(candidates.size());
+		for (var candidate : candidates) {
+			out.add(candidate.obj());
+		}
+		return out;
+	}
+
+	private void finish(long start) {
+		long elapsed = System.nanoTime() - start;
+
+		if (elapsed > budgetNanos) {
+			overruns++;
+			lastOverrunNanos = elapsed - budgetNanos;
+		}
+	}
+
+	/**
+	 * @return The number of objects still waiting for a visual.
+	 */
+	public int depth() {
+		return pending.size();
+	}
+
+	/**
+	 * @return The number of frames that spent more than the budget creating visuals.
+	 */
+	public long overruns() {
+		return overruns;
+	}
+
+	/**
+	 * @return By how much the most recent overrun exceeded the budget, in nanoseconds.
+	 */
+	public long lastOverrunNanos() {
+		return lastOverrunNanos;
+	}
+
+	private static final class Slot<T> {
+		private final T obj;
+		@Nullable
+		private Visual visual;
+
+		private Slot(T obj) {
+			this.obj = obj;
+		}
+	}
+
+	private record Candidate<T>(T obj, boolean visible, double distanceSquared) {
+		private static final Comparator<Candidate<?>> PRIORITY = Comparator.<Candidate<?>, Boolean>comparing(Candidate::visible)
+				.reversed()
+				.thenComparingDouble(Candidate::distanceSquared);
+	}
+}
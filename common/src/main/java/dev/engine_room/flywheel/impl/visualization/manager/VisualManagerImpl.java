@@ -1,23 +1,49 @@
 package dev.engine_room.flywheel.impl.visualization.manager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
+
 import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.api.visual.DynamicVisual;
 import dev.engine_room.flywheel.api.visual.TickableVisual;
+import dev.engine_room.flywheel.api.visual.Visual;
 import dev.engine_room.flywheel.api.visualization.VisualManager;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import dev.engine_room.flywheel.impl.visualization.storage.Storage;
 import dev.engine_room.flywheel.impl.visualization.storage.Transaction;
+import dev.engine_room.flywheel.lib.task.Distribute;
 import dev.engine_room.flywheel.lib.task.SimplePlan;
+import dev.engine_room.flywheel.lib.task.SimplyComposedPlan;
+import dev.engine_room.flywheel.lib.task.TimedPlan;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
 
 public class VisualManagerImpl<T, S extends Storage<T>> implements VisualManager<T> {
+	/**
+	 * Construct and init new visuals across all worker threads instead of one at a time.
+	 */
+	public static final boolean PARALLEL_VISUAL_CREATION = System.getProperty("flw.parallelVisualCreation") != null;
+	/**
+	 * If positive, adds are queued up and each frame spends about this many nanoseconds creating visuals,
+	 * closest and visible objects first.
+	 */
+	public static final long CREATION_BUDGET_NANOS = Long.getLong("flw.visualCreationBudgetNanos", 0);
+
 	private final Queue<Transaction<T>> queue = new ConcurrentLinkedQueue<>();
 
 	private final S storage;
+	@Nullable
+	private final VisualCreationQueue<T> creationQueue;
 
 	public VisualManagerImpl(S storage) {
 		this.storage = storage;
+		creationQueue = CREATION_BUDGET_NANOS > 0 ? new VisualCreationQueue<>(CREATION_BUDGET_NANOS) : null;
 	}
 
 	public S getStorage() {
@@ -60,17 +86,136 @@ public class VisualManagerImpl<T, S extends Storage<T>> implements VisualManager
 		var storage = getStorage();
 		Transaction<T> transaction;
 		while ((transaction = queue.poll()) != null) {
-			transaction.apply(storage, partialTick);
+			if (creationQueue != null) {
+				creationQueue.apply(transaction, storage, partialTick);
+			} else {
+				transaction.apply(storage, partialTick);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of objects waiting for the creation budget to create their visual.
+	 */
+	public int pendingCreations() {
+		return creationQueue == null ? 0 : creationQueue.depth();
+	}
+
+	/**
+	 * @return The number of frames that spent more than the creation budget creating visuals.
+	 */
+	public long creationBudgetOverruns() {
+		return creationQueue == null ? 0 : creationQueue.overruns();
+	}
+
+	/**
+	 * Apply all queued transactions in order, but create the visuals for adds in parallel up front.
+	 * <br>
+	 * Only the adds that would create a visual when applying the transactions one by one are run in parallel.
+	 * Afterwards the transactions are applied in order on a single thread, with those adds
+	 * just inserting the already created visual. This means removes and updates still see
+	 * the same state they would have if everything was serial.
+	 */
+	public void processQueueParallel(TaskExecutor executor, float partialTick, Runnable onCompletion) {
+		var storage = getStorage();
+		List<Transaction<T>> transactions = new ArrayList<>();
+		Transaction<T> transaction;
+		while ((transaction = queue.poll()) != null) {
+			transactions.add(transaction);
+		}
+
+		// Track whether each object would have a visual at each point in the queue.
+		Reference2BooleanMap<T> present = new Reference2BooleanOpenHashMap<>();
+		List<PendingCreation<T>> creations = new ArrayList<>();
+		for (int i = 0; i < transactions.size(); i++) {
+			var obj = transactions.get(i)
+					.obj();
+
+			switch (transactions.get(i)
+					.action()) {
+			case ADD -> {
+				boolean exists = present.containsKey(obj) ? present.getBoolean(obj) : storage.contains(obj);
+				if (!exists) {
+					creations.add(new PendingCreation<>(i, obj));
+					present.put(obj, true);
+				}
+			}
+			case REMOVE -> present.put(obj, false);
+			case UPDATE -> {
+			}
+			}
+		}
+
+		if (creations.isEmpty()) {
+			for (var t : transactions) {
+				t.apply(storage, partialTick);
+			}
+			onCompletion.run();
+			return;
 		}
+
+		Visual[] created = new Visual[transactions.size()];
+		boolean[] isCreation = new boolean[transactions.size()];
+		for (var creation : creations) {
+			isCreation[creation.index()] = true;
+		}
+
+		Distribute.tasks(executor, partialTick, () -> {
+			for (int i = 0; i < transactions.size(); i++) {
+				var t = transactions.get(i);
+
+				if (!isCreation[i]) {
+					t.apply(storage, partialTick);
+				} else if (created[i] != null) {
+					storage.addCreated(t.obj(), created[i]);
+				}
+				// A creation without a visual means the object couldn't be visualized, same as a serial add.
+			}
+			onCompletion.run();
+		}, creations, (creation, pt) -> created[creation.index()] = storage.createAndInit(creation.obj(), pt));
 	}
 
 	public Plan<DynamicVisual.Context> framePlan() {
-		return SimplePlan.<DynamicVisual.Context>of(context -> processQueue(context.partialTick()))
+		if (creationQueue != null) {
+			return TimedPlan.of(FlwMetrics.FRAME_PROCESS_QUEUE::add, (SimplyComposedPlan<DynamicVisual.Context>) this::processQueueBudgeted)
+					.then(storage.framePlan());
+		}
+
+		return TimedPlan.of(FlwMetrics.FRAME_PROCESS_QUEUE::add, queuePlan(DynamicVisual.Context::partialTick))
 				.then(storage.framePlan());
 	}
 
+	private void processQueueBudgeted(TaskExecutor executor, DynamicVisual.Context context, Runnable onCompletion) {
+		processQueue(context.partialTick());
+
+		var cameraPos = context.camera()
+				.getPosition();
+		var renderOrigin = storage.renderOrigin();
+		var camera = new Vector3d(cameraPos.x, cameraPos.y, cameraPos.z);
+		var origin = new Vector3d(renderOrigin.getX(), renderOrigin.getY(), renderOrigin.getZ());
+
+		creationQueue.create(executor, storage, camera, origin, context.frustum(), context.partialTick(), PARALLEL_VISUAL_CREATION, onCompletion);
+	}
+
 	public Plan<TickableVisual.Context> tickPlan() {
-		return SimplePlan.<TickableVisual.Context>of(context -> processQueue(1))
+		return this.<TickableVisual.Context>queuePlan($ -> 1)
 				.then(storage.tickPlan());
 	}
+
+	private <C> Plan<C> queuePlan(PartialTickGetter<C> partialTick) {
+		// Budgeted creation never creates visuals outside the frame plan, so it doesn't need the parallel path.
+		if (!PARALLEL_VISUAL_CREATION || creationQueue != null) {
+			return SimplePlan.<C>of(context -> processQueue(partialTick.get(context)));
+		}
+
+		return (SimplyComposedPlan<C>) (executor, context, onCompletion) -> processQueueParallel(executor, partialTick.get(context), onCompletion);
+	}
+
+	@FunctionalInterface
+	private interface PartialTickGetter<C> {
+		float get(C context);
+	}
+
+	private record PendingCreation<T>(int index, T obj) {
+	}
 }
@@ -0,0 +1,123 @@
+package dev.engine_room.flywheel.impl.visualization.ratelimit;
+
+/**
+ * A banded limiter that adjusts the width of its bands so that frame visual updates take about a target time.
+ * <br>
+ * When updates run over the target the bands narrow, so objects at a given distance fall in a band
+ * that updates less often. When updates are comfortably under the target the bands slowly widen again.
+ * <br>
+ * Objects in a band aren't all updated on the same frame. Each one is offset by its phase,
+ * so a band that updates every {@code n} frames updates about {@code 1/n} of its objects every frame.
+ */
+public class AdaptiveLimiter implements DistanceUpdateLimiterImpl {
+	private static final int[] DIVISOR_SEQUENCE = new int[]{1, 2, 3, 4, 6, 8, 12, 16, 24, 32};
+
+	/**
+	 * The band width to start with, in blocks squared. The same as {@link BandedPrimeLimiter}.
+	 */
+	public static final double INITIAL_BAND_WIDTH = 2048;
+	public static final double MIN_BAND_WIDTH = 256;
+	public static final double MAX_BAND_WIDTH = 65536;
+
+	/**
+	 * How much of each new measurement goes into the smoothed update time.
+	 */
+	private static final double SMOOTHING = 0.1;
+	private static final double NARROW_FACTOR = 0.9;
+	private static final double WIDEN_FACTOR = 1.02;
+	/**
+	 * Only widen below this fraction of the target, so the bands don't oscillate around it.
+	 */
+	private static final double WIDEN_THRESHOLD = 0.8;
+
+	private final long targetNanos;
+
+	private int frame = 0;
+	private double bandWidth = INITIAL_BAND_WIDTH;
+	private double smoothedNanos = -1;
+
+	private long frameStart;
+	private volatile long lastUpdateNanos = -1;
+
+	public AdaptiveLimiter(long targetNanos) {
+		this.targetNanos = targetNanos;
+	}
+
+	@Override
+	public void tick() {
+		long last = lastUpdateNanos;
+		if (last >= 0) {
+			lastUpdateNanos = -1;
+			adapt(last);
+		}
+
+		frame++;
+		frameStart = System.nanoTime();
+	}
+
+	@Override
+	public void finishUpdates() {
+		lastUpdateNanos = System.nanoTime() - frameStart;
+	}
+
+	/**
+	 * Adjust the band width for a frame whose updates took the given time.
+	 */
+	void adapt(long updateNanos) {
+		if (smoothedNanos < 0) {
+			smoothedNanos = updateNanos;
+		} else {
+			smoothedNanos += (updateNanos - smoothedNanos) * SMOOTHING;
+		}
+
+		if (smoothedNanos > targetNanos) {
+			bandWidth = Math.max(MIN_BAND_WIDTH, bandWidth * NARROW_FACTOR);
+		} else if (smoothedNanos < targetNanos * WIDEN_THRESHOLD) {
+			bandWidth = Math.min(MAX_BAND_WIDTH, bandWidth * WIDEN_FACTOR);
+		}
+	}
+
+	public double bandWidth() {
+		return bandWidth;
+	}
+
+	@Override
+	public boolean shouldUpdate(double distanceSquared) {
+		return shouldUpdate(distanceSquared, 0);
+	}
+
+	@Override
+	public boolean shouldUpdate(double distanceSquared, int phase) {
+		return isUpdateFrame(DIVISOR_SEQUENCE[getBand(distanceSquared)], phase);
+	}
+
+	@Override
+	public boolean shouldUpdateAny(double minDistanceSquared, double maxDistanceSquared, int phase) {
+		int max = getBand(maxDistanceSquared);
+
+		for (int i = getBand(minDistanceSquared); i <= max; i++) {
+			if (isUpdateFrame(DIVISOR_SEQUENCE[i], phase)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean isUpdateFrame(int divisor, int phase) {
+		return Math.floorMod(frame + mix(phase), divisor) == 0;
+	}
+
+	private int getBand(double distanceSquared) {
+		return (int) Math.min(distanceSquared / bandWidth, DIVISOR_SEQUENCE.length - 1);
+	}
+
+	/**
+	 * Phases are often similar for nearby objects, e.g. hash codes of neighbouring positions.
+	 * Scramble them so every divisor sees an even spread.
+	 */
+	private static int mix(int phase) {
+		int h = phase * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -18,11 +18,28 @@ public class BandedPrimeLimiter implements DistanceUpdateLimiterImpl {
 		return (tickCount % getUpdateDivisor(distanceSquared)) == 0;
 	}
 
+	@Override
+	public boolean shouldUpdateAny(double minDistanceSquared, double maxDistanceSquared, int phase) {
+		int max = getBand(maxDistanceSquared);
+
+		for (int i = getBand(minDistanceSquared); i <= max; i++) {
+			if ((tickCount % DIVISOR_SEQUENCE[i]) == 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	protected int getUpdateDivisor(double distanceSquared) {
+		return DIVISOR_SEQUENCE[getBand(distanceSquared)];
+	}
+
+	private static int getBand(double distanceSquared) {
 		int dSq = Mth.ceil(distanceSquared);
 
 		int i = (dSq / 2048);
 
-		return DIVISOR_SEQUENCE[Mth.clamp(i, 0, DIVISOR_SEQUENCE.length - 1)];
+		return Mth.clamp(i, 0, DIVISOR_SEQUENCE.length - 1);
 	}
 }
@@ -7,4 +7,21 @@ public interface DistanceUpdateLimiterImpl extends DistanceUpdateLimiter {
 	 * Call this before every update.
 	 */
 	void tick();
+
+	/**
+	 * Call this once all updates for the frame started by the last {@link #tick} are done.
+	 */
+	default void finishUpdates() {
+	}
+
+	/**
+	 * Check if {@link #shouldUpdate(double, int)} returns {@code true} for any distance in the given range.
+	 * Used to skip groups of objects without checking each one.
+	 *
+	 * @param minDistanceSquared The lower bound of the squared distances to check.
+	 * @param maxDistanceSquared The upper bound of the squared distances to check.
+	 * @param phase              The phase shared by all objects in the group.
+	 * @return {@code false} if no object in the range should be updated.
+	 */
+	boolean shouldUpdateAny(double minDistanceSquared, double maxDistanceSquared, int phase);
 }
@@ -9,4 +9,9 @@ public class NonLimiter implements DistanceUpdateLimiterImpl {
 	public boolean shouldUpdate(double distanceSquared) {
 		return true;
 	}
+
+	@Override
+	public boolean shouldUpdateAny(double minDistanceSquared, double maxDistanceSquared, int phase) {
+		return true;
+	}
 }
@@ -0,0 +1,164 @@
+package dev.engine_room.flywheel.impl.visualization.storage;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+import org.joml.FrustumIntersection;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.api.task.TaskExecutor;
+import dev.engine_room.flywheel.api.visual.DynamicVisual;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.DistanceUpdateLimiterImpl;
+import dev.engine_room.flywheel.lib.task.Distribute;
+import dev.engine_room.flywheel.lib.task.SimplyComposedPlan;
+import dev.engine_room.flywheel.lib.util.SwapRemoveList;
+import dev.engine_room.flywheel.lib.visual.CullableDynamicVisual;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Buckets {@link CullableDynamicVisual}s by section, so whole sections outside the frustum
+ * or skipped by the distance limiter can be culled before any visual is touched.
+ */
+public class CulledVisualStorage {
+	/**
+	 * How far outside its section's bounds a visual may be visible.
+	 */
+	private static final float FRUSTUM_MARGIN = 1;
+
+	private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
+	private final SwapRemoveList<Section> sectionList = new SwapRemoveList<>();
+
+	private final ObjectArrayList<CullableDynamicVisual> visibleThisFrame = new ObjectArrayList<>();
+
+	public Plan<DynamicVisual.Context> plan(Supplier<Vec3i> renderOrigin) {
+		return (SimplyComposedPlan<DynamicVisual.Context>) (TaskExecutor taskExecutor, DynamicVisual.Context context, Runnable onCompletion) -> {
+			if (sectionList.isEmpty()) {
+				onCompletion.run();
+				return;
+			}
+
+			taskExecutor.execute(() -> {
+				var limiter = context.limiter() instanceof DistanceUpdateLimiterImpl impl ? impl : null;
+
+				visibleThisFrame.clear();
+				cull(context.camera()
+						.getPosition(), renderOrigin.get(), context.frustum(), limiter, visibleThisFrame::add);
+
+				Distribute.tasks(taskExecutor, context, onCompletion, visibleThisFrame, CullableDynamicVisual::beginFrame);
+			});
+		};
+	}
+
+	/**
+	 * Pass every visual in a section that wasn't culled to {@code consumer}.
+	 *
+	 * @param camera  The camera position, in world space.
+	 * @param origin  The render origin. The frustum is relative to it.
+	 * @param limiter The limiter to cull sections by distance with, or {@code null} to only cull by frustum.
+	 */
+	public void cull(Vec3 camera, Vec3i origin, FrustumIntersection frustum, @Nullable DistanceUpdateLimiterImpl limiter, Consumer<CullableDynamicVisual> consumer) {
+		for (int i = 0; i < sectionList.size(); i++) {
+			var section = sectionList.get(i);
+
+			if (section.isVisible(frustum, origin) && (limiter == null || section.shouldUpdateAny(camera, limiter))) {
+				for (int j = 0; j < section.visuals.size(); j++) {
+					consumer.accept(section.visuals.get(j));
+				}
+			}
+		}
+	}
+
+	public void add(CullableDynamicVisual visual) {
+		long key = SectionPos.asLong(visual.cullingPosition());
+		var section = sections.get(key);
+
+		if (section == null) {
+			section = new Section(key);
+			sections.put(key, section);
+			sectionList.add(section);
+		}
+
+		section.visuals.add(visual);
+	}
+
+	public void remove(CullableDynamicVisual visual) {
+		long key = SectionPos.asLong(visual.cullingPosition());
+		var section = sections.get(key);
+
+		if (section == null || !section.visuals.remove(visual)) {
+			return;
+		}
+
+		if (section.visuals.isEmpty()) {
+			sections.remove(key);
+			sectionList.remove(section);
+		}
+	}
+
+	public int size() {
+		int out = 0;
+		for (var section : sectionList) {
+			out += section.visuals.size();
+		}
+		return out;
+	}
+
+	public void clear() {
+		sections.clear();
+		sectionList.clear();
+		visibleThisFrame.clear();
+	}
+
+	private static final class Section {
+		private final int minX;
+		private final int minY;
+		private final int minZ;
+		private final int phase;
+		private final SwapRemoveList<CullableDynamicVisual> visuals = new SwapRemoveList<>();
+
+		private Section(long key) {
+			minX = SectionPos.sectionToBlockCoord(SectionPos.x(key));
+			minY = SectionPos.sectionToBlockCoord(SectionPos.y(key));
+			minZ = SectionPos.sectionToBlockCoord(SectionPos.z(key));
+			// Matches AbstractBlockEntityVisual#doDistanceLimitThisFrame.
+			phase = Long.hashCode(key);
+		}
+
+		private boolean isVisible(FrustumIntersection frustum, Vec3i origin) {
+			float x = minX - origin.getX();
+			float y = minY - origin.getY();
+			float z = minZ - origin.getZ();
+			return frustum.testAab(x - FRUSTUM_MARGIN, y - FRUSTUM_MARGIN, z - FRUSTUM_MARGIN, x + 16 + FRUSTUM_MARGIN, y + 16 + FRUSTUM_MARGIN, z + 16 + FRUSTUM_MARGIN);
+		}
+
+		private boolean shouldUpdateAny(Vec3 camera, DistanceUpdateLimiterImpl limiter) {
+			// Visuals measure their distance from the center of their block.
+			double minDistanceSquared = 0;
+			double maxDistanceSquared = 0;
+
+			minDistanceSquared += square(distanceOutside(camera.x, minX + 0.5, minX + 15.5));
+			minDistanceSquared += square(distanceOutside(camera.y, minY + 0.5, minY + 15.5));
+			minDistanceSquared += square(distanceOutside(camera.z, minZ + 0.5, minZ + 15.5));
+
+			maxDistanceSquared += square(Math.max(Math.abs(camera.x - (minX + 0.5)), Math.abs(camera.x - (minX + 15.5))));
+			maxDistanceSquared += square(Math.max(Math.abs(camera.y - (minY + 0.5)), Math.abs(camera.y - (minY + 15.5))));
+			maxDistanceSquared += square(Math.max(Math.abs(camera.z - (minZ + 0.5)), Math.abs(camera.z - (minZ + 15.5))));
+
+			return limiter.shouldUpdateAny(minDistanceSquared, maxDistanceSquared, phase);
+		}
+
+		private static double distanceOutside(double value, double min, double max) {
+			return Math.max(Math.max(min - value, value - max), 0);
+		}
+
+		private static double square(double value) {
+			return value * value;
+		}
+	}
+}
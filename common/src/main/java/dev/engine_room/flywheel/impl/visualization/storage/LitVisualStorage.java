@@ -8,14 +8,12 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import dev.engine_room.flywheel.api.task.Plan;
-import dev.engine_room.flywheel.api.task.TaskExecutor;
 import dev.engine_room.flywheel.api.visual.DynamicVisual;
 import dev.engine_room.flywheel.api.visual.LitVisual;
-import dev.engine_room.flywheel.lib.task.Distribute;
-import dev.engine_room.flywheel.lib.task.SimplyComposedPlan;
-import dev.engine_room.flywheel.lib.task.Synchronizer;
+import dev.engine_room.flywheel.lib.task.ForEachLongSlicePlan;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongArraySet;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
@@ -34,33 +32,44 @@ public class LitVisualStorage {
 	private final Queue<LitVisual> movedVisuals = new ConcurrentLinkedQueue<>();
 	private final LongSet sectionsUpdatedThisFrame = new LongOpenHashSet();
 
+	// Copied out of sectionsUpdatedThisFrame so the workers can slice it without boxing.
+	private final LongArrayList sectionsToUpdate = new LongArrayList();
+
 	private long updateId = INITIAL_UPDATE_ID;
+	private long currentUpdateId = NEVER_UPDATED;
 
 	public Plan<DynamicVisual.Context> plan() {
-		return (SimplyComposedPlan<DynamicVisual.Context>) (TaskExecutor taskExecutor, DynamicVisual.Context context, Runnable onCompletion) -> {
-			processMoved();
+		return ForEachLongSlicePlan.of(this::collectSectionsToUpdate, this::updateSections);
+	}
 
-			if (sectionsUpdatedThisFrame.isEmpty()) {
-				onCompletion.run();
-				return;
-			}
+	private LongArrayList collectSectionsToUpdate() {
+		processMoved();
 
-			var sync = new Synchronizer(sectionsUpdatedThisFrame.size(), () -> {
-				sectionsUpdatedThisFrame.clear();
-				onCompletion.run();
-			});
+		sectionsToUpdate.clear();
 
-			long updateId = getNextUpdateId();
+		if (!sectionsUpdatedThisFrame.isEmpty()) {
+			sectionsToUpdate.addAll(sectionsUpdatedThisFrame);
+			sectionsUpdatedThisFrame.clear();
+			currentUpdateId = getNextUpdateId();
+		}
 
-			for (long section : sectionsUpdatedThisFrame) {
-				var visuals = sections2Visuals.get(section);
-				if (visuals != null && !visuals.isEmpty()) {
-					taskExecutor.execute(() -> Distribute.tasks(taskExecutor, updateId, sync, visuals, Updater::updateLight));
-				} else {
-					sync.decrementAndEventuallyRun();
-				}
+		return sectionsToUpdate;
+	}
+
+	private void updateSections(long[] sections, int start, int end) {
+		long updateId = currentUpdateId;
+
+		for (int i = start; i < end; i++) {
+			var visuals = sections2Visuals.get(sections[i]);
+			if (visuals == null) {
+				continue;
 			}
-		};
+
+			for (int j = 0; j < visuals.size(); j++) {
+				visuals.get(j)
+						.updateLight(updateId);
+			}
+		}
 	}
 
 	private void processMoved() {
@@ -146,6 +155,7 @@ public class LitVisualStorage {
 		visuals2Sections.clear();
 		sections2Visuals.clear();
 		sectionsUpdatedThisFrame.clear();
+		sectionsToUpdate.clear();
 	}
 
 	private static int indexOfUpdater(List<Updater> listeners, LitVisual visual) {
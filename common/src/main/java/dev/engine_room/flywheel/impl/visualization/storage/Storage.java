@@ -7,29 +7,41 @@ import java.util.Map;
 import java.util.function.Supplier;
 
 import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
 
 import dev.engine_room.flywheel.api.task.Plan;
 import dev.engine_room.flywheel.api.visual.DynamicVisual;
 import dev.engine_room.flywheel.api.visual.LitVisual;
+import dev.engine_room.flywheel.api.visual.ReloadableVisual;
 import dev.engine_room.flywheel.api.visual.TickableVisual;
 import dev.engine_room.flywheel.api.visual.Visual;
 import dev.engine_room.flywheel.api.visualization.VisualizationContext;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
+import dev.engine_room.flywheel.impl.visual.DynamicVisualContextImpl;
+import dev.engine_room.flywheel.lib.task.DynamicNestedPlan;
 import dev.engine_room.flywheel.lib.task.ForEachPlan;
+import dev.engine_room.flywheel.lib.task.MapContextPlan;
 import dev.engine_room.flywheel.lib.task.NestedPlan;
 import dev.engine_room.flywheel.lib.task.PlanMap;
+import dev.engine_room.flywheel.lib.task.TimedPlan;
+import dev.engine_room.flywheel.lib.util.SwapRemoveList;
+import dev.engine_room.flywheel.lib.visual.CullableDynamicVisual;
 import dev.engine_room.flywheel.lib.visual.SimpleDynamicVisual;
 import dev.engine_room.flywheel.lib.visual.SimpleTickableVisual;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.Vec3i;
 
 public abstract class Storage<T> {
 	protected final Supplier<VisualizationContext> visualizationContextSupplier;
-	protected final PlanMap<DynamicVisual, DynamicVisual.Context> dynamicVisuals = new PlanMap<>();
 	protected final PlanMap<TickableVisual, TickableVisual.Context> tickableVisuals = new PlanMap<>();
-	protected final List<SimpleDynamicVisual> simpleDynamicVisuals = new ArrayList<>();
-	protected final List<SimpleTickableVisual> simpleTickableVisuals = new ArrayList<>();
+	protected final SwapRemoveList<SimpleTickableVisual> simpleTickableVisuals = new SwapRemoveList<>();
 	protected final LitVisualStorage litVisuals = new LitVisualStorage();
 
 	private final Map<T, Visual> visuals = new Reference2ObjectOpenHashMap<>();
+	private final Map<T, OriginGroup> visualGroups = new Reference2ObjectOpenHashMap<>();
+	// Keyed by context identity. The context may be null in tests that never look at the origin.
+	private final Map<VisualizationContext, OriginGroup> groups = new Reference2ObjectOpenHashMap<>();
+	private final List<Plan<DynamicVisual.Context>> groupPlans = new ArrayList<>();
 
 	public Storage(Supplier<VisualizationContext> visualizationContextSupplier) {
 		this.visualizationContextSupplier = visualizationContextSupplier;
@@ -39,6 +51,25 @@ public abstract class Storage<T> {
 		return visuals.values();
 	}
 
+	public Vec3i renderOrigin() {
+		return visualizationContextSupplier.get()
+				.renderOrigin();
+	}
+
+	/**
+	 * Write the world space position of the given object to {@code out}.
+	 * Used to create visuals for objects close to the camera first.
+	 *
+	 * @return {@code false} if the object doesn't have a position.
+	 */
+	public boolean position(T obj, Vector3d out) {
+		return false;
+	}
+
+	public boolean contains(T obj) {
+		return visuals.get(obj) != null;
+	}
+
 	public void add(T obj, float partialTick) {
 		Visual visual = visuals.get(obj);
 
@@ -47,6 +78,33 @@ public abstract class Storage<T> {
 		}
 	}
 
+	/**
+	 * Create and init a visual for the given object without adding it to this storage.
+	 * <br>
+	 * Multiple threads may call this at once, but nothing may modify this storage in the meantime.
+	 *
+	 * @return The visual to pass to {@link #addCreated}, or {@code null} if the object can't be visualized.
+	 */
+	@Nullable
+	public Visual createAndInit(T obj, float partialTick) {
+		Visual visual = createRaw(obj);
+
+		if (visual != null) {
+			visual.init(partialTick);
+		}
+
+		return visual;
+	}
+
+	/**
+	 * Add a visual returned by {@link #createAndInit}. The object must not already have a visual.
+	 */
+	public void addCreated(T obj, Visual visual) {
+		track(obj, visual);
+		visuals.put(obj, visual);
+		visualAdded(obj, visual);
+	}
+
 	public void remove(T obj) {
 		Visual visual = visuals.remove(obj);
 
@@ -61,13 +119,12 @@ public abstract class Storage<T> {
 				tickableVisuals.remove(tickable);
 			}
 		}
-		if (visual instanceof DynamicVisual dynamic) {
-			if (visual instanceof SimpleDynamicVisual simpleDynamic) {
-				simpleDynamicVisuals.remove(simpleDynamic);
-			} else {
-				dynamicVisuals.remove(dynamic);
-			}
+
+		var group = visualGroups.remove(obj);
+		if (group != null) {
+			group.remove(visual);
 		}
+
 		if (visual instanceof LitVisual lit) {
 			litVisuals.remove(lit);
 		}
@@ -86,27 +143,91 @@ public abstract class Storage<T> {
 
 	public void recreateAll(float partialTick) {
 		tickableVisuals.clear();
-		dynamicVisuals.clear();
 		simpleTickableVisuals.clear();
-		simpleDynamicVisuals.clear();
 		litVisuals.clear();
+		clearGroups();
+
 		visuals.replaceAll((obj, visual) -> {
 			visual.delete();
 
 			Visual out = createRaw(obj);
 
 			if (out != null) {
-				setup(out, partialTick);
+				setup(obj, out, partialTick);
+				visualAdded(obj, out);
 			}
 
 			return out;
 		});
 	}
 
+	/**
+	 * Recreate only the visuals that can't be kept after the render origin moved.
+	 * <br>
+	 * Visuals that are kept go on rendering relative to the origin they were created against.
+	 *
+	 * @param check Decides, by the origin a visual was created against and its object's position, whether to keep it.
+	 */
+	public void rebase(float partialTick, OriginCheck check) {
+		List<T> stale = new ArrayList<>();
+		var position = new Vector3d();
+
+		for (var entry : visualGroups.entrySet()) {
+			var context = entry.getValue().context;
+
+			if (context == null) {
+				continue;
+			}
+
+			T obj = entry.getKey();
+			Vec3i origin = context.renderOrigin();
+
+			if (!position(obj, position)) {
+				position.set(origin.getX(), origin.getY(), origin.getZ());
+			}
+
+			if (!check.canKeep(origin, position.x, position.y, position.z)) {
+				stale.add(obj);
+			}
+		}
+
+		if (stale.size() == visualGroups.size()) {
+			recreateAll(partialTick);
+			return;
+		}
+
+		for (T obj : stale) {
+			remove(obj);
+			create(obj, partialTick);
+		}
+	}
+
+	/**
+	 * Make every visual pick up the models replaced by a resource reload.
+	 * <br>
+	 * {@link ReloadableVisual}s swap their models in place, every other visual is recreated.
+	 */
+	public void reloadModels(float partialTick) {
+		List<T> stale = new ArrayList<>();
+
+		for (var entry : visuals.entrySet()) {
+			if (entry.getValue() instanceof ReloadableVisual reloadable) {
+				reloadable.reloadModels(partialTick);
+			} else {
+				stale.add(entry.getKey());
+			}
+		}
+
+		for (T obj : stale) {
+			remove(obj);
+			create(obj, partialTick);
+		}
+	}
+
 	public void invalidate() {
 		tickableVisuals.clear();
-		dynamicVisuals.clear();
 		litVisuals.clear();
+		clearGroups();
 		visuals.values()
 				.forEach(Visual::delete);
 		visuals.clear();
@@ -116,16 +237,30 @@ public abstract class Storage<T> {
 		Visual visual = createRaw(obj);
 
 		if (visual != null) {
-			setup(visual, partialTick);
+			setup(obj, visual, partialTick);
 			visuals.put(obj, visual);
+			visualAdded(obj, visual);
 		}
 	}
 
+	/**
+	 * Create a visual for the given object.
+	 * <br>
+	 * May be called from multiple threads at once, so this must not modify the storage.
+	 * Use {@link #visualAdded} for that instead.
+	 */
 	@Nullable
 	protected abstract Visual createRaw(T obj);
 
+	/**
+	 * Called on a single thread after a visual returned by {@link #createRaw} is added to this storage.
+	 */
+	protected void visualAdded(T obj, Visual visual) {
+	}
+
 	public Plan<DynamicVisual.Context> framePlan() {
-		return NestedPlan.of(dynamicVisuals, litVisuals.plan(), ForEachPlan.of(() -> simpleDynamicVisuals, SimpleDynamicVisual::beginFrame));
+		var dynamic = DynamicNestedPlan.<DynamicVisual.Context>of(() -> groupPlans);
+		return NestedPlan.of(TimedPlan.of(FlwMetrics.FRAME_DYNAMIC_VISUALS::add, dynamic), TimedPlan.of(FlwMetrics.FRAME_LIGHT_UPDATES::add, litVisuals.plan()));
 	}
 
 	public Plan<TickableVisual.Context> tickPlan() {
@@ -136,9 +271,12 @@ public abstract class Storage<T> {
 		litVisuals.enqueueLightUpdateSection(section);
 	}
 
-	private void setup(Visual visual, float partialTick) {
+	private void setup(T obj, Visual visual, float partialTick) {
 		visual.init(partialTick);
+		track(obj, visual);
+	}
 
+	private void track(T obj, Visual visual) {
 		if (visual instanceof TickableVisual tickable) {
 			if (visual instanceof SimpleTickableVisual simpleTickable) {
 				simpleTickableVisuals.add(simpleTickable);
@@ -147,23 +285,109 @@ public abstract class Storage<T> {
 			}
 		}
 
-		if (visual instanceof DynamicVisual dynamic) {
-			if (visual instanceof SimpleDynamicVisual simpleDynamic) {
-				simpleDynamicVisuals.add(simpleDynamic);
-			} else {
-				dynamicVisuals.add(dynamic, dynamic.planFrame());
-			}
-		}
+		// The visual was created from whatever context the supplier hands out right now.
+		var group = groups.computeIfAbsent(visualizationContextSupplier.get(), this::createGroup);
+		group.add(visual);
+		visualGroups.put(obj, group);
 
 		if (visual instanceof LitVisual lit) {
 			litVisuals.addAndInitNotifier(lit);
 		}
 	}
 
+	private OriginGroup createGroup(@Nullable VisualizationContext context) {
+		var group = new OriginGroup(context);
+		groupPlans.add(group.plan);
+		return group;
+	}
+
+	private void clearGroups() {
+		visualGroups.clear();
+		groups.clear();
+		groupPlans.clear();
+	}
+
 	/**
 	 * Is the given object currently capable of being added?
 	 *
 	 * @return true if the object is currently capable of being visualized.
 	 */
 	public abstract boolean willAccept(T obj);
+
+	@FunctionalInterface
+	public interface OriginCheck {
+		/**
+		 * @param origin The render origin the visual was created against.
+		 * @return {@code true} if a visual for an object at the given level position can keep using {@code origin}.
+		 */
+		boolean canKeep(Vec3i origin, double x, double y, double z);
+	}
+
+	/**
+	 * The dynamic visuals created from one {@link VisualizationContext}.
+	 * <br>
+	 * Contexts are bound to the render origin they were created under, and dynamic visuals cull against
+	 * a frustum relative to that origin, so each group gets a frame context rebased to its own origin.
+	 */
+	private final class OriginGroup {
+		@Nullable
+		private final VisualizationContext context;
+		private final PlanMap<DynamicVisual, DynamicVisual.Context> dynamicVisuals = new PlanMap<>();
+		private final SwapRemoveList<SimpleDynamicVisual> simpleDynamicVisuals = new SwapRemoveList<>();
+		private final CulledVisualStorage culledVisuals = new CulledVisualStorage();
+		private final Plan<DynamicVisual.Context> plan;
+		private int size;
+
+		private OriginGroup(@Nullable VisualizationContext context) {
+			this.context = context;
+
+			var dynamic = NestedPlan.of(dynamicVisuals, ForEachPlan.of(() -> simpleDynamicVisuals, SimpleDynamicVisual::beginFrame), culledVisuals.plan(this::origin));
+			plan = MapContextPlan.map(this::rebase)
+					.to(dynamic);
+		}
+
+		private Vec3i origin() {
+			return context != null ? context.renderOrigin() : renderOrigin();
+		}
+
+		private DynamicVisual.Context rebase(DynamicVisual.Context frameContext) {
+			if (context != null && frameContext instanceof DynamicVisualContextImpl impl) {
+				return impl.withOrigin(context.renderOrigin());
+			}
+
+			return frameContext;
+		}
+
+		private void add(Visual visual) {
+			size++;
+
+			if (visual instanceof DynamicVisual dynamic) {
+				if (visual instanceof CullableDynamicVisual cullable) {
+					culledVisuals.add(cullable);
+				} else if (visual instanceof SimpleDynamicVisual simpleDynamic) {
+					simpleDynamicVisuals.add(simpleDynamic);
+				} else {
+					dynamicVisuals.add(dynamic, dynamic.planFrame());
+				}
+			}
+		}
+
+		private void remove(Visual visual) {
+			if (visual instanceof DynamicVisual dynamic) {
+				if (visual instanceof CullableDynamicVisual cullable) {
+					culledVisuals.remove(cullable);
+				} else if (visual instanceof SimpleDynamicVisual simpleDynamic) {
+					simpleDynamicVisuals.remove(simpleDynamic);
+				} else {
+					dynamicVisuals.remove(dynamic);
+				}
+			}
+
+			// Groups for old origins go away once their last visual does.
+			if (--size == 0) {
+				groups.remove(context);
+				groupPlans.remove(plan);
+			}
+		}
+	}
 }
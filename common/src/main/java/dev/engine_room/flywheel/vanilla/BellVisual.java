@@ -7,6 +7,7 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.visual.ReloadableVisual;
 import dev.engine_room.flywheel.api.visualization.VisualizationContext;
 import dev.engine_room.flywheel.lib.instance.InstanceTypes;
 import dev.engine_room.flywheel.lib.instance.OrientedInstance;
@@ -15,13 +16,14 @@ import dev.engine_room.flywheel.lib.model.ModelHolder;
 import dev.engine_room.flywheel.lib.model.SingleMeshModel;
 import dev.engine_room.flywheel.lib.model.part.ModelPartConverter;
 import dev.engine_room.flywheel.lib.visual.AbstractBlockEntityVisual;
-import dev.engine_room.flywheel.lib.visual.SimpleDynamicVisual;
+import dev.engine_room.flywheel.lib.visual.CullableDynamicVisual;
 import net.minecraft.client.model.geom.ModelLayers;
 import net.minecraft.client.renderer.blockentity.BellRenderer;
+import net.minecraft.core.BlockPos;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.block.entity.BellBlockEntity;
 
-public class BellVisual extends AbstractBlockEntityVisual<BellBlockEntity> implements SimpleDynamicVisual {
+public class BellVisual extends AbstractBlockEntityVisual<BellBlockEntity> implements CullableDynamicVisual, ReloadableVisual {
 	private static final ModelHolder BELL_MODEL = new ModelHolder(() -> {
 		return new SingleMeshModel(ModelPartConverter.convert(ModelLayers.BELL, BellRenderer.BELL_RESOURCE_LOCATION.sprite(), "bell_body"), Materials.BELL);
 	});
@@ -51,6 +53,17 @@ public class BellVisual extends AbstractBlockEntityVisual<BellBlockEntity> imple
 				.createInstance();
 	}
 
+	@Override
+	public void reloadModels(float partialTick) {
+		instancerProvider.instancer(InstanceTypes.ORIENTED, BELL_MODEL.get())
+				.stealInstance(bell);
+	}
+
+	@Override
+	public BlockPos cullingPosition() {
+		return pos;
+	}
+
 	@Override
 	public void beginFrame(Context context) {
 		if (doDistanceLimitThisFrame(context) || !isVisible(context.frustum())) {
@@ -8,6 +8,7 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.math.Axis;
 
 import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.visual.ReloadableVisual;
 import dev.engine_room.flywheel.api.visualization.VisualizationContext;
 import dev.engine_room.flywheel.lib.instance.InstanceTypes;
 import dev.engine_room.flywheel.lib.instance.TransformedInstance;
@@ -17,16 +18,17 @@ import dev.engine_room.flywheel.lib.model.SingleMeshModel;
 import dev.engine_room.flywheel.lib.model.part.ModelPartConverter;
 import dev.engine_room.flywheel.lib.transform.TransformStack;
 import dev.engine_room.flywheel.lib.visual.AbstractBlockEntityVisual;
-import dev.engine_room.flywheel.lib.visual.SimpleDynamicVisual;
+import dev.engine_room.flywheel.lib.visual.CullableDynamicVisual;
 import net.minecraft.client.model.geom.ModelLayers;
 import net.minecraft.client.renderer.Sheets;
 import net.minecraft.client.resources.model.Material;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.item.DyeColor;
 import net.minecraft.world.level.block.ShulkerBoxBlock;
 import net.minecraft.world.level.block.entity.ShulkerBoxBlockEntity;
 
-public class ShulkerBoxVisual extends AbstractBlockEntityVisual<ShulkerBoxBlockEntity> implements SimpleDynamicVisual {
+public class ShulkerBoxVisual extends AbstractBlockEntityVisual<ShulkerBoxBlockEntity> implements CullableDynamicVisual, ReloadableVisual {
 	private static final ModelCache<Material> BASE_MODELS = new ModelCache<>(texture -> {
 		return new SingleMeshModel(ModelPartConverter.convert(ModelLayers.SHULKER, texture.sprite(), "base"), Materials.SHULKER);
 	});
@@ -47,13 +49,7 @@ public class ShulkerBoxVisual extends AbstractBlockEntityVisual<ShulkerBoxBlockE
 
 	@Override
 	public void init(float partialTick) {
-		DyeColor color = blockEntity.getColor();
-		Material texture;
-		if (color == null) {
-			texture = Sheets.DEFAULT_SHULKER_TEXTURE_LOCATION;
-		} else {
-			texture = Sheets.SHULKER_TEXTURE_LOCATION.get(color.getId());
-		}
+		Material texture = getTexture();
 
 		var rotation = getDirection().getRotation();
 
@@ -75,6 +71,26 @@ public class ShulkerBoxVisual extends AbstractBlockEntityVisual<ShulkerBoxBlockE
 		super.init(partialTick);
 	}
 
+	private Material getTexture() {
+		DyeColor color = blockEntity.getColor();
+
+		if (color == null) {
+			return Sheets.DEFAULT_SHULKER_TEXTURE_LOCATION;
+		}
+
+		return Sheets.SHULKER_TEXTURE_LOCATION.get(color.getId());
+	}
+
+	@Override
+	public void reloadModels(float partialTick) {
+		Material texture = getTexture();
+
+		instancerProvider.instancer(InstanceTypes.TRANSFORMED, BASE_MODELS.get(texture))
+				.stealInstance(base);
+		instancerProvider.instancer(InstanceTypes.TRANSFORMED, LID_MODELS.get(texture))
+				.stealInstance(lid);
+	}
+
 	private TransformedInstance createBaseInstance(Material texture) {
 		return instancerProvider.instancer(InstanceTypes.TRANSFORMED, BASE_MODELS.get(texture))
 				.createInstance();
@@ -93,6 +109,11 @@ public class ShulkerBoxVisual extends AbstractBlockEntityVisual<ShulkerBoxBlockE
 		return Direction.UP;
 	}
 
+	@Override
+	public BlockPos cullingPosition() {
+		return pos;
+	}
+
 	@Override
 	public void beginFrame(Context context) {
 		if (doDistanceLimitThisFrame(context) || !isVisible(context.frustum())) {
@@ -0,0 +1,102 @@
+package dev.engine_room.flywheel.backend.compile.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProgramBinaryCacheTest {
+	private static final String DRIVER = "Vendor\nRenderer\n4.6.0";
+	private static final List<String> SOURCES = List.of("#version 150\n#define VERTEX_SHADER\nvoid main() {}", "#version 150\n#define FRAGMENT_SHADER\nvoid main() {}");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTrips() {
+		var cache = new ProgramBinaryCache(directory);
+		var key = ProgramBinaryCache.key(DRIVER, SOURCES);
+
+		Assertions.assertNull(cache.read(key));
+
+		cache.write(key, 0x1234, binary(1, 2, 3, 4, 5));
+
+		var entry = cache.read(key);
+		Assertions.assertNotNull(entry);
+		Assertions.assertEquals(0x1234, entry.format());
+		Assertions.assertEquals(binary(1, 2, 3, 4, 5), entry.binary());
+		Assertions.assertTrue(entry.binary()
+				.isDirect(), "glProgramBinary needs a direct buffer");
+	}
+
+	@Test
+	void writeLeavesBufferUntouched() {
+		var cache = new ProgramBinaryCache(directory);
+		var buffer = binary(1, 2, 3);
+
+		cache.write("a", 1, buffer);
+
+		Assertions.assertEquals(0, buffer.position());
+		Assertions.assertEquals(3, buffer.remaining());
+	}
+
+	@Test
+	void overwritesExistingEntries() {
+		var cache = new ProgramBinaryCache(directory);
+
+		cache.write("a", 1, binary(1, 2, 3));
+		cache.write("a", 2, binary(4, 5));
+
+		var entry = cache.read("a");
+		Assertions.assertNotNull(entry);
+		Assertions.assertEquals(2, entry.format());
+		Assertions.assertEquals(binary(4, 5), entry.binary());
+	}
+
+	@Test
+	void rejectsTruncatedFiles() throws IOException {
+		var cache = new ProgramBinaryCache(directory);
+		cache.write("a", 1, binary(1, 2, 3, 4, 5, 6, 7, 8));
+
+		Path file = directory.resolve("a.bin");
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+		Assertions.assertNull(cache.read("a"));
+		Assertions.assertFalse(Files.exists(file), "Corrupt entries should be removed");
+	}
+
+	@Test
+	void rejectsForeignFiles() throws IOException {
+		var cache = new ProgramBinaryCache(directory);
+		Files.write(directory.resolve("a.bin"), new byte[] { 'n', 'o', 't', ' ', 'a', ' ', 'p', 'r', 'o', 'g', 'r', 'a', 'm', '!', '!', '!', '!' });
+
+		Assertions.assertNull(cache.read("a"));
+	}
+
+	@Test
+	void keyDependsOnDriverAndSource() {
+		var key = ProgramBinaryCache.key(DRIVER, SOURCES);
+
+		Assertions.assertEquals(key, ProgramBinaryCache.key(DRIVER, List.copyOf(SOURCES)));
+		Assertions.assertNotEquals(key, ProgramBinaryCache.key("Vendor\nRenderer\n4.6.1", SOURCES));
+		Assertions.assertNotEquals(key, ProgramBinaryCache.key(DRIVER, List.of(SOURCES.get(0), SOURCES.get(1) + " ")));
+		Assertions.assertNotEquals(key, ProgramBinaryCache.key(DRIVER, List.of(SOURCES.get(1), SOURCES.get(0))));
+		// Moving text across the boundary between two stages must not produce the same key.
+		Assertions.assertNotEquals(ProgramBinaryCache.key(DRIVER, List.of("ab", "c")), ProgramBinaryCache.key(DRIVER, List.of("a", "bc")));
+	}
+
+	private static ByteBuffer binary(int... bytes) {
+		var out = ByteBuffer.allocate(bytes.length);
+		for (int b : bytes) {
+			out.put((byte) b);
+		}
+		return out.flip();
+	}
+}
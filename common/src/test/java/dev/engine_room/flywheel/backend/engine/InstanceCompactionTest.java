@@ -0,0 +1,134 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.api.instance.Instance;
+
+class InstanceCompactionTest {
+	@Test
+	void deletingFirstInstance() {
+		var shift = TestInstancer.filled(1000);
+		var swap = TestInstancer.filled(1000);
+
+		shift.instance(0).delete();
+		swap.instance(0).delete();
+
+		shift.shiftRemoveDeletedInstances();
+		swap.swapRemoveDeletedInstances();
+
+		Assertions.assertEquals(999 * TestInstancer.STRIDE, shift.uploadBytes());
+		Assertions.assertEquals(TestInstancer.STRIDE, swap.uploadBytes());
+		swap.assertConsistent();
+	}
+
+	@Test
+	void deletingTailUploadsNothing() {
+		var shift = TestInstancer.filled(1000);
+		var swap = TestInstancer.filled(1000);
+
+		for (int i = 900; i < 1000; i++) {
+			shift.instance(i).delete();
+			swap.instance(i).delete();
+		}
+
+		shift.shiftRemoveDeletedInstances();
+		swap.swapRemoveDeletedInstances();
+
+		Assertions.assertEquals(0, shift.uploadBytes());
+		Assertions.assertEquals(0, swap.uploadBytes());
+		Assertions.assertEquals(900, swap.instanceCount());
+		swap.assertConsistent();
+	}
+
+	@Test
+	void deletingEverythingClears() {
+		var swap = TestInstancer.filled(100);
+		var handles = new ArrayList<>(swap.handles);
+
+		for (int i = 0; i < 100; i++) {
+			swap.instance(i).delete();
+		}
+
+		swap.swapRemoveDeletedInstances();
+
+		Assertions.assertEquals(0, swap.instanceCount());
+		Assertions.assertEquals(0, swap.uploadBytes());
+		for (var handle : handles) {
+			Assertions.assertEquals(-1, handle.index);
+		}
+	}
+
+	@Test
+	void movedInstancesAreOnlyDirtyAtTheirNewIndex() {
+		var swap = TestInstancer.filled(10);
+
+		var last = swap.instance(9);
+		last.setChanged();
+		swap.instance(2).delete();
+
+		swap.swapRemoveDeletedInstances();
+
+		Assertions.assertSame(last, swap.instance(2));
+		Assertions.assertEquals(2, ((InstanceHandleImpl) last.handle()).index);
+		Assertions.assertEquals(TestInstancer.STRIDE, swap.uploadBytes());
+		Assertions.assertFalse(swap.changed.get(9));
+	}
+
+	@Test
+	void swapRemoveNeverUploadsMoreThanShift() {
+		var random = new Random(0);
+
+		for (int trial = 0; trial < 50; trial++) {
+			int count = 1 + random.nextInt(5000);
+			float deleteChance = random.nextFloat();
+
+			var shift = TestInstancer.filled(count);
+			var swap = TestInstancer.filled(count);
+			Set<Instance> survivors = new HashSet<>();
+
+			for (int i = 0; i < count; i++) {
+				if (random.nextFloat() < deleteChance) {
+					shift.instance(i).delete();
+					swap.instance(i).delete();
+				} else {
+					survivors.add(swap.instance(i));
+				}
+			}
+
+			shift.shiftRemoveDeletedInstances();
+			swap.swapRemoveDeletedInstances();
+
+			Assertions.assertTrue(swap.uploadBytes() <= shift.uploadBytes(), "Trial " + trial);
+			Assertions.assertEquals(shift.instanceCount(), swap.instanceCount());
+			Assertions.assertEquals(survivors, new HashSet<>(swap.instances));
+			swap.assertConsistent();
+		}
+	}
+
+	@Test
+	void handlesSurviveRepeatedChurn() {
+		var random = new Random(1);
+		var swap = TestInstancer.filled(1000);
+
+		for (int tick = 0; tick < 100; tick++) {
+			for (int i = 0; i < 50; i++) {
+				swap.instance(random.nextInt(swap.instanceCount()))
+						.delete();
+			}
+			for (int i = 0; i < 40; i++) {
+				swap.createLockedInstance();
+			}
+
+			swap.swapRemoveDeletedInstances();
+			swap.changed.clear();
+
+			swap.assertConsistent();
+		}
+	}
+}
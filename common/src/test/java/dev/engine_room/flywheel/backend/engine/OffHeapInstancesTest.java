@@ -0,0 +1,241 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.instance.InstanceHandle;
+import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.api.instance.InstanceWriter;
+import dev.engine_room.flywheel.api.layout.Layout;
+import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import net.minecraft.resources.ResourceLocation;
+
+class OffHeapInstancesTest {
+	@Test
+	void pointersAreStableAcrossPages() {
+		var storage = new OffHeapInstances(8);
+		storage.ensureCapacity(1);
+		long first = storage.ptr(0);
+		long last = storage.ptr(OffHeapInstances.PAGE_SIZE - 1);
+
+		storage.ensureCapacity(OffHeapInstances.PAGE_SIZE * 3 + 1);
+
+		Assertions.assertEquals(OffHeapInstances.PAGE_SIZE * 4, storage.capacity());
+		Assertions.assertEquals(first, storage.ptr(0));
+		Assertions.assertEquals(last, storage.ptr(OffHeapInstances.PAGE_SIZE - 1));
+		Assertions.assertEquals(first + 8, storage.ptr(1));
+		storage.delete();
+	}
+
+	@Test
+	void copySpansPages() {
+		var storage = new OffHeapInstances(8);
+		int count = OffHeapInstances.PAGE_SIZE + 10;
+		storage.ensureCapacity(count);
+
+		for (int i = 0; i < count; i++) {
+			MemoryUtil.memPutLong(storage.ptr(i), i);
+		}
+
+		int start = OffHeapInstances.PAGE_SIZE - 5;
+		int end = OffHeapInstances.PAGE_SIZE + 4;
+		var dst = MemoryBlock.malloc((end - start + 1) * 8L);
+		storage.copyTo(dst.ptr(), start, end);
+
+		for (int i = start; i <= end; i++) {
+			Assertions.assertEquals(i, MemoryUtil.memGetLong(dst.ptr() + (i - start) * 8L));
+		}
+
+		dst.free();
+		storage.delete();
+	}
+
+	@Test
+	void swapRemovalMovesData() {
+		var instancer = filled(OffHeapInstances.PAGE_SIZE + 10);
+
+		instancer.instances.get(3)
+				.delete();
+		instancer.swapRemoveDeletedInstances();
+
+		assertDataFollowsInstances(instancer);
+		// The last instance filled the hole.
+		Assertions.assertEquals(OffHeapInstances.PAGE_SIZE + 9, instancer.instances.get(3)
+				.id());
+		instancer.delete();
+	}
+
+	@Test
+	void shiftRemovalMovesData() {
+		var instancer = filled(OffHeapInstances.PAGE_SIZE + 10);
+
+		for (int i = 0; i < instancer.instanceCount(); i += 3) {
+			instancer.instances.get(i)
+					.delete();
+		}
+		instancer.shiftRemoveDeletedInstances();
+
+		assertDataFollowsInstances(instancer);
+		Assertions.assertEquals(1, instancer.instances.get(0)
+				.id());
+		instancer.delete();
+	}
+
+	@Test
+	void stealingCopiesData() {
+		var from = filled(10);
+		var to = filled(5);
+		var instance = from.instances.get(7);
+
+		to.stealInstance(instance);
+
+		Assertions.assertEquals(6, to.instanceCount());
+		Assertions.assertEquals(7, instance.id());
+		Assertions.assertEquals(to.instancePtr(5), instance.handle()
+				.ptr());
+
+		from.removeDeletedInstances();
+		Assertions.assertEquals(9, from.instanceCount());
+		assertDataFollowsInstances(from);
+
+		from.delete();
+		to.delete();
+	}
+
+	@Test
+	void deletedInstancesWriteToTheSink() {
+		var instancer = filled(10);
+		var deleted = instancer.instances.get(2);
+		var live = instancer.instances.get(9);
+
+		deleted.delete();
+		instancer.removeDeletedInstances();
+
+		MemoryUtil.memPutLong(deleted.handle()
+				.ptr(), -1);
+		Assertions.assertEquals(9, live.id());
+
+		instancer.delete();
+		// Still safe to write through views of a deleted instancer.
+		MemoryUtil.memPutLong(live.handle()
+				.ptr(), -1);
+	}
+
+	private static OffHeapInstancer filled(int count) {
+		var out = new OffHeapInstancer();
+
+		for (int i = 0; i < count; i++) {
+			out.createLockedInstance()
+					.setId(i);
+		}
+
+		return out;
+	}
+
+	private static void assertDataFollowsInstances(OffHeapInstancer instancer) {
+		for (int i = 0; i < instancer.instanceCount(); i++) {
+			var instance = instancer.instances.get(i);
+			Assertions.assertEquals(instancer.instancePtr(i), instance.handle()
+					.ptr());
+			Assertions.assertEquals(instance.expectedId, instance.id());
+		}
+	}
+
+	private static class OffHeapInstancer extends AbstractInstancer<IdInstance> {
+		OffHeapInstancer() {
+			super(IdInstance.TYPE, GlobalEnvironment.INSTANCE);
+		}
+	}
+
+	/**
+	 * A view of a single long stored off heap. Remembers what it wrote to check that moves keep data with its instance.
+	 */
+	private static final class IdInstance implements Instance {
+		static final InstanceType<IdInstance> TYPE = new InstanceType<>() {
+			@Override
+			public IdInstance create(InstanceHandle handle) {
+				return new IdInstance(handle);
+			}
+
+			@Override
+			public Layout layout() {
+				return LAYOUT;
+			}
+
+			@Override
+			public InstanceWriter<IdInstance> writer() {
+				return (ptr, instance) -> MemoryUtil.memPutLong(ptr, instance.id());
+			}
+
+			@Override
+			public boolean offHeap() {
+				return true;
+			}
+
+			@Override
+			public ResourceLocation vertexShader() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public ResourceLocation cullShader() {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		private static final Layout LAYOUT = new Layout() {
+			@Override
+			public List<Element> elements() {
+				return List.of();
+			}
+
+			@Override
+			public Map<String, Element> asMap() {
+				return Map.of();
+			}
+
+			@Override
+			public int byteSize() {
+				return Long.BYTES;
+			}
+
+			@Override
+			public int byteAlignment() {
+				return Long.BYTES;
+			}
+		};
+
+		private final InstanceHandle handle;
+		private long expectedId = -1;
+
+		private IdInstance(InstanceHandle handle) {
+			this.handle = handle;
+			MemoryUtil.memPutLong(handle.ptr(), -1);
+		}
+
+		long id() {
+			return MemoryUtil.memGetLong(handle.ptr());
+		}
+
+		void setId(long id) {
+			expectedId = id;
+			MemoryUtil.memPutLong(handle.ptr(), id);
+		}
+
+		@Override
+		public InstanceType<?> type() {
+			return TYPE;
+		}
+
+		@Override
+		public InstanceHandle handle() {
+			return handle;
+		}
+	}
+}
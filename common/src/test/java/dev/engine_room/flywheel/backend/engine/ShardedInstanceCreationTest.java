@@ -0,0 +1,117 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class ShardedInstanceCreationTest {
+	@Test
+	void stagedInstancesAreInvisibleUntilMerged() {
+		var instancer = new TestInstancer();
+
+		var instance = instancer.createStagedInstance();
+		var handle = (InstanceHandleImpl) instance.handle();
+
+		Assertions.assertEquals(0, instancer.instanceCount());
+		Assertions.assertEquals(InstanceHandleImpl.PENDING_INDEX, handle.index);
+
+		// Changing a pending instance is a no-op, it'll be uploaded once merged anyway.
+		instance.setChanged();
+
+		instancer.mergeStagedInstances();
+
+		Assertions.assertEquals(1, instancer.instanceCount());
+		Assertions.assertEquals(0, handle.index);
+		Assertions.assertEquals(TestInstancer.STRIDE, instancer.uploadBytes());
+		instancer.assertConsistent();
+	}
+
+	@Test
+	void deletedBeforeMergeIsDropped() {
+		var instancer = TestInstancer.filled(3);
+
+		var kept = instancer.createStagedInstance();
+		var dropped = instancer.createStagedInstance();
+		dropped.delete();
+
+		instancer.mergeStagedInstances();
+
+		Assertions.assertEquals(4, instancer.instanceCount());
+		Assertions.assertSame(kept, instancer.instance(3));
+		Assertions.assertEquals(-1, ((InstanceHandleImpl) dropped.handle()).index);
+		instancer.assertConsistent();
+	}
+
+	@Test
+	void stolenBeforeMergeMovesInstancers() {
+		var from = new TestInstancer();
+		var to = new TestInstancer();
+
+		var instance = from.createStagedInstance();
+		to.stealInstance(instance);
+
+		from.mergeStagedInstances();
+		to.mergeStagedInstances();
+
+		Assertions.assertEquals(0, from.instanceCount());
+		Assertions.assertEquals(1, to.instanceCount());
+		Assertions.assertSame(instance, to.instance(0));
+		to.assertConsistent();
+	}
+
+	@Test
+	void clearDropsStagedInstances() {
+		var instancer = new TestInstancer();
+
+		var instance = instancer.createStagedInstance();
+		instancer.clear();
+		instancer.mergeStagedInstances();
+
+		Assertions.assertEquals(0, instancer.instanceCount());
+		Assertions.assertEquals(-1, ((InstanceHandleImpl) instance.handle()).index);
+	}
+
+	@RepeatedTest(10)
+	void concurrentCreationMergesEverything() throws InterruptedException {
+		int threadCount = 8;
+		int perThread = 10_000;
+
+		var instancer = new TestInstancer();
+		var start = new CountDownLatch(1);
+		List<TestInstance> created = Collections.synchronizedList(new ArrayList<>());
+
+		var threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			threads[t] = new Thread(() -> {
+				var mine = new ArrayList<TestInstance>(perThread);
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				for (int i = 0; i < perThread; i++) {
+					mine.add(instancer.createStagedInstance());
+				}
+				created.addAll(mine);
+			});
+			threads[t].start();
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		instancer.mergeStagedInstances();
+
+		Assertions.assertEquals(threadCount * perThread, instancer.instanceCount());
+		Assertions.assertEquals(new HashSet<>(created), new HashSet<>(instancer.instances));
+		instancer.assertConsistent();
+	}
+}
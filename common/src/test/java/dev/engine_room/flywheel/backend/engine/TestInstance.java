@@ -0,0 +1,45 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import dev.engine_room.flywheel.api.instance.Instance;
+import dev.engine_room.flywheel.api.instance.InstanceHandle;
+import dev.engine_room.flywheel.api.instance.InstanceType;
+import dev.engine_room.flywheel.api.instance.InstanceWriter;
+import dev.engine_room.flywheel.api.layout.Layout;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * An instance with no data, for testing instancer bookkeeping without registering an instance type.
+ */
+record TestInstance(InstanceHandle handle) implements Instance {
+	static final InstanceType<TestInstance> TYPE = new InstanceType<>() {
+		@Override
+		public TestInstance create(InstanceHandle handle) {
+			return new TestInstance(handle);
+		}
+
+		@Override
+		public Layout layout() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public InstanceWriter<TestInstance> writer() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ResourceLocation vertexShader() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ResourceLocation cullShader() {
+			throw new UnsupportedOperationException();
+		}
+	};
+
+	@Override
+	public InstanceType<?> type() {
+		return TYPE;
+	}
+}
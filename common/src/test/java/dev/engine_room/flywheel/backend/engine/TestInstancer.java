@@ -0,0 +1,67 @@
+package dev.engine_room.flywheel.backend.engine;
+
+import org.junit.jupiter.api.Assertions;
+
+import dev.engine_room.flywheel.backend.engine.embed.GlobalEnvironment;
+import dev.engine_room.flywheel.lib.instance.InstanceTypes;
+
+/**
+ * An instancer with no GPU resources.
+ */
+class TestInstancer extends AbstractInstancer<TestInstance> {
+	/**
+	 * The size of a TransformedInstance, to make the byte counts look like a real upload.
+	 */
+	static final long STRIDE = InstanceTypes.TRANSFORMED.layout()
+			.byteSize();
+
+	TestInstancer() {
+		super(TestInstance.TYPE, GlobalEnvironment.INSTANCE);
+	}
+
+	/**
+	 * Create an instancer with the given number of instances that have all been uploaded once.
+	 */
+	static TestInstancer filled(int count) {
+		var out = new TestInstancer();
+		for (int i = 0; i < count; i++) {
+			out.createLockedInstance();
+		}
+		out.changed.clear();
+		return out;
+	}
+
+	TestInstance instance(int index) {
+		return instances.get(index);
+	}
+
+	/**
+	 * @return The number of bytes the indirect backend would upload for the changed instances.
+	 */
+	long uploadBytes() {
+		long[] out = {0};
+		changed.forEachSetSpan((startInclusive, endInclusive) -> {
+			int actualEnd = Math.min(endInclusive, instances.size() - 1);
+			if (startInclusive <= actualEnd) {
+				out[0] += (actualEnd - startInclusive + 1) * STRIDE;
+			}
+		});
+		return out[0];
+	}
+
+	/**
+	 * Assert that every handle knows where its instance is.
+	 */
+	void assertConsistent() {
+		Assertions.assertEquals(instances.size(), handles.size());
+
+		for (int i = 0; i < instanceCount(); i++) {
+			var instance = instance(i);
+			var handle = (InstanceHandleImpl) instance.handle();
+
+			Assertions.assertSame(handle, handles.get(i));
+			Assertions.assertEquals(i, handle.index);
+			Assertions.assertSame(this, handle.instancer);
+		}
+	}
+}
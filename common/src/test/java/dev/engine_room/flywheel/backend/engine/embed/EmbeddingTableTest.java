@@ -0,0 +1,193 @@
+package dev.engine_room.flywheel.backend.engine.embed;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+
+class EmbeddingTableTest {
+	private EmbeddingTable<Object> table;
+
+	@BeforeEach
+	public void setUp() {
+		table = new EmbeddingTable<>();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		table.delete();
+	}
+
+	@Test
+	void slotsAreStableAndReused() {
+		var a = new Object();
+		var b = new Object();
+
+		int slotA = table.slot(a);
+		int slotB = table.slot(b);
+
+		Assertions.assertEquals(1, slotA);
+		Assertions.assertEquals(2, slotB);
+		Assertions.assertEquals(slotA, table.slot(a));
+		Assertions.assertEquals(3, table.slotCount());
+
+		table.removeIf(e -> e == a);
+
+		Assertions.assertEquals(1, table.assignedSlots());
+		Assertions.assertEquals(slotA, table.slot(new Object()));
+		Assertions.assertEquals(3, table.slotCount());
+	}
+
+	@Test
+	void manySlotsGrowTheTable() {
+		for (int i = 0; i < 100; i++) {
+			Assertions.assertEquals(i + 1, table.slot(new Object()));
+		}
+
+		Assertions.assertEquals(101, table.slotCount());
+		Assertions.assertEquals(101 * EmbeddingTable.DESCRIPTOR_STRIDE, table.descriptorBytes());
+		assertIdentity(100);
+	}
+
+	@Test
+	void newSlotsAreIdentityWithoutLight() {
+		assertIdentity(0);
+
+		int slot = table.slot(new Object());
+		table.writeTransforms(slot, new Matrix4f().translation(1, 2, 3), new Matrix3f().rotationY(1));
+		table.removeIf(e -> true);
+
+		// The freed slot must not keep the old transform when handed out again.
+		Assertions.assertEquals(slot, table.slot(new Object()));
+		assertIdentity(slot);
+	}
+
+	@Test
+	void transformsUseStd430Layout() {
+		int slot = table.slot(new Object());
+		var pose = new Matrix4f().translation(1, 2, 3)
+				.rotateX(0.5f)
+				.scale(2);
+		var normal = new Matrix3f().rotationZ(0.25f);
+
+		table.writeTransforms(slot, pose, normal);
+
+		long ptr = table.descriptorPtr(slot);
+		var readPose = new Matrix4f();
+		for (int column = 0; column < 4; column++) {
+			for (int row = 0; row < 4; row++) {
+				readPose.setRowColumn(row, column, MemoryUtil.memGetFloat(ptr + EmbeddingTable.POSE_OFFSET + (column * 4L + row) * 4));
+			}
+		}
+		Assertions.assertEquals(pose, readPose);
+
+		for (int column = 0; column < 3; column++) {
+			long columnPtr = ptr + EmbeddingTable.NORMAL_OFFSET + column * 16L;
+			for (int row = 0; row < 3; row++) {
+				Assertions.assertEquals(normal.getRowColumn(row, column), MemoryUtil.memGetFloat(columnPtr + row * 4L));
+			}
+			Assertions.assertEquals(0, MemoryUtil.memGetFloat(columnPtr + 12));
+		}
+	}
+
+	@Test
+	void lightIsPackedOncePerOwner() {
+		var owner = new Object();
+		var other = new Object();
+		int first = table.slot(new Object());
+		int second = table.slot(new Object());
+		int third = table.slot(new Object());
+
+		var volume = cells(3 * 1 * 1, 10);
+		var otherVolume = cells(2 * 2 * 1, 20);
+
+		table.beginLight();
+		table.writeLight(first, owner, -1, 2, 5.5f, 3, 1, 1, volume.ptr());
+		table.writeLight(second, owner, -1, 2, 5.5f, 3, 1, 1, volume.ptr());
+		table.writeLight(third, other, 0, 0, 0, 2, 2, 1, otherVolume.ptr());
+
+		Assertions.assertEquals(0, lightOffset(first));
+		Assertions.assertEquals(0, lightOffset(second));
+		Assertions.assertEquals(3, lightOffset(third));
+		// 7 cells round up to a whole number of uints.
+		Assertions.assertEquals(16, table.lightBytes());
+
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertEquals(10 + i, MemoryUtil.memGetShort(table.lightPtr() + i * 2L));
+		}
+		for (int i = 0; i < 4; i++) {
+			Assertions.assertEquals(20 + i, MemoryUtil.memGetShort(table.lightPtr() + (3 + i) * 2L));
+		}
+
+		long ptr = table.descriptorPtr(first);
+		Assertions.assertEquals(-1, MemoryUtil.memGetFloat(ptr + EmbeddingTable.LIGHT_VOLUME_MIN_OFFSET));
+		Assertions.assertEquals(2, MemoryUtil.memGetFloat(ptr + EmbeddingTable.LIGHT_VOLUME_MIN_OFFSET + 4));
+		Assertions.assertEquals(5.5f, MemoryUtil.memGetFloat(ptr + EmbeddingTable.LIGHT_VOLUME_MIN_OFFSET + 8));
+		Assertions.assertEquals(3, MemoryUtil.memGetInt(ptr + EmbeddingTable.LIGHT_VOLUME_SIZE_OFFSET));
+		Assertions.assertEquals(1, MemoryUtil.memGetInt(ptr + EmbeddingTable.LIGHT_VOLUME_SIZE_OFFSET + 4));
+		Assertions.assertEquals(1, MemoryUtil.memGetInt(ptr + EmbeddingTable.LIGHT_VOLUME_SIZE_OFFSET + 8));
+
+		// Next frame starts from scratch.
+		table.beginLight();
+		table.writeLight(third, other, 0, 0, 0, 2, 2, 1, otherVolume.ptr());
+		Assertions.assertEquals(0, lightOffset(third));
+		Assertions.assertEquals(8, table.lightBytes());
+
+		volume.free();
+		otherVolume.free();
+	}
+
+	@Test
+	void largeLightVolumesGrowTheBuffer() {
+		var volume = cells(32 * 32 * 32, 0);
+		int slot = table.slot(new Object());
+
+		table.beginLight();
+		table.writeLight(slot, new Object(), 0, 0, 0, 32, 32, 32, volume.ptr());
+
+		Assertions.assertEquals(volume.size(), table.lightBytes());
+		Assertions.assertEquals(12345 & 0xFFFF, MemoryUtil.memGetShort(table.lightPtr() + 12345 * 2L) & 0xFFFF);
+
+		table.writeNoLight(slot);
+		Assertions.assertEquals(EmbeddingTable.NO_LIGHT, lightOffset(slot));
+
+		volume.free();
+	}
+
+	private void assertIdentity(int slot) {
+		long ptr = table.descriptorPtr(slot);
+
+		for (int column = 0; column < 4; column++) {
+			for (int row = 0; row < 4; row++) {
+				Assertions.assertEquals(row == column ? 1 : 0, MemoryUtil.memGetFloat(ptr + EmbeddingTable.POSE_OFFSET + (column * 4L + row) * 4));
+			}
+		}
+
+		for (int column = 0; column < 3; column++) {
+			for (int row = 0; row < 4; row++) {
+				Assertions.assertEquals(row == column ? 1 : 0, MemoryUtil.memGetFloat(ptr + EmbeddingTable.NORMAL_OFFSET + (column * 4L + row) * 4));
+			}
+		}
+
+		Assertions.assertEquals(EmbeddingTable.NO_LIGHT, lightOffset(slot));
+	}
+
+	private int lightOffset(int slot) {
+		return MemoryUtil.memGetInt(table.descriptorPtr(slot) + EmbeddingTable.LIGHT_VOLUME_SIZE_OFFSET + 12);
+	}
+
+	private static MemoryBlock cells(int count, int first) {
+		var block = MemoryBlock.malloc(count * EmbeddedLightVolume.STRIDE);
+
+		for (int i = 0; i < count; i++) {
+			MemoryUtil.memPutShort(block.ptr() + i * EmbeddedLightVolume.STRIDE, (short) (first + i));
+		}
+
+		return block;
+	}
+}
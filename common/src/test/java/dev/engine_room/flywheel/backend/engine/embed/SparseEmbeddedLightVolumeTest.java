@@ -0,0 +1,184 @@
+package dev.engine_room.flywheel.backend.engine.embed;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+class SparseEmbeddedLightVolumeTest {
+	private EmbeddedLightVolume dense;
+	private SparseEmbeddedLightVolume sparse;
+
+	@BeforeEach
+	public void setUp() {
+		dense = new EmbeddedLightVolume();
+		sparse = new SparseEmbeddedLightVolume();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		dense.delete();
+		sparse.delete();
+	}
+
+	@Test
+	void matchesDenseWithinOneSection() {
+		collectBoth(source(0), 2, 3, 4, 5, 6, 7);
+
+		assertMatchesDense(2, 3, 4, 5, 6, 7);
+		Assertions.assertEquals(1, sparse.pageCount());
+	}
+
+	@Test
+	void matchesDenseAcrossSections() {
+		collectBoth(source(0), -20, -3, 7, 40, 20, 33);
+
+		assertMatchesDense(-20, -3, 7, 40, 20, 33);
+		Assertions.assertEquals(4 * 3 * 3, sparse.pageCount());
+	}
+
+	@Test
+	void laterBoxesOverwriteEarlierOnes() {
+		collectBoth(source(0), 0, 0, 0, 20, 20, 20);
+		collectBoth(source(1), 10, 10, 10, 20, 20, 20);
+		collectBoth(source(2), -5, 15, 5, 10, 3, 30);
+
+		// The dense volume leaves cells outside of every box uninitialized, so only compare the boxes.
+		assertMatchesDense(0, 0, 0, 20, 20, 20);
+		assertMatchesDense(10, 10, 10, 20, 20, 20);
+		assertMatchesDense(-5, 15, 5, 10, 3, 30);
+	}
+
+	@Test
+	void sampledValuesMatchDense() {
+		collectBoth(source(0), -13, 2, 30, 37, 21, 19);
+		sparse.updatePageTable();
+
+		var random = new Random(42);
+
+		for (int i = 0; i < 10_000; i++) {
+			// Keep the 8 texels of each sample inside the collected box so the dense volume's wrap mode doesn't matter.
+			float x = -13 + 0.5f + random.nextFloat() * 36;
+			float y = 2 + 0.5f + random.nextFloat() * 20;
+			float z = 30 + 0.5f + random.nextFloat() * 18;
+
+			float[] expected = sampleTrilinear(dense::get, x, y, z);
+			float[] actual = sampleTrilinear(this::fetchThroughPageTable, x, y, z);
+
+			Assertions.assertArrayEquals(expected, actual, 1e-6f, "At " + x + ", " + y + ", " + z);
+		}
+	}
+
+	@Test
+	void memoryScalesWithSampledArea() {
+		// Two small boxes at opposite ends of a large structure.
+		collectBoth(source(0), 0, 64, 0, 8, 8, 8);
+		collectBoth(source(0), 4096, 64, 4096, 8, 8, 8);
+		sparse.updatePageTable();
+
+		assertMatchesDense(0, 64, 0, 8, 8, 8);
+		assertMatchesDense(4096, 64, 4096, 8, 8, 8);
+
+		Assertions.assertEquals(2, sparse.pageCount());
+
+		long denseBytes = dense.volume() * EmbeddedLightVolume.STRIDE;
+		Assertions.assertTrue(sparse.byteSize() * 100 < denseBytes, "Sparse: " + sparse.byteSize() + " bytes, dense: " + denseBytes + " bytes");
+	}
+
+	@Test
+	void clearDropsOldPages() {
+		collectBoth(source(0), 0, 0, 0, 32, 32, 32);
+		sparse.clear();
+		dense.clear();
+
+		Assertions.assertTrue(sparse.empty());
+
+		collectBoth(source(1), 100, 0, 0, 4, 4, 4);
+
+		Assertions.assertEquals(1, sparse.pageCount());
+		Assertions.assertEquals(0, sparse.get(5, 5, 5));
+		assertMatchesDense(100, 0, 0, 4, 4, 4);
+	}
+
+	private void collectBoth(EmbeddedLightVolume.LightSource source, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+		dense.collect(source, minX, minY, minZ, sizeX, sizeY, sizeZ);
+		sparse.collect(source, minX, minY, minZ, sizeX, sizeY, sizeZ);
+	}
+
+	private void assertMatchesDense(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+		sparse.updatePageTable();
+
+		for (int z = minZ; z < minZ + sizeZ; z++) {
+			for (int y = minY; y < minY + sizeY; y++) {
+				for (int x = minX; x < minX + sizeX; x++) {
+					short expected = dense.get(x, y, z);
+					Assertions.assertEquals(expected, sparse.get(x, y, z), "At " + x + ", " + y + ", " + z);
+					Assertions.assertEquals(expected, fetchThroughPageTable(x, y, z), "Page table lookup at " + x + ", " + y + ", " + z);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Does the same lookup as {@code _flw_fetchLightVolume} in the fragment shader.
+	 */
+	private short fetchThroughPageTable(int x, int y, int z) {
+		int sectionX = (x - sparse.x()) >> SparseEmbeddedLightVolume.PAGE_SIZE_LOG2;
+		int sectionY = (y - sparse.y()) >> SparseEmbeddedLightVolume.PAGE_SIZE_LOG2;
+		int sectionZ = (z - sparse.z()) >> SparseEmbeddedLightVolume.PAGE_SIZE_LOG2;
+
+		if (sectionX < 0 || sectionY < 0 || sectionZ < 0 || sectionX >= sparse.tableSizeX() || sectionY >= sparse.tableSizeY() || sectionZ >= sparse.tableSizeZ()) {
+			return 0;
+		}
+
+		int entry = MemoryUtil.memGetInt(sparse.pageTablePtr() + sparse.pageTableOffset(sectionX, sectionY, sectionZ));
+
+		if (entry == 0) {
+			return 0;
+		}
+
+		return MemoryUtil.memGetShort(sparse.pagePtr(entry - 1) + SparseEmbeddedLightVolume.offsetInPage(x, y, z));
+	}
+
+	/**
+	 * Linearly filter block and sky light like a {@code GL_LINEAR} 3D texture would.
+	 */
+	private static float[] sampleTrilinear(EmbeddedLightVolume.LightSource fetch, float x, float y, float z) {
+		float cx = x - 0.5f;
+		float cy = y - 0.5f;
+		float cz = z - 0.5f;
+		int bx = (int) Math.floor(cx);
+		int by = (int) Math.floor(cy);
+		int bz = (int) Math.floor(cz);
+		float tx = cx - bx;
+		float ty = cy - by;
+		float tz = cz - bz;
+
+		float[] out = new float[2];
+
+		for (int dz = 0; dz <= 1; dz++) {
+			for (int dy = 0; dy <= 1; dy++) {
+				for (int dx = 0; dx <= 1; dx++) {
+					float weight = (dx == 0 ? 1 - tx : tx) * (dy == 0 ? 1 - ty : ty) * (dz == 0 ? 1 - tz : tz);
+					short packed = fetch.get(bx + dx, by + dy, bz + dz);
+
+					out[0] += weight * (packed & 0xFF);
+					out[1] += weight * ((packed >> 8) & 0xFF);
+				}
+			}
+		}
+
+		return out;
+	}
+
+	private static EmbeddedLightVolume.LightSource source(int seed) {
+		return (x, y, z) -> {
+			int hash = (x * 73856093) ^ (y * 19349663) ^ (z * 83492791) ^ (seed * 668265263);
+			hash ^= hash >>> 13;
+			return EmbeddedLightVolume.pack(hash & 15, (hash >>> 4) & 15);
+		};
+	}
+}
@@ -0,0 +1,128 @@
+package dev.engine_room.flywheel.backend.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonParser;
+
+class RollingSamplesTest {
+	@Test
+	void emptySnapshotIsAllZero() {
+		var snapshot = new RollingSamples(8).snapshot();
+
+		Assertions.assertEquals(0, snapshot.size());
+		Assertions.assertEquals(0, snapshot.percentile(0.5));
+		Assertions.assertEquals(0, snapshot.max());
+		Assertions.assertEquals(0, snapshot.mean());
+	}
+
+	@Test
+	void percentilesUseNearestRank() {
+		var samples = new RollingSamples(128);
+		// Out of order, so the snapshot has to sort.
+		for (int i = 100; i >= 1; i--) {
+			samples.record(i);
+		}
+
+		var snapshot = samples.snapshot();
+		Assertions.assertEquals(100, snapshot.size());
+		Assertions.assertEquals(1, snapshot.min());
+		Assertions.assertEquals(50, snapshot.percentile(0.5));
+		Assertions.assertEquals(95, snapshot.percentile(0.95));
+		Assertions.assertEquals(100, snapshot.percentile(1));
+		Assertions.assertEquals(1, snapshot.percentile(0));
+		Assertions.assertEquals(50.5, snapshot.mean());
+	}
+
+	@Test
+	void keepsOnlyTheMostRecentSamples() {
+		var samples = new RollingSamples(16);
+		for (int i = 0; i < 100; i++) {
+			samples.record(i);
+		}
+
+		var snapshot = samples.snapshot();
+		Assertions.assertEquals(16, snapshot.size());
+		Assertions.assertEquals(100, snapshot.count());
+		Assertions.assertEquals(84, snapshot.min());
+		Assertions.assertEquals(99, snapshot.max());
+	}
+
+	@Test
+	void rejectsCapacitiesThatArentPowersOfTwo() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new RollingSamples(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new RollingSamples(100));
+	}
+
+	@Test
+	void concurrentRecordingLosesNothing() throws InterruptedException {
+		var samples = new RollingSamples(1024);
+		List<Thread> threads = new ArrayList<>();
+
+		for (int t = 0; t < 4; t++) {
+			var thread = new Thread(() -> {
+				for (int i = 0; i < 256; i++) {
+					samples.record(7);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		for (var thread : threads) {
+			thread.join();
+		}
+
+		var snapshot = samples.snapshot();
+		Assertions.assertEquals(1024, snapshot.size());
+		Assertions.assertEquals(7, snapshot.min());
+		Assertions.assertEquals(7, snapshot.max());
+	}
+
+	@Test
+	void perFrameMetricsSampleTheFrameTotal() {
+		var metric = new Metric("test", Metric.Unit.NANOS, true, 8);
+		metric.add(3);
+		metric.add(4);
+		metric.commitFrame();
+		metric.commitFrame();
+
+		var snapshot = metric.snapshot();
+		Assertions.assertEquals(2, snapshot.size());
+		Assertions.assertEquals(0, snapshot.min());
+		Assertions.assertEquals(7, snapshot.max());
+	}
+
+	@Test
+	void formatsEveryMetric() {
+		var a = new Metric("a/time", Metric.Unit.NANOS, false, 8);
+		var b = new Metric("b/bytes", Metric.Unit.BYTES, false, 8);
+		a.record(10);
+		a.record(30);
+		b.record(1024);
+		var metrics = List.of(a, b);
+
+		var lines = FlwMetrics.Format.CSV.write(metrics)
+				.split("\n");
+		Assertions.assertEquals(3, lines.length);
+		Assertions.assertEquals("name,unit,samples,min,p50,p95,p99,max,mean", lines[0]);
+		Assertions.assertEquals("a/time,nanos,2,10,10,30,30,30,20.0", lines[1]);
+		Assertions.assertEquals("b/bytes,bytes,1,1024,1024,1024,1024,1024,1024.0", lines[2]);
+
+		var json = JsonParser.parseString(FlwMetrics.Format.JSON.write(metrics))
+				.getAsJsonObject();
+		Assertions.assertEquals(2, json.size());
+		var time = json.getAsJsonObject("a/time");
+		Assertions.assertEquals("nanos", time.get("unit")
+				.getAsString());
+		Assertions.assertEquals(10, time.get("p50")
+				.getAsLong());
+		Assertions.assertEquals(30, time.get("p95")
+				.getAsLong());
+		Assertions.assertEquals(20.0, time.get("mean")
+				.getAsDouble());
+	}
+}
@@ -0,0 +1,76 @@
+package dev.engine_room.flywheel.backend.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+
+class ContentHashTest {
+	@Test
+	void matchesReferenceXxh64() {
+		assertHash(0xEF46DB3751D8E999L, "");
+		assertHash(0xD24EC4F1A98C6E5BL, "a");
+		assertHash(0x44BC2CF5AD770999L, "abc");
+		assertHash(0x0B242D361FDA71BCL, "The quick brown fox jumps over the lazy dog");
+	}
+
+	@Test
+	void singleByteChangesHash() {
+		var block = filled(1000);
+		long before = ContentHash.hash(block.ptr(), block.size());
+
+		for (long i = 0; i < block.size(); i += 97) {
+			byte original = MemoryUtil.memGetByte(block.ptr() + i);
+			MemoryUtil.memPutByte(block.ptr() + i, (byte) (original + 1));
+			Assertions.assertNotEquals(before, ContentHash.hash(block.ptr(), block.size()), "byte " + i);
+			MemoryUtil.memPutByte(block.ptr() + i, original);
+		}
+
+		Assertions.assertEquals(before, ContentHash.hash(block.ptr(), block.size()));
+		block.free();
+	}
+
+	@Test
+	void comparesEveryByte() {
+		// Odd length so both the long and byte loops run.
+		var a = filled(131);
+		var b = filled(131);
+
+		Assertions.assertTrue(ContentHash.contentEquals(a.ptr(), b.ptr(), a.size()));
+
+		MemoryUtil.memPutByte(b.ptr() + 130, (byte) 0x7F);
+		Assertions.assertFalse(ContentHash.contentEquals(a.ptr(), b.ptr(), a.size()));
+		Assertions.assertTrue(ContentHash.contentEquals(a.ptr(), b.ptr(), 130));
+
+		MemoryUtil.memPutByte(b.ptr() + 3, (byte) 0x7F);
+		Assertions.assertFalse(ContentHash.contentEquals(a.ptr(), b.ptr(), 130));
+
+		a.free();
+		b.free();
+	}
+
+	private static MemoryBlock filled(int size) {
+		var block = MemoryBlock.malloc(size);
+
+		for (int i = 0; i < size; i++) {
+			MemoryUtil.memPutByte(block.ptr() + i, (byte) (i * 31));
+		}
+
+		return block;
+	}
+
+	private static void assertHash(long expected, String input) {
+		byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+		var block = MemoryBlock.malloc(Math.max(bytes.length, 1));
+
+		for (int i = 0; i < bytes.length; i++) {
+			MemoryUtil.memPutByte(block.ptr() + i, bytes[i]);
+		}
+
+		Assertions.assertEquals(expected, ContentHash.hash(block.ptr(), bytes.length), input);
+		block.free();
+	}
+}
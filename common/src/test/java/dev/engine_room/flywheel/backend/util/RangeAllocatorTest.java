@@ -0,0 +1,148 @@
+package dev.engine_room.flywheel.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RangeAllocatorTest {
+	@Test
+	void appendsWhenFreeListIsEmpty() {
+		var allocator = new RangeAllocator();
+
+		Assertions.assertEquals(0, allocator.alloc(10));
+		Assertions.assertEquals(10, allocator.alloc(5));
+		Assertions.assertEquals(15, allocator.alloc(1));
+		Assertions.assertEquals(16, allocator.end());
+		Assertions.assertEquals(16, allocator.used());
+		Assertions.assertEquals(0, allocator.fragmentation());
+	}
+
+	@Test
+	void reusesFreedRanges() {
+		var allocator = new RangeAllocator();
+		int a = allocator.alloc(10);
+		allocator.alloc(10);
+
+		allocator.free(a, 10);
+		Assertions.assertEquals(20, allocator.end(), "Freeing a hole doesn't shrink the arena.");
+		Assertions.assertEquals(0.5f, allocator.fragmentation());
+
+		Assertions.assertEquals(0, allocator.alloc(4));
+		Assertions.assertEquals(4, allocator.alloc(6));
+		Assertions.assertEquals(20, allocator.alloc(1), "The hole is full, so this must append.");
+	}
+
+	@Test
+	void coalescesNeighbours() {
+		var allocator = new RangeAllocator();
+		int a = allocator.alloc(10);
+		int b = allocator.alloc(10);
+		int c = allocator.alloc(10);
+		allocator.alloc(10);
+
+		allocator.free(a, 10);
+		allocator.free(c, 10);
+		allocator.free(b, 10);
+
+		Assertions.assertEquals(0, allocator.alloc(30), "The three freed ranges should merge into one.");
+		Assertions.assertEquals(40, allocator.end());
+	}
+
+	@Test
+	void freeingTheTailShrinksTheArena() {
+		var allocator = new RangeAllocator();
+		int a = allocator.alloc(10);
+		int b = allocator.alloc(10);
+		int c = allocator.alloc(10);
+
+		allocator.free(b, 10);
+		allocator.free(c, 10);
+		Assertions.assertEquals(10, allocator.end(), "The tail and the hole before it should both be dropped.");
+
+		allocator.free(a, 10);
+		Assertions.assertEquals(0, allocator.end());
+		Assertions.assertEquals(0, allocator.used());
+	}
+
+	@Test
+	void allocBelowRespectsLimit() {
+		var allocator = new RangeAllocator();
+		allocator.alloc(10);
+		int b = allocator.alloc(10);
+		allocator.alloc(10);
+
+		allocator.free(b, 10);
+
+		Assertions.assertEquals(-1, allocator.allocBelow(10, 15));
+		Assertions.assertEquals(-1, allocator.allocBelow(11, 30));
+		Assertions.assertEquals(10, allocator.allocBelow(10, 20));
+		Assertions.assertEquals(-1, allocator.allocBelow(1, 100), "allocBelow never appends.");
+	}
+
+	@Test
+	void rejectsBadFrees() {
+		var allocator = new RangeAllocator();
+		int a = allocator.alloc(10);
+		allocator.alloc(10);
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> allocator.free(15, 10));
+
+		allocator.free(a, 10);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> allocator.free(a, 10));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> allocator.free(5, 2));
+	}
+
+	@Test
+	void randomAllocationsNeverOverlap() {
+		var random = new Random(42);
+		var allocator = new RangeAllocator();
+		List<int[]> live = new ArrayList<>();
+
+		for (int step = 0; step < 10_000; step++) {
+			if (live.isEmpty() || random.nextInt(3) != 0) {
+				int size = 1 + random.nextInt(64);
+				live.add(new int[] { allocator.alloc(size), size });
+			} else {
+				int[] range = live.remove(random.nextInt(live.size()));
+				allocator.free(range[0], range[1]);
+			}
+
+			if (step % 100 == 0) {
+				assertConsistent(allocator, live);
+			}
+		}
+
+		assertConsistent(allocator, live);
+
+		for (int[] range : live) {
+			allocator.free(range[0], range[1]);
+		}
+
+		Assertions.assertEquals(0, allocator.end());
+		Assertions.assertEquals(0, allocator.used());
+	}
+
+	private static void assertConsistent(RangeAllocator allocator, List<int[]> live) {
+		int used = 0;
+		int maxEnd = 0;
+		var sorted = new ArrayList<>(live);
+		sorted.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+		for (int i = 0; i < sorted.size(); i++) {
+			int[] range = sorted.get(i);
+			used += range[1];
+			maxEnd = Math.max(maxEnd, range[0] + range[1]);
+
+			if (i > 0) {
+				int[] prev = sorted.get(i - 1);
+				Assertions.assertTrue(prev[0] + prev[1] <= range[0], "Ranges overlap");
+			}
+		}
+
+		Assertions.assertEquals(used, allocator.used());
+		Assertions.assertEquals(maxEnd, allocator.end(), "The arena should end at the last live range.");
+	}
+}
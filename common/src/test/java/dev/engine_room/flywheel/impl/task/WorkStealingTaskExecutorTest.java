@@ -0,0 +1,156 @@
+package dev.engine_room.flywheel.impl.task;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.lib.task.Distribute;
+import dev.engine_room.flywheel.lib.task.NamedFlag;
+
+class WorkStealingTaskExecutorTest {
+	private WorkStealingTaskExecutor executor;
+	private Thread mainThread;
+
+	@BeforeEach
+	public void setUp() {
+		mainThread = Thread.currentThread();
+		executor = new WorkStealingTaskExecutor("WorkStealingTest", 4, () -> mainThread == Thread.currentThread());
+		executor.startWorkers();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.stopWorkers();
+		executor = null;
+	}
+
+	@RepeatedTest(10)
+	void runsEveryTaskExactlyOnce() {
+		int count = 10_000;
+		var runs = new AtomicIntegerArray(count);
+
+		for (int i = 0; i < count; i++) {
+			int index = i;
+			executor.execute(() -> runs.incrementAndGet(index));
+		}
+
+		executor.syncPoint();
+
+		for (int i = 0; i < count; i++) {
+			Assertions.assertEquals(1, runs.get(i), "Task " + i);
+		}
+	}
+
+	@RepeatedTest(10)
+	void nestedSubmissionsFromWorkers() {
+		var counter = new AtomicInteger(0);
+
+		for (int i = 0; i < 16; i++) {
+			executor.execute(() -> {
+				for (int j = 0; j < 64; j++) {
+					executor.execute(counter::incrementAndGet);
+				}
+			});
+		}
+
+		executor.syncPoint();
+
+		Assertions.assertEquals(16 * 64, counter.get());
+	}
+
+	@Test
+	void distributeCompletes() {
+		var counter = new AtomicInteger(0);
+		var done = new NamedFlag("distributed");
+		var list = Collections.nCopies(100_000, 1);
+
+		executor.execute(() -> Distribute.tasks(executor, counter, done::raise, list, (one, c) -> c.addAndGet(one)));
+
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+		Assertions.assertEquals(100_000, counter.get());
+	}
+
+	@Test
+	void mainThreadTasksRunOnMainThread() {
+		var ranOnMain = new AtomicBoolean(false);
+
+		executor.execute(() -> executor.scheduleForMainThread(() -> ranOnMain.set(Thread.currentThread() == mainThread)));
+
+		executor.syncPoint();
+
+		Assertions.assertTrue(ranOnMain.get());
+	}
+
+	@Test
+	void syncWhileReturnsConditionValue() {
+		var flag = new NamedFlag("raised by worker");
+
+		executor.execute(() -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			flag.raise();
+		});
+
+		Assertions.assertTrue(executor.syncWhile(flag::isLowered));
+		Assertions.assertTrue(flag.isRaised());
+		Assertions.assertFalse(executor.syncWhile(flag::isRaised), "Nothing left to run so the flag can't be lowered.");
+	}
+
+	@RepeatedTest(10)
+	void dequeStealsEachTaskOnce() throws InterruptedException {
+		int count = 100_000;
+		var deque = new WorkStealingDeque();
+		var runs = new AtomicIntegerArray(count);
+		var ownerDone = new AtomicBoolean(false);
+
+		Thread[] thieves = new Thread[3];
+		for (int i = 0; i < thieves.length; i++) {
+			thieves[i] = new Thread(() -> {
+				while (!ownerDone.get() || !deque.isEmpty()) {
+					Runnable task = deque.steal();
+					if (task != null) {
+						task.run();
+					}
+				}
+			});
+			thieves[i].start();
+		}
+
+		for (int i = 0; i < count; i++) {
+			int index = i;
+			deque.push(() -> runs.incrementAndGet(index));
+
+			// Pop every so often to race the thieves for the bottom.
+			if ((i & 3) == 0) {
+				Runnable task = deque.pop();
+				if (task != null) {
+					task.run();
+				}
+			}
+		}
+
+		Runnable task;
+		while ((task = deque.pop()) != null) {
+			task.run();
+		}
+		ownerDone.set(true);
+
+		for (Thread thief : thieves) {
+			thief.join();
+		}
+
+		for (int i = 0; i < count; i++) {
+			Assertions.assertEquals(1, runs.get(i), "Task " + i);
+		}
+	}
+}
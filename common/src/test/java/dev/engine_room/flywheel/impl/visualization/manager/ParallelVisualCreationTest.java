@@ -0,0 +1,206 @@
+package dev.engine_room.flywheel.impl.visualization.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.api.visual.Visual;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import dev.engine_room.flywheel.impl.visualization.storage.Storage;
+import dev.engine_room.flywheel.lib.task.Flag;
+import dev.engine_room.flywheel.lib.task.NamedFlag;
+
+class ParallelVisualCreationTest {
+	private ParallelTaskExecutor executor;
+
+	@BeforeEach
+	public void setUp() {
+		Thread mainThread = Thread.currentThread();
+		executor = new ParallelTaskExecutor("ParallelVisualCreationTest", 4, () -> mainThread == Thread.currentThread());
+		executor.startWorkers();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.stopWorkers();
+		executor = null;
+	}
+
+	@Test
+	void createsEveryVisualOnce() {
+		var manager = new VisualManagerImpl<>(new TestStorage());
+
+		for (int i = 0; i < 10_000; i++) {
+			manager.queueAdd(i);
+		}
+
+		processParallel(manager);
+
+		var storage = manager.getStorage();
+		Assertions.assertEquals(10_000, manager.getVisualCount());
+		Assertions.assertEquals(10_000, storage.inits.get());
+		Assertions.assertEquals(10_000, storage.added.size(), "visualAdded should be called once per visual");
+	}
+
+	@Test
+	void preservesOrderForTheSameObject() {
+		var manager = new VisualManagerImpl<>(new TestStorage());
+
+		manager.queueAdd(1);
+		manager.queueRemove(1);
+		manager.queueAdd(1);
+		manager.queueUpdate(1);
+
+		manager.queueAdd(2);
+		manager.queueRemove(2);
+
+		manager.queueRemove(3);
+		manager.queueAdd(3);
+		manager.queueAdd(3);
+
+		processParallel(manager);
+
+		var storage = manager.getStorage();
+		Assertions.assertTrue(storage.contains(1));
+		Assertions.assertFalse(storage.contains(2));
+		Assertions.assertTrue(storage.contains(3));
+		Assertions.assertEquals(4, storage.inits.get(), "Each add of a missing object creates exactly one visual");
+		Assertions.assertEquals(2, storage.deletes.get());
+
+		var visual1 = storage.visual(1);
+		Assertions.assertEquals(1, visual1.updates, "The update came after the second add, so it must hit the second visual");
+	}
+
+	@Test
+	void skipsObjectsWithoutVisuals() {
+		var manager = new VisualManagerImpl<>(new TestStorage());
+
+		manager.queueAdd(-1);
+		manager.queueAdd(5);
+		manager.queueAdd(-1);
+
+		processParallel(manager);
+
+		Assertions.assertEquals(1, manager.getVisualCount());
+		Assertions.assertFalse(manager.getStorage()
+				.contains(-1));
+	}
+
+	@RepeatedTest(5)
+	void matchesSerialApplication() {
+		var serial = new VisualManagerImpl<>(new TestStorage());
+		var parallel = new VisualManagerImpl<>(new TestStorage());
+		var random = new Random(1234);
+
+		for (int round = 0; round < 20; round++) {
+			for (int i = 0; i < 2000; i++) {
+				int obj = random.nextInt(500) - 10;
+				switch (random.nextInt(3)) {
+				case 0 -> {
+					serial.queueAdd(obj);
+					parallel.queueAdd(obj);
+				}
+				case 1 -> {
+					serial.queueRemove(obj);
+					parallel.queueRemove(obj);
+				}
+				default -> {
+					serial.queueUpdate(obj);
+					parallel.queueUpdate(obj);
+				}
+				}
+			}
+
+			serial.processQueue(0);
+			processParallel(parallel);
+
+			var expected = serial.getStorage();
+			var actual = parallel.getStorage();
+			Assertions.assertEquals(expected.inits.get(), actual.inits.get());
+			Assertions.assertEquals(expected.deletes.get(), actual.deletes.get());
+			Assertions.assertEquals(serial.getVisualCount(), parallel.getVisualCount());
+
+			for (int obj = -10; obj < 490; obj++) {
+				Assertions.assertEquals(expected.contains(obj), actual.contains(obj), "Object " + obj);
+				if (expected.contains(obj)) {
+					Assertions.assertEquals(expected.visual(obj).updates, actual.visual(obj).updates, "Updates of " + obj);
+				}
+			}
+		}
+	}
+
+	private void processParallel(VisualManagerImpl<Integer, TestStorage> manager) {
+		Flag done = new NamedFlag("done");
+		executor.execute(() -> manager.processQueueParallel(executor, 0, done::raise));
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+	}
+
+	private static class TestStorage extends Storage<Integer> {
+		private final AtomicInteger inits = new AtomicInteger();
+		private final AtomicInteger deletes = new AtomicInteger();
+		private final List<Integer> added = new ArrayList<>();
+
+		private TestStorage() {
+			super(() -> null);
+		}
+
+		private TestVisual visual(int obj) {
+			return getAllVisuals().stream()
+					.map(TestVisual.class::cast)
+					.filter(v -> v.obj == obj)
+					.findFirst()
+					.orElseThrow();
+		}
+
+		@Override
+		@Nullable
+		protected Visual createRaw(Integer obj) {
+			// Negative objects can't be visualized.
+			return obj < 0 ? null : new TestVisual(this, obj);
+		}
+
+		@Override
+		protected void visualAdded(Integer obj, Visual visual) {
+			added.add(obj);
+		}
+
+		@Override
+		public boolean willAccept(Integer obj) {
+			return true;
+		}
+	}
+
+	private static class TestVisual implements Visual {
+		private final TestStorage storage;
+		private final int obj;
+		private int updates;
+
+		private TestVisual(TestStorage storage, int obj) {
+			this.storage = storage;
+			this.obj = obj;
+		}
+
+		@Override
+		public void init(float partialTick) {
+			storage.inits.incrementAndGet();
+		}
+
+		@Override
+		public void update(float partialTick) {
+			updates++;
+		}
+
+		@Override
+		public void delete() {
+			storage.deletes.incrementAndGet();
+		}
+	}
+}
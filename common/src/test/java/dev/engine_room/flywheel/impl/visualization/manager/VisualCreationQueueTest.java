@@ -0,0 +1,191 @@
+package dev.engine_room.flywheel.impl.visualization.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.api.visual.Visual;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import dev.engine_room.flywheel.impl.visualization.storage.Storage;
+import dev.engine_room.flywheel.impl.visualization.storage.Transaction;
+import dev.engine_room.flywheel.lib.task.Flag;
+import dev.engine_room.flywheel.lib.task.NamedFlag;
+
+class VisualCreationQueueTest {
+	// Looking down -Z from the origin.
+	private static final FrustumIntersection FRUSTUM = new FrustumIntersection(new Matrix4f().perspective((float) Math.toRadians(70), 1, 0.05f, 1000));
+	private static final Vector3d ZERO = new Vector3d();
+
+	private ParallelTaskExecutor executor;
+
+	@BeforeEach
+	public void setUp() {
+		Thread mainThread = Thread.currentThread();
+		executor = new ParallelTaskExecutor("VisualCreationQueueTest", 4, () -> mainThread == Thread.currentThread());
+		executor.startWorkers();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.stopWorkers();
+		executor = null;
+	}
+
+	@Test
+	void createsVisibleThenClosestFirst() {
+		var storage = new TestStorage();
+		var queue = new VisualCreationQueue<Integer>(1);
+
+		// In front of the camera at increasing distances.
+		storage.positions.put(1, new Vector3d(0, 0, -50));
+		storage.positions.put(2, new Vector3d(0, 0, -10));
+		storage.positions.put(3, new Vector3d(0, 0, -30));
+		// Behind the camera, but closer than everything in front.
+		storage.positions.put(4, new Vector3d(0, 0, 5));
+		// No position at all.
+		storage.positions.put(5, null);
+
+		for (int i = 1; i <= 5; i++) {
+			queue.apply(Transaction.add(i), storage, 0);
+		}
+
+		Assertions.assertEquals(5, queue.depth());
+		Assertions.assertTrue(storage.created.isEmpty(), "Adds should only be queued");
+
+		// A 1ns budget creates exactly one visual per frame.
+		for (int i = 0; i < 5; i++) {
+			create(queue, storage, false);
+		}
+
+		Assertions.assertEquals(List.of(5, 2, 3, 1, 4), storage.created);
+		Assertions.assertEquals(0, queue.depth());
+	}
+
+	@Test
+	void spreadsCreationOverFrames() {
+		var storage = new TestStorage();
+		var queue = new VisualCreationQueue<Integer>(1);
+
+		for (int i = 0; i < 100; i++) {
+			storage.positions.put(i, new Vector3d(0, 0, -i));
+			queue.apply(Transaction.add(i), storage, 0);
+		}
+
+		create(queue, storage, false);
+		Assertions.assertEquals(1, storage.created.size());
+		Assertions.assertEquals(99, queue.depth());
+
+		// Parallel creation checks the budget once per batch, but still shouldn't create everything.
+		create(queue, storage, true);
+		Assertions.assertTrue(storage.created.size() < 100);
+		Assertions.assertTrue(queue.overruns() > 0);
+	}
+
+	@Test
+	void generousBudgetCreatesEverything() {
+		var storage = new TestStorage();
+		var queue = new VisualCreationQueue<Integer>(Long.MAX_VALUE);
+
+		for (int i = 0; i < 1000; i++) {
+			storage.positions.put(i, new Vector3d(i, 0, 0));
+			queue.apply(Transaction.add(i), storage, 0);
+		}
+
+		create(queue, storage, true);
+
+		Assertions.assertEquals(1000, storage.created.size());
+		Assertions.assertEquals(0, queue.depth());
+		Assertions.assertEquals(0, queue.overruns());
+	}
+
+	@Test
+	void removesAndUpdatesOfPendingObjectsNeverReachStorage() {
+		var storage = new TestStorage();
+		var queue = new VisualCreationQueue<Integer>(Long.MAX_VALUE);
+		storage.positions.put(1, null);
+		storage.positions.put(2, null);
+
+		queue.apply(Transaction.add(1), storage, 0);
+		queue.apply(Transaction.update(1), storage, 0);
+		queue.apply(Transaction.add(2), storage, 0);
+		queue.apply(Transaction.remove(2), storage, 0);
+		queue.apply(Transaction.add(1), storage, 0);
+
+		Assertions.assertEquals(1, queue.depth());
+
+		create(queue, storage, false);
+
+		Assertions.assertEquals(List.of(1), storage.created);
+		Assertions.assertTrue(storage.contains(1));
+		Assertions.assertFalse(storage.contains(2));
+
+		// Now that it exists, updates and removes go straight to the storage.
+		queue.apply(Transaction.add(1), storage, 0);
+		Assertions.assertEquals(0, queue.depth());
+		queue.apply(Transaction.remove(1), storage, 0);
+		Assertions.assertFalse(storage.contains(1));
+	}
+
+	private void create(VisualCreationQueue<Integer> queue, TestStorage storage, boolean parallel) {
+		Flag done = new NamedFlag("done");
+		executor.execute(() -> queue.create(executor, storage, ZERO, ZERO, FRUSTUM, 0, parallel, done::raise));
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+	}
+
+	private static class TestStorage extends Storage<Integer> {
+		private final Map<Integer, @Nullable Vector3d> positions = new HashMap<>();
+		private final List<Integer> created = new ArrayList<>();
+
+		private TestStorage() {
+			super(() -> null);
+		}
+
+		@Override
+		@Nullable
+		protected Visual createRaw(Integer obj) {
+			return new Visual() {
+				@Override
+				public void init(float partialTick) {
+				}
+
+				@Override
+				public void update(float partialTick) {
+				}
+
+				@Override
+				public void delete() {
+				}
+			};
+		}
+
+		@Override
+		protected void visualAdded(Integer obj, Visual visual) {
+			created.add(obj);
+		}
+
+		@Override
+		public boolean position(Integer obj, Vector3d out) {
+			var pos = positions.get(obj);
+			if (pos == null) {
+				return false;
+			}
+			out.set(pos);
+			return true;
+		}
+
+		@Override
+		public boolean willAccept(Integer obj) {
+			return true;
+		}
+	}
+}
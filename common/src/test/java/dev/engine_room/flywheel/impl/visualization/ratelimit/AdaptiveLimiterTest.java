@@ -0,0 +1,102 @@
+package dev.engine_room.flywheel.impl.visualization.ratelimit;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+	private static final long TARGET_NANOS = 2_000_000;
+
+	@Test
+	void nearbyObjectsUpdateEveryFrame() {
+		var limiter = new AdaptiveLimiter(TARGET_NANOS);
+
+		for (int frame = 0; frame < 10; frame++) {
+			limiter.tick();
+
+			for (int phase = 0; phase < 100; phase++) {
+				Assertions.assertTrue(limiter.shouldUpdate(100, phase));
+			}
+		}
+	}
+
+	@Test
+	void phasesSpreadUpdatesAcrossFrames() {
+		var limiter = new AdaptiveLimiter(TARGET_NANOS);
+		// Far enough to land in the last band.
+		double distanceSquared = AdaptiveLimiter.INITIAL_BAND_WIDTH * 100;
+		int divisor = 32;
+		int objects = 3200;
+		int[] updates = new int[objects];
+
+		for (int frame = 0; frame < divisor; frame++) {
+			limiter.tick();
+
+			int updatedThisFrame = 0;
+			for (int phase = 0; phase < objects; phase++) {
+				if (limiter.shouldUpdate(distanceSquared, phase)) {
+					updates[phase]++;
+					updatedThisFrame++;
+				}
+			}
+
+			// Without phases, every object would update on the same frame.
+			Assertions.assertTrue(updatedThisFrame > objects / divisor / 2 && updatedThisFrame < objects / divisor * 2, "Updated " + updatedThisFrame + " objects on frame " + frame);
+		}
+
+		for (int phase = 0; phase < objects; phase++) {
+			Assertions.assertEquals(1, updates[phase], "Object with phase " + phase + " should update exactly once per period");
+		}
+	}
+
+	@Test
+	void bandsNarrowWhenOverBudgetAndWidenWhenUnder() {
+		var limiter = new AdaptiveLimiter(TARGET_NANOS);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.adapt(TARGET_NANOS * 3);
+		}
+		Assertions.assertEquals(AdaptiveLimiter.MIN_BAND_WIDTH, limiter.bandWidth());
+
+		// Smoothing means a single cheap frame doesn't widen the bands right away.
+		limiter.adapt(0);
+		Assertions.assertEquals(AdaptiveLimiter.MIN_BAND_WIDTH, limiter.bandWidth());
+
+		for (int i = 0; i < 1000; i++) {
+			limiter.adapt(TARGET_NANOS / 10);
+		}
+		Assertions.assertEquals(AdaptiveLimiter.MAX_BAND_WIDTH, limiter.bandWidth());
+
+		// Close to the target, leave the bands alone.
+		var settled = new AdaptiveLimiter(TARGET_NANOS);
+		for (int i = 0; i < 100; i++) {
+			settled.adapt(TARGET_NANOS * 9 / 10);
+		}
+		Assertions.assertEquals(AdaptiveLimiter.INITIAL_BAND_WIDTH, settled.bandWidth());
+	}
+
+	@Test
+	void shouldUpdateAnyMatchesShouldUpdate() {
+		var random = new Random(42);
+		var limiter = new AdaptiveLimiter(TARGET_NANOS);
+
+		for (int tick = 0; tick < 200; tick++) {
+			limiter.tick();
+			int phase = random.nextInt();
+
+			for (int i = 0; i < 100; i++) {
+				double min = random.nextDouble(0, 30_000);
+				double max = min + random.nextDouble(0, 10_000);
+
+				boolean expected = false;
+				for (double distanceSquared = min; distanceSquared <= max; distanceSquared += 16) {
+					expected |= limiter.shouldUpdate(distanceSquared, phase);
+				}
+				expected |= limiter.shouldUpdate(max, phase);
+
+				Assertions.assertEquals(expected, limiter.shouldUpdateAny(min, max, phase), "Range " + min + " to " + max);
+			}
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package dev.engine_room.flywheel.impl.visualization.ratelimit;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BandedPrimeLimiterTest {
+	@Test
+	void shouldUpdateAnyMatchesShouldUpdate() {
+		var random = new Random(42);
+		var limiter = new BandedPrimeLimiter();
+
+		for (int tick = 0; tick < 200; tick++) {
+			limiter.tick();
+
+			for (int i = 0; i < 100; i++) {
+				double min = random.nextDouble(0, 30_000);
+				double max = min + random.nextDouble(0, 10_000);
+
+				boolean expected = false;
+				for (double distanceSquared = min; distanceSquared <= max; distanceSquared += 16) {
+					expected |= limiter.shouldUpdate(distanceSquared);
+				}
+				expected |= limiter.shouldUpdate(max);
+
+				Assertions.assertEquals(expected, limiter.shouldUpdateAny(min, max, 0), "Range " + min + " to " + max);
+			}
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package dev.engine_room.flywheel.impl.visualization.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.impl.visualization.ratelimit.AdaptiveLimiter;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.BandedPrimeLimiter;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.DistanceUpdateLimiterImpl;
+import dev.engine_room.flywheel.lib.math.MoreMath;
+import dev.engine_room.flywheel.lib.visual.CullableDynamicVisual;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.world.phys.Vec3;
+
+class CulledVisualStorageTest {
+	@Test
+	void neverCullsVisualsThatWouldUpdate() {
+		neverCullsVisualsThatWouldUpdate(new BandedPrimeLimiter());
+	}
+
+	@Test
+	void neverCullsVisualsThatWouldUpdateAdaptive() {
+		neverCullsVisualsThatWouldUpdate(new AdaptiveLimiter(1_000_000));
+	}
+
+	private static void neverCullsVisualsThatWouldUpdate(DistanceUpdateLimiterImpl limiter) {
+		var random = new Random(42);
+		var storage = new CulledVisualStorage();
+		var visuals = new ArrayList<TestVisual>();
+
+		for (int i = 0; i < 20_000; i++) {
+			var visual = new TestVisual(new BlockPos(random.nextInt(-256, 256), random.nextInt(-64, 320), random.nextInt(-256, 256)));
+			visuals.add(visual);
+			storage.add(visual);
+		}
+
+		var origin = new Vec3i(-64, 0, 32);
+
+		for (int frame = 0; frame < 50; frame++) {
+			limiter.tick();
+
+			var camera = new Vec3(random.nextDouble(-128, 128), random.nextDouble(0, 256), random.nextDouble(-128, 128));
+			var frustum = frustum(camera, origin, random.nextFloat() * 2 * (float) Math.PI, random.nextFloat() - 0.5f);
+
+			Set<CullableDynamicVisual> kept = new ReferenceOpenHashSet<>();
+			storage.cull(camera, origin, frustum, limiter, kept::add);
+
+			int wouldUpdate = 0;
+			for (var visual : visuals) {
+				var pos = visual.cullingPosition();
+				boolean visible = frustum.testSphere(pos.getX() - origin.getX() + 0.5f, pos.getY() - origin.getY() + 0.5f, pos.getZ() - origin.getZ() + 0.5f, MoreMath.SQRT_3_OVER_2);
+
+				if (visible && limiter.shouldUpdate(pos.distToCenterSqr(camera), Long.hashCode(SectionPos.asLong(pos)))) {
+					wouldUpdate++;
+					Assertions.assertTrue(kept.contains(visual), "Culled a visual that would update at " + pos.getX() + ", " + pos.getY() + ", " + pos.getZ());
+				}
+			}
+
+			Assertions.assertTrue(kept.size() < visuals.size(), "Nothing was culled");
+			Assertions.assertTrue(kept.size() >= wouldUpdate);
+		}
+	}
+
+	@Test
+	void frustumOnlyCullingKeepsEverythingInFrontOfTheCamera() {
+		var storage = new CulledVisualStorage();
+		var inFront = new TestVisual(new BlockPos(0, 0, -20));
+		var behind = new TestVisual(new BlockPos(0, 0, 20));
+		storage.add(inFront);
+		storage.add(behind);
+
+		var camera = new Vec3(0.5, 0.5, 0.5);
+		var origin = new Vec3i(0, 0, 0);
+
+		List<CullableDynamicVisual> kept = new ArrayList<>();
+		storage.cull(camera, origin, frustum(camera, origin, 0, 0), null, kept::add);
+
+		Assertions.assertEquals(List.of(inFront), kept);
+	}
+
+	@Test
+	void removeForgetsEmptySections() {
+		var storage = new CulledVisualStorage();
+		var a = new TestVisual(new BlockPos(1, 2, 3));
+		var b = new TestVisual(new BlockPos(4, 5, 6));
+		var c = new TestVisual(new BlockPos(100, 5, 6));
+
+		storage.add(a);
+		storage.add(b);
+		storage.add(c);
+		Assertions.assertEquals(3, storage.size());
+
+		storage.remove(a);
+		storage.remove(a);
+		Assertions.assertEquals(2, storage.size());
+
+		storage.remove(b);
+		storage.remove(c);
+		Assertions.assertEquals(0, storage.size());
+
+		// Re-adding to a dropped section must work.
+		storage.add(a);
+		Assertions.assertEquals(1, storage.size());
+	}
+
+	/**
+	 * Looks down -Z when {@code yaw} and {@code pitch} are 0, relative to {@code origin}.
+	 */
+	private static FrustumIntersection frustum(Vec3 camera, Vec3i origin, float yaw, float pitch) {
+		var viewProjection = new Matrix4f().perspective((float) Math.toRadians(70), 16f / 9f, 0.05f, 512)
+				.rotateX(-pitch)
+				.rotateY(-yaw)
+				.translate((float) (origin.getX() - camera.x), (float) (origin.getY() - camera.y), (float) (origin.getZ() - camera.z));
+		return new FrustumIntersection(viewProjection);
+	}
+
+	private static final class TestVisual implements CullableDynamicVisual {
+		private final BlockPos pos;
+
+		private TestVisual(BlockPos pos) {
+			this.pos = pos;
+		}
+
+		@Override
+		public BlockPos cullingPosition() {
+			return pos;
+		}
+
+		@Override
+		public void beginFrame(Context ctx) {
+		}
+
+		@Override
+		public void init(float partialTick) {
+		}
+
+		@Override
+		public void update(float partialTick) {
+		}
+
+		@Override
+		public void delete() {
+		}
+	}
+}
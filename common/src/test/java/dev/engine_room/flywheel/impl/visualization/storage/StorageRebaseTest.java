@@ -0,0 +1,217 @@
+package dev.engine_room.flywheel.impl.visualization.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.api.instance.InstancerProvider;
+import dev.engine_room.flywheel.api.visual.Visual;
+import dev.engine_room.flywheel.api.visualization.VisualEmbedding;
+import dev.engine_room.flywheel.api.visualization.VisualizationContext;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import dev.engine_room.flywheel.impl.visual.DynamicVisualContextImpl;
+import dev.engine_room.flywheel.impl.visualization.ratelimit.NonLimiter;
+import dev.engine_room.flywheel.lib.task.NamedFlag;
+import dev.engine_room.flywheel.lib.visual.SimpleDynamicVisual;
+import net.minecraft.client.Camera;
+import net.minecraft.core.Vec3i;
+
+class StorageRebaseTest {
+	private static final int COUNT = 100;
+	// Objects are spaced along the x axis.
+	private static final int SPACING = 10;
+
+	private final Origins origins = new Origins();
+	private ParallelTaskExecutor executor;
+
+	@BeforeEach
+	public void setUp() {
+		var currentThread = Thread.currentThread();
+		executor = new ParallelTaskExecutor("StorageRebaseTest", 2, () -> currentThread == Thread.currentThread());
+		executor.startWorkers();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.stopWorkers();
+		executor = null;
+	}
+
+	@Test
+	void rebasingKeepsEveryVisual() {
+		var storage = populated();
+
+		origins.move(new Vec3i(300, 0, 0));
+		storage.rebase(0, (origin, x, y, z) -> true);
+
+		Assertions.assertEquals(COUNT, storage.inits.get(), "No visual should be initialized again");
+		Assertions.assertEquals(0, storage.deletes.get());
+		Assertions.assertEquals(COUNT, storage.getAllVisuals()
+				.size());
+	}
+
+	@Test
+	void recreatingEveryVisualWithoutRebasing() {
+		var storage = populated();
+
+		origins.move(new Vec3i(300, 0, 0));
+		// What an engine that can't rebase does.
+		storage.rebase(0, (origin, x, y, z) -> origin.equals(origins.current));
+
+		Assertions.assertEquals(COUNT * 2, storage.inits.get());
+		Assertions.assertEquals(COUNT, storage.deletes.get());
+
+		for (var visual : storage.getAllVisuals()) {
+			Assertions.assertEquals(origins.current, ((TestVisual) visual).context.renderOrigin());
+		}
+	}
+
+	@Test
+	void onlyVisualsFarFromTheirOriginAreRecreated() {
+		var storage = populated();
+		int maxDistance = 495;
+
+		origins.move(new Vec3i(1000, 0, 0));
+		storage.rebase(0, (origin, x, y, z) -> Math.abs(x - origin.getX()) <= maxDistance);
+
+		// Objects 0 through 49 are within range of the old origin.
+		int far = COUNT - 50;
+		Assertions.assertEquals(COUNT + far, storage.inits.get());
+		Assertions.assertEquals(far, storage.deletes.get());
+
+		for (var visual : storage.getAllVisuals()) {
+			var test = (TestVisual) visual;
+			var expected = test.obj * SPACING <= maxDistance ? Vec3i.ZERO : origins.current;
+			Assertions.assertEquals(expected, test.context.renderOrigin(), "Origin of " + test.obj);
+		}
+	}
+
+	@Test
+	void keptVisualsCullAgainstTheirOwnOrigin() {
+		var storage = populated();
+		var newOrigin = new Vec3i(300, 0, 0);
+
+		origins.move(newOrigin);
+		storage.rebase(0, (origin, x, y, z) -> true);
+		storage.add(COUNT, 0);
+
+		var done = new NamedFlag("frame");
+		var frameContext = DynamicVisualContextImpl.create(new Camera(), new Matrix4f(), newOrigin, 0, new NonLimiter());
+		storage.framePlan()
+				.execute(executor, frameContext, done::raise);
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+
+		for (var visual : storage.getAllVisuals()) {
+			var test = (TestVisual) visual;
+			Assertions.assertEquals(test.context.renderOrigin(), test.frameOrigin, "Frame context origin of " + test.obj);
+		}
+	}
+
+	private TestStorage populated() {
+		var storage = new TestStorage(origins);
+
+		for (int i = 0; i < COUNT; i++) {
+			storage.add(i, 0);
+		}
+
+		Assertions.assertEquals(COUNT, storage.inits.get());
+		return storage;
+	}
+
+	/**
+	 * Hands out one context per origin, like the visualization manager does.
+	 */
+	private static class Origins implements Supplier<VisualizationContext> {
+		private final Map<Vec3i, VisualizationContext> contexts = new HashMap<>();
+		private Vec3i current = Vec3i.ZERO;
+
+		private void move(Vec3i origin) {
+			current = origin;
+		}
+
+		@Override
+		public VisualizationContext get() {
+			return contexts.computeIfAbsent(current, TestContext::new);
+		}
+	}
+
+	private record TestContext(Vec3i renderOrigin) implements VisualizationContext {
+		@Override
+		public InstancerProvider instancerProvider() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public VisualEmbedding createEmbedding() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static class TestStorage extends Storage<Integer> {
+		private final AtomicInteger inits = new AtomicInteger();
+		private final AtomicInteger deletes = new AtomicInteger();
+
+		private TestStorage(Supplier<VisualizationContext> contexts) {
+			super(contexts);
+		}
+
+		@Override
+		public boolean position(Integer obj, Vector3d out) {
+			out.set(obj * SPACING, 64, 0);
+			return true;
+		}
+
+		@Override
+		@Nullable
+		protected Visual createRaw(Integer obj) {
+			return new TestVisual(this, visualizationContextSupplier.get(), obj);
+		}
+
+		@Override
+		public boolean willAccept(Integer obj) {
+			return true;
+		}
+	}
+
+	private static class TestVisual implements SimpleDynamicVisual {
+		private final TestStorage storage;
+		private final VisualizationContext context;
+		private final int obj;
+		@Nullable
+		private volatile Vec3i frameOrigin;
+
+		private TestVisual(TestStorage storage, VisualizationContext context, int obj) {
+			this.storage = storage;
+			this.context = context;
+			this.obj = obj;
+		}
+
+		@Override
+		public void beginFrame(Context ctx) {
+			frameOrigin = ((DynamicVisualContextImpl) ctx).origin();
+		}
+
+		@Override
+		public void init(float partialTick) {
+			storage.inits.incrementAndGet();
+		}
+
+		@Override
+		public void update(float partialTick) {
+		}
+
+		@Override
+		public void delete() {
+			storage.deletes.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package dev.engine_room.flywheel.lib.instance;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.api.instance.InstanceHandle;
+import dev.engine_room.flywheel.lib.math.MatrixMath;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+
+class TransformedCompactTest {
+	private static final float EPSILON = 1e-4f;
+	private static final Vector3f[] NORMALS = {
+			new Vector3f(1, 0, 0),
+			new Vector3f(0, 1, 0),
+			new Vector3f(0, 0, 1),
+			new Vector3f(1, 2, -3).normalize(),
+			new Vector3f(-0.5f, 0.25f, 1).normalize(),
+	};
+
+	private MemoryBlock compact;
+	private MemoryBlock full;
+
+	@BeforeEach
+	public void setUp() {
+		compact = MemoryBlock.calloc(1, InstanceTypes.TRANSFORMED_COMPACT.layout()
+				.byteSize());
+		full = MemoryBlock.calloc(1, InstanceTypes.TRANSFORMED.layout()
+				.byteSize());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		compact.free();
+		full.free();
+	}
+
+	@Test
+	void layoutIsCompact() {
+		Assertions.assertEquals(60, InstanceTypes.TRANSFORMED_COMPACT.layout()
+				.byteSize());
+		Assertions.assertEquals(112, InstanceTypes.TRANSFORMED.layout()
+				.byteSize());
+	}
+
+	@Test
+	void writerRoundTripsPose() {
+		var instance = instance().translate(12.5, -3, 700)
+				.rotate(new Quaternionf().rotationXYZ(0.3f, 1.1f, -0.4f))
+				.scale(2, 0.5f, 3);
+		instance.setColor(0x11223344, true)
+				.setOverlay(0x00050006)
+				.light(0x00F000A0);
+
+		write(instance);
+
+		var pose = MatrixMath.readAffineUnsafe(compact.ptr() + 12, new Matrix4f());
+		Assertions.assertTrue(pose.equals(instance.model, 0), () -> pose + " != " + instance.model);
+
+		// Everything before the pose is shared with the full layout.
+		for (int i = 0; i < 12; i++) {
+			Assertions.assertEquals(MemoryUtil.memGetByte(full.ptr() + i), MemoryUtil.memGetByte(compact.ptr() + i));
+		}
+	}
+
+	@Test
+	void derivedNormalsMatchRotation() {
+		assertNormalsMatch(instance().rotate(new Quaternionf().rotationXYZ(-1.2f, 0.7f, 2.5f))
+				.translate(1, 2, 3));
+	}
+
+	@Test
+	void derivedNormalsMatchUniformScale() {
+		assertNormalsMatch(instance().rotate(new Quaternionf().rotationY(0.8f))
+				.scale(4));
+	}
+
+	@Test
+	void derivedNormalsMatchNonUniformScale() {
+		assertNormalsMatch(instance().rotate(new Quaternionf().rotationZ(0.6f))
+				.scale(0.25f, 3, 1.5f)
+				.rotate(new Quaternionf().rotationX(-0.3f)));
+	}
+
+	@Test
+	void derivedNormalsMatchMirroring() {
+		assertNormalsMatch(instance().rotate(new Quaternionf().rotationX(1))
+				.scale(-2));
+		assertNormalsMatch(instance().scale(-1, 1, 1));
+	}
+
+	@Test
+	void derivedNormalsMatchPoseStackTransforms() {
+		var pose = new Matrix4f().translation(-4, 5, 6)
+				.rotateY(2)
+				.scale(1, 2, 1);
+		var normal = new Matrix3f(pose).invert()
+				.transpose();
+
+		var instance = instance();
+		instance.model.set(pose);
+		instance.normal.set(normal);
+
+		assertNormalsMatch(instance);
+	}
+
+	private void assertNormalsMatch(TransformedInstance instance) {
+		write(instance);
+
+		var pose = MatrixMath.readAffineUnsafe(compact.ptr() + 12, new Matrix4f());
+		var derived = affineToNormal(pose);
+
+		for (var normal : NORMALS) {
+			var expected = instance.normal.transform(normal, new Vector3f())
+					.normalize();
+			var actual = derived.transform(normal, new Vector3f())
+					.normalize();
+
+			Assertions.assertTrue(expected.equals(actual, EPSILON), () -> expected + " != " + actual);
+		}
+	}
+
+	private void write(TransformedInstance instance) {
+		InstanceTypes.TRANSFORMED_COMPACT.writer()
+				.write(compact.ptr(), instance);
+		InstanceTypes.TRANSFORMED.writer()
+				.write(full.ptr(), instance);
+	}
+
+	/**
+	 * Mirrors {@code affineToNormal} in {@code flywheel:util/matrix.glsl}.
+	 */
+	private static Matrix3f affineToNormal(Matrix4f pose) {
+		var c0 = new Vector3f(pose.m00(), pose.m01(), pose.m02());
+		var c1 = new Vector3f(pose.m10(), pose.m11(), pose.m12());
+		var c2 = new Vector3f(pose.m20(), pose.m21(), pose.m22());
+
+		var cofactor = new Matrix3f(c1.cross(c2, new Vector3f()), c2.cross(c0, new Vector3f()), c0.cross(c1, new Vector3f()));
+
+		if (c0.dot(cofactor.getColumn(0, new Vector3f())) < 0) {
+			cofactor.scale(-1);
+		}
+
+		return cofactor;
+	}
+
+	private static TransformedInstance instance() {
+		return new TransformedInstance(InstanceTypes.TRANSFORMED_COMPACT, new InstanceHandle() {
+			@Override
+			public void setChanged() {
+			}
+
+			@Override
+			public void setDeleted() {
+			}
+		});
+	}
+}
@@ -0,0 +1,287 @@
+package dev.engine_room.flywheel.lib.light;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.lib.box.Box;
+import dev.engine_room.flywheel.lib.box.MutableBox;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.BlockAndTintGetter;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.ColorResolver;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LightChunk;
+import net.minecraft.world.level.chunk.LightChunkGetter;
+import net.minecraft.world.level.lighting.LayerLightEventListener;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.material.FluidState;
+
+class LightVolumeTest {
+	/**
+	 * Crosses section boundaries on every axis, and doesn't start or end on one.
+	 */
+	private static final Box VOLUME = new MutableBox(-5, 10, 3, 20, 40, 25);
+
+	private TestLevel level;
+	private CountingLightVolume full;
+	private CountingLightVolume incremental;
+
+	@BeforeEach
+	public void setUp() {
+		level = new TestLevel(new Random(42));
+
+		full = new CountingLightVolume(level, VOLUME, false);
+		incremental = new CountingLightVolume(level, VOLUME, true);
+		full.initialize();
+		incremental.initialize();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		full.delete();
+		incremental.delete();
+	}
+
+	@Test
+	void initialLightMatchesFullCopy() {
+		assertMatchesFullCopy();
+	}
+
+	@Test
+	void lightUpdatesMatchFullCopy() {
+		var section = SectionPos.of(1, 1, 1);
+		level.blockLayer(section)
+				.set(3, 4, 5, 12);
+		level.skyLayer(section)
+				.set(15, 0, 15, 1);
+
+		int markedBefore = incremental.markedDirty;
+
+		for (var volume : new LightVolume[]{full, incremental}) {
+			volume.onLightUpdate(LightLayer.BLOCK, section);
+			volume.onLightUpdate(LightLayer.SKY, section);
+		}
+
+		// Subclasses upload from markDirty, so it has to fire before anyone reads the light.
+		Assertions.assertTrue(incremental.markedDirty > markedBefore);
+		assertMatchesFullCopy();
+	}
+
+	@Test
+	void moveByOneBlockMatchesFullCopy() {
+		int[][] offsets = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+		for (int[] offset : offsets) {
+			var moved = new MutableBox(full.getMinX() + offset[0], full.getMinY() + offset[1], full.getMinZ() + offset[2], full.getMaxX() + offset[0], full.getMaxY() + offset[1], full.getMaxZ() + offset[2]);
+
+			full.move(moved);
+			incremental.move(moved);
+
+			assertMatchesFullCopy();
+		}
+	}
+
+	private void assertMatchesFullCopy() {
+		Assertions.assertEquals(full.getVolume(), incremental.getVolume());
+
+		full.getVolume()
+				.forEachContained((x, y, z) -> Assertions.assertEquals(full.getPackedLight(x, y, z), incremental.getPackedLight(x, y, z), "light at " + x + ", " + y + ", " + z));
+	}
+
+	private static class CountingLightVolume extends LightVolume {
+		private int markedDirty;
+
+		private CountingLightVolume(BlockAndTintGetter level, Box sampleVolume, boolean incremental) {
+			super(level, sampleVolume, incremental);
+		}
+
+		@Override
+		protected void markDirty() {
+			markedDirty++;
+		}
+	}
+
+	/**
+	 * A level whose light comes straight from {@link DataLayer}s, with every kind of section the light engine hands out:
+	 * filled, uniform and missing.
+	 */
+	private static class TestLevel implements BlockAndTintGetter {
+		private final Map<SectionPos, DataLayer> blockLayers = new HashMap<>();
+		private final Map<SectionPos, DataLayer> skyLayers = new HashMap<>();
+		private final LevelLightEngine lightEngine;
+
+		private TestLevel(Random random) {
+			for (int z = -1; z <= 2; z++) {
+				for (int y = 0; y <= 3; y++) {
+					for (int x = -2; x <= 2; x++) {
+						var section = SectionPos.of(x, y, z);
+						int kind = Math.floorMod(x + y + z, 3);
+
+						if (kind == 0) {
+							blockLayers.put(section, filledLayer(random));
+							skyLayers.put(section, filledLayer(random));
+						} else if (kind == 1) {
+							blockLayers.put(section, new DataLayer(random.nextInt(16)));
+							skyLayers.put(section, new DataLayer(random.nextInt(16)));
+						}
+						// Otherwise there's no layer, and light comes from getLightValue.
+					}
+				}
+			}
+
+			BlockGetter self = this;
+			lightEngine = new LevelLightEngine(new LightChunkGetter() {
+				@Override
+				@Nullable
+				public LightChunk getChunkForLighting(int x, int z) {
+					return null;
+				}
+
+				@Override
+				public BlockGetter getLevel() {
+					return self;
+				}
+			}, false, false) {
+				private final LayerLightEventListener blockListener = new DataLayerListener(blockLayers, 2);
+				private final LayerLightEventListener skyListener = new DataLayerListener(skyLayers, 13);
+
+				@Override
+				public LayerLightEventListener getLayerListener(LightLayer layer) {
+					return layer == LightLayer.BLOCK ? blockListener : skyListener;
+				}
+			};
+		}
+
+		private static DataLayer filledLayer(Random random) {
+			var layer = new DataLayer();
+
+			for (int y = 0; y < 16; y++) {
+				for (int z = 0; z < 16; z++) {
+					for (int x = 0; x < 16; x++) {
+						layer.set(x, y, z, random.nextInt(16));
+					}
+				}
+			}
+
+			return layer;
+		}
+
+		private DataLayer blockLayer(SectionPos section) {
+			return blockLayers.get(section);
+		}
+
+		private DataLayer skyLayer(SectionPos section) {
+			return skyLayers.get(section);
+		}
+
+		@Override
+		public LevelLightEngine getLightEngine() {
+			return lightEngine;
+		}
+
+		@Override
+		public float getShade(Direction direction, boolean shaded) {
+			return 1;
+		}
+
+		@Override
+		public int getBlockTint(BlockPos pos, ColorResolver resolver) {
+			return -1;
+		}
+
+		@Override
+		@Nullable
+		public BlockEntity getBlockEntity(BlockPos pos) {
+			return null;
+		}
+
+		@Override
+		public BlockState getBlockState(BlockPos pos) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public FluidState getFluidState(BlockPos pos) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int getHeight() {
+			return 384;
+		}
+
+		@Override
+		public int getMinBuildHeight() {
+			return -64;
+		}
+	}
+
+	private static class DataLayerListener implements LayerLightEventListener {
+		private final Map<SectionPos, DataLayer> layers;
+		/**
+		 * The light of sections without a layer.
+		 */
+		private final int missingLight;
+
+		private DataLayerListener(Map<SectionPos, DataLayer> layers, int missingLight) {
+			this.layers = layers;
+			this.missingLight = missingLight;
+		}
+
+		@Override
+		public void checkBlock(BlockPos pos) {
+		}
+
+		@Override
+		public boolean hasLightWork() {
+			return false;
+		}
+
+		@Override
+		public int runLightUpdates() {
+			return 0;
+		}
+
+		@Override
+		public void updateSectionStatus(SectionPos pos, boolean isSectionEmpty) {
+		}
+
+		@Override
+		public void setLightEnabled(ChunkPos pos, boolean lightEnabled) {
+		}
+
+		@Override
+		public void propagateLightSources(ChunkPos pos) {
+		}
+
+		@Override
+		@Nullable
+		public DataLayer getDataLayerData(SectionPos pos) {
+			return layers.get(pos);
+		}
+
+		@Override
+		public int getLightValue(BlockPos pos) {
+			DataLayer layer = layers.get(SectionPos.of(pos));
+
+			if (layer == null) {
+				return missingLight;
+			}
+
+			return layer.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package dev.engine_room.flywheel.lib.model;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joml.Vector4f;
+import org.joml.Vector4fc;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import dev.engine_room.flywheel.api.model.IndexSequence;
+import dev.engine_room.flywheel.api.model.Mesh;
+import dev.engine_room.flywheel.api.model.Model;
+import dev.engine_room.flywheel.api.vertex.MutableVertexList;
+
+class ModelCacheReloadTest {
+	@Test
+	void unchangedModelsAreKept() {
+		var offset = new AtomicInteger();
+		var cache = new ModelCache<Integer>(key -> new TestModel(key + offset.get()));
+
+		var before = (TestModel) cache.get(1);
+		int generation = ModelReloads.generation();
+
+		cache.reload();
+
+		Assertions.assertSame(before, cache.get(1));
+		Assertions.assertFalse(before.deleted);
+		Assertions.assertEquals(generation, ModelReloads.generation());
+	}
+
+	@Test
+	void changedModelsAreReplaced() {
+		var offset = new AtomicInteger();
+		var cache = new ModelCache<Integer>(key -> new TestModel(key + offset.get()));
+
+		var before = (TestModel) cache.get(1);
+		var unchanged = (TestModel) cache.get(2);
+		int generation = ModelReloads.generation();
+
+		offset.set(10);
+		cache.reload();
+
+		var after = (TestModel) cache.get(1);
+		Assertions.assertNotSame(before, after);
+		Assertions.assertEquals(11, after.value);
+		Assertions.assertNotSame(unchanged, cache.get(2));
+		Assertions.assertTrue(ModelReloads.generation() > generation);
+
+		// Instancers may still reference the old model until the next reload.
+		Assertions.assertFalse(before.deleted);
+
+		cache.reload();
+
+		Assertions.assertTrue(before.deleted);
+		Assertions.assertSame(after, cache.get(1));
+	}
+
+	@Test
+	void failedRebuildsAreRetriedOnNextGet() {
+		var fail = new AtomicInteger();
+		var cache = new ModelCache<Integer>(key -> {
+			if (fail.get() > 0) {
+				fail.decrementAndGet();
+				throw new IllegalStateException("Resources missing");
+			}
+			return new TestModel(key);
+		});
+
+		var before = cache.get(1);
+		int generation = ModelReloads.generation();
+
+		fail.set(1);
+		cache.reload();
+
+		Assertions.assertTrue(ModelReloads.generation() > generation);
+
+		var after = cache.get(1);
+		Assertions.assertNotSame(before, after);
+		Assertions.assertTrue(ModelReloads.sameContents(before, after));
+	}
+
+	@Test
+	void holderKeepsUnchangedModel() {
+		var value = new AtomicInteger(3);
+		var holder = new ModelHolder(() -> new TestModel(value.get()));
+
+		var before = holder.get();
+		holder.reload();
+		Assertions.assertSame(before, holder.get());
+
+		value.set(4);
+		holder.reload();
+		Assertions.assertNotSame(before, holder.get());
+	}
+
+	@Test
+	void holderWithoutModelStaysEmpty() {
+		var built = new AtomicInteger();
+		var holder = new ModelHolder(() -> {
+			built.incrementAndGet();
+			return new TestModel(0);
+		});
+
+		holder.reload();
+
+		Assertions.assertEquals(0, built.get());
+	}
+
+	private static class TestModel implements Model {
+		private final int value;
+		private final List<ConfiguredMesh> meshes;
+		private boolean deleted;
+
+		private TestModel(int value) {
+			this.value = value;
+			meshes = List.of(new ConfiguredMesh(null, new TestMesh(value)));
+		}
+
+		@Override
+		public List<ConfiguredMesh> meshes() {
+			return meshes;
+		}
+
+		@Override
+		public Vector4fc boundingSphere() {
+			return new Vector4f(0, 0, 0, 1);
+		}
+
+		@Override
+		public void delete() {
+			deleted = true;
+		}
+	}
+
+	private record TestMesh(int value) implements Mesh {
+		private static final IndexSequence INDICES = (ptr, count) -> {
+		};
+
+		@Override
+		public int vertexCount() {
+			return 4;
+		}
+
+		@Override
+		public void write(MutableVertexList vertexList) {
+			for (int i = 0; i < 4; i++) {
+				vertexList.x(i, value);
+				vertexList.y(i, i);
+				vertexList.z(i, 0);
+			}
+		}
+
+		@Override
+		public IndexSequence indexSequence() {
+			return INDICES;
+		}
+
+		@Override
+		public int indexCount() {
+			return 6;
+		}
+
+		@Override
+		public Vector4fc boundingSphere() {
+			return new Vector4f(0, 0, 0, 1);
+		}
+
+		@Override
+		public void delete() {
+		}
+	}
+}
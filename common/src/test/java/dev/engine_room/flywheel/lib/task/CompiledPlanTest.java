@@ -0,0 +1,259 @@
+package dev.engine_room.flywheel.lib.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import dev.engine_room.flywheel.lib.task.functional.RunnableWithContext;
+import dev.engine_room.flywheel.lib.util.Unit;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+class CompiledPlanTest {
+	private ParallelTaskExecutor executor;
+
+	@BeforeEach
+	public void setUp() {
+		var currentThread = Thread.currentThread();
+		executor = new ParallelTaskExecutor("CompiledPlanTest", 2, () -> currentThread == Thread.currentThread());
+		executor.startWorkers();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.stopWorkers();
+		executor = null;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 10})
+	void barrierSequencing(int barriers) {
+		var sequence = new IntArrayList();
+		var expected = new IntArrayList();
+
+		Plan<Unit> plan = SimplePlan.of(() -> sequence.add(1));
+		expected.add(1);
+
+		for (int i = 0; i < barriers; i++) {
+			final int sequenceNum = i + 2;
+			expected.add(sequenceNum);
+			plan = plan.then(SimplePlan.of(() -> sequence.add(sequenceNum)));
+		}
+
+		var compiled = CompiledPlan.compile(plan);
+
+		// The same graph must be reusable.
+		for (int i = 0; i < 3; i++) {
+			sequence.clear();
+			runAndWait(compiled, Unit.INSTANCE);
+			Assertions.assertEquals(expected, sequence);
+		}
+	}
+
+	@RepeatedTest(10)
+	void wideBarrierSequencing() {
+		var lock = new Object();
+		var sequence = new IntArrayList();
+
+		RunnableWithContext.Ignored<Unit> addOne = () -> {
+			synchronized (lock) {
+				sequence.add(1);
+			}
+		};
+		RunnableWithContext.Ignored<Unit> addTwo = () -> {
+			synchronized (lock) {
+				sequence.add(2);
+			}
+		};
+
+		var compiled = CompiledPlan.compile(SimplePlan.of(addOne, addOne, addOne, addOne)
+				.then(SimplePlan.of(addTwo, addTwo, addTwo, addTwo)));
+
+		for (int i = 0; i < 3; i++) {
+			sequence.clear();
+			runAndWait(compiled, Unit.INSTANCE);
+			Assertions.assertArrayEquals(new int[]{1, 1, 1, 1, 2, 2, 2, 2}, sequence.toIntArray());
+		}
+	}
+
+	@Test
+	void manyDependenciesAreJoinedBeforeFanningOut() {
+		var compiled = CompiledPlan.compile(SimplePlan.<Unit>of(() -> {}, () -> {})
+				.then(SimplePlan.of(() -> {}, () -> {})));
+
+		// 4 tasks, 1 join and the exit.
+		Assertions.assertEquals(6, compiled.nodeCount());
+	}
+
+	@Test
+	void nestedPlans() {
+		var counter = new AtomicInteger(0);
+		var count4 = NestedPlan.<Unit>of(SimplePlan.of(counter::incrementAndGet, counter::incrementAndGet), SimplePlan.of(counter::incrementAndGet, counter::incrementAndGet));
+		var compiled = CompiledPlan.compile(NestedPlan.of(count4, count4));
+
+		for (int i = 0; i < 3; i++) {
+			counter.set(0);
+			runAndWait(compiled, Unit.INSTANCE);
+			Assertions.assertEquals(8, counter.get());
+		}
+	}
+
+	@Test
+	void emptyPlansDontCallTheExecutor() {
+		var done = new AtomicInteger();
+
+		CompiledPlan.compile(UnitPlan.<Unit>of())
+				.execute(null, Unit.INSTANCE, done::incrementAndGet);
+		CompiledPlan.compile(NestedPlan.<Unit>of(SimplePlan.of(), UnitPlan.of()))
+				.execute(null, Unit.INSTANCE, done::incrementAndGet);
+
+		Assertions.assertEquals(2, done.get());
+	}
+
+	@Test
+	void ifElsePlan() {
+		var branch = new AtomicInteger(0);
+		var after = new AtomicInteger(0);
+
+		var compiled = CompiledPlan.compile(IfElsePlan.<Boolean>on(b -> b)
+				.ifTrue(SimplePlan.of(() -> branch.set(1)))
+				.ifFalse(SimplePlan.of(() -> branch.set(2)))
+				.plan()
+				.then(SimplePlan.of(after::incrementAndGet)));
+
+		for (int i = 0; i < 3; i++) {
+			runAndWait(compiled, true);
+			Assertions.assertEquals(1, branch.get());
+
+			runAndWait(compiled, false);
+			Assertions.assertEquals(2, branch.get());
+		}
+
+		Assertions.assertEquals(6, after.get());
+	}
+
+	@Test
+	void mapContextPlan() {
+		var seen = new AtomicInteger();
+		var original = new AtomicInteger();
+
+		var compiled = CompiledPlan.compile(MapContextPlan.<Integer, Integer>map(i -> i * 2)
+				.to(SimplePlan.of(seen::set))
+				.then(SimplePlan.of(original::set)));
+
+		runAndWait(compiled, 21);
+		Assertions.assertEquals(42, seen.get());
+		Assertions.assertEquals(21, original.get());
+
+		runAndWait(compiled, 5);
+		Assertions.assertEquals(10, seen.get());
+		Assertions.assertEquals(5, original.get());
+	}
+
+	@Test
+	void timedPlanReportsEveryExecution() {
+		var total = new AtomicLong();
+		var count = new AtomicInteger();
+
+		var compiled = CompiledPlan.compile(TimedPlan.<Unit>of(nanos -> {
+			total.addAndGet(nanos);
+			count.incrementAndGet();
+		}, SimplePlan.of(() -> {
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		})));
+
+		runAndWait(compiled, Unit.INSTANCE);
+		runAndWait(compiled, Unit.INSTANCE);
+
+		Assertions.assertEquals(2, count.get());
+		Assertions.assertTrue(total.get() >= 10_000_000, "Timed " + total.get() + "ns");
+	}
+
+	@Test
+	void leafPlansKeepTheirDynamicFanOut() {
+		var counter = new AtomicInteger(0);
+		List<Plan<Unit>> plans = new ArrayList<>();
+
+		var compiled = CompiledPlan.compile(DynamicNestedPlan.of(() -> plans)
+				.then(SimplePlan.of(counter::incrementAndGet)));
+
+		runAndWait(compiled, Unit.INSTANCE);
+		Assertions.assertEquals(1, counter.get());
+
+		plans.add(SimplePlan.of(counter::incrementAndGet));
+		plans.add(SimplePlan.of(counter::incrementAndGet));
+
+		counter.set(0);
+		runAndWait(compiled, Unit.INSTANCE);
+		Assertions.assertEquals(3, counter.get());
+	}
+
+	@Test
+	void flagsAreRaisedInOrder() {
+		var first = new NamedFlag("first");
+		var second = new NamedFlag("second");
+		var sawFirst = new AtomicInteger();
+
+		var compiled = CompiledPlan.compile(RaisePlan.<Unit>raise(first)
+				.then(SimplePlan.of(() -> {
+					if (first.isRaised() && !second.isRaised()) {
+						sawFirst.incrementAndGet();
+					}
+				}))
+				.then(RaisePlan.raise(second)));
+
+		compiled.execute(executor, Unit.INSTANCE);
+
+		Assertions.assertTrue(executor.syncUntil(second::isRaised));
+		Assertions.assertEquals(1, sawFirst.get());
+	}
+
+	@Test
+	void overlappingExecutionsFallBackToTheSourcePlan() throws InterruptedException {
+		var release = new CountDownLatch(1);
+		var counter = new AtomicInteger();
+
+		var compiled = CompiledPlan.compile(SimplePlan.<Unit>of(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			counter.incrementAndGet();
+		}));
+
+		var done = new CountDownLatch(2);
+		compiled.execute(executor, Unit.INSTANCE, done::countDown);
+		compiled.execute(executor, Unit.INSTANCE, done::countDown);
+
+		release.countDown();
+		done.await();
+
+		Assertions.assertEquals(2, counter.get());
+
+		// The graph is usable again once both are done.
+		runAndWait(compiled, Unit.INSTANCE);
+		Assertions.assertEquals(3, counter.get());
+	}
+
+	private <C> void runAndWait(Plan<C> plan, C context) {
+		var done = new NamedFlag("done");
+		plan.execute(executor, context, done::raise);
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+	}
+}
@@ -0,0 +1,168 @@
+package dev.engine_room.flywheel.lib.task;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import dev.engine_room.flywheel.api.task.Plan;
+import dev.engine_room.flywheel.impl.task.ParallelTaskExecutor;
+import dev.engine_room.flywheel.lib.util.Unit;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+class DistributeTest {
+	private ParallelTaskExecutor executor;
+
+	@BeforeEach
+	public void setUp() {
+		var currentThread = Thread.currentThread();
+		executor = new ParallelTaskExecutor("DistributeTest", 4, () -> currentThread == Thread.currentThread());
+		executor.startWorkers();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.stopWorkers();
+		executor = null;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 7, 64, 1000, 100_000})
+	void rangesCoverEveryIndexOnce(int size) {
+		for (int sliceSize : new int[]{1, 3, 128, size + 1}) {
+			var visits = new AtomicIntegerArray(size);
+			var done = new NamedFlag("done");
+
+			Distribute.ranges(executor, Unit.INSTANCE, done::raise, size, sliceSize, (start, end, ctx) -> {
+				Assertions.assertTrue(end - start <= sliceSize);
+				for (int i = start; i < end; i++) {
+					visits.incrementAndGet(i);
+				}
+			});
+
+			Assertions.assertTrue(executor.syncUntil(done::isRaised));
+			for (int i = 0; i < size; i++) {
+				Assertions.assertEquals(1, visits.get(i), "Index " + i + " with slice size " + sliceSize);
+			}
+		}
+	}
+
+	@Test
+	void tasksVisitEveryElementOfIndexedAndLinkedLists() {
+		List<Integer> arrayList = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			arrayList.add(i);
+		}
+		var linkedList = new LinkedList<>(arrayList);
+		long expected = 10_000L * 9_999 / 2;
+
+		for (var list : List.of(arrayList, linkedList)) {
+			var sum = new AtomicLong();
+			var done = new NamedFlag("done");
+			Distribute.tasks(executor, sum, done::raise, list, (i, s) -> s.addAndGet(i));
+
+			Assertions.assertTrue(executor.syncUntil(done::isRaised));
+			Assertions.assertEquals(expected, sum.get());
+		}
+	}
+
+	@Test
+	void primitiveSlicePlansOnlySeeTheListContents() {
+		var ints = new IntArrayList(new int[]{1, 2, 3, 4});
+		ints.ensureCapacity(100);
+		var longs = new LongArrayList(new long[]{10, 20, 30});
+		longs.ensureCapacity(100);
+
+		var intSum = new AtomicLong();
+		var longSum = new AtomicLong();
+
+		var plan = ForEachIntSlicePlan.<Unit>of(() -> ints, (elements, start, end) -> {
+			for (int i = start; i < end; i++) {
+				intSum.addAndGet(elements[i]);
+			}
+		})
+				.and(ForEachLongSlicePlan.of(() -> longs, (elements, start, end) -> {
+					for (int i = start; i < end; i++) {
+						longSum.addAndGet(elements[i]);
+					}
+				}));
+
+		for (int i = 1; i <= 3; i++) {
+			runAndWait(plan);
+			Assertions.assertEquals(10L * i, intSum.get());
+			Assertions.assertEquals(60L * i, longSum.get());
+		}
+	}
+
+	@Test
+	void intRangePlanSuppliesSizeEachExecution() {
+		var size = new int[]{5};
+		var total = new AtomicLong();
+		var plan = IntRangePlan.<Unit>of(() -> size[0], (start, end) -> total.addAndGet(end - start));
+
+		runAndWait(plan);
+		Assertions.assertEquals(5, total.get());
+
+		size[0] = 50_000;
+		runAndWait(plan);
+		Assertions.assertEquals(50_005, total.get());
+	}
+
+	@Test
+	void sliceSizerFallsBackUntilMeasured() {
+		var sizer = new SliceSizer(10_000);
+		Assertions.assertEquals(Distribute.sliceSize(executor, 10_000), sizer.sliceSize(executor, 10_000));
+
+		// 10ns per element with a 10us target means 1000 elements per slice.
+		sizer.record(100_000, 10_000);
+		Assertions.assertEquals(1000, sizer.sliceSize(executor, 10_000));
+
+		// Never bigger than the whole range, never smaller than one element.
+		Assertions.assertEquals(10, sizer.sliceSize(executor, 10));
+		sizer.record(1_000_000_000, 1);
+		Assertions.assertEquals(1, sizer.sliceSize(executor, 10_000));
+	}
+
+	@Test
+	void sliceSizerSmoothsMeasurements() {
+		var sizer = new SliceSizer(10_000);
+		sizer.record(10_000, 1_000);
+		Assertions.assertEquals(10, sizer.nanosPerElement(), 1e-9);
+
+		// A single slow run moves the estimate, but doesn't replace it.
+		sizer.record(1_000_000, 1_000);
+		Assertions.assertTrue(sizer.nanosPerElement() > 10 && sizer.nanosPerElement() < 1_000, "Estimate " + sizer.nanosPerElement());
+
+		for (int i = 0; i < 100; i++) {
+			sizer.record(1_000_000, 1_000);
+		}
+		Assertions.assertEquals(1_000, sizer.nanosPerElement(), 1);
+	}
+
+	@Test
+	void rangesReportTheirCostToTheSizer() {
+		var sizer = new SliceSizer();
+		var done = new NamedFlag("done");
+
+		Distribute.ranges(executor, Unit.INSTANCE, done::raise, 100_000, sizer, (start, end, ctx) -> {
+		});
+
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+		Assertions.assertTrue(sizer.nanosPerElement() >= 0);
+	}
+
+	private void runAndWait(Plan<Unit> plan) {
+		var done = new NamedFlag("done");
+		plan.execute(executor, Unit.INSTANCE, done::raise);
+		Assertions.assertTrue(executor.syncUntil(done::isRaised));
+	}
+}
@@ -187,6 +187,43 @@ class PlanExecutionTest {
 		Assertions.assertEquals(3, counter.get());
 	}
 
+	@Test
+	void planMapRunsRemainingPlansAfterRemoval() {
+		var counters = new AtomicInteger[100];
+		var map = new PlanMap<Object, Unit>();
+		var keys = new Object[counters.length];
+
+		for (int i = 0; i < counters.length; i++) {
+			var counter = new AtomicInteger();
+			counters[i] = counter;
+			keys[i] = new Object();
+			map.add(keys[i], SimplePlan.of(counter::incrementAndGet));
+		}
+
+		// Remove from the front, middle, and end.
+		for (int i = 0; i < counters.length; i += 3) {
+			map.remove(keys[i]);
+		}
+		map.remove(new Object());
+
+		runAndWait(map);
+
+		for (int i = 0; i < counters.length; i++) {
+			Assertions.assertEquals(i % 3 == 0 ? 0 : 1, counters[i].get(), "Plan " + i);
+		}
+		Assertions.assertEquals(66, map.size());
+
+		// Adding an existing key replaces its plan.
+		var replaced = new AtomicInteger();
+		map.add(keys[1], SimplePlan.of(replaced::incrementAndGet));
+
+		runAndWait(map);
+
+		Assertions.assertEquals(1, counters[1].get());
+		Assertions.assertEquals(1, replaced.get());
+		Assertions.assertEquals(66, map.size());
+	}
+
 	@Test
 	void syncedPlanDefersOnMainThread() {
 		var done = new AtomicBoolean(false);
@@ -0,0 +1,99 @@
+package dev.engine_room.flywheel.lib.util;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SwapRemoveListTest {
+	@Test
+	void removeMovesLastIntoHole() {
+		var list = new SwapRemoveList<String>();
+		list.add("a");
+		list.add("b");
+		list.add("c");
+		list.add("d");
+
+		Assertions.assertTrue(list.remove("b"));
+
+		Assertions.assertEquals(List.of("a", "d", "c"), list);
+		Assertions.assertEquals(1, list.indexOf("d"));
+		Assertions.assertEquals(-1, list.indexOf("b"));
+
+		Assertions.assertTrue(list.remove("c"));
+		Assertions.assertEquals(List.of("a", "d"), list);
+	}
+
+	@Test
+	void rejectsDuplicatesAndMissingElements() {
+		var list = new SwapRemoveList<String>();
+
+		Assertions.assertTrue(list.add("a"));
+		Assertions.assertFalse(list.add("a"));
+		Assertions.assertEquals(1, list.size());
+
+		Assertions.assertFalse(list.remove("b"));
+		Assertions.assertTrue(list.remove("a"));
+		Assertions.assertFalse(list.remove("a"));
+		Assertions.assertTrue(list.isEmpty());
+	}
+
+	@Test
+	void comparesByIdentity() {
+		var list = new SwapRemoveList<String>();
+		var a = new String("a");
+		var otherA = new String("a");
+
+		list.add(a);
+
+		Assertions.assertTrue(list.add(otherA), "Equal but distinct elements are both kept");
+		Assertions.assertFalse(list.remove(new String("a")));
+		Assertions.assertTrue(list.remove(otherA));
+		Assertions.assertSame(a, list.get(0));
+	}
+
+	@Test
+	void iteratorFailsFastOnModification() {
+		var list = new SwapRemoveList<Integer>();
+		list.add(1);
+		list.add(2);
+		list.add(3);
+
+		var iterator = list.iterator();
+		list.remove(iterator.next());
+
+		Assertions.assertThrows(ConcurrentModificationException.class, iterator::next);
+	}
+
+	@Test
+	void randomOperationsMatchASet() {
+		var random = new Random(42);
+		var list = new SwapRemoveList<Integer>();
+		var expected = new HashSet<Integer>();
+		// Box once so identity comparisons line up with the set.
+		var boxed = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			boxed.add(Integer.valueOf(i + 100_000));
+		}
+
+		for (int step = 0; step < 20_000; step++) {
+			var element = boxed.get(random.nextInt(boxed.size()));
+
+			if (random.nextBoolean()) {
+				Assertions.assertEquals(expected.add(element), list.add(element));
+			} else {
+				Assertions.assertEquals(expected.remove(element), list.remove(element));
+			}
+		}
+
+		Assertions.assertEquals(expected, new HashSet<>(list));
+
+		for (int i = 0; i < list.size(); i++) {
+			Assertions.assertEquals(i, list.indexOf(list.get(i)));
+		}
+	}
+}
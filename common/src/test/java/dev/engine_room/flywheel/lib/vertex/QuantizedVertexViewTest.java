@@ -0,0 +1,218 @@
+package dev.engine_room.flywheel.lib.vertex;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.engine_room.flywheel.api.model.Mesh;
+import dev.engine_room.flywheel.api.vertex.MutableVertexList;
+import dev.engine_room.flywheel.api.vertex.VertexView;
+import dev.engine_room.flywheel.backend.InternalVertex;
+import dev.engine_room.flywheel.lib.memory.MemoryBlock;
+import dev.engine_room.flywheel.lib.model.SimpleMesh;
+import dev.engine_room.flywheel.lib.model.part.ModelPartConverter;
+import net.minecraft.client.model.geom.ModelPart;
+import net.minecraft.core.Direction;
+
+class QuantizedVertexViewTest {
+	private static final float MAX_NORMAL_ERROR_DEGREES = 2;
+
+	/**
+	 * The six faces of a unit cube as {normal, 4 corners}, wound like Minecraft's cuboids.
+	 */
+	private static final float[][][] CUBE_FACES = {
+			{{0, -1, 0}, {0, 0, 1}, {0, 0, 0}, {1, 0, 0}, {1, 0, 1}},
+			{{0, 1, 0}, {0, 1, 0}, {0, 1, 1}, {1, 1, 1}, {1, 1, 0}},
+			{{0, 0, -1}, {1, 1, 0}, {1, 0, 0}, {0, 0, 0}, {0, 1, 0}},
+			{{0, 0, 1}, {0, 1, 1}, {0, 0, 1}, {1, 0, 1}, {1, 1, 1}},
+			{{-1, 0, 0}, {0, 1, 0}, {0, 0, 0}, {0, 0, 1}, {0, 1, 1}},
+			{{1, 0, 0}, {1, 1, 1}, {1, 0, 1}, {1, 0, 0}, {1, 1, 0}},
+	};
+	private static final float[][] QUAD_UVS = {{0, 0}, {0, 1}, {1, 1}, {1, 0}};
+
+	@Test
+	void layoutIsLessThanHalfTheSize() {
+		Assertions.assertEquals(16, InternalVertex.QUANTIZED_STRIDE);
+		Assertions.assertEquals(QuantizedVertexView.STRIDE, InternalVertex.QUANTIZED_STRIDE);
+		Assertions.assertEquals(FullVertexView.STRIDE, InternalVertex.STRIDE);
+		Assertions.assertTrue(InternalVertex.QUANTIZED_STRIDE * 2 < InternalVertex.STRIDE);
+	}
+
+	@Test
+	void modelPartConverterOutputRoundTrips() {
+		// An entity model part: a 14x6x10 pixel cuboid on a 64x32 texture, posed and rotated.
+		var cube = new ModelPart.Cube(0, 0, -7, -3, -5, 14, 6, 10, 0, 0, 0, false, 64, 32, EnumSet.allOf(Direction.class));
+		var part = new ModelPart(List.of(cube), Map.of());
+		part.setPos(8, 22, 8);
+		part.setRotation(0.4f, -1.2f, 0.15f);
+
+		var mesh = ModelPartConverter.convert(part, null, null);
+
+		assertRoundTrips(mesh);
+		mesh.delete();
+	}
+
+	@Test
+	void noOverlayLayoutRoundTrips() {
+		// The layout of block meshes from BakedModelBufferer, which lives in the loader modules and needs baked models.
+		// A unit cube with ambient occlusion shaded colors, a block atlas sprite and baked light.
+		var mesh = cube(new NoOverlayVertexView(), new Matrix4f(), 0.578125f, 0.0f, 0.015625f, 0.03125f);
+
+		assertRoundTrips(mesh);
+		mesh.delete();
+	}
+
+	@Test
+	void flatMeshRoundTrips() {
+		// A single quad has no extent along its normal.
+		var view = new NoOverlayVertexView();
+		var data = MemoryBlock.calloc(4, NoOverlayVertexView.STRIDE);
+		view.ptr(data.ptr());
+		view.vertexCount(4);
+		writeFace(view, 0, CUBE_FACES[1], new Matrix4f(), 0, 0, 1, 1);
+		var mesh = new SimpleMesh(view, data);
+
+		var quantized = quantize(mesh);
+		for (int i = 0; i < 4; i++) {
+			Assertions.assertEquals(1, quantized.view.y(i));
+			Assertions.assertEquals(1, quantized.view.normalY(i));
+		}
+
+		assertRoundTrips(mesh);
+		quantized.data.free();
+		mesh.delete();
+	}
+
+	@Test
+	void componentWritesMatchBulkQuantization() {
+		var mesh = cube(new PosTexNormalVertexView(), new Matrix4f().rotateXYZ(1, 2, 3), 0, 0, 1, 1);
+		var bulk = quantize(mesh);
+
+		var data = MemoryBlock.calloc(mesh.vertexCount(), QuantizedVertexView.STRIDE);
+		var view = new QuantizedVertexView();
+		view.ptr(data.ptr());
+		view.vertexCount(mesh.vertexCount());
+		view.bounds(bulk.view.bounds());
+		mesh.write(view);
+
+		for (long i = 0; i < data.size(); i++) {
+			Assertions.assertEquals(MemoryUtil.memGetByte(bulk.data.ptr() + i), MemoryUtil.memGetByte(data.ptr() + i), "byte " + i);
+		}
+
+		bulk.data.free();
+		data.free();
+		mesh.delete();
+	}
+
+	private static SimpleMesh cube(VertexView view, Matrix4f pose, float u0, float v0, float u1, float v1) {
+		var data = MemoryBlock.calloc(CUBE_FACES.length * 4, view.stride());
+		view.ptr(data.ptr());
+		view.vertexCount(CUBE_FACES.length * 4);
+
+		for (int face = 0; face < CUBE_FACES.length; face++) {
+			writeFace(view, face * 4, CUBE_FACES[face], pose, u0, v0, u1, v1);
+		}
+
+		return new SimpleMesh(view, data);
+	}
+
+	private static void writeFace(MutableVertexList dst, int start, float[][] face, Matrix4f pose, float u0, float v0, float u1, float v1) {
+		var normal = pose.normal(new Matrix3f())
+				.transform(new Vector3f(face[0][0], face[0][1], face[0][2]))
+				.normalize();
+
+		for (int i = 0; i < 4; i++) {
+			int index = start + i;
+			float[] corner = face[i + 1];
+			var pos = pose.transform(new Vector4f(corner[0], corner[1], corner[2], 1));
+
+			dst.x(index, pos.x);
+			dst.y(index, pos.y);
+			dst.z(index, pos.z);
+			// Shade each corner differently like ambient occlusion does.
+			dst.r(index, (200 + index) / 255f);
+			dst.g(index, (150 + 2 * index) / 255f);
+			dst.b(index, (100 + 3 * index) / 255f);
+			dst.a(index, 1);
+			dst.u(index, u0 + (u1 - u0) * QUAD_UVS[i][0]);
+			dst.v(index, v0 + (v1 - v0) * QUAD_UVS[i][1]);
+			dst.light(index, 0x00F000A0);
+			dst.normalX(index, normal.x);
+			dst.normalY(index, normal.y);
+			dst.normalZ(index, normal.z);
+		}
+	}
+
+	/**
+	 * Quantize the mesh the same way {@code MeshPool} does: through the full layout, then into the quantized one.
+	 */
+	private static Quantized quantize(Mesh mesh) {
+		int vertexCount = mesh.vertexCount();
+		var full = new FullVertexView();
+		var fullData = MemoryBlock.calloc(vertexCount, FullVertexView.STRIDE);
+		full.ptr(fullData.ptr());
+		full.vertexCount(vertexCount);
+		mesh.write(full);
+
+		var data = MemoryBlock.calloc(vertexCount, QuantizedVertexView.STRIDE);
+		var view = new QuantizedVertexView();
+		view.ptr(data.ptr());
+		view.vertexCount(vertexCount);
+		view.bounds(QuantizedVertexView.Bounds.of(full));
+		view.quantize(full);
+
+		fullData.free();
+		return new Quantized(view, data);
+	}
+
+	private static void assertRoundTrips(Mesh mesh) {
+		var quantized = quantize(mesh);
+		var view = quantized.view;
+		var bounds = view.bounds();
+
+		var original = new FullVertexView();
+		var originalData = MemoryBlock.calloc(mesh.vertexCount(), FullVertexView.STRIDE);
+		original.ptr(originalData.ptr());
+		original.vertexCount(mesh.vertexCount());
+		mesh.write(original);
+
+		for (int i = 0; i < mesh.vertexCount(); i++) {
+			Assertions.assertEquals(original.x(i), view.x(i), tolerance(bounds.extentX()), "x of " + i);
+			Assertions.assertEquals(original.y(i), view.y(i), tolerance(bounds.extentY()), "y of " + i);
+			Assertions.assertEquals(original.z(i), view.z(i), tolerance(bounds.extentZ()), "z of " + i);
+			Assertions.assertEquals(original.u(i), view.u(i), tolerance(bounds.extentU()), "u of " + i);
+			Assertions.assertEquals(original.v(i), view.v(i), tolerance(bounds.extentV()), "v of " + i);
+
+			Assertions.assertEquals(original.r(i), view.r(i), "r of " + i);
+			Assertions.assertEquals(original.g(i), view.g(i), "g of " + i);
+			Assertions.assertEquals(original.b(i), view.b(i), "b of " + i);
+			Assertions.assertEquals(original.a(i), view.a(i), "a of " + i);
+
+			var expected = original.getNormal(i, new Vector3f());
+			var actual = view.getNormal(i, new Vector3f());
+			Assertions.assertEquals(1, actual.length(), 1e-5f);
+			Assertions.assertTrue(Math.toDegrees(expected.angle(actual)) <= MAX_NORMAL_ERROR_DEGREES, "normal of " + i + " is off by " + Math.toDegrees(expected.angle(actual)));
+		}
+
+		originalData.free();
+		quantized.data.free();
+	}
+
+	/**
+	 * One quantization step, which is twice the worst case rounding error, plus some float error.
+	 */
+	private static float tolerance(float extent) {
+		return extent / 65535 + 1e-6f;
+	}
+
+	private record Quantized(QuantizedVertexView view, MemoryBlock data) {
+	}
+}
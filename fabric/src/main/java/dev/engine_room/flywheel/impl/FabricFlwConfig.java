@@ -27,6 +27,10 @@ public class FabricFlwConfig implements FlwConfig {
 	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
 	public static final boolean LIMIT_UPDATES_DEFAULT = true;
+	public static final boolean ADAPTIVE_LIMIT_UPDATES_DEFAULT = false;
+	public static final double LIMIT_UPDATES_TARGET_MILLIS_DEFAULT = 2;
+	public static final double LIMIT_UPDATES_TARGET_MILLIS_MIN = 0.1;
+	public static final double LIMIT_UPDATES_TARGET_MILLIS_MAX = 50;
 	public static final int WORKER_THREADS_DEFAULT = -1;
 	public static final int WORKER_THREADS_MAX = Runtime.getRuntime()
 			.availableProcessors();
@@ -37,6 +41,8 @@ public class FabricFlwConfig implements FlwConfig {
 
 	public Backend backend = BackendManager.getDefaultBackend();
 	public boolean limitUpdates = LIMIT_UPDATES_DEFAULT;
+	public boolean adaptiveLimitUpdates = ADAPTIVE_LIMIT_UPDATES_DEFAULT;
+	public double limitUpdatesTargetMillis = LIMIT_UPDATES_TARGET_MILLIS_DEFAULT;
 	public int workerThreads = WORKER_THREADS_DEFAULT;
 
 	public FabricFlwConfig(File file) {
@@ -53,6 +59,16 @@ public class FabricFlwConfig implements FlwConfig {
 		return limitUpdates;
 	}
 
+	@Override
+	public boolean adaptiveLimitUpdates() {
+		return adaptiveLimitUpdates;
+	}
+
+	@Override
+	public double limitUpdatesTargetMillis() {
+		return limitUpdatesTargetMillis;
+	}
+
 	@Override
 	public int workerThreads() {
 		return workerThreads;
@@ -83,12 +99,16 @@ public class FabricFlwConfig implements FlwConfig {
 			FlwImpl.CONFIG_LOGGER.warn("Config JSON must be an object");
 			backend = BackendManager.getDefaultBackend();
 			limitUpdates = LIMIT_UPDATES_DEFAULT;
+			adaptiveLimitUpdates = ADAPTIVE_LIMIT_UPDATES_DEFAULT;
+			limitUpdatesTargetMillis = LIMIT_UPDATES_TARGET_MILLIS_DEFAULT;
 			workerThreads = WORKER_THREADS_DEFAULT;
 			return;
 		}
 
 		readBackend(object);
 		readLimitUpdates(object);
+		readAdaptiveLimitUpdates(object);
+		readLimitUpdatesTargetMillis(object);
 		readWorkerThreads(object);
 	}
 
@@ -133,6 +153,39 @@ public class FabricFlwConfig implements FlwConfig {
 		limitUpdates = LIMIT_UPDATES_DEFAULT;
 	}
 
+	private void readAdaptiveLimitUpdates(JsonObject object) {
+		var adaptiveLimitUpdatesJson = object.get("adaptiveLimitUpdates");
+
+		if (adaptiveLimitUpdatesJson instanceof JsonPrimitive primitive && primitive.isBoolean()) {
+			adaptiveLimitUpdates = primitive.getAsBoolean();
+			return;
+		} else if (adaptiveLimitUpdatesJson != null) {
+			FlwImpl.CONFIG_LOGGER.warn("'adaptiveLimitUpdates' value must be a boolean");
+		}
+
+		adaptiveLimitUpdates = ADAPTIVE_LIMIT_UPDATES_DEFAULT;
+	}
+
+	private void readLimitUpdatesTargetMillis(JsonObject object) {
+		var targetJson = object.get("limitUpdatesTargetMillis");
+
+		if (targetJson instanceof JsonPrimitive primitive && primitive.isNumber()) {
+			double value = primitive.getAsDouble();
+			double clamped = Mth.clamp(value, LIMIT_UPDATES_TARGET_MILLIS_MIN, LIMIT_UPDATES_TARGET_MILLIS_MAX);
+
+			if (clamped != value) {
+				FlwImpl.CONFIG_LOGGER.warn("'limitUpdatesTargetMillis' value of {} is out of range, clamping to {}", value, clamped);
+			}
+
+			limitUpdatesTargetMillis = clamped;
+			return;
+		} else if (targetJson != null) {
+			FlwImpl.CONFIG_LOGGER.warn("'limitUpdatesTargetMillis' value must be a number");
+		}
+
+		limitUpdatesTargetMillis = LIMIT_UPDATES_TARGET_MILLIS_DEFAULT;
+	}
+
 	private void readWorkerThreads(JsonObject object) {
 		var workerThreadsJson = object.get("workerThreads");
 
@@ -157,6 +210,8 @@ public class FabricFlwConfig implements FlwConfig {
 		JsonObject object = new JsonObject();
 		object.addProperty("backend", Backend.REGISTRY.getIdOrThrow(backend).toString());
 		object.addProperty("limitUpdates", limitUpdates);
+		object.addProperty("adaptiveLimitUpdates", adaptiveLimitUpdates);
+		object.addProperty("limitUpdatesTargetMillis", limitUpdatesTargetMillis);
 		object.addProperty("workerThreads", workerThreads);
 		return object;
 	}
@@ -1,5 +1,8 @@
 package dev.engine_room.flywheel.impl;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
@@ -10,6 +13,7 @@ import dev.engine_room.flywheel.api.backend.Backend;
 import dev.engine_room.flywheel.api.backend.BackendManager;
 import dev.engine_room.flywheel.backend.engine.uniform.DebugMode;
 import dev.engine_room.flywheel.backend.engine.uniform.FrameUniforms;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
 import net.minecraft.client.Minecraft;
@@ -59,7 +63,9 @@ public final class FlwCommands {
 
 		command.then(ClientCommandManager.literal("limitUpdates")
 				.executes(context -> {
-					if (FabricFlwConfig.INSTANCE.limitUpdates) {
+					if (FabricFlwConfig.INSTANCE.limitUpdates && FabricFlwConfig.INSTANCE.adaptiveLimitUpdates) {
+						context.getSource().sendFeedback(Component.translatable("command.flywheel.limit_updates.get.adaptive"));
+					} else if (FabricFlwConfig.INSTANCE.limitUpdates) {
 						context.getSource().sendFeedback(Component.translatable("command.flywheel.limit_updates.get.on"));
 					} else {
 						context.getSource().sendFeedback(Component.translatable("command.flywheel.limit_updates.get.off"));
@@ -69,11 +75,21 @@ public final class FlwCommands {
 				.then(ClientCommandManager.literal("on")
 						.executes(context -> {
 							FabricFlwConfig.INSTANCE.limitUpdates = true;
+							FabricFlwConfig.INSTANCE.adaptiveLimitUpdates = false;
 							FabricFlwConfig.INSTANCE.save();
 							context.getSource().sendFeedback(Component.translatable("command.flywheel.limit_updates.set.on"));
 							Minecraft.getInstance().levelRenderer.allChanged();
 							return Command.SINGLE_SUCCESS;
 						}))
+				.then(ClientCommandManager.literal("adaptive")
+						.executes(context -> {
+							FabricFlwConfig.INSTANCE.limitUpdates = true;
+							FabricFlwConfig.INSTANCE.adaptiveLimitUpdates = true;
+							FabricFlwConfig.INSTANCE.save();
+							context.getSource().sendFeedback(Component.translatable("command.flywheel.limit_updates.set.adaptive"));
+							Minecraft.getInstance().levelRenderer.allChanged();
+							return Command.SINGLE_SUCCESS;
+						}))
 				.then(ClientCommandManager.literal("off")
 						.executes(context -> {
 							FabricFlwConfig.INSTANCE.limitUpdates = false;
@@ -123,9 +139,27 @@ public final class FlwCommands {
 							return Command.SINGLE_SUCCESS;
 						})));
 
+		command.then(ClientCommandManager.literal("metrics")
+				.then(ClientCommandManager.literal("csv")
+						.executes(context -> dumpMetrics(context.getSource(), FlwMetrics.Format.CSV)))
+				.then(ClientCommandManager.literal("json")
+						.executes(context -> dumpMetrics(context.getSource(), FlwMetrics.Format.JSON))));
+
 		dispatcher.register(command);
 	}
 
+	private static int dumpMetrics(FabricClientCommandSource source, FlwMetrics.Format format) {
+		try {
+			Path file = FlwDebugInfo.dumpMetrics(format);
+			source.sendFeedback(Component.translatable("command.flywheel.metrics.dump", file.toString()));
+			return Command.SINGLE_SUCCESS;
+		} catch (IOException e) {
+			FlwImpl.LOGGER.error("Failed to write metrics", e);
+			source.sendError(Component.translatable("command.flywheel.metrics.dump.failed", e.getMessage()));
+			return 0;
+		}
+	}
+
 	// Client version of BlockPosArgument.getBlockPos
 	private static BlockPos getBlockPos(CommandContext<FabricClientCommandSource> context, String name) {
 		return context.getArgument(name, Coordinates.class).getBlockPos(context.getSource().getPlayer().createCommandSourceStack());
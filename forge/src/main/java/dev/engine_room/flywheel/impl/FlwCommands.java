@@ -1,5 +1,8 @@
 package dev.engine_room.flywheel.impl;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
@@ -8,6 +11,7 @@ import dev.engine_room.flywheel.api.backend.Backend;
 import dev.engine_room.flywheel.api.backend.BackendManager;
 import dev.engine_room.flywheel.backend.engine.uniform.DebugMode;
 import dev.engine_room.flywheel.backend.engine.uniform.FrameUniforms;
+import dev.engine_room.flywheel.backend.metrics.FlwMetrics;
 import net.minecraft.client.Minecraft;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
@@ -57,9 +61,12 @@ public final class FlwCommands {
 					})));
 
 		BooleanValue limitUpdatesValue = ForgeFlwConfig.INSTANCE.client.limitUpdates;
+		BooleanValue adaptiveLimitUpdatesValue = ForgeFlwConfig.INSTANCE.client.adaptiveLimitUpdates;
 		command.then(Commands.literal("limitUpdates")
 				.executes(context -> {
-					if (limitUpdatesValue.get()) {
+					if (limitUpdatesValue.get() && adaptiveLimitUpdatesValue.get()) {
+						sendMessage(context.getSource(), Component.translatable("command.flywheel.limit_updates.get.adaptive"));
+					} else if (limitUpdatesValue.get()) {
 						sendMessage(context.getSource(), Component.translatable("command.flywheel.limit_updates.get.on"));
 					} else {
 						sendMessage(context.getSource(), Component.translatable("command.flywheel.limit_updates.get.off"));
@@ -69,10 +76,19 @@ public final class FlwCommands {
 				.then(Commands.literal("on")
 						.executes(context -> {
 							limitUpdatesValue.set(true);
+							adaptiveLimitUpdatesValue.set(false);
 							sendMessage(context.getSource(), Component.translatable("command.flywheel.limit_updates.set.on"));
 							Minecraft.getInstance().levelRenderer.allChanged();
 							return Command.SINGLE_SUCCESS;
 						}))
+				.then(Commands.literal("adaptive")
+						.executes(context -> {
+							limitUpdatesValue.set(true);
+							adaptiveLimitUpdatesValue.set(true);
+							sendMessage(context.getSource(), Component.translatable("command.flywheel.limit_updates.set.adaptive"));
+							Minecraft.getInstance().levelRenderer.allChanged();
+							return Command.SINGLE_SUCCESS;
+						}))
 				.then(Commands.literal("off")
 						.executes(context -> {
 							limitUpdatesValue.set(false);
@@ -121,9 +137,27 @@ public final class FlwCommands {
 							return Command.SINGLE_SUCCESS;
 						})));
 
+		command.then(Commands.literal("metrics")
+				.then(Commands.literal("csv")
+						.executes(context -> dumpMetrics(context.getSource(), FlwMetrics.Format.CSV)))
+				.then(Commands.literal("json")
+						.executes(context -> dumpMetrics(context.getSource(), FlwMetrics.Format.JSON))));
+
 		event.getDispatcher().register(command);
 	}
 
+	private static int dumpMetrics(CommandSourceStack source, FlwMetrics.Format format) {
+		try {
+			Path file = FlwDebugInfo.dumpMetrics(format);
+			sendMessage(source, Component.translatable("command.flywheel.metrics.dump", file.toString()));
+			return Command.SINGLE_SUCCESS;
+		} catch (IOException e) {
+			FlwImpl.LOGGER.error("Failed to write metrics", e);
+			sendFailure(source, Component.translatable("command.flywheel.metrics.dump.failed", e.getMessage()));
+			return 0;
+		}
+	}
+
 	private static void sendMessage(CommandSourceStack source, Component message) {
 		source.sendSuccess(() -> message, true);
 	}
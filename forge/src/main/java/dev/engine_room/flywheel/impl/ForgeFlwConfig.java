@@ -58,6 +58,16 @@ public class ForgeFlwConfig implements FlwConfig {
 		return client.limitUpdates.get();
 	}
 
+	@Override
+	public boolean adaptiveLimitUpdates() {
+		return client.adaptiveLimitUpdates.get();
+	}
+
+	@Override
+	public double limitUpdatesTargetMillis() {
+		return client.limitUpdatesTargetMillis.get();
+	}
+
 	@Override
 	public int workerThreads() {
 		return client.workerThreads.get();
@@ -70,6 +80,8 @@ public class ForgeFlwConfig implements FlwConfig {
 	public static class ClientConfig {
 		public final ForgeConfigSpec.ConfigValue<String> backend;
 		public final ForgeConfigSpec.BooleanValue limitUpdates;
+		public final ForgeConfigSpec.BooleanValue adaptiveLimitUpdates;
+		public final ForgeConfigSpec.DoubleValue limitUpdatesTargetMillis;
 		public final ForgeConfigSpec.IntValue workerThreads;
 
 		private ClientConfig(ForgeConfigSpec.Builder builder) {
@@ -79,6 +91,12 @@ public class ForgeFlwConfig implements FlwConfig {
 			limitUpdates = builder.comment("Enable or disable instance update limiting with distance.")
 					.define("limitUpdates", true);
 
+			adaptiveLimitUpdates = builder.comment("Adjust update limiting to keep per-frame visual updates close to limitUpdatesTargetMillis. Only used if limitUpdates is on.")
+					.define("adaptiveLimitUpdates", false);
+
+			limitUpdatesTargetMillis = builder.comment("How long per-frame visual updates should take when adaptiveLimitUpdates is on, in milliseconds.")
+					.defineInRange("limitUpdatesTargetMillis", 2.0, 0.1, 50.0);
+
 			workerThreads = builder.comment("The number of worker threads to use. Set to -1 to let Flywheel decide. Set to 0 to disable parallelism. Requires a game restart to take effect.")
 					.defineInRange("workerThreads", -1, -1, Runtime.getRuntime()
 							.availableProcessors());